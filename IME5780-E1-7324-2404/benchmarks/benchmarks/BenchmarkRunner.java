@@ -0,0 +1,36 @@
+package benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * runs the benchmarks and writes the results as JSON, so they can be compared between commits.
+ * usage: BenchmarkRunner [result file] [regular expression of the benchmarks to run],
+ * for example: BenchmarkRunner render.json RenderBenchmark
+ */
+public class BenchmarkRunner {
+    /**
+     * default name of the result file
+     */
+    private static final String DEFAULT_RESULT = "jmh-result.json";
+
+    /**
+     * runs the benchmarks.
+     *
+     * @param args optional result file and regular expression of the benchmarks to run
+     * @throws RunnerException In case running the benchmarks failed
+     */
+    public static void main(String[] args) throws RunnerException {
+        String result = args.length > 0 ? args[0] : DEFAULT_RESULT;
+        String include = args.length > 1 ? args[1] : BenchmarkRunner.class.getPackageName() + "\\..*Benchmark";
+        Options options = new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,200 @@
+package benchmarks;
+
+import elements.AmbientLight;
+import elements.Camera;
+import elements.PointLight;
+import elements.SpotLight;
+import geometries.*;
+import primitives.*;
+import scene.Scene;
+
+import java.util.Random;
+
+/**
+ * class BenchmarkScenes holding the scenes the benchmarks run on,
+ * the render scenes are the same as the scenes of the tests with the same names.
+ */
+public class BenchmarkScenes {
+    /**
+     * name of the scene of {@link unittests.SuperSamplingTest#pictureE7WithSuperSampling()}
+     */
+    public static final String PICTURE_E7 = "pictureE7WithSuperSampling";
+    /**
+     * name of the scene of {@link unittests.softShadowTest#trianglesTransparentSphere()}
+     */
+    public static final String TRIANGLES_TRANSPARENT_SPHERE = "trianglesTransparentSphereWithSoftShadowing";
+
+    //------------------ functions ------------------
+
+    /**
+     * creates a scene by its name.
+     *
+     * @param name the name of the scene
+     * @return the scene
+     * @throws IllegalArgumentException In case there is no scene with the name
+     */
+    public static Scene scene(String name) {
+        switch (name) {
+            case PICTURE_E7:
+                return pictureE7();
+            case TRIANGLES_TRANSPARENT_SPHERE:
+                return trianglesTransparentSphere();
+            default:
+                throw new IllegalArgumentException("ERROR there is no scene named " + name);
+        }
+    }
+
+    /**
+     * creates the scene of {@link unittests.SuperSamplingTest#pictureE7WithSuperSampling()}.
+     *
+     * @return the scene
+     */
+    public static Scene pictureE7() {
+        Scene scene = new Scene("Test scene");
+        scene.set_camera(new Camera(new Point3D(0, -220, -800), new Vector(0, 1.7, 10), new Vector(0, -10, 1.7)));
+        scene.set_distance(1000);
+        scene.set_background(Color.BLACK);
+        scene.set_ambientLight(new AmbientLight(new Color(java.awt.Color.WHITE), 0.15));
+
+        int size = 50;
+        for (int z = 0, c = -1; z < 400; z += size, c *= -1) {
+            for (int x = -200; x < 200; x += size, c *= -1) {
+                scene.addGeometries(
+                        new Polygon(new Material(0.2, 0.2, 30, 0, 0.2),
+                                c < 0 ? new Color(java.awt.Color.white).scale(0.4) : new Color(java.awt.Color.BLACK),
+                                new Point3D(x, 0, z),
+                                new Point3D(x + size, 0, z),
+                                new Point3D(x + size, 0, z + size),
+                                new Point3D(x, 0, z + size)));
+            }
+        }
+        Material material = new Material(0.5, 2, 111, 0, 0.8);
+        Polygon front = new Polygon(material, new Color(java.awt.Color.RED).scale(0.8),
+                new Point3D(-35 + 40, 0, 270), new Point3D(40, 0, -60.6218 + 270), new Point3D(40, -70, 20.21 + 270));
+        scene.addGeometries(front,
+                new Polygon(material, new Color(java.awt.Color.RED),
+                        new Point3D(40, 0, -60.6218 + 270), new Point3D(35 + 40, 0, 270), new Point3D(40, -70, 20.21 + 270)),
+                new Polygon(material, new Color(java.awt.Color.RED),
+                        new Point3D(-35 + 40, 0, 270), new Point3D(35 + 40, 0, 270), new Point3D(40, -70, 20.21 + 270)));
+
+        scene.addGeometries(new Tube(new Material(0.2, 0.2, 30, 0, 0.6), new Color(java.awt.Color.BLUE), 50,
+                new Ray(new Point3D(-60, -15, 350), new Vector(1, -1, 0))));
+        scene.addGeometries(
+                new Sphere(new Material(0.2, 0.2, 30, 0, 0.6), new Color(java.awt.Color.BLUE), 15, new Point3D(-60, -15, 350)),
+                new Sphere(new Material(0.2, 0.4, 30, 0.3, 0.4), new Color(java.awt.Color.BLUE), 15, new Point3D(-10, -15, 20.21 + 250)));
+
+        scene.addLights(new SpotLight(new Color(500, 500, 500),
+                        new Point3D(50, -60, 20.21 + 220), front.getNormal(Point3D.ZERO).scale(-1), 1, 4E-5, 2E-7),
+                new PointLight(new Color(200, 200, 200),
+                        new Point3D(30, -200, 200), 1, 4E-5, 2E-7));
+        return scene;
+    }
+
+    /**
+     * creates the scene of {@link unittests.softShadowTest#trianglesTransparentSphere()}.
+     *
+     * @return the scene
+     */
+    public static Scene trianglesTransparentSphere() {
+        Scene scene = new Scene("Test scene");
+        scene.set_camera(new Camera(new Point3D(0, 0, -1000), new Vector(0, 0, 1), new Vector(0, -1, 0)));
+        scene.set_distance(1000);
+        scene.set_background(Color.BLACK);
+        scene.set_ambientLight(new AmbientLight(new Color(java.awt.Color.WHITE), 0.15));
+
+        scene.addGeometries(
+                new Triangle(new Material(0.5, 0.5, 60), Color.BLACK,
+                        new Point3D(-150, 150, 115), new Point3D(150, 150, 135), new Point3D(75, -75, 150)),
+                new Triangle(new Material(0.5, 0.5, 60), Color.BLACK,
+                        new Point3D(-150, 150, 115), new Point3D(-70, -70, 140), new Point3D(75, -75, 150)),
+                new Sphere(new Material(0.2, 0.2, 30, 0.6, 0), new Color(java.awt.Color.BLUE),
+                        30, new Point3D(60, -50, 50)));
+
+        scene.addLights(new SpotLight(new Color(700, 400, 400),
+                new Point3D(60, -50, 0), new Vector(0, 0, 1), 1, 4E-5, 2E-7, 5));
+        return scene;
+    }
+
+    /**
+     * creates the XML document of a scene of random spheres and triangles with materials, for parsing scenes.
+     *
+     * @param amount amount of geometries
+     * @param seed   seed of the random values so every run gets the same document
+     * @return the bytes of the document
+     */
+    public static byte[] randomSceneXml(int amount, long seed) {
+        Random random = new Random(seed);
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<scene background-color=\"0 0 0\" screen-distance=\"1000\">\n"
+                + "\t<image screen-width=\"200\" screen-height=\"200\" Nx=\"500\" Ny=\"500\"/>\n"
+                + "\t<camera P0=\"0 0 -1000\" Vto=\"0 0 1\" Vup=\"0 -1 0\"/>\n"
+                + "\t<ambient-light color=\"255 255 255\" ka=\"0.1\"/>\n"
+                + "\t<geometries>\n");
+        for (int i = 0; i < amount; i++) { // 3 decimal digits like scene files written by other programs
+            double x = Math.round(random.nextDouble() * 1000_000 - 500_000) / 1000d;
+            double y = Math.round(random.nextDouble() * 1000_000 - 500_000) / 1000d;
+            double z = Math.round(random.nextDouble() * 1000_000) / 1000d;
+            if (i % 2 == 0)
+                xml.append("\t\t<sphere center=\"").append(x).append(' ').append(y).append(' ').append(z)
+                        .append("\" radius=\"").append(1 + random.nextInt(5000) / 1000d)
+                        .append("\" emission=\"20 40 60\" kD=\"0.5\" kS=\"0.5\" nShininess=\"30\"/>\n");
+            else
+                xml.append("\t\t<triangle p0=\"").append(x).append(' ').append(y).append(' ').append(z)
+                        .append("\" p1=\"").append(x + 5).append(' ').append(y).append(' ').append(z)
+                        .append("\" p2=\"").append(x).append(' ').append(y + 5).append(' ').append(z)
+                        .append("\" kD=\"0.8\" kT=\"0.2\"/>\n");
+        }
+        xml.append("\t</geometries>\n\t<lights>\n"
+                + "\t\t<point-light intensity=\"500 500 500\" position=\"0 0 -500\" kL=\"0.0001\"/>\n"
+                + "\t\t<directional-light intensity=\"100 100 100\" direction=\"1 1 1\"/>\n"
+                + "\t</lights>\n</scene>\n");
+        return xml.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8);
+    }
+
+    /**
+     * creates small triangles spread randomly in a cube, for building bvh trees.
+     *
+     * @param amount amount of triangles
+     * @param seed   seed of the random values so every run gets the same triangles
+     * @return the triangles
+     */
+    public static Intersectable[] randomTriangles(int amount, long seed) {
+        Random random = new Random(seed);
+        Intersectable[] triangles = new Intersectable[amount];
+        for (int i = 0; i < amount; i++) {
+            double x = random.nextDouble() * 1000 - 500;
+            double y = random.nextDouble() * 1000 - 500;
+            double z = random.nextDouble() * 1000;
+            triangles[i] = new Triangle(
+                    new Point3D(x, y, z),
+                    new Point3D(x + 5 + random.nextDouble() * 5, y, z + random.nextDouble()),
+                    new Point3D(x, y + 5 + random.nextDouble() * 5, z + random.nextDouble()));
+        }
+        return triangles;
+    }
+
+    /**
+     * creates the same triangles as {@link #randomTriangles(int, long)} in one mesh.
+     *
+     * @param amount amount of triangles
+     * @param seed   seed of the random values so every run gets the same triangles
+     * @return the mesh of the triangles
+     */
+    public static TriangleMesh randomMesh(int amount, long seed) {
+        Random random = new Random(seed);
+        double[] positions = new double[9 * amount];
+        int[] indices = new int[3 * amount];
+        for (int i = 0; i < amount; i++) {
+            double x = random.nextDouble() * 1000 - 500;
+            double y = random.nextDouble() * 1000 - 500;
+            double z = random.nextDouble() * 1000;
+            double[] triangle = {x, y, z,
+                    x + 5 + random.nextDouble() * 5, y, z + random.nextDouble(),
+                    x, y + 5 + random.nextDouble() * 5, z + random.nextDouble()};
+            System.arraycopy(triangle, 0, positions, 9 * i, 9);
+            for (int k = 0; k < 3; k++)
+                indices[3 * i + k] = 3 * i + k;
+        }
+        return new TriangleMesh(positions, indices);
+    }
+}
@@ -0,0 +1,60 @@
+package benchmarks;
+
+import geometries.BvhStatistics;
+import geometries.Geometries;
+import geometries.Intersectable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * benchmark of building a bvh tree over random triangles with each of the ways of building it.
+ * every operation builds a tree from a new flat Geometries since building changes it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BvhBuildBenchmark {
+    /**
+     * amount of triangles in the tree
+     */
+    @Param({"1000", "3000"})
+    public int size;
+    /**
+     * the way of building the tree
+     */
+    @Param({"NEAREST_MIDPOINT", "SAH", "FLAT_SAH"})
+    public Geometries.BvhType type;
+
+    private Intersectable[] _triangles;
+    private Geometries _geometries;
+
+    //------------------ setup ------------------
+
+    /**
+     * creates the triangles once for all the operations.
+     */
+    @Setup(Level.Trial)
+    public void createTriangles() {
+        _triangles = BenchmarkScenes.randomTriangles(size, 42);
+    }
+
+    /**
+     * creates the flat Geometries before every build.
+     */
+    @Setup(Level.Invocation)
+    public void createGeometries() {
+        _geometries = new Geometries();
+        _geometries.add(_triangles);
+    }
+
+    //------------------ benchmarks ------------------
+
+    @Benchmark
+    public BvhStatistics build() {
+        return _geometries.bvhTree(type);
+    }
+}
@@ -0,0 +1,57 @@
+package benchmarks;
+
+import elements.Camera;
+import org.openjdk.jmh.annotations.*;
+import primitives.Ray;
+import scene.Scene;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * benchmark of constructing the beam of rays through a pixel, going over the pixels of a 500x500 view plane.
+ * every operation is one beam so the score is pixels per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CameraBenchmark {
+    /**
+     * resolution of the view plane in each axis
+     */
+    private static final int RESOLUTION = 500;
+
+    /**
+     * amount of rays in each beam
+     */
+    @Param({"4", "35", "50"})
+    public int numOfRays;
+
+    private Camera _camera;
+    private double _distance;
+    private int _pixel;
+
+    //------------------ setup ------------------
+
+    /**
+     * takes the camera of the super sampling test scene.
+     */
+    @Setup
+    public void setup() {
+        Scene scene = BenchmarkScenes.pictureE7();
+        _camera = scene.get_camera();
+        _distance = scene.get_distance();
+    }
+
+    //------------------ benchmarks ------------------
+
+    @Benchmark
+    public List<Ray> beamOfRays() {
+        int pixel = _pixel++ % (RESOLUTION * RESOLUTION);
+        return _camera.constructBeamOfRaysThroughPixel(RESOLUTION, RESOLUTION,
+                pixel % RESOLUTION, pixel / RESOLUTION, _distance, 150, 150, numOfRays);
+    }
+}
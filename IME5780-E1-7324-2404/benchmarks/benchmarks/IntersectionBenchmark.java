@@ -0,0 +1,110 @@
+package benchmarks;
+
+import geometries.*;
+import geometries.Intersectable.GeoPoint;
+import org.openjdk.jmh.annotations.*;
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * benchmarks of the intersection of a single ray with each kind of geometry.
+ * the rays start at the origin and spread around the geometries so some of them hit and some miss,
+ * every operation is one ray so the score is rays per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntersectionBenchmark {
+    /**
+     * amount of different rays, a power of 2 so the next ray is picked with a mask
+     */
+    private static final int RAYS = 1024;
+
+    private Sphere _sphere;
+    private Plane _plane;
+    private Triangle _triangle;
+    private Polygon _polygon;
+    private Tube _tube;
+    private Cylinder _cylinder;
+    private Intersectable.Box _box;
+    private Ray[] _rays;
+    private int _next;
+
+    //------------------ setup ------------------
+
+    /**
+     * creates the geometries around (0,0,5) and the rays towards them.
+     */
+    @Setup
+    public void setup() {
+        Point3D center = new Point3D(0, 0, 5);
+        _sphere = new Sphere(1, center);
+        _plane = new Plane(center, new Vector(0, 1, 1));
+        _triangle = new Triangle(new Point3D(-1, -1, 5), new Point3D(1, -1, 5), new Point3D(0, 1, 5));
+        _polygon = new Polygon(new Point3D(-1, -1, 5), new Point3D(1, -1, 5), new Point3D(1, 1, 5), new Point3D(-1, 1, 5));
+        _tube = new Tube(1, new Ray(center, new Vector(0, 1, 0)));
+        _cylinder = new Cylinder(1, new Ray(new Point3D(0, -1, 5), new Vector(0, 1, 0)), 2);
+        _box = new Intersectable.Box(new Point3D(-1, -1, 4), new Point3D(1, 1, 6));
+        Random random = new Random(42);
+        _rays = new Ray[RAYS];
+        for (int i = 0; i < RAYS; i++)
+            _rays[i] = new Ray(Point3D.ZERO, new Vector(
+                    random.nextDouble() * 0.8 - 0.4,
+                    random.nextDouble() * 0.8 - 0.4,
+                    1));
+    }
+
+    /**
+     * gets the next ray to intersect.
+     *
+     * @return the ray
+     */
+    private Ray nextRay() {
+        return _rays[_next++ & (RAYS - 1)];
+    }
+
+    //------------------ benchmarks ------------------
+
+    @Benchmark
+    public List<GeoPoint> sphere() {
+        return _sphere.findIntersections(nextRay());
+    }
+
+    @Benchmark
+    public List<GeoPoint> plane() {
+        return _plane.findIntersections(nextRay());
+    }
+
+    @Benchmark
+    public List<GeoPoint> triangle() {
+        return _triangle.findIntersections(nextRay());
+    }
+
+    @Benchmark
+    public List<GeoPoint> polygon() {
+        return _polygon.findIntersections(nextRay());
+    }
+
+    @Benchmark
+    public List<GeoPoint> tube() {
+        return _tube.findIntersections(nextRay());
+    }
+
+    @Benchmark
+    public List<GeoPoint> cylinder() {
+        return _cylinder.findIntersections(nextRay());
+    }
+
+    @Benchmark
+    public boolean box() {
+        return _box.intersectBox(nextRay());
+    }
+}
@@ -0,0 +1,82 @@
+package benchmarks;
+
+import geometries.Geometries;
+import geometries.Intersectable.GeoPoint;
+import geometries.TriangleMesh;
+import org.openjdk.jmh.annotations.*;
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * benchmark of the closest intersection of a ray with random triangles,
+ * kept as Triangle objects in a flat bvh tree or as one TriangleMesh.
+ * every operation is one ray so the score is rays per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MeshBenchmark {
+    /**
+     * amount of different rays, a power of 2 so the next ray is picked with a mask
+     */
+    private static final int RAYS = 1024;
+
+    /**
+     * amount of triangles
+     */
+    @Param({"10000", "100000"})
+    public int size;
+
+    private Geometries _triangles;
+    private TriangleMesh _mesh;
+    private Ray[] _rays;
+    private int _next;
+
+    //------------------ setup ------------------
+
+    /**
+     * creates the triangles in both ways and the rays from in front of the cube of the triangles.
+     */
+    @Setup
+    public void setup() {
+        _triangles = new Geometries();
+        _triangles.add(BenchmarkScenes.randomTriangles(size, 42));
+        _triangles.bvhTree(Geometries.BvhType.FLAT_SAH);
+        _mesh = BenchmarkScenes.randomMesh(size, 42);
+        Random random = new Random(42);
+        _rays = new Ray[RAYS];
+        for (int i = 0; i < RAYS; i++)
+            _rays[i] = new Ray(new Point3D(0, 0, -1000), new Vector(
+                    random.nextDouble() * 0.5 - 0.25,
+                    random.nextDouble() * 0.5 - 0.25,
+                    1));
+    }
+
+    /**
+     * gets the next ray to intersect.
+     *
+     * @return the ray
+     */
+    private Ray nextRay() {
+        return _rays[_next++ & (RAYS - 1)];
+    }
+
+    //------------------ benchmarks ------------------
+
+    @Benchmark
+    public GeoPoint triangles() {
+        return _triangles.findClosestIntersection(nextRay(), Double.POSITIVE_INFINITY);
+    }
+
+    @Benchmark
+    public GeoPoint mesh() {
+        return _mesh.findClosestIntersection(nextRay(), Double.POSITIVE_INFINITY);
+    }
+}
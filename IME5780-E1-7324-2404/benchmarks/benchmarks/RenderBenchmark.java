@@ -0,0 +1,101 @@
+package benchmarks;
+
+import geometries.Geometries;
+import org.openjdk.jmh.annotations.*;
+import renderer.ImageWriter;
+import renderer.Render;
+import scene.Scene;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * benchmark of rendering a whole frame of the test scenes with the settings of their tests.
+ * the score is frames per second, and the secondary result "rays" is camera rays per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class RenderBenchmark {
+    /**
+     * the scene to render
+     */
+    @Param({BenchmarkScenes.PICTURE_E7, BenchmarkScenes.TRIANGLES_TRANSPARENT_SPHERE})
+    public String scene;
+    /**
+     * resolution of the image in each axis
+     */
+    @Param({"100"})
+    public int resolution;
+    /**
+     * the way of building the bvh tree of the scene, or "none" for no tree
+     */
+    @Param({"none", "FLAT_SAH"})
+    public String bvh;
+    /**
+     * whether to super sample adaptively instead of tracing the whole beam in every pixel
+     */
+    @Param({"false", "true"})
+    public boolean adaptive;
+    /**
+     * amount of rendering threads, 0 for the amount of cores
+     */
+    @Param({"0"})
+    public int threads;
+
+    private Render _render;
+
+    /**
+     * counter of the camera rays for reporting rays per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RayCounter {
+        /**
+         * amount of camera rays traced
+         */
+        public long rays;
+
+        /**
+         * resets the counter before every iteration.
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            rays = 0;
+        }
+    }
+
+    //------------------ setup ------------------
+
+    /**
+     * creates the scene and the render with the settings of the test of the scene.
+     */
+    @Setup
+    public void setup() {
+        Scene theScene = BenchmarkScenes.scene(scene);
+        if (!bvh.equals("none"))
+            theScene.build_bvhTree(Geometries.BvhType.valueOf(bvh));
+        double size = scene.equals(BenchmarkScenes.PICTURE_E7) ? 150 : 200; // size of the view plane in the test
+        ImageWriter imageWriter = new ImageWriter(scene, size, size, resolution, resolution);
+        _render = new Render(imageWriter, theScene);
+        _render.setMultithreading(threads);
+        _render.setSuperSampling(true);
+        _render.setAdaptiveSuperSampling(adaptive);
+        if (scene.equals(BenchmarkScenes.PICTURE_E7))
+            _render.setNumOfRays(35);
+        else {
+            _render.setSoftShadowing(true);
+            _render.setNumOfRays(50);
+        }
+    }
+
+    //------------------ benchmarks ------------------
+
+    @Benchmark
+    public void render(RayCounter counter) {
+        _render.renderImage();
+        counter.rays += _render.getPrimaryRays();
+    }
+}
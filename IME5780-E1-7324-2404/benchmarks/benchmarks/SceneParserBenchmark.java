@@ -0,0 +1,78 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.w3c.dom.Document;
+import parser.SceneParser;
+import scene.Scene;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * benchmark of parsing the XML document of a scene of random geometries.
+ * the score is documents per second, and the secondary result "megabytes" is megabytes of the document per second.
+ * the "dom" benchmark only builds the DOM of the document, the first step of the old DOM based parser.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SceneParserBenchmark {
+    /**
+     * amount of geometries in the document
+     */
+    @Param({"10000", "100000"})
+    public int size;
+
+    private byte[] _document;
+
+    /**
+     * counter of the parsed megabytes for reporting megabytes per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class MegabyteCounter {
+        /**
+         * amount of megabytes parsed
+         */
+        public double megabytes;
+
+        /**
+         * resets the counter before every iteration.
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            megabytes = 0;
+        }
+    }
+
+    //------------------ setup ------------------
+
+    /**
+     * creates the document once for all the operations.
+     */
+    @Setup
+    public void setup() {
+        _document = BenchmarkScenes.randomSceneXml(size, 42);
+    }
+
+    //------------------ benchmarks ------------------
+
+    @Benchmark
+    public Scene stax(MegabyteCounter counter) throws Exception {
+        Scene scene = new SceneParser(new ByteArrayInputStream(_document), "benchmark", null).get_scene();
+        counter.megabytes += _document.length / 1e6;
+        return scene;
+    }
+
+    @Benchmark
+    public Document dom(MegabyteCounter counter) throws Exception {
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new ByteArrayInputStream(_document));
+        counter.megabytes += _document.length / 1e6;
+        return document;
+    }
+}
@@ -1,12 +1,9 @@
 package elements;
 
-import primitives.Point3D;
-import primitives.Ray;
-import primitives.Vector;
+import primitives.*;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
 import static primitives.Util.*;
 
@@ -31,6 +28,10 @@ public class Camera {
      * vector from center of the camera t the right
      */
     private Vector _Vright;
+    /**
+     * generator of the points in a pixel when no generator is given
+     */
+    private static final Sampler DEFAULT_SAMPLER = new StratifiedSampler();
 
 
     //*********************************** constructor **************
@@ -63,7 +64,7 @@ public class Camera {
      * @return camera location
      */
     public Point3D get_p0() {
-        return new Point3D(_p0);
+        return _p0; // Point3D is immutable so there is no need to copy it
     }
 
     /**
@@ -130,8 +131,41 @@ public class Camera {
         return new Ray(_p0, PIJ.subtract(_p0));
     }
 
+    /**
+     * gets view plane parameters and a point on the view plane and generates a Ray from the camera through that point.
+     * the point is given in pixels from the top left corner of the view plane,
+     * so (j + 0.5, i + 0.5) is the center of pixel (j, i) and (j, i) is its top left corner.
+     *
+     * @param nX             number of pixels in X axis
+     * @param nY             number of pixels in Y axis
+     * @param x              distance of the point from the left edge of the view plane in pixels
+     * @param y              distance of the point from the top edge of the view plane in pixels
+     * @param screenDistance the distance between the camera and the view plane
+     * @param screenWidth    the width of the view plane
+     * @param screenHeight   the height of the view plane
+     * @return a ray from the camera through the given point on the view plane
+     */
+    public Ray constructRayThroughPoint(int nX, int nY,
+                                        double x, double y, double screenDistance,
+                                        double screenWidth, double screenHeight) {
+        // center point of the view plane
+        Point3D Pc = _p0.add(_Vto.scale(screenDistance));
+        // distance to the point from the center of the view plane
+        double Yi = (y - nY / 2d) * (screenHeight / (double) nY);
+        double Xj = (x - nX / 2d) * (screenWidth / (double) nX);
+
+        Point3D point = Pc;
+        if (Xj != 0)
+            point = point.add(_Vright.scale(Xj));
+        if (Yi != 0)
+            point = point.add(_Vup.scale(-Yi));
+        return new Ray(_p0, point.subtract(_p0));
+    }
+
     /**
      * gets view plane parameters and indexes of a pixel and generates a Beam Of Rays from the camera through that pixel.
+     * calls {@link elements.Camera#constructBeamOfRaysThroughPixel(int, int, int, int, double, double, double, int, Sampler)}
+     * with stratified samples.
      *
      * @param nX             number of pixels in X axis
      * @param nY             number of pixels in Y axis
@@ -146,8 +180,32 @@ public class Camera {
     public List<Ray> constructBeamOfRaysThroughPixel(int nX, int nY,
                                                      int j, int i, double screenDistance,
                                                      double screenWidth, double screenHeight, int numOfRays) {
+        return constructBeamOfRaysThroughPixel(nX, nY, j, i, screenDistance, screenWidth, screenHeight, numOfRays,
+                DEFAULT_SAMPLER);
+    }
+
+    /**
+     * gets view plane parameters and indexes of a pixel and generates a Beam Of Rays from the camera through that pixel.
+     * the first ray goes through the center of the pixel and the rest through the samples of the sampler,
+     * seeded by the indexes of the pixel so the pixel always gets the same rays.
+     *
+     * @param nX             number of pixels in X axis
+     * @param nY             number of pixels in Y axis
+     * @param j              column index of pixels
+     * @param i              row index of pixels
+     * @param screenDistance the distance between the camera and the view plane
+     * @param screenWidth    the width of the view plane
+     * @param screenHeight   the height of the view plane
+     * @param numOfRays      the amount of rays to construct in addition to the ray through the center
+     * @param sampler        the generator of the points in the pixel
+     * @return a Beam Of Rays from the camera through the given pixel on the view plane
+     */
+    public List<Ray> constructBeamOfRaysThroughPixel(int nX, int nY,
+                                                     int j, int i, double screenDistance,
+                                                     double screenWidth, double screenHeight, int numOfRays,
+                                                     Sampler sampler) {
         // create list to hold the rays
-        List<Ray> rays = new LinkedList<>();
+        List<Ray> rays = new ArrayList<>(numOfRays + 1);
         // center point of the view plane
         Point3D planeCenter = _p0.add(_Vto.scale(screenDistance));
         // size of each pixel
@@ -167,30 +225,21 @@ public class Camera {
         }
         rays.add(new Ray(_p0, Pij.subtract(_p0)));
 
-        Random r = new Random();
-
+        double[] samples = sampler.getSamples(Sampler.seed(j, i), numOfRays);
         // the parameter to calculate the coefficient of the _vRight and _vUp vectors
         double dX, dY;
-        //the coefficient to calculate in which quadrant is random point on this pixel
-        int k, h;
-        Point3D randomPoint;
-        // divide the random points evenly within the four quarters
-        for (int t = 0; t < 4; t++) {
-            // decide which quarter we are in
-            k = t != 1 && t != 2 ? 1 : -1;
-            h = t != 2 && t != 3 ? 1 : -1;
-            for (int u = 0; u < numOfRays / 4; u++) {
-                dX = r.nextDouble() * Rx / 2d;
-                dY = r.nextDouble() * Ry / 2d;
-                // find random point on this pixel to create new ray from camera
-                randomPoint = Pij;
-                if (dY != 0)
-                    randomPoint = randomPoint.add(_Vup.scale(-1 * h * dY));
-                if (dX != 0)
-                    randomPoint = randomPoint.add(_Vright.scale(k * dX));
-                // add the ray to the list
-                rays.add(new Ray(_p0, randomPoint.subtract(_p0)));
-            }
+        Point3D samplePoint;
+        for (int k = 0; k < numOfRays; k++) {
+            dX = (samples[2 * k] - 0.5) * Rx;
+            dY = (samples[2 * k + 1] - 0.5) * Ry;
+            // find the sample point on this pixel to create new ray from camera
+            samplePoint = Pij;
+            if (!isZero(dY))
+                samplePoint = samplePoint.add(_Vup.scale(-dY));
+            if (!isZero(dX))
+                samplePoint = samplePoint.add(_Vright.scale(dX));
+            // add the ray to the list
+            rays.add(new Ray(_p0, samplePoint.subtract(_p0)));
         }
         return rays;
     }
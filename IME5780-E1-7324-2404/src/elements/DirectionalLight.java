@@ -2,6 +2,7 @@ package elements;
 
 import primitives.Color;
 import primitives.Point3D;
+import primitives.Sampler;
 import primitives.Vector;
 
 import java.util.LinkedList;
@@ -32,6 +33,17 @@ public class DirectionalLight extends Light implements LightSource {
 
     }
 
+    //-------------- getters ----------------
+
+    /**
+     * getter for the direction of the light.
+     *
+     * @return the direction
+     */
+    public Vector get_direction() {
+        return _direction;
+    }
+
     //-------------- Override functions ----------------
     @Override
     public Color getIntensity(Point3D p) {
@@ -49,7 +61,12 @@ public class DirectionalLight extends Light implements LightSource {
     }
 
     @Override
-    public List<Vector> getListOfVectors(Point3D lightedPoint, int numOfVectors) {
+    public List<Vector> getListOfVectors(Point3D lightedPoint, int numOfVectors, Sampler sampler) {
         return List.of(this.getL(lightedPoint).scale(-1));
     }
+
+    @Override
+    public List<Vector> getBoundaryVectors(Point3D lightedPoint, int numOfVectors) {
+        return List.of();
+    }
 }
@@ -36,6 +36,17 @@ public class ImprovedSpotLight extends SpotLight {
         _concentration = concentration;
     }
 
+    //-------------- getters ----------------
+
+    /**
+     * getter for the concentration of the light around its direction.
+     *
+     * @return the concentration
+     */
+    public int get_concentration() {
+        return _concentration;
+    }
+
     //-------------- Override functions ----------------
     @Override
     public Color getIntensity(Point3D p) {
@@ -2,6 +2,7 @@ package elements;
 
 import primitives.Color;
 import primitives.Point3D;
+import primitives.Sampler;
 import primitives.Vector;
 
 import java.util.List;
@@ -36,10 +37,24 @@ public interface LightSource {
 
     /**
      * returns list of normalized vectors from the light sources towards the given point.
+     * the first vector is from the center of the light, and the rest are from the samples of the sampler on the light,
+     * seeded by the point so the point always gets the same vectors.
      *
      * @param lightedPoint the point in which the vectors are directed to
-     * @param numOfVectors the amount of vectors to create
+     * @param numOfVectors the amount of vectors to create in addition to the vector from the center
+     * @param sampler      the generator of the points on the light
      * @return list of vectors from the light towards the point
      */
-    List<Vector> getListOfVectors(Point3D lightedPoint,int numOfVectors);
+    List<Vector> getListOfVectors(Point3D lightedPoint, int numOfVectors, Sampler sampler);
+
+    /**
+     * returns list of normalized vectors from evenly spaced points on the edge of the light source towards the given point.
+     * if the point gets the same light from all of them and from the center, it is fully lit or fully shaded
+     * and there is no need for the whole list of {@link elements.LightSource#getListOfVectors(Point3D, int, Sampler)}.
+     *
+     * @param lightedPoint the point in which the vectors are directed to
+     * @param numOfVectors the amount of vectors to create
+     * @return list of vectors from the edge of the light towards the point, empty if the light has no area
+     */
+    List<Vector> getBoundaryVectors(Point3D lightedPoint, int numOfVectors);
 }
@@ -3,10 +3,13 @@ package elements;
 import primitives.Color;
 import primitives.Point3D;
 import primitives.Ray;
+import primitives.Sampler;
 import primitives.Vector;
 
 import java.util.*;
 
+import static primitives.Util.isZero;
+
 /**
  * a light source that lightens in 360 degrees
  */
@@ -71,6 +74,53 @@ public class PointLight extends Light implements LightSource {
         this(intensity, position, kC, kL, kQ, 0);
     }
 
+    //-------------- getters ----------------
+
+    /**
+     * getter for the position of the light source.
+     *
+     * @return the position
+     */
+    public Point3D get_position() {
+        return _position;
+    }
+
+    /**
+     * getter for the constant attenuation coefficient.
+     *
+     * @return kC
+     */
+    public double get_kC() {
+        return _kC;
+    }
+
+    /**
+     * getter for the linear attenuation coefficient.
+     *
+     * @return kL
+     */
+    public double get_kL() {
+        return _kL;
+    }
+
+    /**
+     * getter for the quadrant attenuation coefficient.
+     *
+     * @return kQ
+     */
+    public double get_kQ() {
+        return _kQ;
+    }
+
+    /**
+     * getter for the radius of the light.
+     *
+     * @return the radius
+     */
+    public double get_radius() {
+        return _radius;
+    }
+
     //-------------- Override functions ----------------
     @Override
     public Color getIntensity(Point3D p) {
@@ -94,60 +144,109 @@ public class PointLight extends Light implements LightSource {
     }
 
     @Override
-    public List<Vector> getListOfVectors(Point3D lightedPoint, int numOfVectors) {
-        // create list for the vectors
+    public List<Vector> getListOfVectors(Point3D lightedPoint, int numOfVectors, Sampler sampler) {
+        return getDiskVectors(lightedPoint, this.getL(lightedPoint), numOfVectors, sampler);
+    }
+
+    @Override
+    public List<Vector> getBoundaryVectors(Point3D lightedPoint, int numOfVectors) {
+        return getRingVectors(lightedPoint, this.getL(lightedPoint), numOfVectors);
+    }
+
+    //------------------ functions ------------------
+
+    /**
+     * creates vectors from evenly spaced points on the edge of the light towards a point.
+     *
+     * @param lightedPoint the point in which the vectors are directed to
+     * @param normal       normal of the disk of the light
+     * @param numOfVectors the amount of vectors to create
+     * @return list of vectors from the edge of the light towards the point, empty if the light has no radius
+     */
+    protected List<Vector> getRingVectors(Point3D lightedPoint, Vector normal, int numOfVectors) {
         List<Vector> vectors = new LinkedList<>();
-        // add main vector
-        Vector l = this.getL(lightedPoint);
-        vectors.add(l);
-        if (_radius == 0)
+        if (_radius == 0 || normal == null)
             return vectors;
-
-        // get coordinate with min value
-        List<Double> list = List.of(l.get_head().get_x().get(),
-                l.get_head().get_y().get(),
-                l.get_head().get_z().get());
-        int i = list.indexOf(Collections.min(list));
-
-        Vector vectorV;
-        switch (i) { // create orthogonal vector to main vector from light source to the lighted point
-            case 0:
-                vectorV = new Vector(0, -1 * l.get_head().get_z().get(), l.get_head().get_y().get()).normalize();
-                break;
-            case 1:
-                vectorV = new Vector(-1 * l.get_head().get_z().get(), 0, l.get_head().get_x().get()).normalize();
-                break;
-            default:
-                vectorV = new Vector(-1 * l.get_head().get_y().get(), l.get_head().get_x().get(), 0).normalize();
-                break;
+        Vector vectorV = orthogonal(normal);
+        Vector vectorU = normal.crossProduct(vectorV).normalize(); // get second orthogonal vector
+        for (int t = 0; t < numOfVectors; t++) {
+            double angle = 2 * Math.PI * t / numOfVectors;
+            double cos = Math.cos(angle) * _radius;
+            double sin = Math.sin(angle) * _radius;
+            Point3D ringPoint = _position;
+            if (!isZero(cos))
+                ringPoint = ringPoint.add(vectorU.scale(cos));
+            if (!isZero(sin))
+                ringPoint = ringPoint.add(vectorV.scale(sin));
+            if (!ringPoint.equals(lightedPoint))
+                vectors.add(lightedPoint.subtract(ringPoint).normalize());
         }
-        Vector vectorU = l.crossProduct(vectorV); // get second orthogonal vector
-        Random r = new Random();
-        // the parameter to calculate the coefficient of the 2 vectors
-        double cos, sin, d;
-        //the coefficient to calculate in which quarter in the radius is random point
-        int k, h;
-
-        Point3D randomPoint;
-        // divide the random points evenly within the four quarters
-        for (int t = 0; t < 4; t++) {
-            // decide which quarter we are in
-            k = t != 1 && t != 2 ? 1 : -1;
-            h = t != 2 && t != 3 ? 1 : -1;
-            for (int u = 0; u < numOfVectors / 4; u++) { // create vectors in the quarter
-                cos = r.nextDouble(); // give value for cosine
-                sin = Math.sqrt(1 - cos * cos); // calculate sine
-                d = r.nextDouble() * _radius; // 0 < d < radius
-                // find random point on this pixel to create new vector from the light source to the lighted point
-                randomPoint = _position;
-                if (sin * d * h != 0)
-                    randomPoint = randomPoint.add(vectorV.scale(sin * d * h));
-                if (cos * d * k != 0)
-                    randomPoint = randomPoint.add(vectorU.scale(cos * d * k));
-                // add the vector to the list
-                vectors.add(lightedPoint.subtract(randomPoint).normalize());
+        return vectors;
+    }
+
+    /**
+     * creates vectors from the center of the light and from the samples of a sampler on the disk of the light
+     * towards a point.
+     *
+     * @param lightedPoint the point in which the vectors are directed to
+     * @param normal       normal of the disk of the light
+     * @param numOfVectors the amount of vectors to create in addition to the vector from the center
+     * @param sampler      the generator of the points on the disk
+     * @return list of vectors from the light towards the point
+     */
+    protected List<Vector> getDiskVectors(Point3D lightedPoint, Vector normal, int numOfVectors, Sampler sampler) {
+        // create list for the vectors
+        List<Vector> vectors = new ArrayList<>(numOfVectors + 1);
+        // add main vector
+        vectors.add(this.getL(lightedPoint));
+        if (_radius == 0 || normal == null)
+            return vectors;
+        Vector vectorV = orthogonal(normal);
+        Vector vectorU = normal.crossProduct(vectorV).normalize(); // get second orthogonal vector
+        double[] samples = sampler.getSamples(Sampler.seed(Sampler.seed(lightedPoint), Sampler.seed(_position)), numOfVectors);
+        for (int t = 0; t < numOfVectors; t++) {
+            // map the sample from the square to the disk keeping the distances between the samples (concentric mapping)
+            double a = 2 * samples[2 * t] - 1;
+            double b = 2 * samples[2 * t + 1] - 1;
+            double d, angle;
+            if (Math.abs(a) > Math.abs(b)) {
+                d = a;
+                angle = Math.PI / 4 * (b / a);
+            } else if (b != 0) {
+                d = b;
+                angle = Math.PI / 2 - Math.PI / 4 * (a / b);
+            } else { // the center of the disk
+                d = 0;
+                angle = 0;
             }
+            double cos = Math.cos(angle) * d * _radius;
+            double sin = Math.sin(angle) * d * _radius;
+            Point3D samplePoint = _position;
+            if (!isZero(cos))
+                samplePoint = samplePoint.add(vectorU.scale(cos));
+            if (!isZero(sin))
+                samplePoint = samplePoint.add(vectorV.scale(sin));
+            if (!samplePoint.equals(lightedPoint))
+                vectors.add(lightedPoint.subtract(samplePoint).normalize());
         }
         return vectors;
     }
+
+    /**
+     * creates a normalized vector orthogonal to a given vector,
+     * zeroing its smallest coordinate so it is never the zero vector.
+     *
+     * @param vector the given vector
+     * @return orthogonal vector
+     */
+    private static Vector orthogonal(Vector vector) {
+        double x = vector.get_head().get_x().get();
+        double y = vector.get_head().get_y().get();
+        double z = vector.get_head().get_z().get();
+        if (Math.abs(x) <= Math.abs(y) && Math.abs(x) <= Math.abs(z))
+            return new Vector(0, -z, y).normalize();
+        if (Math.abs(y) <= Math.abs(z))
+            return new Vector(-z, 0, x).normalize();
+        return new Vector(-y, x, 0).normalize();
+    }
 }
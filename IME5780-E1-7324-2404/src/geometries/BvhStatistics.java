@@ -0,0 +1,264 @@
+package geometries;
+
+import primitives.Ray;
+
+import java.util.List;
+
+/**
+ * class holding statistics of a bvh tree for comparing the different ways of building it.
+ */
+public class BvhStatistics {
+    /**
+     * the root of the tree
+     */
+    private final Geometries _root;
+    /**
+     * the algorithm the tree was built by
+     */
+    private final Geometries.BvhType _type;
+    /**
+     * the time it took to build the tree in nano seconds
+     */
+    private final long _buildTime;
+    /**
+     * amount of nodes in the tree including the leaves
+     */
+    private int _nodes;
+    /**
+     * amount of leaves (intersectables that are not Geometries) in the tree
+     */
+    private int _leaves;
+    /**
+     * the depth of the deepest leaf in the tree
+     */
+    private int _depth;
+    /**
+     * the cost of the tree by the surface area heuristic
+     */
+    private final double _sahCost;
+
+    //------------------ constructor ------------------
+
+    /**
+     * constructor for the statistics of a tree that goes over the tree and counts its nodes.
+     *
+     * @param root      the root of the tree
+     * @param type      the algorithm the tree was built by
+     * @param buildTime the time it took to build the tree in nano seconds
+     */
+    BvhStatistics(Geometries root, Geometries.BvhType type, long buildTime) {
+        _root = root;
+        _type = type;
+        _buildTime = buildTime;
+        count(root, 0);
+        _sahCost = sahCost(root);
+    }
+
+    //------------------ getters ------------------
+
+    /**
+     * getter for the algorithm the tree was built by.
+     *
+     * @return the type of the tree
+     */
+    public Geometries.BvhType get_type() {
+        return _type;
+    }
+
+    /**
+     * getter for the time it took to build the tree.
+     *
+     * @return build time in nano seconds
+     */
+    public long get_buildTime() {
+        return _buildTime;
+    }
+
+    /**
+     * getter for the amount of nodes in the tree.
+     *
+     * @return amount of nodes including the leaves
+     */
+    public int get_nodes() {
+        return _nodes;
+    }
+
+    /**
+     * getter for the amount of leaves in the tree.
+     *
+     * @return amount of leaves
+     */
+    public int get_leaves() {
+        return _leaves;
+    }
+
+    /**
+     * getter for the depth of the tree.
+     *
+     * @return the depth of the deepest leaf
+     */
+    public int get_depth() {
+        return _depth;
+    }
+
+    /**
+     * getter for the cost of the tree by the surface area heuristic.
+     *
+     * @return the cost relative to the areas of the intersectables
+     */
+    public double get_sahCost() {
+        return _sahCost;
+    }
+
+    //------------------ functions ------------------
+
+    /**
+     * calculates the cost of a tree by the surface area heuristic - the area of every node times the cost of
+     * checking its box, and the area of the node holding every intersectable times the cost of intersecting it.
+     * the cost is divided by the areas of the boxes of all the finite intersectables together, which do not change
+     * when the intersectables move, so the cost grows when the boxes of the nodes grow around them.
+     * the infinite intersectables are intersected by every ray so they cost the area of the box of the whole tree.
+     *
+     * @param root the root of the tree
+     * @return the cost relative to the areas of the intersectables
+     */
+    static double sahCost(Geometries root) {
+        double[] bounds = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE,
+                -Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        for (Intersectable child : root.getIntersectables()) {
+            Intersectable.Box box = child.boundaryBox;
+            if (box == null || box.isInfinite)
+                continue;
+            bounds[0] = Math.min(bounds[0], box._min.get_x().get());
+            bounds[1] = Math.min(bounds[1], box._min.get_y().get());
+            bounds[2] = Math.min(bounds[2], box._min.get_z().get());
+            bounds[3] = Math.max(bounds[3], box._max.get_x().get());
+            bounds[4] = Math.max(bounds[4], box._max.get_y().get());
+            bounds[5] = Math.max(bounds[5], box._max.get_z().get());
+        }
+        double cost = childrenCost(root, SahBvhBuilder.area(bounds, 0));
+        double area = intersectablesArea(root);
+        return area > 0 ? cost / area : cost;
+    }
+
+    /**
+     * adds the areas of the boxes of the finite intersectables at the leaves of the tree under a node.
+     *
+     * @param node the node
+     * @return half of the surface areas of the boxes together
+     */
+    private static double intersectablesArea(Intersectable node) {
+        double area = 0;
+        if (node instanceof Geometries) {
+            for (Intersectable child : ((Geometries) node).getIntersectables())
+                area += intersectablesArea(child);
+        } else if (node instanceof FlatBvh) {
+            for (Intersectable child : ((FlatBvh) node)._intersectables)
+                area += intersectablesArea(child);
+        } else if (node instanceof Grid) {
+            for (Intersectable child : ((Grid) node)._intersectables)
+                area += intersectablesArea(child);
+        } else if (node.boundaryBox != null && !node.boundaryBox.isInfinite)
+            area = node.boundaryBox.area();
+        return area;
+    }
+
+    /**
+     * calculates the cost of the children of a node by the surface area heuristic.
+     *
+     * @param node the node
+     * @param area half of the surface area of the node
+     * @return the cost, not divided by any area
+     */
+    private static double childrenCost(Geometries node, double area) {
+        double cost = 0;
+        for (Intersectable child : node.getIntersectables()) {
+            if (child instanceof FlatBvh)
+                cost += ((FlatBvh) child).sahCost();
+            else if (child instanceof Grid)
+                cost += ((Grid) child).sahCost();
+            else if (child instanceof Geometries) {
+                Intersectable.Box box = child.boundaryBox;
+                if (box == null || box.isInfinite) // infinite geometries are intersected with the rest of the node
+                    cost += childrenCost((Geometries) child, area);
+                else
+                    cost += box.area() * SahBvhBuilder.TRAVERSAL_COST + childrenCost((Geometries) child, box.area());
+            } else // intersected whenever the box of its node is entered
+                cost += area;
+        }
+        return cost;
+    }
+
+    /**
+     * calculates the average amount of nodes visited and geometries tested by a ray looking for the closest
+     * intersection, counted by {@link TraversalStats} while the rays are traced, so every type of tree
+     * is measured by the same search - the nodes of the trees and the cells of the grids whose boxes are checked,
+     * and the tests of the geometries at their leaves.
+     *
+     * @param rays the rays to check
+     * @return average amount of nodes and geometries visited per ray
+     */
+    public double averageNodesVisited(List<Ray> rays) {
+        if (rays.isEmpty())
+            return 0;
+        TraversalStats previous = TraversalStats.current();
+        TraversalStats stats = new TraversalStats();
+        TraversalStats.bind(stats);
+        try {
+            for (Ray ray : rays)
+                _root.findClosestIntersection(ray, Double.POSITIVE_INFINITY);
+        } finally {
+            TraversalStats.bind(previous);
+        }
+        long visited = stats.getNodesVisited();
+        for (long tests : stats.getTests().values())
+            visited += tests;
+        return visited / (double) rays.size();
+    }
+
+    /**
+     * counts the nodes under a node of the tree.
+     *
+     * @param node  the node
+     * @param depth the depth of the node
+     */
+    private void count(Intersectable node, int depth) {
+        _nodes++;
+        if (depth > _depth)
+            _depth = depth;
+        if (node instanceof FlatBvh) { // count the nodes in the arrays of a flat tree
+            FlatBvh flatBvh = (FlatBvh) node;
+            _nodes += flatBvh.getNodesCount() + flatBvh.getIntersectablesCount() - 1;
+            _leaves += flatBvh.getIntersectablesCount();
+            if (depth + flatBvh.getDepth() + 1 > _depth)
+                _depth = depth + flatBvh.getDepth() + 1;
+            return;
+        }
+        if (node instanceof Grid) { // count the cells of a grid as its nodes
+            Grid grid = (Grid) node;
+            _nodes += grid.getCellsCount() + grid.getIntersectablesCount();
+            _leaves += grid.getIntersectablesCount();
+            if (depth + grid.getDepth() + 1 > _depth)
+                _depth = depth + grid.getDepth() + 1;
+            return;
+        }
+        if (!(node instanceof Geometries)) {
+            _leaves++;
+            return;
+        }
+        for (Intersectable child : ((Geometries) node).getIntersectables())
+            count(child, depth + 1);
+    }
+
+    //******************** Admin ****************
+
+    @Override
+    public String toString() {
+        return "type: " + _type +
+                ", build time: " + _buildTime / 1e6 + "ms" +
+                ", nodes: " + _nodes +
+                ", leaves: " + _leaves +
+                ", depth: " + _depth +
+                ", SAH cost: " + _sahCost;
+    }
+}
@@ -103,7 +103,8 @@ public class Cylinder extends Tube {
 
     @Override
     public List<GeoPoint> findIntersections(Ray ray, double maxDistance) {
-        if (!boundaryBox.intersectBox(ray)) // if no intersection with the box return null
+        // if no intersection with the box until the max distance return null
+        if (boundaryBox.enterBox(ray, maxDistance) == Double.POSITIVE_INFINITY)
             return null;
 
         // intersect with tube
@@ -0,0 +1,658 @@
+package geometries;
+
+import primitives.Point3D;
+import primitives.Ray;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * class FlatBvh for a bvh tree flattened into arrays of primitives.
+ * the nodes are kept in depth first order so the left child of a node is the node after it,
+ * and the tree is traversed with a stack instead of recursion.
+ * the boxes can be fixed after the intersectables moved, and intersectables can be inserted and removed
+ * by building again only a small sub tree, whose nodes are moved to the place of the old sub tree in the arrays.
+ */
+public class FlatBvh extends Intersectable {
+    /**
+     * boxes of the nodes - min x,y,z and max x,y,z for each node
+     */
+    double[] _bounds;
+    /**
+     * 3 values for each node:
+     * for a leaf - offset of its first intersectable, amount of intersectables, unused.
+     * for an inner node - index of the right child, 0, axis of the split
+     */
+    int[] _nodes;
+    /**
+     * the intersectables ordered so each leaf holds a range of them
+     */
+    Intersectable[] _intersectables;
+    /**
+     * the depth of the tree, decides the size of the traversal stack
+     */
+    int _depth;
+
+    //------------------ constructor ------------------
+
+    /**
+     * constructor for the flat tree receiving its arrays.
+     *
+     * @param bounds         boxes of the nodes
+     * @param nodes          children or intersectables of the nodes
+     * @param intersectables the intersectables ordered by the leaves
+     * @param depth          the depth of the tree
+     */
+    FlatBvh(double[] bounds, int[] nodes, Intersectable[] intersectables, int depth) {
+        _bounds = bounds;
+        _nodes = nodes;
+        _intersectables = intersectables;
+        _depth = depth;
+        setBox();
+    }
+
+    //------------------ getters ------------------
+
+    /**
+     * getter for the amount of nodes in the tree.
+     *
+     * @return amount of nodes
+     */
+    int getNodesCount() {
+        return _nodes.length / 3;
+    }
+
+    /**
+     * getter for the amount of intersectables in the tree.
+     *
+     * @return amount of intersectables
+     */
+    int getIntersectablesCount() {
+        return _intersectables.length;
+    }
+
+    /**
+     * getter for the depth of the tree.
+     *
+     * @return the depth of the tree
+     */
+    int getDepth() {
+        return _depth;
+    }
+
+    //------------------ functions ------------------
+
+    @Override
+    public List<GeoPoint> findIntersections(Ray ray, double maxDistance) {
+        List<GeoPoint> intersections = null;
+        int[] stack = new int[_depth + 2];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (enterBox(_bounds, node, ray, maxDistance) == Double.POSITIVE_INFINITY)
+                continue;
+            int count = _nodes[3 * node + 1];
+            if (count == 0) { // inner node
+                stack[top++] = _nodes[3 * node];
+                stack[top++] = node + 1;
+                continue;
+            }
+            int offset = _nodes[3 * node];
+            for (int i = offset; i < offset + count; i++) {
+                List<GeoPoint> temp = _intersectables[i].findIntersections(ray, maxDistance);
+                if (temp != null) {
+                    if (intersections == null)
+                        intersections = new LinkedList<>(temp);
+                    else
+                        intersections.addAll(temp);
+                }
+            }
+        }
+        return intersections;
+    }
+
+    /**
+     * finds the closest intersection by going over the nodes front to back,
+     * and skipping nodes whose box is further then the closest intersection found so far.
+     */
+    @Override
+    public GeoPoint findClosestIntersection(Ray ray, double maxDistance) {
+        TraversalStats stats = TraversalStats.current();
+        Point3D p0 = ray.get_p0();
+        GeoPoint closest = null;
+        int[] stack = new int[_depth + 2];
+        int top = 0;
+        int nodes = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            nodes++;
+            if (enterBox(_bounds, node, ray, maxDistance) == Double.POSITIVE_INFINITY)
+                continue;
+            int count = _nodes[3 * node + 1];
+            if (count == 0) { // inner node - push the far child first so the near child is checked first
+                int right = _nodes[3 * node];
+                if ((ray.get_signs() >> _nodes[3 * node + 2] & 1) != 0) {
+                    stack[top++] = node + 1;
+                    stack[top++] = right;
+                } else {
+                    stack[top++] = right;
+                    stack[top++] = node + 1;
+                }
+                continue;
+            }
+            int offset = _nodes[3 * node];
+            for (int i = offset; i < offset + count; i++) {
+                if (stats != null)
+                    stats.test(_intersectables[i], 1);
+                GeoPoint point = _intersectables[i].findClosestIntersection(ray, maxDistance);
+                if (point != null) { // closer intersection found - no need to look further then it
+                    double distance = p0.distance(point.point);
+                    if (closest == null || distance < maxDistance) {
+                        closest = point;
+                        maxDistance = distance;
+                    }
+                }
+            }
+        }
+        if (stats != null)
+            stats.visit(nodes);
+        return closest;
+    }
+
+    /**
+     * finds the closest intersections of the rays of a packet by going over the nodes once for all the rays.
+     * an inner node is skipped only when all the rays miss its box or their closest intersections are before it,
+     * and the intersectables of a leaf are checked only for the rays that enter it.
+     * the children are ordered front to back for each ray, so the rays going the other way on the axis of a node
+     * are split from the rest there, which coherent rays rarely do.
+     *
+     * @param packet the rays and their closest intersections so far
+     * @param lanes  mask of the lanes of the rays to intersect
+     */
+    @Override
+    protected void findClosestIntersections(RayPacket packet, int lanes) {
+        TraversalStats stats = TraversalStats.current();
+        int[] stack = new int[6 * (_depth + 2)]; // node and lanes, up to 3 more pairs for every level
+        int top = 0;
+        int nodes = 0;
+        stack[top++] = 0;
+        stack[top++] = lanes;
+        while (top > 0) {
+            int active = stack[--top];
+            int node = stack[--top];
+            nodes++;
+            int count = _nodes[3 * node + 1];
+            active = count == 0 ? packet.enterFirst(_bounds, node, active) : packet.enterEach(_bounds, node, active);
+            if (active == 0)
+                continue;
+            if (count == 0) { // inner node - the rays are split by the near child, pushed after the far one
+                int right = _nodes[3 * node];
+                int negative = packet.negativeLanes(_nodes[3 * node + 2], active);
+                int positive = active & ~negative;
+                if (positive != 0) {
+                    stack[top++] = right;
+                    stack[top++] = positive;
+                    stack[top++] = node + 1;
+                    stack[top++] = positive;
+                }
+                if (negative != 0) {
+                    stack[top++] = node + 1;
+                    stack[top++] = negative;
+                    stack[top++] = right;
+                    stack[top++] = negative;
+                }
+                continue;
+            }
+            int offset = _nodes[3 * node];
+            for (int i = offset; i < offset + count; i++) {
+                if (stats != null)
+                    stats.test(_intersectables[i], Integer.bitCount(active));
+                _intersectables[i].findClosestIntersections(packet, active);
+            }
+        }
+        if (stats != null)
+            stats.visit(nodes);
+    }
+
+    @Override
+    public boolean isOccluded(Ray ray, double maxDistance) {
+        TraversalStats stats = TraversalStats.current();
+        int[] stack = new int[_depth + 2];
+        int top = 0;
+        int nodes = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            nodes++;
+            if (enterBox(_bounds, node, ray, maxDistance) == Double.POSITIVE_INFINITY)
+                continue;
+            int count = _nodes[3 * node + 1];
+            if (count == 0) { // inner node
+                stack[top++] = _nodes[3 * node];
+                stack[top++] = node + 1;
+                continue;
+            }
+            int offset = _nodes[3 * node];
+            for (int i = offset; i < offset + count; i++) {
+                if (stats != null)
+                    stats.test(_intersectables[i], 1);
+                if (_intersectables[i].isOccluded(ray, maxDistance)) { // no need to look any further
+                    if (stats != null)
+                        stats.visit(nodes);
+                    return true;
+                }
+            }
+        }
+        if (stats != null)
+            stats.visit(nodes);
+        return false;
+    }
+
+    @Override
+    public double transmittance(Ray ray, double maxDistance, double minK) {
+        TraversalStats stats = TraversalStats.current();
+        double ktr = 1.0;
+        int[] stack = new int[_depth + 2];
+        int top = 0;
+        int nodes = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            nodes++;
+            if (enterBox(_bounds, node, ray, maxDistance) == Double.POSITIVE_INFINITY)
+                continue;
+            int count = _nodes[3 * node + 1];
+            if (count == 0) { // inner node
+                stack[top++] = _nodes[3 * node];
+                stack[top++] = node + 1;
+                continue;
+            }
+            int offset = _nodes[3 * node];
+            for (int i = offset; i < offset + count; i++) {
+                if (stats != null)
+                    stats.test(_intersectables[i], 1);
+                ktr *= _intersectables[i].transmittance(ray, maxDistance, minK / ktr);
+                if (ktr < minK) // the light left is insignificant
+                    break;
+            }
+            if (ktr < minK)
+                break;
+        }
+        if (stats != null)
+            stats.visit(nodes);
+        return ktr;
+    }
+
+    /**
+     * recomputes the boxes of all the nodes bottom-up from the boxes of the intersectables, after they moved.
+     * the children of a node are after it in the arrays, so the nodes are fixed from the last to the first.
+     */
+    void refit() {
+        for (int node = _nodes.length / 3 - 1; node >= 0; node--) {
+            if (_nodes[3 * node + 1] == 0) {
+                unionChildren(_bounds, _nodes, node);
+                continue;
+            }
+            int offset = _nodes[3 * node];
+            resetBox(_bounds, node);
+            for (int i = offset; i < offset + _nodes[3 * node + 1]; i++)
+                growBox(_bounds, node, _intersectables[i].boundaryBox);
+        }
+        setBox();
+    }
+
+    /**
+     * inserts a finite intersectable to the leaf whose box grows the least by it,
+     * and builds again the smallest sub tree above the leaf with {@value Geometries#LOCAL_TREE_SIZE} intersectables.
+     *
+     * @param intersectable the intersectable
+     */
+    void insert(Intersectable intersectable) {
+        int[] path = new int[_depth + 1];
+        int length = 0;
+        int node = 0;
+        while (_nodes[3 * node + 1] == 0) {
+            path[length++] = node;
+            int right = _nodes[3 * node];
+            node = growth(node + 1, intersectable.boundaryBox) <= growth(right, intersectable.boundaryBox)
+                    ? node + 1 : right;
+        }
+        path[length++] = node;
+        rebuildSubtree(path, length, intersectable, null);
+    }
+
+    /**
+     * removes an intersectable and builds again the smallest sub tree above its leaf
+     * with {@value Geometries#LOCAL_TREE_SIZE} intersectables. the tree is not left empty,
+     * so the last intersectable is removed by removing the tree.
+     *
+     * @param intersectable the intersectable
+     * @return true if the intersectable was in the tree and removed
+     * @throws IllegalStateException if the intersectable is the last in the tree
+     */
+    boolean remove(Intersectable intersectable) {
+        int leaf = findLeaf(intersectable);
+        if (leaf < 0)
+            return false;
+        if (_intersectables.length == 1)
+            throw new IllegalStateException("Last intersectable of the tree can not be removed");
+        // the path from the root to the leaf - the nodes of the right child are from its index to the end of its parent
+        int[] path = new int[_depth + 1];
+        int length = 0;
+        int node = 0;
+        while (node != leaf) {
+            path[length++] = node;
+            node = leaf < _nodes[3 * node] ? node + 1 : _nodes[3 * node];
+        }
+        path[length++] = leaf;
+        rebuildSubtree(path, length, null, intersectable);
+        return true;
+    }
+
+    /**
+     * calculates the cost of the tree by the surface area heuristic - the area of every node times the cost
+     * of checking its box or of intersecting its intersectables, which is the expected work of a ray times
+     * the area of the root.
+     *
+     * @return the cost
+     */
+    double sahCost() {
+        double cost = 0;
+        for (int node = 0; node < _nodes.length / 3; node++) {
+            int count = _nodes[3 * node + 1];
+            cost += SahBvhBuilder.area(_bounds, 6 * node) * (count == 0 ? SahBvhBuilder.TRAVERSAL_COST : count);
+        }
+        return cost;
+    }
+
+    /**
+     * checks whether an intersectable is in the tree.
+     *
+     * @param intersectable the intersectable
+     * @return true if a leaf holds the intersectable
+     */
+    boolean contains(Intersectable intersectable) {
+        return findLeaf(intersectable) >= 0;
+    }
+
+    /**
+     * looks for the leaf holding an intersectable, only in the nodes whose box holds the box of the intersectable.
+     *
+     * @param intersectable the intersectable
+     * @return index of the leaf, or -1 if the intersectable is not in the tree
+     */
+    private int findLeaf(Intersectable intersectable) {
+        Box box = intersectable.boundaryBox;
+        int[] stack = new int[_depth + 2];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (!holds(node, box))
+                continue;
+            int count = _nodes[3 * node + 1];
+            if (count == 0) {
+                stack[top++] = _nodes[3 * node];
+                stack[top++] = node + 1;
+                continue;
+            }
+            int offset = _nodes[3 * node];
+            for (int i = offset; i < offset + count; i++)
+                if (_intersectables[i] == intersectable)
+                    return node;
+        }
+        return -1;
+    }
+
+    /**
+     * builds again the smallest sub tree on a path from the root that holds {@value Geometries#LOCAL_TREE_SIZE}
+     * intersectables, or the whole tree if it is smaller, with an intersectable added to it or removed from it.
+     * the new nodes and intersectables take the place of the old ones in the arrays, the nodes and intersectables
+     * after them are moved, and the boxes of the nodes above the sub tree are fixed.
+     *
+     * @param path    the nodes from the root to a leaf
+     * @param length  amount of nodes in the path
+     * @param added   intersectable to add, or null
+     * @param removed intersectable to remove, or null
+     */
+    private void rebuildSubtree(int[] path, int length, Intersectable added, Intersectable removed) {
+        int depth = 0;
+        for (int k = length - 1; k >= 0; k--)
+            if (k == 0 || lastIntersectable(path[k]) - firstIntersectable(path[k]) >= Geometries.LOCAL_TREE_SIZE) {
+                depth = k;
+                break;
+            }
+        int root = path[depth];
+        int first = firstIntersectable(root);
+        int end = lastIntersectable(root);
+        int nodesEnd = lastNode(root) + 1;
+
+        List<Intersectable> intersectables = new ArrayList<>(end - first + 1);
+        for (int i = first; i < end; i++)
+            if (_intersectables[i] != removed)
+                intersectables.add(_intersectables[i]);
+        if (added != null)
+            intersectables.add(added);
+        SahBvhBuilder builder = new SahBvhBuilder(intersectables);
+        builder.flattenTree();
+        double[] subBounds = builder.getFlatBounds();
+        int[] subNodes = builder.getFlatNodes();
+        int[] indexes = builder.getIndexes();
+
+        int size = subNodes.length / 3;
+        int nodesShift = root + size - nodesEnd;
+        int shift = first + intersectables.size() - end;
+        int count = _nodes.length / 3 + nodesShift;
+        double[] bounds = new double[6 * count];
+        int[] nodes = new int[3 * count];
+        Intersectable[] ordered = new Intersectable[_intersectables.length + shift];
+        // the nodes before and after the sub tree, with their children and intersectables moved
+        System.arraycopy(_bounds, 0, bounds, 0, 6 * root);
+        System.arraycopy(_nodes, 0, nodes, 0, 3 * root);
+        System.arraycopy(_bounds, 6 * nodesEnd, bounds, 6 * (root + size), _bounds.length - 6 * nodesEnd);
+        System.arraycopy(_nodes, 3 * nodesEnd, nodes, 3 * (root + size), _nodes.length - 3 * nodesEnd);
+        for (int node = 0; node < count; node++) {
+            if (node == root) {
+                node += size - 1;
+                continue;
+            }
+            if (nodes[3 * node + 1] == 0) {
+                if (nodes[3 * node] >= nodesEnd)
+                    nodes[3 * node] += nodesShift;
+            } else if (nodes[3 * node] >= end)
+                nodes[3 * node] += shift;
+        }
+        // the new sub tree, with its children and intersectables after the nodes and intersectables before it
+        System.arraycopy(subBounds, 0, bounds, 6 * root, subBounds.length);
+        for (int k = 0; k < size; k++) {
+            nodes[3 * (root + k)] = subNodes[3 * k] + (subNodes[3 * k + 1] == 0 ? root : first);
+            nodes[3 * (root + k) + 1] = subNodes[3 * k + 1];
+            nodes[3 * (root + k) + 2] = subNodes[3 * k + 2];
+        }
+        System.arraycopy(_intersectables, 0, ordered, 0, first);
+        for (int i = 0; i < indexes.length; i++)
+            ordered[first + i] = intersectables.get(indexes[i]);
+        System.arraycopy(_intersectables, end, ordered, first + indexes.length, _intersectables.length - end);
+
+        _bounds = bounds;
+        _nodes = nodes;
+        _intersectables = ordered;
+        _depth = Math.max(_depth, depth + builder.getFlatDepth());
+        for (int k = depth - 1; k >= 0; k--)
+            unionChildren(_bounds, _nodes, path[k]);
+        setBox();
+    }
+
+    /**
+     * finds the first intersectable under a node, in its leftmost leaf.
+     *
+     * @param node index of the node
+     * @return index of the intersectable
+     */
+    private int firstIntersectable(int node) {
+        while (_nodes[3 * node + 1] == 0)
+            node++;
+        return _nodes[3 * node];
+    }
+
+    /**
+     * finds the index after the last intersectable under a node, in its rightmost leaf.
+     *
+     * @param node index of the node
+     * @return index after the intersectable
+     */
+    private int lastIntersectable(int node) {
+        node = lastNode(node);
+        return _nodes[3 * node] + _nodes[3 * node + 1];
+    }
+
+    /**
+     * finds the last node of the sub tree of a node, which is its rightmost leaf.
+     *
+     * @param node index of the node
+     * @return index of the last node
+     */
+    private int lastNode(int node) {
+        while (_nodes[3 * node + 1] == 0)
+            node = _nodes[3 * node];
+        return node;
+    }
+
+    /**
+     * calculates how much the area of the box of a node grows if a box is added to it.
+     *
+     * @param node index of the node
+     * @param box  the box
+     * @return growth of half of the surface area
+     */
+    private double growth(int node, Box box) {
+        double[] bounds = new double[6];
+        System.arraycopy(_bounds, 6 * node, bounds, 0, 6);
+        growBox(bounds, 0, box);
+        return SahBvhBuilder.area(bounds, 0) - SahBvhBuilder.area(_bounds, 6 * node);
+    }
+
+    /**
+     * checks whether the box of a node holds a box.
+     *
+     * @param node index of the node
+     * @param box  the box
+     * @return true if the box is inside the box of the node
+     */
+    private boolean holds(int node, Box box) {
+        int offset = 6 * node;
+        return _bounds[offset] <= box._min.get_x().get() && box._max.get_x().get() <= _bounds[offset + 3]
+                && _bounds[offset + 1] <= box._min.get_y().get() && box._max.get_y().get() <= _bounds[offset + 4]
+                && _bounds[offset + 2] <= box._min.get_z().get() && box._max.get_z().get() <= _bounds[offset + 5];
+    }
+
+    /**
+     * sets the box of an inner node to the box of both its children.
+     *
+     * @param bounds boxes of the nodes
+     * @param nodes  children or intersectables of the nodes
+     * @param node   index of the node
+     */
+    static void unionChildren(double[] bounds, int[] nodes, int node) {
+        int offset = 6 * node;
+        int left = offset + 6;
+        int right = 6 * nodes[3 * node];
+        for (int k = 0; k < 3; k++) {
+            bounds[offset + k] = Math.min(bounds[left + k], bounds[right + k]);
+            bounds[offset + 3 + k] = Math.max(bounds[left + 3 + k], bounds[right + 3 + k]);
+        }
+    }
+
+    /**
+     * resets the box of a node so it grows to any box added to it.
+     *
+     * @param bounds boxes of the nodes
+     * @param node   index of the node
+     */
+    static void resetBox(double[] bounds, int node) {
+        for (int k = 0; k < 3; k++) {
+            bounds[6 * node + k] = Double.MAX_VALUE;
+            bounds[6 * node + 3 + k] = -Double.MAX_VALUE;
+        }
+    }
+
+    /**
+     * grows the box of a node to include the box of an intersectable.
+     *
+     * @param bounds boxes of the nodes
+     * @param node   index of the node
+     * @param box    the box of the intersectable
+     */
+    private static void growBox(double[] bounds, int node, Box box) {
+        int offset = 6 * node;
+        bounds[offset] = Math.min(bounds[offset], box._min.get_x().get());
+        bounds[offset + 1] = Math.min(bounds[offset + 1], box._min.get_y().get());
+        bounds[offset + 2] = Math.min(bounds[offset + 2], box._min.get_z().get());
+        bounds[offset + 3] = Math.max(bounds[offset + 3], box._max.get_x().get());
+        bounds[offset + 4] = Math.max(bounds[offset + 4], box._max.get_y().get());
+        bounds[offset + 5] = Math.max(bounds[offset + 5], box._max.get_z().get());
+    }
+
+
+    /**
+     * calculates the distance along a ray where it enters the box of a node (slab test),
+     * with the range of the ray clipped to between its head and the max distance.
+     * the near and far side of the box on each axis are picked by the sign bits of the ray and the distances
+     * to them are calculated by the inverse of the direction kept in the ray, so the test has no divisions
+     * and no swaps. a ray parallel to an axis has an infinite inverse on it, so it is outside the slab of the axis
+     * unless its head is between the sides of the box on the axis.
+     *
+     * @param bounds      boxes of the nodes, min x,y,z and max x,y,z for each node
+     * @param node        index of the node
+     * @param ray         the ray
+     * @param maxDistance the max distance value between the head of the ray and intersection point
+     * @return distance where the ray enters the box, or positive infinity if the ray misses the box
+     * between its head and max distance - compared with infinity and not with the max distance, which may be infinite
+     */
+    static double enterBox(double[] bounds, int node, Ray ray, double maxDistance) {
+        int offset = 6 * node;
+        int signs = ray.get_signs();
+        double tEnter = 0;
+        double tExit = maxDistance;
+        // comparisons with NaN (ray parallel to the slab and on its border) do not change the range
+        double x0 = ray.get_x0();
+        double inverse = ray.get_inverseDx();
+        double near = (bounds[offset + 3 * (signs & 1)] - x0) * inverse;
+        double far = (bounds[offset + 3 - 3 * (signs & 1)] - x0) * inverse;
+        if (near > tEnter)
+            tEnter = near;
+        if (far < tExit)
+            tExit = far;
+        if (tEnter > tExit)
+            return Double.POSITIVE_INFINITY;
+        double y0 = ray.get_y0();
+        inverse = ray.get_inverseDy();
+        near = (bounds[offset + 1 + 3 * (signs >> 1 & 1)] - y0) * inverse;
+        far = (bounds[offset + 4 - 3 * (signs >> 1 & 1)] - y0) * inverse;
+        if (near > tEnter)
+            tEnter = near;
+        if (far < tExit)
+            tExit = far;
+        if (tEnter > tExit)
+            return Double.POSITIVE_INFINITY;
+        double z0 = ray.get_z0();
+        inverse = ray.get_inverseDz();
+        near = (bounds[offset + 2 + 3 * (signs >> 2)] - z0) * inverse;
+        far = (bounds[offset + 5 - 3 * (signs >> 2)] - z0) * inverse;
+        if (near > tEnter)
+            tEnter = near;
+        if (far < tExit)
+            tExit = far;
+        return tEnter > tExit ? Double.POSITIVE_INFINITY : tEnter;
+    }
+
+    @Override
+    public void setBox() {
+        boundaryBox = new Box(
+                new Point3D(_bounds[0], _bounds[1], _bounds[2]),
+                new Point3D(_bounds[3], _bounds[4], _bounds[5]));
+    }
+}
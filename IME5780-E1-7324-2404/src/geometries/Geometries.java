@@ -3,18 +3,73 @@ package geometries;
 import primitives.Point3D;
 import primitives.Ray;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * class Geometries for groups of geometries implementing Composite pattern.
  */
 public class Geometries extends Intersectable {
 
+    /**
+     * types of algorithms for building the bvh tree.
+     */
+    public enum BvhType {
+        /**
+         * pairs each intersectable with the one whose box has the nearest mid point
+         */
+        NEAREST_MIDPOINT,
+        /**
+         * splits the intersectables by the binned surface area heuristic
+         */
+        SAH,
+        /**
+         * splits the intersectables by the binned surface area heuristic and flattens the tree into arrays
+         */
+        FLAT_SAH,
+        /**
+         * splits the intersectables by their Morton codes (linear bvh) in parallel and flattens the tree into arrays
+         */
+        LBVH,
+        /**
+         * splits the top levels by the Morton codes and the sub trees under them by the binned surface area heuristic,
+         * in parallel, and flattens the tree into arrays
+         */
+        LBVH_SAH,
+        /**
+         * puts the intersectables in the cells of a uniform grid ({@link Grid}) instead of a tree
+         */
+        GRID,
+        /**
+         * puts the intersectables in the cells of a grid, and the cells with many intersectables get their own grid
+         */
+        TWO_LEVEL_GRID
+    }
+
+    /**
+     * min amount of intersectables in the sub tree that is built again when an intersectable is inserted or removed
+     */
+    static final int LOCAL_TREE_SIZE = 32;
+    /**
+     * how many times the cost of the tree by the surface area heuristic may grow from its cost when it was built,
+     * before it is built again
+     */
+    private static final double REBUILD_COST = 1.5;
+
     /**
      * a list of intersectable geometries
      */
     private List<Intersectable> _intersectables;
+    /**
+     * the algorithm the tree was built by, null if no tree was built
+     */
+    private BvhType _bvhType;
+    /**
+     * the cost of the tree by the surface area heuristic when it was built
+     */
+    private double _bvhCost;
 
     //*********************************** constructor ***************
 
@@ -56,10 +111,20 @@ public class Geometries extends Intersectable {
         return _intersectables.size();
     }
 
+    /**
+     * getter for the list of intersectables for going over the tree.
+     *
+     * @return the intersectables
+     */
+    List<Intersectable> getIntersectables() {
+        return _intersectables;
+    }
+
 
     @Override
     public List<GeoPoint> findIntersections(Ray ray, double maxDistance) {
-        if (!boundaryBox.intersectBox(ray)) // if no intersection with the box return null
+        // if no intersection with the box until the max distance return null
+        if (boundaryBox.enterBox(ray, maxDistance) == Double.POSITIVE_INFINITY)
             return null;
 
         List<GeoPoint> intersections = null;
@@ -76,6 +141,86 @@ public class Geometries extends Intersectable {
         return intersections;
     }
 
+    @Override
+    public GeoPoint findClosestIntersection(Ray ray, double maxDistance) {
+        TraversalStats stats = TraversalStats.current();
+        if (stats != null)
+            stats.visit(1);
+        // if no intersection with the box until the max distance return null
+        if (boundaryBox == null || boundaryBox.enterBox(ray, maxDistance) == Double.POSITIVE_INFINITY)
+            return null;
+
+        Point3D p0 = ray.get_p0();
+        GeoPoint closestPoint = null;
+        // go over all intersectables and look only for intersections closer then the closest found so far
+        for (Intersectable i : this._intersectables) {
+            if (stats != null)
+                stats.test(i, 1);
+            GeoPoint point = i.findClosestIntersection(ray, maxDistance);
+            if (point != null) {
+                double distance = p0.distance(point.point);
+                if (closestPoint == null || distance < maxDistance) { // keep the first of points in the same distance
+                    closestPoint = point;
+                    maxDistance = distance;
+                }
+            }
+        }
+        return closestPoint;
+    }
+
+    @Override
+    protected void findClosestIntersections(RayPacket packet, int lanes) {
+        TraversalStats stats = TraversalStats.current();
+        if (stats != null)
+            stats.visit(1);
+        if (boundaryBox == null)
+            return;
+        lanes = packet.intersectBox(boundaryBox, lanes);
+        if (lanes == 0) // no ray intersects the box
+            return;
+        for (Intersectable i : this._intersectables) {
+            if (stats != null)
+                stats.test(i, Integer.bitCount(lanes));
+            i.findClosestIntersections(packet, lanes);
+        }
+    }
+
+    @Override
+    public boolean isOccluded(Ray ray, double maxDistance) {
+        TraversalStats stats = TraversalStats.current();
+        if (stats != null)
+            stats.visit(1);
+        // if no intersection with the box until the max distance nothing occludes
+        if (boundaryBox == null || boundaryBox.enterBox(ray, maxDistance) == Double.POSITIVE_INFINITY)
+            return false;
+        for (Intersectable i : this._intersectables) {
+            if (stats != null)
+                stats.test(i, 1);
+            if (i.isOccluded(ray, maxDistance))
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public double transmittance(Ray ray, double maxDistance, double minK) {
+        TraversalStats stats = TraversalStats.current();
+        if (stats != null)
+            stats.visit(1);
+        // if no intersection with the box until the max distance all light passes
+        if (boundaryBox == null || boundaryBox.enterBox(ray, maxDistance) == Double.POSITIVE_INFINITY)
+            return 1.0;
+        double ktr = 1.0;
+        for (Intersectable i : this._intersectables) {
+            if (stats != null)
+                stats.test(i, 1);
+            ktr *= i.transmittance(ray, maxDistance, minK / ktr);
+            if (ktr < minK)
+                return ktr;
+        }
+        return ktr;
+    }
+
     @Override
     public void setBox() {
 
@@ -166,8 +311,373 @@ public class Geometries extends Intersectable {
 
     /**
      * creates hierarchical tree of intersectables using the composite principle.
+     * calls {@link geometries.Geometries#bvhTree(BvhType)} with nearest mid point pairing.
+     *
+     * @return statistics of the tree built
+     */
+    public BvhStatistics bvhTree() {
+        return bvhTree(BvhType.NEAREST_MIDPOINT);
+    }
+
+    /**
+     * creates hierarchical tree of intersectables using the composite principle.
+     * if a tree was already built, the new tree is built from all the intersectables in it.
+     * the trees of the objects shared by instances among the intersectables are built first by the same
+     * algorithm, so the tree is built over the boxes of the instances as the top level of a two level tree.
+     *
+     * @param type the algorithm for building the tree
+     * @return statistics of the tree built
+     */
+    public BvhStatistics bvhTree(BvhType type) {
+        long start = System.nanoTime();
+        if (_bvhType != null) {
+            List<Intersectable> leaves = new LinkedList<>();
+            addLeaves(this, leaves, null);
+            _intersectables = leaves;
+        } else // the list of a group created with its intersectables can not be changed
+            _intersectables = new LinkedList<>(_intersectables);
+        buildObjects(_intersectables, type);
+        switch (type) {
+            case SAH:
+                sahTree(false);
+                break;
+            case FLAT_SAH:
+                sahTree(true);
+                break;
+            case LBVH:
+            case LBVH_SAH:
+                lbvhTree(type == BvhType.LBVH_SAH);
+                break;
+            case GRID:
+            case TWO_LEVEL_GRID:
+                grid(type == BvhType.TWO_LEVEL_GRID);
+                break;
+            default:
+                nearestMidpointTree();
+                break;
+        }
+        BvhStatistics statistics = new BvhStatistics(this, type, System.nanoTime() - start);
+        _bvhType = type;
+        _bvhCost = statistics.get_sahCost();
+        return statistics;
+    }
+
+    /**
+     * marks the intersectables as a tree that was already built by an algorithm, such as a tree read back
+     * by {@link IntersectableCodec}, so it is refitted, changed and built again like a tree built here.
+     *
+     * @param type      the algorithm the tree was built by
+     * @param cost      the cost of the tree by the surface area heuristic when it was built
+     * @param buildTime the time it took to build the tree in nano seconds
+     * @return statistics of the tree
+     */
+    BvhStatistics restoreTree(BvhType type, double cost, long buildTime) {
+        _bvhType = type;
+        _bvhCost = cost;
+        return new BvhStatistics(this, type, buildTime);
+    }
+
+    /**
+     * recomputes the boxes of the tree bottom-up after intersectables in it moved, without building it again.
+     * the tree is built again only if its cost by the surface area heuristic grew more then
+     * {@value #REBUILD_COST} times its cost when it was built.
+     *
+     * @return true if the tree was built again
+     */
+    public boolean refit() {
+        refit(this);
+        return checkCost();
+    }
+
+    /**
+     * inserts an intersectable into the tree. the intersectable goes down the tree to the node whose box grows
+     * the least by it, and the smallest sub tree above that node with at least {@value #LOCAL_TREE_SIZE}
+     * intersectables is built again by the binned surface area heuristic, so the tree stays balanced around it.
+     * infinite intersectables, and all intersectables when no tree was built, are added to the list.
+     * the tree is built again if its cost grew too much, as in {@link geometries.Geometries#refit()}.
+     *
+     * @param intersectable the intersectable
      */
-    public void bvhTree() {
+    public void insert(Intersectable intersectable) {
+        if (_bvhType == null || intersectable.boundaryBox.isInfinite) {
+            add(intersectable);
+            return;
+        }
+        List<Geometries> path = new ArrayList<>();
+        Intersectable.Box box = intersectable.boundaryBox;
+        Geometries node = this;
+        while (true) {
+            path.add(node);
+            Intersectable best = null;
+            double bestGrowth = Double.POSITIVE_INFINITY;
+            for (Intersectable child : node._intersectables) {
+                if (child.boundaryBox == null || child.boundaryBox.isInfinite)
+                    continue;
+                double growth = growth(child.boundaryBox, box);
+                if (growth < bestGrowth) {
+                    bestGrowth = growth;
+                    best = child;
+                }
+            }
+            if (best instanceof FlatBvh) {
+                ((FlatBvh) best).insert(intersectable);
+                fixBoxes(path, path.size() - 1);
+                break;
+            }
+            if (best instanceof Grid) {
+                ((Grid) best).insert(intersectable);
+                fixBoxes(path, path.size() - 1);
+                break;
+            }
+            if (!(best instanceof Geometries)) { // the children of the node are the leaves of the tree
+                rebuildSubtree(path, intersectable, null);
+                break;
+            }
+            node = (Geometries) best;
+        }
+        checkCost();
+    }
+
+    /**
+     * removes an intersectable from the tree or the list. the intersectable is looked for only in the nodes
+     * whose box holds its box, and the smallest sub tree above it with at least {@value #LOCAL_TREE_SIZE}
+     * intersectables is built again, as in {@link geometries.Geometries#insert(Intersectable)}.
+     *
+     * @param intersectable the intersectable
+     * @return true if the intersectable was found and removed
+     */
+    public boolean remove(Intersectable intersectable) {
+        List<Geometries> path = new ArrayList<>();
+        Intersectable holder = findHolder(this, intersectable, path);
+        if (holder == null)
+            return false;
+        if (holder instanceof FlatBvh && ((FlatBvh) holder).getIntersectablesCount() > 1) {
+            ((FlatBvh) holder).remove(intersectable);
+            fixBoxes(path, path.size() - 1);
+        } else if (holder instanceof Grid && ((Grid) holder).getIntersectablesCount() > 1) {
+            ((Grid) holder).remove(intersectable);
+            fixBoxes(path, path.size() - 1);
+        } else // the last intersectable of a flat tree or a grid is removed with it
+            rebuildSubtree(path, null, holder instanceof Geometries ? intersectable : holder);
+        checkCost();
+        return true;
+    }
+
+    /**
+     * builds the trees of the objects shared by the instances among intersectables, as the bottom level
+     * of a two level tree. an object placed by many instances is built once,
+     * and objects whose tree was already built are kept as they are.
+     *
+     * @param intersectables the intersectables
+     * @param type           the algorithm for building the trees
+     */
+    private static void buildObjects(List<Intersectable> intersectables, BvhType type) {
+        for (Intersectable intersectable : intersectables) {
+            Intersectable object = intersectable;
+            while (object instanceof Instance) // an instance may place an instance of another object
+                object = ((Instance) object).get_object();
+            if (object instanceof Geometries && ((Geometries) object)._bvhType == null)
+                ((Geometries) object).bvhTree(type);
+        }
+    }
+
+    /**
+     * recomputes the boxes of a node of the tree and the nodes under it bottom-up.
+     *
+     * @param node the node
+     */
+    private static void refit(Intersectable node) {
+        if (node instanceof Geometries) {
+            Geometries geometries = (Geometries) node;
+            for (Intersectable child : geometries._intersectables)
+                refit(child);
+            geometries.setBox();
+        } else if (node instanceof FlatBvh) {
+            FlatBvh flatBvh = (FlatBvh) node;
+            for (Intersectable child : flatBvh._intersectables)
+                refit(child);
+            flatBvh.refit();
+        } else if (node instanceof Grid) {
+            Grid grid = (Grid) node;
+            for (Intersectable child : grid._intersectables)
+                refit(child);
+            grid.refit();
+        }
+    }
+
+    /**
+     * builds the tree again by the same algorithm if its cost by the surface area heuristic grew too much.
+     *
+     * @return true if the tree was built again
+     */
+    private boolean checkCost() {
+        if (_bvhType == null || _bvhCost <= 0 || BvhStatistics.sahCost(this) <= REBUILD_COST * _bvhCost)
+            return false;
+        bvhTree(_bvhType);
+        return true;
+    }
+
+    /**
+     * builds again the smallest finite sub tree on a path from the root with at least {@value #LOCAL_TREE_SIZE}
+     * intersectables, with an intersectable added to it or removed from it, and fixes the boxes above it.
+     * when there is no finite node under the root on the path, the intersectable is added to the list
+     * of the last node or removed from it.
+     *
+     * @param path    the nodes from the root down
+     * @param added   intersectable to add, or null
+     * @param removed intersectable to remove, or null
+     */
+    private void rebuildSubtree(List<Geometries> path, Intersectable added, Intersectable removed) {
+        int top = -1;
+        for (int k = path.size() - 1; k > 0; k--) {
+            Intersectable.Box box = path.get(k).boundaryBox;
+            if (box == null || box.isInfinite)
+                break;
+            top = k;
+            if (countLeaves(path.get(k)) >= LOCAL_TREE_SIZE)
+                break;
+        }
+        if (top < 0) {
+            Geometries parent = path.get(path.size() - 1);
+            parent.replaceChild(removed, added);
+            fixBoxes(path, path.size() - 1);
+            return;
+        }
+
+        Geometries subtree = path.get(top);
+        List<Intersectable> leaves = new ArrayList<>();
+        addLeaves(subtree, leaves, removed);
+        if (added != null)
+            leaves.add(added);
+        if (leaves.isEmpty()) { // the sub tree is removed
+            path.get(top - 1).replaceChild(subtree, null);
+            fixBoxes(path, top - 1);
+            return;
+        }
+        subtree._intersectables = leaves.size() == 1 ? List.of(leaves.get(0))
+                : ((Geometries) new SahBvhBuilder(leaves).build())._intersectables;
+        fixBoxes(path, top);
+    }
+
+    /**
+     * replaces a child of the node by another intersectable, on a copy of the list since the lists of the nodes
+     * of the tree may not be changed.
+     *
+     * @param child         the child, or null to only add the other intersectable
+     * @param intersectable the intersectable, or null to only remove the child
+     */
+    private void replaceChild(Intersectable child, Intersectable intersectable) {
+        List<Intersectable> intersectables = new LinkedList<>();
+        for (Intersectable i : _intersectables)
+            if (i != child)
+                intersectables.add(i);
+        if (intersectable != null)
+            intersectables.add(intersectable);
+        _intersectables = intersectables;
+    }
+
+    /**
+     * recomputes the boxes of the nodes on a path from a node up to the root.
+     *
+     * @param path the nodes from the root down
+     * @param last index of the lowest node to fix in the path
+     */
+    private static void fixBoxes(List<Geometries> path, int last) {
+        for (int k = last; k >= 0; k--)
+            path.get(k).setBox();
+    }
+
+    /**
+     * looks for the node holding an intersectable, only in the nodes whose box holds its box.
+     *
+     * @param node          the node to look in
+     * @param intersectable the intersectable
+     * @param path          the nodes from the root to the node holding the intersectable are added to it
+     * @return the Geometries or the flat tree holding the intersectable, or null if it is not under the node
+     */
+    private static Intersectable findHolder(Geometries node, Intersectable intersectable, List<Geometries> path) {
+        path.add(node);
+        for (Intersectable child : node._intersectables)
+            if (child == intersectable)
+                return node;
+        for (Intersectable child : node._intersectables) {
+            if (child.boundaryBox == null || !child.boundaryBox.holds(intersectable.boundaryBox))
+                continue;
+            if (child instanceof Geometries) {
+                Intersectable holder = findHolder((Geometries) child, intersectable, path);
+                if (holder != null)
+                    return holder;
+            } else if (child instanceof FlatBvh && ((FlatBvh) child).contains(intersectable)
+                    || child instanceof Grid && ((Grid) child).contains(intersectable))
+                return child;
+        }
+        path.remove(path.size() - 1);
+        return null;
+    }
+
+    /**
+     * adds the intersectables at the leaves of the tree under a node to a list.
+     *
+     * @param node    the node
+     * @param leaves  the list
+     * @param skipped intersectable that is not added, or null
+     */
+    private static void addLeaves(Intersectable node, List<Intersectable> leaves, Intersectable skipped) {
+        if (node == skipped)
+            return;
+        if (node instanceof Geometries) {
+            for (Intersectable child : ((Geometries) node)._intersectables)
+                addLeaves(child, leaves, skipped);
+        } else if (node instanceof FlatBvh) {
+            for (Intersectable child : ((FlatBvh) node)._intersectables)
+                addLeaves(child, leaves, skipped);
+        } else if (node instanceof Grid) {
+            for (Intersectable child : ((Grid) node)._intersectables)
+                addLeaves(child, leaves, skipped);
+        } else
+            leaves.add(node);
+    }
+
+    /**
+     * counts the intersectables at the leaves of the tree under a node.
+     *
+     * @param node the node
+     * @return amount of intersectables
+     */
+    private static int countLeaves(Intersectable node) {
+        if (node instanceof FlatBvh)
+            return ((FlatBvh) node).getIntersectablesCount();
+        if (node instanceof Grid)
+            return ((Grid) node).getIntersectablesCount();
+        if (!(node instanceof Geometries))
+            return 1;
+        int count = 0;
+        for (Intersectable child : ((Geometries) node)._intersectables)
+            count += countLeaves(child);
+        return count;
+    }
+
+    /**
+     * calculates how much the area of a box grows if another box is added to it.
+     *
+     * @param box   the box
+     * @param other the other box
+     * @return growth of half of the surface area
+     */
+    private static double growth(Intersectable.Box box, Intersectable.Box other) {
+        double dx = Math.max(box._max.get_x().get(), other._max.get_x().get())
+                - Math.min(box._min.get_x().get(), other._min.get_x().get());
+        double dy = Math.max(box._max.get_y().get(), other._max.get_y().get())
+                - Math.min(box._min.get_y().get(), other._min.get_y().get());
+        double dz = Math.max(box._max.get_z().get(), other._max.get_z().get())
+                - Math.min(box._min.get_z().get(), other._min.get_z().get());
+        return dx * dy + dy * dz + dz * dx - box.area();
+    }
+
+    /**
+     * creates the tree by repeatedly pairing an intersectable with the one whose box has the nearest mid point.
+     */
+    private void nearestMidpointTree() {
 
         // remove all infinite geometries from the list into a new object of Geometries
         Geometries infiniteGeometries = new Geometries();
@@ -202,8 +712,80 @@ public class Geometries extends Intersectable {
         // take out object of all finite intersectables
         Intersectable temp = _intersectables.get(0);
         _intersectables.clear();
-        // add new Geometries with finite and infinite intersectables
-        _intersectables.add(new Geometries(temp, infiniteGeometries));
+        // add new Geometries with finite and infinite intersectables, an empty Geometries has no box
+        if (infiniteGeometries.getListSize() > 0)
+            _intersectables.add(new Geometries(temp, infiniteGeometries));
+        else
+            _intersectables.add(temp);
+        setBox();
+    }
+
+    /**
+     * creates the tree by splitting the intersectables by the binned surface area heuristic.
+     * infinite geometries are kept in a separate Geometries next to the tree.
+     *
+     * @param flat whether to flatten the tree into arrays
+     */
+    private void sahTree(boolean flat) {
+        List<Intersectable> finite = new ArrayList<>();
+        Geometries infiniteGeometries = takeFinite(finite);
+        SahBvhBuilder builder = new SahBvhBuilder(finite);
+        setTree(flat ? builder.buildFlat() : builder.build(), infiniteGeometries);
+    }
+
+    /**
+     * creates the tree flattened into arrays by the Morton codes of the intersectables, on the threads of the
+     * common {@link ForkJoinPool}. infinite geometries are kept in a separate Geometries next to the tree.
+     *
+     * @param refine whether the sub trees under the top levels are split by the binned surface area heuristic
+     */
+    private void lbvhTree(boolean refine) {
+        List<Intersectable> finite = new ArrayList<>();
+        Geometries infiniteGeometries = takeFinite(finite);
+        setTree(new LbvhBuilder(finite, refine, ForkJoinPool.commonPool()).build(), infiniteGeometries);
+    }
+
+    /**
+     * puts the intersectables in the cells of a grid instead of a tree.
+     * infinite geometries are kept in a separate Geometries next to the grid.
+     *
+     * @param twoLevel whether the cells with many intersectables get their own grid
+     */
+    private void grid(boolean twoLevel) {
+        List<Intersectable> finite = new ArrayList<>();
+        Geometries infiniteGeometries = takeFinite(finite);
+        setTree(finite.isEmpty() ? null : new Grid(finite, twoLevel), infiniteGeometries);
+    }
+
+    /**
+     * divides the intersectables to finite ones, that are put in the tree, and infinite ones.
+     *
+     * @param finite list the finite intersectables are added to
+     * @return Geometries of the infinite intersectables
+     */
+    private Geometries takeFinite(List<Intersectable> finite) {
+        Geometries infiniteGeometries = new Geometries();
+        for (Intersectable intersectable : _intersectables) {
+            if (intersectable.boundaryBox.isInfinite)
+                infiniteGeometries.add(intersectable);
+            else
+                finite.add(intersectable);
+        }
+        return infiniteGeometries;
+    }
+
+    /**
+     * replaces the intersectables by a tree and the infinite geometries next to it.
+     *
+     * @param tree               the tree, null if there are no finite intersectables
+     * @param infiniteGeometries the infinite geometries
+     */
+    private void setTree(Intersectable tree, Geometries infiniteGeometries) {
+        _intersectables = new LinkedList<>();
+        if (tree != null)
+            _intersectables.add(tree);
+        if (infiniteGeometries.getListSize() > 0)
+            _intersectables.add(infiniteGeometries);
         setBox();
     }
 }
@@ -0,0 +1,669 @@
+package geometries;
+
+import primitives.Point3D;
+import primitives.Ray;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * class Grid for a uniform grid of cells over the boxes of intersectables, an alternative to the bvh tree
+ * for scenes whose intersectables are spread evenly, which is built in linear time.
+ * the resolution is chosen by the amount of intersectables and the box around them, every cell keeps
+ * the indexes of the intersectables whose box overlaps it in one array for all the cells,
+ * and a ray goes over the cells it crosses in order (3D-DDA) until the closest intersection found is in the cells
+ * it already went over. an intersectable that overlaps many cells is intersected once for each ray,
+ * since each thread marks the intersectables its ray already checked (mailboxing).
+ * in a two level grid the cells with many intersectables get their own grid, for scenes whose density is uneven.
+ * at the same distance the intersectable that was first in the list is kept, as in a list of geometries.
+ */
+public class Grid extends Intersectable {
+    /**
+     * amount of cells for every intersectable, decides the resolution of the grid
+     */
+    static final double DENSITY = 4;
+    /**
+     * the most cells on an axis
+     */
+    static final int MAX_RESOLUTION = 128;
+    /**
+     * the least intersectables in a cell that gets its own grid in a two level grid
+     */
+    static final int SUBGRID_SIZE = 16;
+    /**
+     * part of a cell the boxes of the intersectables are grown by when they are put in the cells,
+     * so an intersectable on the border of two cells is in both of them in spite of rounding
+     */
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * the intersectables, in the order of the list the grid was built from.
+     * the grids of the cells of a two level grid share the array of their grid
+     */
+    Intersectable[] _intersectables;
+    /**
+     * whether the cells with many intersectables get their own grid
+     */
+    final boolean _twoLevel;
+    /**
+     * box of the grid - min x,y,z and max x,y,z
+     */
+    private double[] _bounds;
+    /**
+     * amount of cells on each axis
+     */
+    private final int[] _resolution = new int[3];
+    /**
+     * size of a cell on each axis
+     */
+    private final double[] _cellSize = new double[3];
+    /**
+     * inverse of the size of a cell on each axis, 0 on an axis with one cell
+     */
+    private final double[] _inverseCellSize = new double[3];
+    /**
+     * offset of the first intersectable of every cell in the array of the intersectables of the cells,
+     * and the amount of intersectables of all the cells at the end
+     */
+    private int[] _cellStart;
+    /**
+     * indexes of the intersectables of every cell, by the order of the cells - x first, then y and then z
+     */
+    private int[] _cellItems;
+    /**
+     * the grids of the cells with many intersectables in a two level grid, null for the other cells,
+     * or null if no cell has its own grid
+     */
+    private Grid[] _subGrids;
+    /**
+     * the intersectables checked by the current ray of every thread, null for the grid of a cell
+     */
+    private final ThreadLocal<Mailbox> _mailboxes;
+
+    /**
+     * marks of the intersectables checked by a ray of a thread - the intersectables whose mark is the number
+     * of the current ray were already checked by it
+     */
+    private static class Mailbox {
+        /**
+         * the number of the last ray that checked every intersectable
+         */
+        int[] _marks = new int[0];
+        /**
+         * the number of the current ray
+         */
+        int _ray;
+    }
+
+    /**
+     * what a ray looks for in the cells, and what it found so far
+     */
+    private static class Query {
+        /**
+         * looking for the closest intersection
+         */
+        static final int CLOSEST = 0;
+        /**
+         * looking for all the intersections
+         */
+        static final int ALL = 1;
+        /**
+         * looking for an opaque intersection
+         */
+        static final int OCCLUDED = 2;
+        /**
+         * multiplying the transparency coefficients of the intersections
+         */
+        static final int TRANSMITTANCE = 3;
+
+        /**
+         * what the ray looks for
+         */
+        final int _kind;
+        /**
+         * counters of the thread, null if not counting
+         */
+        final TraversalStats _stats;
+        /**
+         * the closest intersection found so far
+         */
+        GeoPoint _closest;
+        /**
+         * the distance of the closest intersection found so far
+         */
+        double _distance;
+        /**
+         * index of the intersectable of the closest intersection
+         */
+        int _index;
+        /**
+         * all the intersections found so far
+         */
+        List<GeoPoint> _all;
+        /**
+         * whether an opaque intersection was found
+         */
+        boolean _occluded;
+        /**
+         * the product of the transparency coefficients so far
+         */
+        double _ktr = 1.0;
+        /**
+         * the value under which the light left is insignificant
+         */
+        double _minK;
+        /**
+         * amount of cells visited
+         */
+        int _visited;
+
+        /**
+         * constructor for a query.
+         *
+         * @param kind what the ray looks for
+         */
+        Query(int kind) {
+            _kind = kind;
+            _stats = TraversalStats.current();
+        }
+
+        /**
+         * gets the distance after which the ray does not need to go on.
+         *
+         * @param maxDistance the max distance of the ray
+         * @return the distance of the closest intersection when looking for it and one was found, or the max distance
+         */
+        double limit(double maxDistance) {
+            return _closest != null ? _distance : maxDistance;
+        }
+
+        /**
+         * checks an intersectable with the ray.
+         *
+         * @param intersectable the intersectable
+         * @param index         index of the intersectable in the grid
+         * @param ray           the ray
+         * @param maxDistance   the max distance of the ray
+         * @return true if the ray does not need to go on
+         */
+        boolean check(Intersectable intersectable, int index, Ray ray, double maxDistance) {
+            if (_stats != null)
+                _stats.test(intersectable, 1);
+            switch (_kind) {
+                case CLOSEST: {
+                    GeoPoint point = intersectable.findClosestIntersection(ray, limit(maxDistance));
+                    if (point != null) {
+                        double distance = ray.get_p0().distance(point.point);
+                        // at the same distance keep the intersectable that is first in the list
+                        if (_closest == null || distance < _distance || distance == _distance && index < _index) {
+                            _closest = point;
+                            _distance = distance;
+                            _index = index;
+                        }
+                    }
+                    return false;
+                }
+                case ALL: {
+                    List<GeoPoint> intersections = intersectable.findIntersections(ray, maxDistance);
+                    if (intersections != null) {
+                        if (_all == null)
+                            _all = new LinkedList<>(intersections);
+                        else
+                            _all.addAll(intersections);
+                    }
+                    return false;
+                }
+                case OCCLUDED:
+                    return _occluded = intersectable.isOccluded(ray, maxDistance);
+                default:
+                    _ktr *= intersectable.transmittance(ray, maxDistance, _minK / _ktr);
+                    return _ktr < _minK; // the light left is insignificant
+            }
+        }
+    }
+
+    //------------------ constructors ------------------
+
+    /**
+     * constructor for a grid over finite intersectables.
+     *
+     * @param intersectables the intersectables
+     * @param twoLevel       whether the cells with many intersectables get their own grid
+     */
+    Grid(List<Intersectable> intersectables, boolean twoLevel) {
+        _intersectables = intersectables.toArray(new Intersectable[0]);
+        _twoLevel = twoLevel;
+        _mailboxes = ThreadLocal.withInitial(Mailbox::new);
+        build();
+    }
+
+    /**
+     * constructor for the grid of a cell of a two level grid.
+     *
+     * @param intersectables the intersectables of the two level grid
+     * @param items          indexes of the intersectables of the cell
+     * @param bounds         box of the grid - the cell, or the part of it the intersectables overlap
+     */
+    private Grid(Intersectable[] intersectables, int[] items, double[] bounds) {
+        _intersectables = intersectables;
+        _twoLevel = false;
+        _mailboxes = null;
+        build(items, bounds);
+    }
+
+    //------------------ getters ------------------
+
+    /**
+     * getter for the amount of intersectables in the grid.
+     *
+     * @return amount of intersectables
+     */
+    int getIntersectablesCount() {
+        return _intersectables.length;
+    }
+
+    /**
+     * getter for the amount of cells on each axis.
+     *
+     * @return the amounts of cells on x,y,z
+     */
+    int[] getResolution() {
+        return _resolution.clone();
+    }
+
+    /**
+     * gets the amount of cells in the grid, with the cells of the grids of its cells.
+     *
+     * @return amount of cells
+     */
+    int getCellsCount() {
+        int cells = _cellStart.length - 1;
+        if (_subGrids != null)
+            for (Grid grid : _subGrids)
+                if (grid != null)
+                    cells += grid.getCellsCount();
+        return cells;
+    }
+
+    /**
+     * gets the amount of levels of the grid.
+     *
+     * @return 2 if a cell has its own grid, otherwise 1
+     */
+    int getDepth() {
+        if (_subGrids != null)
+            for (Grid grid : _subGrids)
+                if (grid != null)
+                    return 2;
+        return 1;
+    }
+
+    //------------------ functions ------------------
+
+    @Override
+    public List<GeoPoint> findIntersections(Ray ray, double maxDistance) {
+        Query query = new Query(Query.ALL);
+        traverse(ray, maxDistance, query);
+        return query._all;
+    }
+
+    @Override
+    public GeoPoint findClosestIntersection(Ray ray, double maxDistance) {
+        Query query = new Query(Query.CLOSEST);
+        traverse(ray, maxDistance, query);
+        return query._closest;
+    }
+
+    @Override
+    public boolean isOccluded(Ray ray, double maxDistance) {
+        Query query = new Query(Query.OCCLUDED);
+        traverse(ray, maxDistance, query);
+        return query._occluded;
+    }
+
+    @Override
+    public double transmittance(Ray ray, double maxDistance, double minK) {
+        Query query = new Query(Query.TRANSMITTANCE);
+        query._minK = minK;
+        traverse(ray, maxDistance, query);
+        return query._ktr;
+    }
+
+    /**
+     * checks whether an intersectable is in the grid.
+     *
+     * @param intersectable the intersectable
+     * @return true if the intersectable is in the grid
+     */
+    boolean contains(Intersectable intersectable) {
+        for (Intersectable i : _intersectables)
+            if (i == intersectable)
+                return true;
+        return false;
+    }
+
+    /**
+     * inserts an intersectable into the grid and puts all the intersectables in the cells again,
+     * since the box and the resolution of the grid depend on all of them.
+     *
+     * @param intersectable a finite intersectable
+     */
+    void insert(Intersectable intersectable) {
+        Intersectable[] intersectables = Arrays.copyOf(_intersectables, _intersectables.length + 1);
+        intersectables[_intersectables.length] = intersectable;
+        _intersectables = intersectables;
+        build();
+    }
+
+    /**
+     * removes an intersectable from the grid and puts the rest in the cells again.
+     *
+     * @param intersectable the intersectable
+     * @return true if the intersectable was in the grid and removed
+     * @throws IllegalStateException In case it is the last intersectable in the grid
+     */
+    boolean remove(Intersectable intersectable) {
+        if (!contains(intersectable))
+            return false;
+        if (_intersectables.length == 1)
+            throw new IllegalStateException("the last intersectable can not be removed from the grid");
+        Intersectable[] intersectables = new Intersectable[_intersectables.length - 1];
+        int k = 0;
+        for (Intersectable i : _intersectables)
+            if (i != intersectable)
+                intersectables[k++] = i;
+        _intersectables = intersectables;
+        build();
+        return true;
+    }
+
+    /**
+     * puts the intersectables in the cells again after they moved.
+     */
+    void refit() {
+        build();
+    }
+
+    /**
+     * calculates the cost of the grid by the surface area heuristic - the area of every cell times the cost of
+     * stepping into it and the amount of intersectables in it.
+     *
+     * @return the cost, not divided by any area
+     */
+    double sahCost() {
+        double cost = 0;
+        double area = _cellSize[0] * _cellSize[1] + _cellSize[1] * _cellSize[2] + _cellSize[2] * _cellSize[0];
+        for (int cell = 0; cell < _cellStart.length - 1; cell++) {
+            cost += area * SahBvhBuilder.TRAVERSAL_COST;
+            if (_subGrids != null && _subGrids[cell] != null)
+                cost += _subGrids[cell].sahCost();
+            else
+                cost += area * (_cellStart[cell + 1] - _cellStart[cell]);
+        }
+        return cost;
+    }
+
+    @Override
+    public void setBox() {
+        boundaryBox = new Box(
+                new Point3D(_bounds[0], _bounds[1], _bounds[2]),
+                new Point3D(_bounds[3], _bounds[4], _bounds[5]));
+    }
+
+    /**
+     * builds the grid over all its intersectables, in the box around them.
+     */
+    private void build() {
+        int[] items = new int[_intersectables.length];
+        double[] bounds = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE,
+                -Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        for (int i = 0; i < items.length; i++) {
+            items[i] = i;
+            double[] box = _intersectables[i].boundaryBox._bounds;
+            for (int axis = 0; axis < 3; axis++) {
+                bounds[axis] = Math.min(bounds[axis], box[axis]);
+                bounds[3 + axis] = Math.max(bounds[3 + axis], box[3 + axis]);
+            }
+        }
+        build(items, bounds);
+        setBox();
+    }
+
+    /**
+     * builds the cells of the grid in two passes - counting the intersectables of every cell, and then putting
+     * them in their place in the array of the cells. in a two level grid the cells with at least
+     * {@value #SUBGRID_SIZE} intersectables get their own grid.
+     *
+     * @param items  indexes of the intersectables to put in the cells
+     * @param bounds box of the grid
+     */
+    private void build(int[] items, double[] bounds) {
+        _bounds = bounds;
+        int cells = 1;
+        int[] counts = resolution(bounds, items.length);
+        for (int axis = 0; axis < 3; axis++) {
+            _resolution[axis] = counts[axis];
+            _cellSize[axis] = (bounds[3 + axis] - bounds[axis]) / counts[axis];
+            _inverseCellSize[axis] = counts[axis] == 1 ? 0 : 1 / _cellSize[axis];
+            cells *= counts[axis];
+        }
+
+        // count the intersectables of every cell after its first one, so the counts become the offsets
+        int[] start = new int[cells + 1];
+        int[] range = new int[6];
+        for (int item : items) {
+            cellRange(_intersectables[item].boundaryBox._bounds, range);
+            for (int z = range[2]; z <= range[5]; z++)
+                for (int y = range[1]; y <= range[4]; y++)
+                    for (int x = range[0]; x <= range[3]; x++)
+                        start[cellIndex(x, y, z) + 1]++;
+        }
+        for (int cell = 0; cell < cells; cell++)
+            start[cell + 1] += start[cell];
+        int[] cellItems = new int[start[cells]];
+        int[] next = Arrays.copyOf(start, cells);
+        for (int item : items) {
+            cellRange(_intersectables[item].boundaryBox._bounds, range);
+            for (int z = range[2]; z <= range[5]; z++)
+                for (int y = range[1]; y <= range[4]; y++)
+                    for (int x = range[0]; x <= range[3]; x++)
+                        cellItems[next[cellIndex(x, y, z)]++] = item;
+        }
+        _cellStart = start;
+        _cellItems = cellItems;
+
+        _subGrids = null;
+        if (_twoLevel)
+            for (int cell = 0; cell < cells; cell++)
+                if (start[cell + 1] - start[cell] >= SUBGRID_SIZE)
+                    buildSubGrid(cell);
+    }
+
+    /**
+     * builds the grid of a cell with many intersectables, in the part of the cell the intersectables overlap.
+     * the cell keeps its intersectables in case the grid has only one cell.
+     *
+     * @param cell index of the cell
+     */
+    private void buildSubGrid(int cell) {
+        int[] items = Arrays.copyOfRange(_cellItems, _cellStart[cell], _cellStart[cell + 1]);
+        int[] position = {cell % _resolution[0], cell / _resolution[0] % _resolution[1],
+                cell / (_resolution[0] * _resolution[1])};
+        double[] bounds = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE,
+                -Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        for (int item : items) {
+            double[] box = _intersectables[item].boundaryBox._bounds;
+            for (int axis = 0; axis < 3; axis++) {
+                bounds[axis] = Math.min(bounds[axis], box[axis]);
+                bounds[3 + axis] = Math.max(bounds[3 + axis], box[3 + axis]);
+            }
+        }
+        for (int axis = 0; axis < 3; axis++) {
+            if (_resolution[axis] == 1) // the cell is the whole grid on this axis
+                continue;
+            bounds[axis] = Math.max(bounds[axis], _bounds[axis] + position[axis] * _cellSize[axis]);
+            bounds[3 + axis] = Math.min(bounds[3 + axis], _bounds[axis] + (position[axis] + 1) * _cellSize[axis]);
+        }
+        Grid grid = new Grid(_intersectables, items, bounds);
+        if (grid._cellStart.length == 2) // a single cell does not divide the intersectables
+            return;
+        if (_subGrids == null)
+            _subGrids = new Grid[_cellStart.length - 1];
+        _subGrids[cell] = grid;
+    }
+
+    /**
+     * chooses the amount of cells on each axis, so there are about {@value #DENSITY} cells for every
+     * intersectable and the cells are about cubes. an axis on which the box is flat gets one cell,
+     * and the other axes share the cells.
+     *
+     * @param bounds box of the grid
+     * @param count  amount of intersectables
+     * @return amount of cells on x,y,z
+     */
+    private static int[] resolution(double[] bounds, int count) {
+        double maxExtent = 0;
+        for (int axis = 0; axis < 3; axis++)
+            maxExtent = Math.max(maxExtent, bounds[3 + axis] - bounds[axis]);
+        int[] resolution = {1, 1, 1};
+        if (!(maxExtent > 0))
+            return resolution;
+        double volume = 1;
+        int dimensions = 0;
+        for (int axis = 0; axis < 3; axis++) {
+            double extent = bounds[3 + axis] - bounds[axis];
+            if (extent > maxExtent / MAX_RESOLUTION) {
+                volume *= extent;
+                dimensions++;
+            }
+        }
+        double cellsPerUnit = Math.pow(DENSITY * count / volume, 1d / dimensions);
+        for (int axis = 0; axis < 3; axis++) {
+            double extent = bounds[3 + axis] - bounds[axis];
+            if (extent > maxExtent / MAX_RESOLUTION)
+                resolution[axis] = (int) Math.max(1, Math.min(MAX_RESOLUTION, Math.round(extent * cellsPerUnit)));
+        }
+        return resolution;
+    }
+
+    /**
+     * finds the cells a box overlaps, grown by {@value #EPSILON} of a cell.
+     *
+     * @param box   min x,y,z and max x,y,z of the box
+     * @param range array for the first cell on x,y,z and the last cell on x,y,z
+     */
+    private void cellRange(double[] box, int[] range) {
+        for (int axis = 0; axis < 3; axis++) {
+            range[axis] = cell(axis, (box[axis] - _bounds[axis]) * _inverseCellSize[axis] - EPSILON);
+            range[3 + axis] = cell(axis, (box[3 + axis] - _bounds[axis]) * _inverseCellSize[axis] + EPSILON);
+        }
+    }
+
+    /**
+     * gets the cell on an axis of a distance from the min side of the grid.
+     *
+     * @param axis     the axis
+     * @param position the distance in sizes of a cell
+     * @return the cell, within the grid
+     */
+    private int cell(int axis, double position) {
+        int cell = (int) Math.floor(position);
+        return cell < 0 ? 0 : Math.min(cell, _resolution[axis] - 1);
+    }
+
+    /**
+     * gets the index of a cell in the arrays of the cells.
+     *
+     * @param x the cell on x
+     * @param y the cell on y
+     * @param z the cell on z
+     * @return the index
+     */
+    private int cellIndex(int x, int y, int z) {
+        return (z * _resolution[1] + y) * _resolution[0] + x;
+    }
+
+    /**
+     * goes over the cells a ray crosses with a new mark for the ray, and counts them when asked to.
+     *
+     * @param ray         the ray
+     * @param maxDistance the max distance value between the head of the ray and intersection point
+     * @param query       what the ray looks for
+     */
+    private void traverse(Ray ray, double maxDistance, Query query) {
+        Mailbox mailbox = _mailboxes.get();
+        if (mailbox._marks.length < _intersectables.length) {
+            mailbox._marks = new int[_intersectables.length];
+            mailbox._ray = 0;
+        }
+        if (++mailbox._ray == 0) { // the numbers of the rays went all the way around
+            Arrays.fill(mailbox._marks, 0);
+            mailbox._ray = 1;
+        }
+        int visited = query._visited;
+        walk(ray, maxDistance, mailbox, query);
+        if (query._stats != null)
+            query._stats.visit(query._visited - visited);
+    }
+
+    /**
+     * goes over the cells a ray crosses in order (3D-DDA), from where it enters the grid until it leaves it,
+     * passes its max distance or the closest intersection found, and checks the intersectables of the cells
+     * the ray did not check yet.
+     *
+     * @param ray         the ray
+     * @param maxDistance the max distance value between the head of the ray and intersection point
+     * @param mailbox     marks of the intersectables checked by the ray
+     * @param query       what the ray looks for
+     * @return true if the ray does not need to go on
+     */
+    private boolean walk(Ray ray, double maxDistance, Mailbox mailbox, Query query) {
+        double tEnter = FlatBvh.enterBox(_bounds, 0, ray, query.limit(maxDistance));
+        if (tEnter == Double.POSITIVE_INFINITY)
+            return false;
+        double[] origin = {ray.get_x0(), ray.get_y0(), ray.get_z0()};
+        double[] direction = {ray.get_dx(), ray.get_dy(), ray.get_dz()};
+        double[] inverse = {ray.get_inverseDx(), ray.get_inverseDy(), ray.get_inverseDz()};
+        int[] cell = new int[3];
+        int[] step = new int[3];
+        double[] next = new double[3];
+        double[] delta = new double[3];
+        for (int axis = 0; axis < 3; axis++) {
+            cell[axis] = cell(axis, (origin[axis] + direction[axis] * tEnter - _bounds[axis]) * _inverseCellSize[axis]);
+            if (Double.isInfinite(inverse[axis])) { // parallel to the axis - never crosses to another cell on it
+                next[axis] = Double.POSITIVE_INFINITY;
+                continue;
+            }
+            step[axis] = inverse[axis] > 0 ? 1 : -1;
+            double border = _bounds[axis] + (cell[axis] + (step[axis] > 0 ? 1 : 0)) * _cellSize[axis];
+            next[axis] = (border - origin[axis]) * inverse[axis];
+            delta[axis] = _cellSize[axis] * Math.abs(inverse[axis]);
+        }
+
+        while (true) {
+            query._visited++;
+            int index = cellIndex(cell[0], cell[1], cell[2]);
+            if (_subGrids != null && _subGrids[index] != null) {
+                if (_subGrids[index].walk(ray, maxDistance, mailbox, query))
+                    return true;
+            } else
+                for (int i = _cellStart[index]; i < _cellStart[index + 1]; i++) {
+                    int item = _cellItems[i];
+                    if (mailbox._marks[item] == mailbox._ray) // checked in another cell
+                        continue;
+                    mailbox._marks[item] = mailbox._ray;
+                    if (query.check(_intersectables[item], item, ray, maxDistance))
+                        return true;
+                }
+            // step to the next cell through the nearest border of the cell
+            int axis = next[0] < next[1] ? (next[0] < next[2] ? 0 : 2) : (next[1] < next[2] ? 1 : 2);
+            if (next[axis] > query.limit(maxDistance)) // the rest of the cells are after the intersection found
+                return false;
+            cell[axis] += step[axis];
+            if (cell[axis] < 0 || cell[axis] >= _resolution[axis])
+                return false;
+            next[axis] += delta[axis];
+        }
+    }
+}
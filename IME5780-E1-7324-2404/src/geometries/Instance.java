@@ -0,0 +1,455 @@
+package geometries;
+
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import static primitives.Util.isZero;
+
+/**
+ * class Instance for placing a shared object in the scene by an affine transform, without copying it.
+ * the object is usually a group with its own bvh tree, and many instances of it can be put in another group
+ * whose tree is built over the boxes of the instances - a two level tree, where the bottom level
+ * of every object is built once and kept once however many times the object is placed.
+ * the rays are moved into the space of the object when they reach an instance, and the intersections
+ * are moved back to the space of the scene, so an instance costs only its transform and its box.
+ * the object should not be changed while instances hold it, since their boxes are calculated from its box.
+ */
+public class Instance extends Intersectable {
+    /**
+     * the shared object, in its own space
+     */
+    private final Intersectable _object;
+    /**
+     * the transform from the space of the object to the space of the scene,
+     * 3 rows of 4 values - the linear part and the translation of each axis
+     */
+    private final double[] _transform = {1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0};
+    /**
+     * the transform from the space of the scene to the space of the object, in the format of the transform
+     */
+    private final double[] _inverse = {1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0};
+
+    //------------------ constructors ------------------
+
+    /**
+     * constructor for an instance placing the object as it is.
+     *
+     * @param object the shared object
+     * @throws NullPointerException     In case the object is null
+     * @throws IllegalArgumentException In case the object has no box
+     */
+    public Instance(Intersectable object) {
+        if (object == null)
+            throw new NullPointerException("ERROR arguments is NULL");
+        if (object.boundaryBox == null)
+            throw new IllegalArgumentException("an instance must hold an object with a box");
+        _object = object;
+        setBox();
+    }
+
+    /**
+     * constructor for an instance placing the object by a given affine transform.
+     * calls {@link geometries.Instance#setTransform(double...)}.
+     *
+     * @param object    the shared object
+     * @param transform 3 rows of 4 values - the linear part and the translation of each axis
+     * @throws NullPointerException     In case the object or the transform is null
+     * @throws IllegalArgumentException In case the object has no box or the transform can not be inverted
+     */
+    public Instance(Intersectable object, double... transform) {
+        this(object);
+        setTransform(transform);
+    }
+
+    //------------------ getters ------------------
+
+    /**
+     * getter for the shared object.
+     *
+     * @return the object
+     */
+    public Intersectable get_object() {
+        return _object;
+    }
+
+    /**
+     * getter for the transform from the space of the object to the space of the scene.
+     *
+     * @return 3 rows of 4 values - the linear part and the translation of each axis
+     */
+    public double[] get_transform() {
+        return _transform.clone();
+    }
+
+    //------------------ setters ------------------
+
+    /**
+     * sets the transform from the space of the object to the space of the scene.
+     * the boxes of the trees holding the instance are fixed by {@link geometries.Geometries#refit()}.
+     *
+     * @param transform 3 rows of 4 values - the linear part and the translation of each axis
+     * @return the instance
+     * @throws NullPointerException     In case the transform is null
+     * @throws IllegalArgumentException In case the transform does not have 12 values or can not be inverted
+     */
+    public Instance setTransform(double... transform) {
+        if (transform == null)
+            throw new NullPointerException("ERROR arguments is NULL");
+        if (transform.length != 12)
+            throw new IllegalArgumentException("a transform must have 3 rows of 4 values");
+        double[] inverse = invert(transform);
+        System.arraycopy(transform, 0, _transform, 0, 12);
+        System.arraycopy(inverse, 0, _inverse, 0, 12);
+        setBox();
+        return this;
+    }
+
+    /**
+     * moves the instance after its current transform.
+     * calls {@link geometries.Instance#setTransform(double...)}.
+     *
+     * @param vector the movement
+     * @return the instance
+     */
+    public Instance translate(Vector vector) {
+        Point3D head = vector.get_head();
+        return apply(new double[]{
+                1, 0, 0, head.get_x().get(),
+                0, 1, 0, head.get_y().get(),
+                0, 0, 1, head.get_z().get()});
+    }
+
+    /**
+     * scales the instance around the origin after its current transform.
+     * calls {@link geometries.Instance#setTransform(double...)}.
+     *
+     * @param x scale of the x axis
+     * @param y scale of the y axis
+     * @param z scale of the z axis
+     * @return the instance
+     * @throws IllegalArgumentException In case a scale is zero
+     */
+    public Instance scale(double x, double y, double z) {
+        return apply(new double[]{
+                x, 0, 0, 0,
+                0, y, 0, 0,
+                0, 0, z, 0});
+    }
+
+    /**
+     * rotates the instance around an axis through the origin after its current transform.
+     * calls {@link geometries.Instance#setTransform(double...)}.
+     *
+     * @param axis  the axis, by the right hand rule
+     * @param angle the angle, in radians
+     * @return the instance
+     */
+    public Instance rotate(Vector axis, double angle) {
+        Point3D head = axis.normalized().get_head();
+        double x = head.get_x().get();
+        double y = head.get_y().get();
+        double z = head.get_z().get();
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        double t = 1 - cos;
+        return apply(new double[]{
+                t * x * x + cos, t * x * y - sin * z, t * x * z + sin * y, 0,
+                t * x * y + sin * z, t * y * y + cos, t * y * z - sin * x, 0,
+                t * x * z - sin * y, t * y * z + sin * x, t * z * z + cos, 0});
+    }
+
+    //------------------ functions ------------------
+
+    @Override
+    public List<GeoPoint> findIntersections(Ray ray, double maxDistance) {
+        if (boundaryBox.enterBox(ray, maxDistance) == Double.POSITIVE_INFINITY)
+            return null;
+        double[] scale = new double[1];
+        Ray objectRay = toObject(ray, scale);
+        List<GeoPoint> intersections = _object.findIntersections(objectRay, maxDistance * scale[0]);
+        if (intersections == null)
+            return null;
+        List<GeoPoint> result = new LinkedList<>();
+        for (GeoPoint point : intersections)
+            result.add(toScene(point));
+        return result;
+    }
+
+    @Override
+    public GeoPoint findClosestIntersection(Ray ray, double maxDistance) {
+        if (boundaryBox.enterBox(ray, maxDistance) == Double.POSITIVE_INFINITY)
+            return null;
+        TraversalStats stats = TraversalStats.current();
+        if (stats != null)
+            stats.test(_object, 1);
+        double[] scale = new double[1];
+        Ray objectRay = toObject(ray, scale);
+        GeoPoint point = _object.findClosestIntersection(objectRay, maxDistance * scale[0]);
+        return point == null ? null : toScene(point);
+    }
+
+    @Override
+    public boolean isOccluded(Ray ray, double maxDistance) {
+        if (boundaryBox.enterBox(ray, maxDistance) == Double.POSITIVE_INFINITY)
+            return false;
+        TraversalStats stats = TraversalStats.current();
+        if (stats != null)
+            stats.test(_object, 1);
+        double[] scale = new double[1];
+        Ray objectRay = toObject(ray, scale);
+        return _object.isOccluded(objectRay, maxDistance * scale[0]);
+    }
+
+    @Override
+    public double transmittance(Ray ray, double maxDistance, double minK) {
+        if (boundaryBox.enterBox(ray, maxDistance) == Double.POSITIVE_INFINITY)
+            return 1.0;
+        TraversalStats stats = TraversalStats.current();
+        if (stats != null)
+            stats.test(_object, 1);
+        double[] scale = new double[1];
+        Ray objectRay = toObject(ray, scale);
+        return _object.transmittance(objectRay, maxDistance * scale[0], minK);
+    }
+
+    /**
+     * sets the box of the instance to the box around the box of the object moved by the transform.
+     */
+    @Override
+    public void setBox() {
+        boundaryBox = toScene(_object.boundaryBox);
+    }
+
+    /**
+     * composes a transform after the current transform of the instance.
+     *
+     * @param transform the transform to apply after the current one, in the format of the transform
+     * @return the instance
+     */
+    private Instance apply(double[] transform) {
+        double[] result = new double[12];
+        for (int row = 0; row < 3; row++)
+            for (int column = 0; column < 4; column++) {
+                double value = column == 3 ? transform[4 * row + 3] : 0;
+                for (int k = 0; k < 3; k++)
+                    value += transform[4 * row + k] * _transform[4 * k + column];
+                result[4 * row + column] = value;
+            }
+        return setTransform(result);
+    }
+
+    /**
+     * moves a ray into the space of the object. the direction of the ray is normalized again,
+     * so distances along it are scaled by the length the transform gives the direction of the ray.
+     *
+     * @param ray   the ray in the space of the scene
+     * @param scale array for returning the distance in the space of the object of one unit along the ray
+     * @return the ray in the space of the object
+     */
+    private Ray toObject(Ray ray, double[] scale) {
+        double x = ray.get_x0();
+        double y = ray.get_y0();
+        double z = ray.get_z0();
+        double dx = ray.get_dx();
+        double dy = ray.get_dy();
+        double dz = ray.get_dz();
+        double[] m = _inverse;
+        Vector direction = new Vector(
+                m[0] * dx + m[1] * dy + m[2] * dz,
+                m[4] * dx + m[5] * dy + m[6] * dz,
+                m[8] * dx + m[9] * dy + m[10] * dz);
+        scale[0] = direction.length();
+        return new Ray(new Point3D(
+                m[0] * x + m[1] * y + m[2] * z + m[3],
+                m[4] * x + m[5] * y + m[6] * z + m[7],
+                m[8] * x + m[9] * y + m[10] * z + m[11]), direction);
+    }
+
+    /**
+     * moves an intersection with the object into the space of the scene.
+     *
+     * @param point the intersection in the space of the object
+     * @return the intersection in the space of the scene, with the geometry as part of the instance
+     */
+    private GeoPoint toScene(GeoPoint point) {
+        return new GeoPoint(new Part(this, point.geometry), transform(_transform, point.point));
+    }
+
+    /**
+     * gets the box around a box moved by the transform, by the extremes of the corners on each axis.
+     *
+     * @param box the box in the space of the object
+     * @return the box in the space of the scene
+     */
+    private Box toScene(Box box) {
+        if (box.isInfinite)
+            return new Box(
+                    new Point3D(-Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE),
+                    new Point3D(Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE));
+        double[] min = {box._min.get_x().get(), box._min.get_y().get(), box._min.get_z().get()};
+        double[] max = {box._max.get_x().get(), box._max.get_y().get(), box._max.get_z().get()};
+        double[] newMin = new double[3];
+        double[] newMax = new double[3];
+        for (int row = 0; row < 3; row++) {
+            newMin[row] = newMax[row] = _transform[4 * row + 3];
+            for (int axis = 0; axis < 3; axis++) {
+                double a = _transform[4 * row + axis] * min[axis];
+                double b = _transform[4 * row + axis] * max[axis];
+                newMin[row] += Math.min(a, b);
+                newMax[row] += Math.max(a, b);
+            }
+        }
+        return new Box(new Point3D(newMin[0], newMin[1], newMin[2]), new Point3D(newMax[0], newMax[1], newMax[2]));
+    }
+
+    /**
+     * moves a point by a transform.
+     *
+     * @param m     the transform
+     * @param point the point
+     * @return the moved point
+     */
+    private static Point3D transform(double[] m, Point3D point) {
+        double x = point.get_x().get();
+        double y = point.get_y().get();
+        double z = point.get_z().get();
+        return new Point3D(
+                m[0] * x + m[1] * y + m[2] * z + m[3],
+                m[4] * x + m[5] * y + m[6] * z + m[7],
+                m[8] * x + m[9] * y + m[10] * z + m[11]);
+    }
+
+    /**
+     * inverts an affine transform - the inverse of the linear part by its cofactors,
+     * and the translation moved back by it.
+     *
+     * @param m the transform
+     * @return the inverse transform
+     * @throws IllegalArgumentException In case the linear part of the transform is singular
+     */
+    private static double[] invert(double[] m) {
+        double c00 = m[5] * m[10] - m[6] * m[9];
+        double c01 = m[6] * m[8] - m[4] * m[10];
+        double c02 = m[4] * m[9] - m[5] * m[8];
+        double det = m[0] * c00 + m[1] * c01 + m[2] * c02;
+        if (isZero(det))
+            throw new IllegalArgumentException("the transform can not be inverted");
+        double[] inverse = {
+                c00, m[2] * m[9] - m[1] * m[10], m[1] * m[6] - m[2] * m[5], 0,
+                c01, m[0] * m[10] - m[2] * m[8], m[2] * m[4] - m[0] * m[6], 0,
+                c02, m[1] * m[8] - m[0] * m[9], m[0] * m[5] - m[1] * m[4], 0};
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 3; column++)
+                inverse[4 * row + column] /= det;
+            inverse[4 * row + 3] = -(inverse[4 * row] * m[3] + inverse[4 * row + 1] * m[7]
+                    + inverse[4 * row + 2] * m[11]);
+        }
+        return inverse;
+    }
+
+    /**
+     * class Part representing a geometry of the shared object as a part of an instance,
+     * created for the intersections with the instance so the normal at a point in the space of the scene
+     * is calculated by the geometry in the space of the object and moved back by the instance.
+     * the box of a part is set only when asked for since a part is created for every intersection.
+     */
+    public static class Part extends Geometry {
+        /**
+         * the instance the geometry is part of
+         */
+        private final Instance _instance;
+        /**
+         * the geometry, in the space of the object
+         */
+        private final Geometry _geometry;
+
+        /**
+         * constructor for a part of an instance, with the material and emission of the geometry.
+         *
+         * @param instance the instance
+         * @param geometry the geometry of the object
+         */
+        Part(Instance instance, Geometry geometry) {
+            super(geometry._material, geometry._emission);
+            _instance = instance;
+            _geometry = geometry;
+        }
+
+        /**
+         * getter for the instance the geometry is part of.
+         *
+         * @return the instance
+         */
+        public Instance get_instance() {
+            return _instance;
+        }
+
+        /**
+         * getter for the geometry of the shared object.
+         *
+         * @return the geometry, in the space of the object
+         */
+        public Geometry get_geometry() {
+            return _geometry;
+        }
+
+        /**
+         * calculates the normal by the geometry in the space of the object
+         * and moves it by the transpose of the inverse of the transform, so it stays orthogonal to the surface.
+         *
+         * @param point a point in the space of the scene
+         * @return orthogonal unit vector in the space of the scene
+         */
+        @Override
+        public Vector getNormal(Point3D point) {
+            double[] m = _instance._inverse;
+            Point3D n = _geometry.getNormal(transform(m, point)).get_head();
+            double x = n.get_x().get();
+            double y = n.get_y().get();
+            double z = n.get_z().get();
+            return new Vector(
+                    m[0] * x + m[4] * y + m[8] * z,
+                    m[1] * x + m[5] * y + m[9] * z,
+                    m[2] * x + m[6] * y + m[10] * z).normalize();
+        }
+
+        @Override
+        public List<GeoPoint> findIntersections(Ray ray, double maxDistance) {
+            double[] scale = new double[1];
+            Ray objectRay = _instance.toObject(ray, scale);
+            List<GeoPoint> intersections = _geometry.findIntersections(objectRay, maxDistance * scale[0]);
+            if (intersections == null)
+                return null;
+            List<GeoPoint> result = new LinkedList<>();
+            for (GeoPoint point : intersections)
+                result.add(new GeoPoint(this, transform(_instance._transform, point.point)));
+            return result;
+        }
+
+        @Override
+        public void setBox() {
+            if (_geometry.boundaryBox == null)
+                _geometry.setBox();
+            boundaryBox = _instance.toScene(_geometry.boundaryBox);
+        }
+
+        //******************** Admin ****************
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Part)) return false;
+            Part part = (Part) o;
+            return _instance == part._instance && _geometry.equals(part._geometry);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(_instance) + _geometry.hashCode();
+        }
+    }
+}
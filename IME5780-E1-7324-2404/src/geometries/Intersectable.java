@@ -35,6 +35,11 @@ public abstract class Intersectable {
          * boolean flag is true if object is infinite
          */
         boolean isInfinite;
+        /**
+         * min x,y,z and max x,y,z of the object kept as primitives, in the format of the boxes of {@link FlatBvh},
+         * so the slab test does not need to go through the points
+         */
+        final double[] _bounds;
  //------------------ constructor ------------------
         /**
          * constructor receives min and max values and calculates the mid point
@@ -50,6 +55,9 @@ public abstract class Intersectable {
                     (max.get_y().get() + min.get_y().get()) / 2d,
                     (max.get_z().get() + min.get_z().get()) / 2d);
 
+            _bounds = new double[]{_min.get_x().get(), _min.get_y().get(), _min.get_z().get(),
+                    _max.get_x().get(), _max.get_y().get(), _max.get_z().get()};
+
             // mark if the object is infinite
             if (max.get_x().get() == Double.MAX_VALUE ||
                     max.get_y().get() == Double.MAX_VALUE ||
@@ -62,44 +70,51 @@ public abstract class Intersectable {
 
         /**
          * AABB algorithm to check intersection of the ray and a boundary box.
+         * calls {@link geometries.Intersectable.Box#enterBox(Ray, double)} with positive infinity as the max distance.
          *
          * @param ray the ray that we are checking if it intersects the Box
-         * @return true if the ray intersects the box
+         * @return true if the ray intersects the box in front of its head
          */
-        boolean intersectBox(Ray ray) {
-            double tmin = (_min.get_x().get() - ray.get_p0().get_x().get()) / ray.get_direction().get_head().get_x().get();
-            double tmax = (_max.get_x().get() - ray.get_p0().get_x().get()) / ray.get_direction().get_head().get_x().get();
-            if (tmin > tmax) {
-                tmax = swap(tmin, tmin = tmax);
-            }
-            double tymin = (_min.get_y().get() - ray.get_p0().get_y().get()) / ray.get_direction().get_head().get_y().get();
-            double tymax = (_max.get_y().get() - ray.get_p0().get_y().get()) / ray.get_direction().get_head().get_y().get();
-            if (tymin > tymax)
-                tymax = swap(tymin, tymin = tymax);
-            if (tmin > tymax || tymin > tmax)
-                return false;
-            if (tymin > tmin)
-                tmin = tymin;
-            if (tymax < tmax)
-                tmax = tymax;
-            double tzmin = (_min.get_z().get() - ray.get_p0().get_z().get()) / ray.get_direction().get_head().get_z().get();
-            double tzmax = (_max.get_z().get() - ray.get_p0().get_z().get()) / ray.get_direction().get_head().get_z().get();
-            if (tzmin > tzmax)
-                tzmax = swap(tzmin, tzmin = tzmax);
-            if ((tmin > tzmax) || (tzmin > tmax))
-                return false;
-            return true;
+        public boolean intersectBox(Ray ray) {
+            return enterBox(ray, Double.POSITIVE_INFINITY) != Double.POSITIVE_INFINITY;
+        }
+
+        /**
+         * slab test of the ray and the box, with the range of the ray clipped to between its head and a max distance,
+         * so a box behind the head of the ray or after the max distance is missed.
+         * calls {@link geometries.FlatBvh#enterBox(double[], int, Ray, double)}.
+         *
+         * @param ray         the ray
+         * @param maxDistance the max distance value between the head of the ray and intersection point
+         * @return distance where the ray enters the box, 0 if its head is inside the box,
+         * or positive infinity if the ray misses the box between its head and max distance
+         */
+        public double enterBox(Ray ray, double maxDistance) {
+            return FlatBvh.enterBox(_bounds, 0, ray, maxDistance);
+        }
+
+        /**
+         * calculates half of the surface area of the box, for the surface area heuristic.
+         *
+         * @return half of the surface area
+         */
+        double area() {
+            double dx = _max.get_x().get() - _min.get_x().get();
+            double dy = _max.get_y().get() - _min.get_y().get();
+            double dz = _max.get_z().get() - _min.get_z().get();
+            return dx * dy + dy * dz + dz * dx;
         }
 
         /**
-         * fast swap.
+         * checks whether the box holds another box.
          *
-         * @param a first param
-         * @param b second param
-         * @return param a
+         * @param box the other box
+         * @return true if the other box is inside the box
          */
-        double swap(double a, double b) {
-            return a;
+        boolean holds(Box box) {
+            return _min.get_x().get() <= box._min.get_x().get() && box._max.get_x().get() <= _max.get_x().get()
+                    && _min.get_y().get() <= box._min.get_y().get() && box._max.get_y().get() <= _max.get_y().get()
+                    && _min.get_z().get() <= box._min.get_z().get() && box._max.get_z().get() <= _max.get_z().get();
         }
     }
 
@@ -190,6 +205,102 @@ public abstract class Intersectable {
      */
     public abstract List<GeoPoint> findIntersections(Ray ray, double maxDistance);
 
+    /**
+     * calculates the closest intersection between a Ray and a intersectable objects
+     * from beginning of the ray until a given distance.
+     * calls {@link geometries.Intersectable#findIntersections(Ray, double)} and picks the closest point,
+     * composite objects override it to avoid collecting all intersections.
+     *
+     * @param ray         the Ray to find intersection with
+     * @param maxDistance the max distance value between the head of the ray and intersection point
+     * @return the intersection closest to the head of the ray or null if there is none
+     */
+    public GeoPoint findClosestIntersection(Ray ray, double maxDistance) {
+        List<GeoPoint> intersections = findIntersections(ray, maxDistance);
+        if (intersections == null)
+            return null;
+        Point3D p0 = ray.get_p0();
+        GeoPoint closestPoint = null;
+        double minimum = Double.POSITIVE_INFINITY;
+        for (GeoPoint p : intersections) { // go over all points and save the one with shortest distance
+            double distance = p0.distance(p.point);
+            if (distance < minimum) {
+                minimum = distance;
+                closestPoint = p;
+            }
+        }
+        return closestPoint;
+    }
+
+    /**
+     * calculates the closest intersection of every ray in a packet,
+     * each can then be taken by {@link geometries.RayPacket#getClosest(int)}.
+     * calls {@link geometries.Intersectable#findClosestIntersections(RayPacket, int)} with all the lanes.
+     *
+     * @param packet the rays, with no intersections found yet
+     */
+    public void findClosestIntersections(RayPacket packet) {
+        findClosestIntersections(packet, packet.getLanes());
+    }
+
+    /**
+     * calculates the closest intersection of some of the rays in a packet until the closest intersection
+     * found so far for each ray, and keeps the closer ones in the packet.
+     * calls {@link geometries.Intersectable#findClosestIntersection(Ray, double)} for each ray,
+     * composite objects override it to go over their parts once for all the rays.
+     *
+     * @param packet the rays and their closest intersections so far
+     * @param lanes  mask of the lanes of the rays to intersect
+     */
+    protected void findClosestIntersections(RayPacket packet, int lanes) {
+        for (int lane = 0; lane < packet.size(); lane++)
+            if ((lanes & (1 << lane)) != 0) {
+                GeoPoint point = findClosestIntersection(packet._rays[lane], packet._maxDistance[lane]);
+                if (point != null)
+                    packet.offer(lane, point);
+            }
+    }
+
+    /**
+     * checks whether an opaque object intersects a Ray from beginning of the ray until a given distance.
+     * calls {@link geometries.Intersectable#findIntersections(Ray, double)},
+     * composite objects override it to stop at the first opaque intersection.
+     *
+     * @param ray         the Ray to check
+     * @param maxDistance the max distance value between the head of the ray and intersection point
+     * @return true if there is an intersection with an object whose transparency coefficient is 0
+     */
+    public boolean isOccluded(Ray ray, double maxDistance) {
+        List<GeoPoint> intersections = findIntersections(ray, maxDistance);
+        if (intersections != null)
+            for (GeoPoint p : intersections)
+                if (p.geometry.get_material().get_kT() == 0)
+                    return true;
+        return false;
+    }
+
+    /**
+     * calculates how much light passes along a Ray from beginning of the ray until a given distance
+     * by multiplying the transparency coefficients of all intersections.
+     * stops as soon as the product is less then a given value since the light left is insignificant.
+     *
+     * @param ray         the Ray to check
+     * @param maxDistance the max distance value between the head of the ray and intersection point
+     * @param minK        the value under which the light left is insignificant
+     * @return the product of transparency coefficients of the intersections
+     */
+    public double transmittance(Ray ray, double maxDistance, double minK) {
+        List<GeoPoint> intersections = findIntersections(ray, maxDistance);
+        double ktr = 1.0;
+        if (intersections != null)
+            for (GeoPoint p : intersections) {
+                ktr *= p.geometry.get_material().get_kT();
+                if (ktr < minK)
+                    return ktr;
+            }
+        return ktr;
+    }
+
     /**
      * set boundary values of the object.
      */
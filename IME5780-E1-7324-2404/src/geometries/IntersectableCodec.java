@@ -0,0 +1,443 @@
+package geometries;
+
+import primitives.*;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * a class for writing intersectables with their bvh trees to a binary stream and reading them back.
+ * every intersectable is written as a byte of its kind and its values in big endian order,
+ * and groups and trees are written with their children after them.
+ * the arrays of flat trees and meshes are written as they are, so reading them is one bulk copy
+ * from the buffer for each array and the trees are not built again.
+ */
+public final class IntersectableCodec {
+    private static final byte GEOMETRIES = 0;
+    private static final byte FLAT_BVH = 1;
+    private static final byte SPHERE = 2;
+    private static final byte TRIANGLE = 3;
+    private static final byte POLYGON = 4;
+    private static final byte PLANE = 5;
+    private static final byte TUBE = 6;
+    private static final byte CYLINDER = 7;
+    private static final byte MESH = 8;
+    private static final byte GRID = 9;
+
+    /**
+     * amount of bytes written to the stream at once when writing an array
+     */
+    private static final int BLOCK_SIZE = 1 << 16;
+
+    /**
+     * the class has only static functions, so it is not created
+     */
+    private IntersectableCodec() {
+    }
+
+    //------------------ writing ------------------
+
+    /**
+     * writes an intersectable and all the intersectables in it.
+     *
+     * @param out           the stream
+     * @param intersectable the intersectable
+     * @throws IOException              In case writing to the stream failed
+     * @throws IllegalArgumentException In case the intersectable is of an unknown kind
+     */
+    public static void write(DataOutputStream out, Intersectable intersectable) throws IOException {
+        if (intersectable instanceof Geometries) {
+            List<Intersectable> children = ((Geometries) intersectable).getIntersectables();
+            out.writeByte(GEOMETRIES);
+            out.writeInt(children.size());
+            for (Intersectable child : children)
+                write(out, child);
+        } else if (intersectable instanceof FlatBvh) {
+            FlatBvh tree = (FlatBvh) intersectable;
+            out.writeByte(FLAT_BVH);
+            out.writeInt(tree._depth);
+            writeDoubles(out, tree._bounds);
+            writeInts(out, tree._nodes);
+            out.writeInt(tree._intersectables.length);
+            for (Intersectable child : tree._intersectables)
+                write(out, child);
+        } else if (intersectable instanceof Grid) { // the cells are put in again when it is read
+            Grid grid = (Grid) intersectable;
+            out.writeByte(GRID);
+            out.writeBoolean(grid._twoLevel);
+            out.writeInt(grid._intersectables.length);
+            for (Intersectable child : grid._intersectables)
+                write(out, child);
+        } else if (intersectable instanceof TriangleMesh) {
+            TriangleMesh mesh = (TriangleMesh) intersectable;
+            out.writeByte(MESH);
+            writeGeometry(out, mesh);
+            out.writeInt(mesh._depth);
+            writeDoubles(out, mesh._positions);
+            writeInts(out, mesh._indices);
+            out.writeBoolean(mesh._normals != null);
+            if (mesh._normals != null)
+                writeDoubles(out, mesh._normals);
+            writeDoubles(out, mesh._bounds);
+            writeInts(out, mesh._nodes);
+        } else if (intersectable instanceof Sphere) {
+            Sphere sphere = (Sphere) intersectable;
+            out.writeByte(SPHERE);
+            writeGeometry(out, sphere);
+            out.writeDouble(sphere.get_radius());
+            writePoint(out, sphere.get_center());
+        } else if (intersectable instanceof Polygon) { // also a Triangle
+            Polygon polygon = (Polygon) intersectable;
+            boolean triangle = polygon instanceof Triangle;
+            out.writeByte(triangle ? TRIANGLE : POLYGON);
+            writeGeometry(out, polygon);
+            if (!triangle)
+                out.writeInt(polygon._vertices.size());
+            for (Point3D vertex : polygon._vertices)
+                writePoint(out, vertex);
+        } else if (intersectable instanceof Plane) {
+            Plane plane = (Plane) intersectable;
+            out.writeByte(PLANE);
+            writeGeometry(out, plane);
+            writePoint(out, plane._po);
+            writeVector(out, plane._normal);
+        } else if (intersectable instanceof Tube) { // also a Cylinder
+            Tube tube = (Tube) intersectable;
+            boolean cylinder = tube instanceof Cylinder;
+            out.writeByte(cylinder ? CYLINDER : TUBE);
+            writeGeometry(out, tube);
+            out.writeDouble(tube.get_radius());
+            writePoint(out, tube._axisRay.get_p0());
+            writeVector(out, tube._axisRay.get_direction());
+            if (cylinder)
+                out.writeDouble(((Cylinder) tube).get_height());
+        } else
+            throw new IllegalArgumentException("can not write " + intersectable.getClass().getName());
+    }
+
+    /**
+     * writes the root of a bvh tree and all the intersectables in it, followed by the time it took
+     * to build the tree and its cost, so it is read back as a tree by
+     * {@link #readTree(ByteBuffer, Geometries, Geometries.BvhType)}.
+     *
+     * @param out        the stream
+     * @param root       the root of the tree
+     * @param statistics the statistics of the tree
+     * @throws IOException              In case writing to the stream failed
+     * @throws IllegalArgumentException In case an intersectable in the tree is of an unknown kind
+     */
+    public static void writeTree(DataOutputStream out, Geometries root, BvhStatistics statistics) throws IOException {
+        write(out, root);
+        out.writeLong(statistics.get_buildTime());
+        out.writeDouble(statistics.get_sahCost());
+    }
+
+    /**
+     * writes the material and emission light of a geometry.
+     *
+     * @param out      the stream
+     * @param geometry the geometry
+     * @throws IOException In case writing to the stream failed
+     */
+    private static void writeGeometry(DataOutputStream out, Geometry geometry) throws IOException {
+        Material material = geometry._material;
+        out.writeDouble(material.get_kD());
+        out.writeDouble(material.get_kS());
+        out.writeInt(material.get_nShininess());
+        out.writeDouble(material.get_kT());
+        out.writeDouble(material.get_kR());
+        writeColor(out, geometry._emission);
+    }
+
+    /**
+     * writes a point as 3 doubles.
+     *
+     * @param out   the stream
+     * @param point the point
+     * @throws IOException In case writing to the stream failed
+     */
+    public static void writePoint(DataOutputStream out, Point3D point) throws IOException {
+        out.writeDouble(point.get_x().get());
+        out.writeDouble(point.get_y().get());
+        out.writeDouble(point.get_z().get());
+    }
+
+    /**
+     * writes a vector as the 3 doubles of its head.
+     *
+     * @param out    the stream
+     * @param vector the vector
+     * @throws IOException In case writing to the stream failed
+     */
+    public static void writeVector(DataOutputStream out, Vector vector) throws IOException {
+        writePoint(out, vector.get_head());
+    }
+
+    /**
+     * writes a color as 3 doubles, without the limit of 255.
+     *
+     * @param out   the stream
+     * @param color the color
+     * @throws IOException In case writing to the stream failed
+     */
+    public static void writeColor(DataOutputStream out, Color color) throws IOException {
+        out.writeDouble(color.get_r());
+        out.writeDouble(color.get_g());
+        out.writeDouble(color.get_b());
+    }
+
+    /**
+     * writes the length of an array of doubles and its values, a block at a time.
+     *
+     * @param out    the stream
+     * @param values the array
+     * @throws IOException In case writing to the stream failed
+     */
+    private static void writeDoubles(DataOutputStream out, double[] values) throws IOException {
+        out.writeInt(values.length);
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+        for (int i = 0; i < values.length; i += BLOCK_SIZE / 8) {
+            int count = Math.min(BLOCK_SIZE / 8, values.length - i);
+            block.clear();
+            block.asDoubleBuffer().put(values, i, count);
+            out.write(block.array(), 0, 8 * count);
+        }
+    }
+
+    /**
+     * writes the length of an array of ints and its values, a block at a time.
+     *
+     * @param out    the stream
+     * @param values the array
+     * @throws IOException In case writing to the stream failed
+     */
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+        for (int i = 0; i < values.length; i += BLOCK_SIZE / 4) {
+            int count = Math.min(BLOCK_SIZE / 4, values.length - i);
+            block.clear();
+            block.asIntBuffer().put(values, i, count);
+            out.write(block.array(), 0, 4 * count);
+        }
+    }
+
+    //------------------ reading ------------------
+
+    /**
+     * reads an intersectable that was written by {@link #write(DataOutputStream, Intersectable)}
+     * from the position of a big endian buffer, and moves the position after it.
+     *
+     * @param in the buffer
+     * @return the intersectable
+     * @throws IllegalArgumentException          In case the buffer does not hold a valid intersectable
+     * @throws java.nio.BufferUnderflowException In case the buffer ends in the middle of the intersectable
+     */
+    public static Intersectable read(ByteBuffer in) {
+        byte kind = in.get();
+        switch (kind) {
+            case GEOMETRIES: {
+                Intersectable[] children = readChildren(in);
+                Geometries geometries = new Geometries();
+                if (children.length > 0)
+                    geometries.add(children);
+                return geometries;
+            }
+            case FLAT_BVH: {
+                int depth = in.getInt();
+                double[] bounds = readDoubles(in);
+                int[] nodes = readInts(in);
+                return new FlatBvh(bounds, nodes, readChildren(in), depth);
+            }
+            case GRID: {
+                boolean twoLevel = in.get() != 0;
+                return new Grid(List.of(readChildren(in)), twoLevel);
+            }
+            case MESH: {
+                Material material = readMaterial(in);
+                Color emission = readColor(in);
+                int depth = in.getInt();
+                double[] positions = readDoubles(in);
+                int[] indices = readInts(in);
+                double[] normals = in.get() != 0 ? readDoubles(in) : null;
+                return new TriangleMesh(material, emission, positions, indices, normals,
+                        readDoubles(in), readInts(in), depth);
+            }
+            case SPHERE: {
+                Material material = readMaterial(in);
+                Color emission = readColor(in);
+                double radius = in.getDouble();
+                return new Sphere(material, emission, radius, readPoint(in));
+            }
+            case TRIANGLE: {
+                Material material = readMaterial(in);
+                Color emission = readColor(in);
+                return new Triangle(material, emission, readPoint(in), readPoint(in), readPoint(in));
+            }
+            case POLYGON: {
+                Material material = readMaterial(in);
+                Color emission = readColor(in);
+                Point3D[] vertices = new Point3D[in.getInt()];
+                for (int i = 0; i < vertices.length; i++)
+                    vertices[i] = readPoint(in);
+                return new Polygon(material, emission, vertices);
+            }
+            case PLANE: {
+                Material material = readMaterial(in);
+                Color emission = readColor(in);
+                return new Plane(material, emission, readPoint(in), readVector(in));
+            }
+            case TUBE:
+            case CYLINDER: {
+                Material material = readMaterial(in);
+                Color emission = readColor(in);
+                double radius = in.getDouble();
+                Ray axis = new Ray(readPoint(in), readVector(in));
+                return kind == TUBE ? new Tube(material, emission, radius, axis)
+                        : new Cylinder(material, emission, radius, axis, in.getDouble());
+            }
+            default:
+                throw new IllegalArgumentException("unknown kind of intersectable " + kind);
+        }
+    }
+
+    /**
+     * reads a group that was written by {@link #write(DataOutputStream, Intersectable)}
+     * and adds its children to another group, such as the geometries of a scene.
+     *
+     * @param in         the buffer
+     * @param geometries the group to add the children to
+     * @throws IllegalArgumentException In case the buffer does not hold a valid group
+     */
+    public static void readInto(ByteBuffer in, Geometries geometries) {
+        if (in.get() != GEOMETRIES)
+            throw new IllegalArgumentException("the intersectable is not a group");
+        Intersectable[] children = readChildren(in);
+        if (children.length > 0)
+            geometries.add(children);
+    }
+
+    /**
+     * reads the root of a bvh tree that was written by {@link #writeTree(DataOutputStream, Geometries, BvhStatistics)}
+     * into another group, such as the geometries of a scene, and marks the group as a tree built by an algorithm
+     * with the cost it had when it was built.
+     *
+     * @param in   the buffer
+     * @param root the group to add the children of the root to
+     * @param type the algorithm the tree was built by
+     * @return statistics of the tree
+     * @throws IllegalArgumentException In case the buffer does not hold a valid group
+     */
+    public static BvhStatistics readTree(ByteBuffer in, Geometries root, Geometries.BvhType type) {
+        readInto(in, root);
+        long buildTime = in.getLong();
+        return root.restoreTree(type, in.getDouble(), buildTime);
+    }
+
+    /**
+     * reads the amount of children and the children of a group or a tree.
+     *
+     * @param in the buffer
+     * @return the children
+     */
+    private static Intersectable[] readChildren(ByteBuffer in) {
+        Intersectable[] children = new Intersectable[readLength(in, 1)];
+        for (int i = 0; i < children.length; i++)
+            children[i] = read(in);
+        return children;
+    }
+
+    /**
+     * reads the material of a geometry.
+     *
+     * @param in the buffer
+     * @return the material
+     */
+    private static Material readMaterial(ByteBuffer in) {
+        double kD = in.getDouble();
+        double kS = in.getDouble();
+        int nShininess = in.getInt();
+        double kT = in.getDouble();
+        return new Material(kD, kS, nShininess, kT, in.getDouble());
+    }
+
+    /**
+     * reads a point of 3 doubles.
+     *
+     * @param in the buffer
+     * @return the point
+     */
+    public static Point3D readPoint(ByteBuffer in) {
+        double x = in.getDouble();
+        double y = in.getDouble();
+        return new Point3D(x, y, in.getDouble());
+    }
+
+    /**
+     * reads a vector of 3 doubles.
+     *
+     * @param in the buffer
+     * @return the vector
+     * @throws IllegalArgumentException In case the vector is zero
+     */
+    public static Vector readVector(ByteBuffer in) {
+        double x = in.getDouble();
+        double y = in.getDouble();
+        return new Vector(x, y, in.getDouble());
+    }
+
+    /**
+     * reads a color of 3 doubles.
+     *
+     * @param in the buffer
+     * @return the color
+     */
+    public static Color readColor(ByteBuffer in) {
+        double r = in.getDouble();
+        double g = in.getDouble();
+        return new Color(r, g, in.getDouble());
+    }
+
+    /**
+     * reads the length of an array and checks that the rest of the buffer can hold it.
+     *
+     * @param in   the buffer
+     * @param size the least amount of bytes of each value
+     * @return the length
+     * @throws IllegalArgumentException In case the length is negative or longer than the buffer
+     */
+    private static int readLength(ByteBuffer in, int size) {
+        int length = in.getInt();
+        if (length < 0 || (long) length * size > in.remaining())
+            throw new IllegalArgumentException("bad length of array " + length);
+        return length;
+    }
+
+    /**
+     * reads an array of doubles by one bulk copy from the buffer.
+     *
+     * @param in the buffer
+     * @return the array
+     */
+    private static double[] readDoubles(ByteBuffer in) {
+        double[] values = new double[readLength(in, 8)];
+        in.asDoubleBuffer().get(values);
+        in.position(in.position() + 8 * values.length);
+        return values;
+    }
+
+    /**
+     * reads an array of ints by one bulk copy from the buffer.
+     *
+     * @param in the buffer
+     * @return the array
+     */
+    private static int[] readInts(ByteBuffer in) {
+        int[] values = new int[readLength(in, 4)];
+        in.asIntBuffer().get(values);
+        in.position(in.position() + 4 * values.length);
+        return values;
+    }
+}
@@ -0,0 +1,585 @@
+package geometries;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * parallel builder of a flat bounding volume hierarchy over the mid points of the boxes along the Morton (Z order) curve.
+ * the mid points are given 30 bit Morton codes and sorted by a parallel radix sort, then every range of the sorted
+ * intersectables is split where the highest bit of the codes that differs in the range changes (linear bvh),
+ * so the tree is built in O(n) after the sort, and the ranges are built by separate tasks of a {@link ForkJoinPool}.
+ * to get a better tree, the top levels can be split by the Morton codes and the sub trees under them built
+ * by the binned surface area heuristic ({@link SahBvhBuilder}) in parallel.
+ */
+class LbvhBuilder {
+    /**
+     * amount of bits of the Morton code of each axis
+     */
+    private static final int AXIS_BITS = 10;
+    /**
+     * amount of bits of a digit of the radix sort
+     */
+    private static final int RADIX_BITS = 8;
+    /**
+     * amount of values of a digit of the radix sort
+     */
+    private static final int RADIX = 1 << RADIX_BITS;
+    /**
+     * amount of intersectables a task handles without splitting to smaller tasks
+     */
+    private static final int GRAIN = 4096;
+    /**
+     * max amount of intersectables with the same Morton code in a leaf
+     */
+    private static final int MAX_LEAF_SIZE = 4;
+    /**
+     * max amount of intersectables in a sub tree that is built by the surface area heuristic
+     */
+    private static final int SAH_TREE_SIZE = 1024;
+
+    /**
+     * the intersectables the tree is built from
+     */
+    private final Intersectable[] _intersectables;
+    /**
+     * whether the sub trees are built by the surface area heuristic
+     */
+    private final boolean _refine;
+    /**
+     * the pool of threads of the tasks
+     */
+    private final ForkJoinPool _pool;
+    /**
+     * boxes of the intersectables - min x,y,z and max x,y,z for each intersectable
+     */
+    private double[] _bounds;
+    /**
+     * Morton codes of the intersectables in the upper 32 bits and their indexes in the lower 32 bits,
+     * sorted by the codes
+     */
+    private long[] _keys;
+    /**
+     * indexes of the intersectables in the order of the leaves
+     */
+    private int[] _order;
+    /**
+     * arrays of the flat tree while it is written
+     */
+    private double[] _flatBounds;
+    private int[] _flatNodes;
+
+    /**
+     * action done on a range of indexes by a thread.
+     */
+    @FunctionalInterface
+    private interface RangeAction {
+        /**
+         * does the action on a range.
+         *
+         * @param start first index in the range
+         * @param end   index after the last index in the range
+         */
+        void run(int start, int end);
+    }
+
+    /**
+     * node of the tree before it is flattened.
+     */
+    private static class Node {
+        /**
+         * first index of the intersectables of the node
+         */
+        final int _start;
+        /**
+         * index after the last intersectable of the node
+         */
+        final int _end;
+        /**
+         * box of the node - min x,y,z and max x,y,z
+         */
+        double[] _box;
+        /**
+         * the children of an inner node, null in a leaf
+         */
+        Node _left, _right;
+        /**
+         * axis of the split of an inner node
+         */
+        int _axis;
+        /**
+         * boxes of the nodes of the sub tree built by the surface area heuristic,
+         * null if the node is not the root of one
+         */
+        double[] _sahBounds;
+        /**
+         * nodes of the sub tree built by the surface area heuristic, in the format of {@link FlatBvh}
+         */
+        int[] _sahNodes;
+        /**
+         * amount of nodes in the sub tree of the node, including the node
+         */
+        int _size = 1;
+        /**
+         * the depth of the sub tree of the node, 0 for a leaf
+         */
+        int _depth;
+
+        /**
+         * constructor for the node of a range of the intersectables.
+         *
+         * @param start first index of the intersectables
+         * @param end   index after the last intersectable
+         */
+        Node(int start, int end) {
+            _start = start;
+            _end = end;
+        }
+    }
+
+    //------------------ constructor ------------------
+
+    /**
+     * constructor for the builder.
+     *
+     * @param intersectables the finite intersectables to build the tree from
+     * @param refine         whether the sub trees under the top levels are built by the surface area heuristic
+     * @param pool           the pool of threads that builds the tree
+     */
+    LbvhBuilder(List<Intersectable> intersectables, boolean refine, ForkJoinPool pool) {
+        _intersectables = intersectables.toArray(new Intersectable[0]);
+        _refine = refine;
+        _pool = pool;
+    }
+
+    //------------------ functions ------------------
+
+    /**
+     * builds the tree flattened into arrays.
+     *
+     * @return the flat tree, or null if there are no intersectables
+     */
+    FlatBvh build() {
+        int n = _intersectables.length;
+        if (n == 0)
+            return null;
+
+        // copy the boxes, the reading of the boxes of all the intersectables is split between the threads
+        _bounds = new double[6 * n];
+        double[] mids = new double[3 * n];
+        parallel(n, GRAIN, (start, end) -> {
+            for (int i = start; i < end; i++) {
+                Intersectable.Box box = _intersectables[i].boundaryBox;
+                _bounds[6 * i] = box._min.get_x().get();
+                _bounds[6 * i + 1] = box._min.get_y().get();
+                _bounds[6 * i + 2] = box._min.get_z().get();
+                _bounds[6 * i + 3] = box._max.get_x().get();
+                _bounds[6 * i + 4] = box._max.get_y().get();
+                _bounds[6 * i + 5] = box._max.get_z().get();
+                mids[3 * i] = box._mid.get_x().get();
+                mids[3 * i + 1] = box._mid.get_y().get();
+                mids[3 * i + 2] = box._mid.get_z().get();
+            }
+        });
+
+        // the Morton codes are taken in the box of the mid points
+        double[] min = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
+        double[] scale = {-Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        for (int i = 0; i < n; i++)
+            for (int axis = 0; axis < 3; axis++) {
+                min[axis] = Math.min(min[axis], mids[3 * i + axis]);
+                scale[axis] = Math.max(scale[axis], mids[3 * i + axis]);
+            }
+        for (int axis = 0; axis < 3; axis++) {
+            double extent = scale[axis] - min[axis];
+            scale[axis] = extent > 0 ? (1 << AXIS_BITS) / extent : 0;
+        }
+        _keys = new long[n];
+        parallel(n, GRAIN, (start, end) -> {
+            for (int i = start; i < end; i++)
+                _keys[i] = (long) mortonCode(mids, i, min, scale) << 32 | i;
+        });
+        radixSort();
+        _order = new int[n];
+        parallel(n, GRAIN, (start, end) -> {
+            for (int i = start; i < end; i++)
+                _order[i] = (int) _keys[i];
+        });
+
+        Node root = _pool.invoke(new BuildTask(0, n));
+        _flatBounds = new double[6 * root._size];
+        _flatNodes = new int[3 * root._size];
+        _pool.invoke(new WriteTask(root, 0));
+        Intersectable[] ordered = new Intersectable[n];
+        parallel(n, GRAIN, (start, end) -> {
+            for (int i = start; i < end; i++)
+                ordered[i] = _intersectables[_order[i]];
+        });
+        return new FlatBvh(_flatBounds, _flatNodes, ordered, root._depth);
+    }
+
+    /**
+     * sorts the keys by their Morton codes, a digit of {@value #RADIX_BITS} bits at a time from the lowest digit.
+     * the keys are divided to chunks, every chunk counts its digits in parallel, and after the counts are added up
+     * every chunk moves its keys to their places in parallel, so the order of keys with the same digit is kept.
+     */
+    private void radixSort() {
+        int n = _keys.length;
+        int chunks = Math.max(1, Math.min(n / GRAIN, 4 * _pool.getParallelism()));
+        int chunkSize = (n + chunks - 1) / chunks;
+        int[][] counts = new int[chunks][RADIX];
+        long[] source = _keys;
+        long[] target = new long[n];
+        for (int shift = 32; shift < 32 + 3 * AXIS_BITS; shift += RADIX_BITS) {
+            final int digitShift = shift;
+            final long[] from = source;
+            final long[] to = target;
+            parallel(chunks, 1, (first, last) -> {
+                for (int c = first; c < last; c++) {
+                    int[] count = counts[c];
+                    Arrays.fill(count, 0);
+                    for (int i = c * chunkSize, end = Math.min(n, i + chunkSize); i < end; i++)
+                        count[(int) (from[i] >>> digitShift) & (RADIX - 1)]++;
+                }
+            });
+            // turn the counts to the index of the first key of every digit in every chunk
+            int offset = 0;
+            for (int digit = 0; digit < RADIX; digit++)
+                for (int c = 0; c < chunks; c++) {
+                    int count = counts[c][digit];
+                    counts[c][digit] = offset;
+                    offset += count;
+                }
+            parallel(chunks, 1, (first, last) -> {
+                for (int c = first; c < last; c++) {
+                    int[] next = counts[c];
+                    for (int i = c * chunkSize, end = Math.min(n, i + chunkSize); i < end; i++)
+                        to[next[(int) (from[i] >>> digitShift) & (RADIX - 1)]++] = from[i];
+                }
+            });
+            source = to;
+            target = from;
+        }
+        _keys = source;
+    }
+
+    /**
+     * does an action on all the indexes up to a size, split to ranges that are done by the threads of the pool.
+     *
+     * @param size   amount of indexes
+     * @param grain  amount of indexes done without splitting the range
+     * @param action the action on a range
+     */
+    private void parallel(int size, int grain, RangeAction action) {
+        if (size <= grain) {
+            action.run(0, size);
+            return;
+        }
+        _pool.invoke(new RangeTask(action, 0, size, grain));
+    }
+
+    /**
+     * creates the node of a range of the sorted intersectables and the nodes under it.
+     *
+     * @param start first index in the range
+     * @param end   index after the last index in the range
+     * @return the node of the range
+     */
+    private Node build(int start, int end) {
+        Node node = new Node(start, end);
+        int count = end - start;
+        if (_refine && count <= SAH_TREE_SIZE && count > 1) {
+            sahTree(node);
+            return node;
+        }
+        int middle = count == 1 ? -1 : split(node);
+        if (middle < 0) { // leaf - the box of all its intersectables
+            node._box = emptyBox();
+            for (int i = start; i < end; i++)
+                grow(node._box, _bounds, 6 * _order[i]);
+            return node;
+        }
+        if (count > GRAIN) { // build the left side in another task while this task builds the right side
+            BuildTask left = new BuildTask(start, middle);
+            left.fork();
+            node._right = build(middle, end);
+            node._left = left.join();
+        } else {
+            node._left = build(start, middle);
+            node._right = build(middle, end);
+        }
+        node._box = node._left._box.clone();
+        grow(node._box, node._right._box, 0);
+        node._size = 1 + node._left._size + node._right._size;
+        node._depth = 1 + Math.max(node._left._depth, node._right._depth);
+        return node;
+    }
+
+    /**
+     * finds where the highest bit of the Morton codes that differs in a range changes,
+     * the axis of the bit is kept in the node.
+     *
+     * @param node the node of the range
+     * @return index of the first intersectable on the right side, or -1 if the range should be a leaf
+     */
+    private int split(Node node) {
+        int start = node._start;
+        int end = node._end;
+        long first = _keys[start] >>> 32;
+        long last = _keys[end - 1] >>> 32;
+        if (first == last) { // same code - split in the middle of the range
+            if (end - start <= MAX_LEAF_SIZE)
+                return -1;
+            node._axis = 0;
+            return (start + end) >>> 1;
+        }
+        int bit = 63 - Long.numberOfLeadingZeros(first ^ last);
+        node._axis = 2 - bit % 3;
+        // the codes are sorted, so the bit is 0 at the start of the range and 1 from some index to the end
+        int low = start + 1;
+        int high = end - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if ((_keys[middle] >>> 32 & 1L << bit) == 0)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * builds the sub tree of a node by the surface area heuristic and reorders its intersectables by the leaves.
+     *
+     * @param node the node
+     */
+    private void sahTree(Node node) {
+        int start = node._start;
+        int count = node._end - start;
+        double[] bounds = new double[6 * count];
+        for (int i = 0; i < count; i++)
+            System.arraycopy(_bounds, 6 * _order[start + i], bounds, 6 * i, 6);
+        SahBvhBuilder builder = new SahBvhBuilder(bounds);
+        builder.flattenTree();
+        int[] indexes = builder.getIndexes();
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++)
+            order[i] = _order[start + indexes[i]];
+        System.arraycopy(order, 0, _order, start, count);
+        node._sahBounds = builder.getFlatBounds();
+        node._sahNodes = builder.getFlatNodes();
+        node._box = Arrays.copyOf(node._sahBounds, 6);
+        node._size = node._sahNodes.length / 3;
+        node._depth = builder.getFlatDepth();
+    }
+
+    /**
+     * writes a node and the nodes under it to the flat tree in depth first order.
+     *
+     * @param node  the node
+     * @param index index of the node in the flat tree
+     */
+    private void write(Node node, int index) {
+        if (node._sahNodes != null) { // move the sub tree to its place in the flat tree
+            int[] nodes = node._sahNodes;
+            System.arraycopy(node._sahBounds, 0, _flatBounds, 6 * index, node._sahBounds.length);
+            for (int k = 0; k < nodes.length; k += 3) {
+                boolean leaf = nodes[k + 1] > 0;
+                _flatNodes[3 * index + k] = nodes[k] + (leaf ? node._start : index);
+                _flatNodes[3 * index + k + 1] = nodes[k + 1];
+                _flatNodes[3 * index + k + 2] = nodes[k + 2];
+            }
+            return;
+        }
+        System.arraycopy(node._box, 0, _flatBounds, 6 * index, 6);
+        if (node._left == null) { // leaf - offset of the first intersectable and amount of intersectables
+            _flatNodes[3 * index] = node._start;
+            _flatNodes[3 * index + 1] = node._end - node._start;
+            return;
+        }
+        // inner node - index of the right child and the axis of the split
+        int right = index + 1 + node._left._size;
+        _flatNodes[3 * index] = right;
+        _flatNodes[3 * index + 2] = node._axis;
+        if (node._end - node._start > GRAIN) {
+            WriteTask left = new WriteTask(node._left, index + 1);
+            left.fork();
+            write(node._right, right);
+            left.join();
+        } else {
+            write(node._left, index + 1);
+            write(node._right, right);
+        }
+    }
+
+    /**
+     * calculates the Morton code of a mid point by interleaving the bits of its place in the box of the mid points,
+     * x in the highest bit.
+     *
+     * @param mids  mid points of the boxes - x,y,z for each intersectable
+     * @param i     index of the intersectable
+     * @param min   min values of the mid points
+     * @param scale amount of steps of the code in a unit on each axis
+     * @return the code of {@value #AXIS_BITS} bits on each axis
+     */
+    private static int mortonCode(double[] mids, int i, double[] min, double[] scale) {
+        int code = 0;
+        for (int axis = 0; axis < 3; axis++) {
+            int value = (int) ((mids[3 * i + axis] - min[axis]) * scale[axis]);
+            code |= spreadBits(Math.min(value, (1 << AXIS_BITS) - 1)) << (2 - axis);
+        }
+        return code;
+    }
+
+    /**
+     * spreads the lower {@value #AXIS_BITS} bits of a number to every third bit of the result.
+     *
+     * @param value the number
+     * @return the spread bits
+     */
+    private static int spreadBits(int value) {
+        value = (value | (value << 16)) & 0x030000FF;
+        value = (value | (value << 8)) & 0x0300F00F;
+        value = (value | (value << 4)) & 0x030C30C3;
+        value = (value | (value << 2)) & 0x09249249;
+        return value;
+    }
+
+    /**
+     * creates a box that grows to any box added to it.
+     *
+     * @return array of min x,y,z and max x,y,z
+     */
+    private static double[] emptyBox() {
+        return new double[]{Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE,
+                -Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+    }
+
+    /**
+     * grows a box to include other bounds.
+     *
+     * @param box    the box to grow
+     * @param other  array of the bounds to include
+     * @param offset offset of the bounds to include in the array
+     */
+    private static void grow(double[] box, double[] other, int offset) {
+        for (int k = 0; k < 3; k++) {
+            if (other[offset + k] < box[k])
+                box[k] = other[offset + k];
+            if (other[offset + 3 + k] > box[3 + k])
+                box[3 + k] = other[offset + 3 + k];
+        }
+    }
+
+    /**
+     * task doing an action on a range of indexes, splitting it in halves until it is small enough.
+     */
+    @SuppressWarnings("serial")
+    private static class RangeTask extends RecursiveAction {
+        /**
+         * the action on a range
+         */
+        private final RangeAction _action;
+        /**
+         * first index of the range
+         */
+        private final int _start;
+        /**
+         * index after the last index of the range
+         */
+        private final int _end;
+        /**
+         * amount of indexes done without splitting the range
+         */
+        private final int _grain;
+
+        /**
+         * constructor for the task of a range of indexes.
+         *
+         * @param action the action on a range
+         * @param start  first index
+         * @param end    index after the last index
+         * @param grain  amount of indexes done without splitting
+         */
+        RangeTask(RangeAction action, int start, int end, int grain) {
+            _action = action;
+            _start = start;
+            _end = end;
+            _grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (_end - _start <= _grain) {
+                _action.run(_start, _end);
+                return;
+            }
+            int middle = (_start + _end) >>> 1;
+            invokeAll(new RangeTask(_action, _start, middle, _grain), new RangeTask(_action, middle, _end, _grain));
+        }
+    }
+
+    /**
+     * task building the node of a range of the sorted intersectables.
+     */
+    @SuppressWarnings("serial")
+    private class BuildTask extends RecursiveTask<Node> {
+        /**
+         * first index of the range
+         */
+        private final int _start;
+        /**
+         * index after the last index of the range
+         */
+        private final int _end;
+
+        /**
+         * constructor for the task of a range.
+         *
+         * @param start first index
+         * @param end   index after the last index
+         */
+        BuildTask(int start, int end) {
+            _start = start;
+            _end = end;
+        }
+
+        @Override
+        protected Node compute() {
+            return build(_start, _end);
+        }
+    }
+
+    /**
+     * task writing a node and the nodes under it to the flat tree.
+     */
+    @SuppressWarnings("serial")
+    private class WriteTask extends RecursiveAction {
+        /**
+         * the node
+         */
+        private final Node _node;
+        /**
+         * index of the node in the flat tree
+         */
+        private final int _index;
+
+        /**
+         * constructor for the task of a node.
+         *
+         * @param node  the node
+         * @param index index of the node in the flat tree
+         */
+        WriteTask(Node node, int index) {
+            _node = node;
+            _index = index;
+        }
+
+        @Override
+        protected void compute() {
+            write(_node, _index);
+        }
+    }
+}
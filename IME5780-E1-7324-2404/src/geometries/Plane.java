@@ -149,16 +149,21 @@ public class Plane extends Geometry {
 
     @Override
     public List<GeoPoint> findIntersections(Ray ray, double maxDistance) {
-        if (!boundaryBox.intersectBox(ray)) // if no intersection with the box return null
+        // if no intersection with the box until the max distance return null
+        if (boundaryBox.enterBox(ray, maxDistance) == Double.POSITIVE_INFINITY)
             return null;
-        Vector Qp;
-        try {
-            Qp = this._po.subtract(ray.get_p0());
-        } catch (IllegalArgumentException e) { // the ray starts at the planes reference point
+        // Qp = po - p0, calculated on the values so no vectors are created
+        double qx = alignZero(_po.get_x().get() - ray.get_x0());
+        double qy = alignZero(_po.get_y().get() - ray.get_y0());
+        double qz = alignZero(_po.get_z().get() - ray.get_z0());
+        if (qx == 0 && qy == 0 && qz == 0) // the ray starts at the planes reference point
             return null;
-        }
-        double Nv = alignZero(this._normal.dotProduct(ray.get_direction()));
-        double NQp = alignZero(this._normal.dotProduct(Qp));
+        Point3D n = this._normal.get_head();
+        double nx = n.get_x().get();
+        double ny = n.get_y().get();
+        double nz = n.get_z().get();
+        double Nv = alignZero(nx * ray.get_dx() + ny * ray.get_dy() + nz * ray.get_dz());
+        double NQp = alignZero(nx * qx + ny * qy + nz * qz);
         if (!isZero(Nv) // the Ray is not parallel to or in the plane
                 && !isZero(NQp)) // the point is not in the plane
         {
@@ -185,17 +190,19 @@ public class Plane extends Geometry {
         double y = this._normal.get_head().get_y().get();
         double z = this._normal.get_head().get_z().get();
 
+        // the box of a plane orthogonal to an axis is a thin slab around the plane on that axis,
+        // placed by the reference point of the plane and not by the normal
         if (isZero(y) && isZero(z)) { // if plane is orthogonal to x axes
-            min_x = x - 0.1;
-            max_x = x + 0.1;
+            min_x = _po.get_x().get() - 0.1;
+            max_x = _po.get_x().get() + 0.1;
         }
         if (isZero(x) && isZero(z)) { // if plane is orthogonal to y axes
-            min_y = y - 0.1;
-            max_y = y + 0.1;
+            min_y = _po.get_y().get() - 0.1;
+            max_y = _po.get_y().get() + 0.1;
         }
         if (isZero(y) && isZero(x)) { // if plane is orthogonal to z axes
-            min_z = z - 0.1;
-            max_z = z + 0.1;
+            min_z = _po.get_z().get() - 0.1;
+            max_z = _po.get_z().get() + 0.1;
         }
         // create box with min and max values found
         boundaryBox = new Box(
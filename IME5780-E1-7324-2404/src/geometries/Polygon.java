@@ -109,7 +109,10 @@ public class Polygon extends Geometry {
         // polygon with this plane.
         // The plane holds the invariant normal (orthogonal unit) vector to the polygon
         _plane = new Plane(vertices[0], vertices[1], vertices[2]);
-        if (vertices.length == 3) return; // no need for more tests for a Triangle
+        if (vertices.length == 3) { // no need for more tests for a Triangle
+            setBox();
+            return;
+        }
 
         Vector n = _plane.getNormal();
 
@@ -151,42 +154,62 @@ public class Polygon extends Geometry {
 
     @Override
     public List<GeoPoint> findIntersections(Ray ray, double maxDistance) {
-        if(!boundaryBox.intersectBox(ray)) // if no intersection with the box return null
+        // if no intersection with the box until the max distance return null
+        if (boundaryBox.enterBox(ray, maxDistance) == Double.POSITIVE_INFINITY)
             return null;
-        GeoPoint p;
-        try { // check if intersects with the plane its in
-            p = _plane.findIntersections(ray, maxDistance).get(0);
-            if (p == null) return null;
-        } catch (Exception e) {
+        double x0 = ray.get_x0();
+        double y0 = ray.get_y0();
+        double z0 = ray.get_z0();
+        // getting the first and second vectors, calculated on the values so no vectors are created
+        Point3D last = _vertices.get(_vertices.size() - 1);
+        double v1x = x0 - last.get_x().get(), v1y = y0 - last.get_y().get(), v1z = z0 - last.get_z().get();
+        Point3D first = _vertices.get(0);
+        double v2x = x0 - first.get_x().get(), v2y = y0 - first.get_y().get(), v2z = z0 - first.get_z().get();
+        double sign = edgeSign(ray, v1x, v1y, v1z, v2x, v2y, v2z);
+        if (isZero(sign))
             return null;
-        }
-        // changing to an array so it will be faster to get one of them, like vertices[1] and vertices[3].
-        Point3D[] vertices = new Point3D[_vertices.size()];
-        vertices = _vertices.toArray(vertices);
-        Vector rn = ray.get_direction();
-        Point3D rp = ray.get_p0();
-        // getting the first and second vectors
-        try {
-
-            Vector vec1 = rp.subtract(vertices[vertices.length - 1]);
-            Vector vec2 = rp.subtract(vertices[0]);
-
-            if (isZero(vec1.crossProduct(vec2).normalized().dotProduct(rn)))
+        boolean flag = sign > 0;
+        for (int i = 1; i < _vertices.size(); ++i) {
+            v1x = v2x;
+            v1y = v2y;
+            v1z = v2z;
+            Point3D vertex = _vertices.get(i);
+            v2x = x0 - vertex.get_x().get();
+            v2y = y0 - vertex.get_y().get();
+            v2z = z0 - vertex.get_z().get();
+            sign = edgeSign(ray, v1x, v1y, v1z, v2x, v2y, v2z);
+            if (isZero(sign) || flag != sign > 0)
                 return null;
-            boolean flag = vec1.crossProduct(vec2).normalized().dotProduct(rn) > 0;
-
-            for (int i = 1; i < vertices.length; ++i) {
-                vec1 = vec2;
-                vec2 = rp.subtract(vertices[i]);
-                if ((isZero(vec1.crossProduct(vec2).normalized().dotProduct(rn))) ||
-                        (flag != vec1.crossProduct(vec2).normalized().dotProduct(rn) > 0)) {
-                    return null;
-                }
-            }
-        } catch (IllegalArgumentException e) {
-            return null;
         }
-        return List.of(new GeoPoint(this, p.point));
+        // check if intersects with the plane its in
+        List<GeoPoint> planeResult = _plane.findIntersections(ray, maxDistance);
+        if (planeResult == null)
+            return null;
+        return List.of(new GeoPoint(this, planeResult.get(0).point));
+    }
+
+    /**
+     * calculates the dot product of the ray direction with the normalized cross product of 2 vectors
+     * between the start of the ray and vertices of the polygon.
+     * the sign tells on which side of the edge between the vertices the ray passes.
+     *
+     * @param ray the ray
+     * @param ux  x value of first vector
+     * @param uy  y value of first vector
+     * @param uz  z value of first vector
+     * @param vx  x value of second vector
+     * @param vy  y value of second vector
+     * @param vz  z value of second vector
+     * @return the dot product, 0 if one of the vectors is zero or they are parallel
+     */
+    static double edgeSign(Ray ray, double ux, double uy, double uz, double vx, double vy, double vz) {
+        double nx = uy * vz - uz * vy;
+        double ny = uz * vx - ux * vz;
+        double nz = ux * vy - uy * vx;
+        double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+        if (isZero(length))
+            return 0;
+        return (ray.get_dx() * nx + ray.get_dy() * ny + ray.get_dz() * nz) / length;
     }
 
     @Override
@@ -0,0 +1,251 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import primitives.Ray;
+
+/**
+ * class RayPacket for a few coherent rays, such as the rays from the camera through pixels next to each other,
+ * that go over the bvh tree together.
+ * the heads, directions and inverse directions of the rays are kept as arrays of primitives by axis,
+ * and each ray keeps the closest intersection found so far and its distance.
+ * the packet goes over the tree by the first active ray: an inner node is entered by all the rays of the packet
+ * as soon as one of them enters its box, so for coherent rays a node costs about the slab test of one ray,
+ * and the rays are tested one by one only at the leaves, before their intersectables.
+ * each ray goes over the nodes in the same order as when it is traced alone, so it finds the same closest point
+ * even when points of a few geometries are at the same distance.
+ * a packet is changed while it is traced, so each thread needs its own packet.
+ */
+public class RayPacket {
+    /**
+     * the most rays in a packet
+     */
+    public static final int SIZE = 8;
+
+    /**
+     * the rays of the packet
+     */
+    final Ray[] _rays = new Ray[SIZE];
+    /**
+     * x,y,z of the heads of the rays, by axis and then by lane
+     */
+    final double[][] _origin = new double[3][SIZE];
+    /**
+     * x,y,z of the directions of the rays, by axis and then by lane
+     */
+    final double[][] _direction = new double[3][SIZE];
+    /**
+     * x,y,z of the inverse of the directions of the rays, by axis and then by lane
+     */
+    final double[][] _inverse = new double[3][SIZE];
+    /**
+     * distance of the closest intersection found so far for each ray, positive infinity until one is found
+     */
+    final double[] _maxDistance = new double[SIZE];
+    /**
+     * the closest intersection found so far for each ray
+     */
+    final GeoPoint[] _closest = new GeoPoint[SIZE];
+    /**
+     * amount of rays in the packet
+     */
+    private int _size;
+
+    //------------------ functions ------------------
+
+    /**
+     * removes all the rays from the packet.
+     */
+    public void clear() {
+        _size = 0;
+    }
+
+    /**
+     * adds a ray to the next lane of the packet.
+     *
+     * @param ray the ray
+     * @return the lane of the ray
+     * @throws IllegalStateException In case the packet is full
+     */
+    public int add(Ray ray) {
+        if (_size == SIZE)
+            throw new IllegalStateException("the packet is full");
+        int lane = _size++;
+        _rays[lane] = ray;
+        _origin[0][lane] = ray.get_x0();
+        _origin[1][lane] = ray.get_y0();
+        _origin[2][lane] = ray.get_z0();
+        _direction[0][lane] = ray.get_dx();
+        _direction[1][lane] = ray.get_dy();
+        _direction[2][lane] = ray.get_dz();
+        _inverse[0][lane] = ray.get_inverseDx();
+        _inverse[1][lane] = ray.get_inverseDy();
+        _inverse[2][lane] = ray.get_inverseDz();
+        _maxDistance[lane] = Double.POSITIVE_INFINITY;
+        _closest[lane] = null;
+        return lane;
+    }
+
+    /**
+     * getter for the amount of rays in the packet.
+     *
+     * @return amount of rays
+     */
+    public int size() {
+        return _size;
+    }
+
+    /**
+     * checks whether another ray can be added to the packet.
+     *
+     * @return true if the packet is full
+     */
+    public boolean isFull() {
+        return _size == SIZE;
+    }
+
+    /**
+     * getter for the mask of all the lanes in the packet, where bit i is set for lane i.
+     *
+     * @return the mask
+     */
+    public int getLanes() {
+        return (1 << _size) - 1;
+    }
+
+    /**
+     * getter for the ray of a lane.
+     *
+     * @param lane the lane
+     * @return the ray
+     */
+    public Ray getRay(int lane) {
+        return _rays[lane];
+    }
+
+    /**
+     * getter for the closest intersection of the ray of a lane, after the packet was traced.
+     *
+     * @param lane the lane
+     * @return the intersection or null if the ray has no intersection
+     */
+    public GeoPoint getClosest(int lane) {
+        return _closest[lane];
+    }
+
+    /**
+     * keeps an intersection of the ray of a lane if it is closer then the closest one found so far.
+     * the same check that composite intersectables do for a single ray.
+     *
+     * @param lane  the lane
+     * @param point the intersection
+     */
+    void offer(int lane, GeoPoint point) {
+        double distance = _rays[lane].get_p0().distance(point.point);
+        if (_closest[lane] == null || distance < _maxDistance[lane]) { // keep the first of points in the same distance
+            _closest[lane] = point;
+            _maxDistance[lane] = distance;
+        }
+    }
+
+    /**
+     * slab test of a box of an inner node of a flat tree by the first active ray:
+     * the rays are tested in order until one of them enters the box, the rays before it are removed
+     * and the rays after it are kept without testing them, since their children are tested again.
+     *
+     * @param bounds boxes of the nodes of a tree
+     * @param node   index of the node
+     * @param lanes  mask of the active lanes
+     * @return mask of the lanes from the first ray that enters the box, 0 if no ray enters it
+     */
+    int enterFirst(double[] bounds, int node, int lanes) {
+        for (int lane = 0; lane < _size; lane++)
+            if ((lanes & (1 << lane)) != 0) {
+                if (enterBox(bounds, node, lane))
+                    return lanes;
+                lanes &= ~(1 << lane);
+            }
+        return 0;
+    }
+
+    /**
+     * slab test of a box of a leaf of a flat tree for each of the active rays,
+     * so the intersectables of the leaf are checked only with the rays that enter it.
+     *
+     * @param bounds boxes of the nodes of a tree
+     * @param node   index of the node
+     * @param lanes  mask of the active lanes
+     * @return mask of the lanes whose rays enter the box
+     */
+    int enterEach(double[] bounds, int node, int lanes) {
+        for (int lane = 0; lane < _size; lane++)
+            if ((lanes & (1 << lane)) != 0 && !enterBox(bounds, node, lane))
+                lanes &= ~(1 << lane);
+        return lanes;
+    }
+
+    /**
+     * slab test of a box for the ray of a lane up to its closest intersection,
+     * as {@link FlatBvh#enterBox(double[], int, Ray, double)} does for a single ray.
+     *
+     * @param bounds boxes of the nodes of a tree
+     * @param node   index of the node
+     * @param lane   the lane
+     * @return true if the ray enters the box before its closest intersection
+     */
+    private boolean enterBox(double[] bounds, int node, int lane) {
+        double tEnter = 0;
+        double tExit = _maxDistance[lane];
+        int offset = 6 * node;
+        for (int axis = 0; axis < 3; axis++) {
+            double origin = _origin[axis][lane];
+            double inverse = _inverse[axis][lane];
+            double t1 = (bounds[offset + axis] - origin) * inverse;
+            double t2 = (bounds[offset + 3 + axis] - origin) * inverse;
+            if (t1 > t2) {
+                double temp = t1;
+                t1 = t2;
+                t2 = temp;
+            }
+            // comparisons with NaN (ray parallel to the slab and on its border) do not change the range
+            if (t1 > tEnter)
+                tEnter = t1;
+            if (t2 < tExit)
+                tExit = t2;
+            if (tEnter > tExit)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * gets the lanes whose rays go in the negative direction of an axis, which check the children of a node
+     * of a flat tree from the right one to the left one.
+     *
+     * @param axis  the axis, 0 to 2 for x,y,z
+     * @param lanes mask of the active lanes
+     * @return mask of the active lanes with a negative inverse direction on the axis
+     */
+    int negativeLanes(int axis, int lanes) {
+        int negative = 0;
+        for (int lane = 0; lane < _size; lane++)
+            if ((lanes & (1 << lane)) != 0 && _inverse[axis][lane] < 0)
+                negative |= 1 << lane;
+        return negative;
+    }
+
+    /**
+     * slab test of a boundary box for some of the rays of the packet, each up to its closest intersection.
+     *
+     * @param box   the box
+     * @param lanes mask of the lanes to test
+     * @return mask of the lanes whose rays enter the box before their closest intersection
+     */
+    int intersectBox(Intersectable.Box box, int lanes) {
+        int result = 0;
+        for (int lane = 0; lane < _size; lane++)
+            if ((lanes & (1 << lane)) != 0
+                    && box.enterBox(_rays[lane], _maxDistance[lane]) != Double.POSITIVE_INFINITY)
+                result |= 1 << lane;
+        return result;
+    }
+}
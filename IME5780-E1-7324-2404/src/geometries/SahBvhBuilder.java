@@ -0,0 +1,446 @@
+package geometries;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * builder of a bounding volume hierarchy using the binned surface area heuristic (SAH).
+ * the boxes and mid points of all the intersectables are copied once into arrays of doubles,
+ * then every node is split by the plane with the lowest SAH cost out of {@value #BINS} bins
+ * on each axis, which gives a balanced tree in O(n log n).
+ * the tree is built either from Geometries nodes or flattened into arrays ({@link FlatBvh}),
+ * and can also be built over boxes of parts of one intersectable ({@link TriangleMesh}).
+ */
+class SahBvhBuilder {
+    /**
+     * amount of bins the mid points are divided to on each axis when looking for a split
+     */
+    private static final int BINS = 16;
+    /**
+     * max amount of intersectables in a leaf that is not worth splitting
+     */
+    private static final int MAX_LEAF_SIZE = 4;
+    /**
+     * cost of checking the box of a node relative to the cost of intersecting an intersectable
+     */
+    static final double TRAVERSAL_COST = 1d;
+
+    /**
+     * the intersectables the tree is built from, null when built over boxes only
+     */
+    private final Intersectable[] _intersectables;
+    /**
+     * boxes of the intersectables - min x,y,z and max x,y,z for each intersectable
+     */
+    private final double[] _bounds;
+    /**
+     * mid points of the boxes of the intersectables - x,y,z for each intersectable
+     */
+    private final double[] _mids;
+    /**
+     * indexes of the intersectables, reordered while partitioning
+     */
+    private final int[] _indexes;
+
+    // bins used while looking for a split - reused for all nodes
+    private final int[] _binCount = new int[BINS];
+    private final double[] _binBounds = new double[BINS * 6];
+    private final double[] _rightArea = new double[BINS];
+    private final int[] _rightCount = new int[BINS];
+    /**
+     * bounds of the last range that was split
+     */
+    private final double[] _nodeBounds = new double[6];
+    /**
+     * axis of the last split (0 - x, 1 - y, 2 - z)
+     */
+    private int _splitAxis;
+
+    // arrays of the flat tree while it is built
+    private double[] _flatBounds;
+    private int[] _flatNodes;
+    private int _flatSize;
+    private int _flatDepth;
+
+    //------------------ constructor ------------------
+
+    /**
+     * constructor for the builder that copies the boxes of all the given finite intersectables.
+     *
+     * @param intersectables the finite intersectables to build the tree from
+     */
+    SahBvhBuilder(List<Intersectable> intersectables) {
+        int n = intersectables.size();
+        _intersectables = intersectables.toArray(new Intersectable[n]);
+        _bounds = new double[n * 6];
+        _mids = new double[n * 3];
+        _indexes = new int[n];
+        for (int i = 0; i < n; i++) {
+            Intersectable.Box box = _intersectables[i].boundaryBox;
+            _bounds[6 * i] = box._min.get_x().get();
+            _bounds[6 * i + 1] = box._min.get_y().get();
+            _bounds[6 * i + 2] = box._min.get_z().get();
+            _bounds[6 * i + 3] = box._max.get_x().get();
+            _bounds[6 * i + 4] = box._max.get_y().get();
+            _bounds[6 * i + 5] = box._max.get_z().get();
+            _mids[3 * i] = box._mid.get_x().get();
+            _mids[3 * i + 1] = box._mid.get_y().get();
+            _mids[3 * i + 2] = box._mid.get_z().get();
+            _indexes[i] = i;
+        }
+    }
+
+    /**
+     * constructor for the builder of a flat tree over boxes, for intersectables made of many parts.
+     * only {@link #flattenTree()} can be used, and the order of the boxes in the leaves is in {@link #getIndexes()}.
+     *
+     * @param bounds boxes of the parts - min x,y,z and max x,y,z for each part
+     */
+    SahBvhBuilder(double[] bounds) {
+        int n = bounds.length / 6;
+        _intersectables = null;
+        _bounds = bounds;
+        _mids = new double[n * 3];
+        _indexes = new int[n];
+        for (int i = 0; i < n; i++) {
+            for (int axis = 0; axis < 3; axis++)
+                _mids[3 * i + axis] = (bounds[6 * i + axis] + bounds[6 * i + 3 + axis]) / 2d;
+            _indexes[i] = i;
+        }
+    }
+
+    //------------------ getters ------------------
+
+    /**
+     * getter for the order of the intersectables, after the tree is flattened it is the order of the leaves.
+     *
+     * @return indexes of the intersectables
+     */
+    int[] getIndexes() {
+        return _indexes;
+    }
+
+    /**
+     * getter for the boxes of the nodes of the flat tree.
+     *
+     * @return min x,y,z and max x,y,z for each node
+     */
+    double[] getFlatBounds() {
+        return Arrays.copyOf(_flatBounds, 6 * _flatSize);
+    }
+
+    /**
+     * getter for the nodes of the flat tree, in the format of {@link FlatBvh}.
+     *
+     * @return 3 values for each node
+     */
+    int[] getFlatNodes() {
+        return Arrays.copyOf(_flatNodes, 3 * _flatSize);
+    }
+
+    /**
+     * getter for the depth of the flat tree.
+     *
+     * @return the depth of the tree
+     */
+    int getFlatDepth() {
+        return _flatDepth;
+    }
+
+    //------------------ functions ------------------
+
+    /**
+     * builds the tree.
+     *
+     * @return the root of the tree, or null if there are no intersectables
+     */
+    Intersectable build() {
+        if (_indexes.length == 0)
+            return null;
+        return build(0, _indexes.length);
+    }
+
+    /**
+     * builds the sub tree of the intersectables in a range of the indexes array.
+     *
+     * @param start first index in the range
+     * @param end   index after the last index in the range
+     * @return the root of the sub tree
+     */
+    private Intersectable build(int start, int end) {
+        if (end - start == 1)
+            return _intersectables[_indexes[start]];
+        int middle = split(start, end);
+        if (middle < 0)
+            return leaf(start, end);
+        return new Geometries(build(start, middle), build(middle, end));
+    }
+
+    /**
+     * builds the tree flattened into arrays.
+     *
+     * @return the flat tree, or null if there are no intersectables
+     */
+    FlatBvh buildFlat() {
+        int n = _indexes.length;
+        if (n == 0)
+            return null;
+        flattenTree();
+        Intersectable[] ordered = new Intersectable[n];
+        for (int i = 0; i < n; i++)
+            ordered[i] = _intersectables[_indexes[i]];
+        return new FlatBvh(getFlatBounds(), getFlatNodes(), ordered, _flatDepth);
+    }
+
+    /**
+     * builds the tree flattened into arrays, the arrays are taken by the getters.
+     * the intersectables are reordered so each leaf holds a range of {@link #getIndexes()}.
+     */
+    void flattenTree() {
+        int n = _indexes.length;
+        _flatBounds = new double[6 * (2 * n - 1)];
+        _flatNodes = new int[3 * (2 * n - 1)];
+        _flatSize = 0;
+        _flatDepth = 0;
+        flatten(0, n, 0);
+    }
+
+    /**
+     * adds the nodes of a range of the indexes array to the flat tree in depth first order,
+     * so the left child of a node is always the node after it.
+     *
+     * @param start first index in the range
+     * @param end   index after the last index in the range
+     * @param depth the depth of the node
+     * @return index of the node of the range
+     */
+    private int flatten(int start, int end, int depth) {
+        int node = _flatSize++;
+        if (depth > _flatDepth)
+            _flatDepth = depth;
+        int middle = end - start == 1 ? -1 : split(start, end);
+        System.arraycopy(_nodeBounds, 0, _flatBounds, 6 * node, 6);
+        if (middle < 0) { // leaf - offset of the first intersectable and amount of intersectables
+            if (end - start == 1)
+                System.arraycopy(_bounds, 6 * _indexes[start], _flatBounds, 6 * node, 6);
+            _flatNodes[3 * node] = start;
+            _flatNodes[3 * node + 1] = end - start;
+            return node;
+        }
+        int axis = _splitAxis;
+        flatten(start, middle, depth + 1);
+        // inner node - index of the right child and the axis of the split
+        _flatNodes[3 * node] = flatten(middle, end, depth + 1);
+        _flatNodes[3 * node + 1] = 0;
+        _flatNodes[3 * node + 2] = axis;
+        return node;
+    }
+
+    /**
+     * looks for the cheapest split of a range of the indexes array and reorders the range by it.
+     * the bounds of the range are left in {@link #_nodeBounds} and the axis of the split in {@link #_splitAxis}.
+     *
+     * @param start first index in the range
+     * @param end   index after the last index in the range
+     * @return the index of the first intersectable on the right side, or -1 if the range should be a leaf
+     */
+    private int split(int start, int end) {
+        int count = end - start;
+
+        // bounds of the mid points decide where the bins are
+        double[] midMin = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
+        double[] midMax = {-Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        double[] nodeBounds = _nodeBounds;
+        reset(nodeBounds, 0);
+        for (int i = start; i < end; i++) {
+            int index = _indexes[i];
+            for (int axis = 0; axis < 3; axis++) {
+                double mid = _mids[3 * index + axis];
+                if (mid < midMin[axis]) midMin[axis] = mid;
+                if (mid > midMax[axis]) midMax[axis] = mid;
+            }
+            grow(nodeBounds, 0, _bounds, 6 * index);
+        }
+
+        // look for the cheapest split on all axes
+        double nodeArea = area(nodeBounds, 0);
+        double bestCost = Double.POSITIVE_INFINITY;
+        int bestAxis = -1;
+        int bestBin = -1;
+        for (int axis = 0; axis < 3; axis++) {
+            double extent = midMax[axis] - midMin[axis];
+            if (extent <= 0)
+                continue;
+            fillBins(start, end, axis, midMin[axis], extent);
+            // sweep from the right to get area and count of all right sides
+            double[] right = emptyBounds();
+            int rightCount = 0;
+            for (int b = BINS - 1; b > 0; b--) {
+                grow(right, 0, _binBounds, 6 * b);
+                rightCount += _binCount[b];
+                _rightArea[b] = area(right, 0);
+                _rightCount[b] = rightCount;
+            }
+            // sweep from the left and compare the cost of splitting before each bin
+            double[] left = emptyBounds();
+            int leftCount = 0;
+            for (int b = 1; b < BINS; b++) {
+                grow(left, 0, _binBounds, 6 * (b - 1));
+                leftCount += _binCount[b - 1];
+                if (leftCount == 0 || _rightCount[b] == 0)
+                    continue;
+                double cost = leftCount * area(left, 0) + _rightCount[b] * _rightArea[b];
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestAxis = axis;
+                    bestBin = b;
+                }
+            }
+        }
+
+        if (bestAxis == -1) { // all mid points are in the same place, split in the middle of the range
+            if (count <= MAX_LEAF_SIZE)
+                return -1;
+            _splitAxis = 0;
+            return start + count / 2;
+        }
+        // a leaf is cheaper when the cost of splitting is more then intersecting all the intersectables
+        double splitCost = TRAVERSAL_COST + (nodeArea > 0 ? bestCost / nodeArea : bestCost);
+        if (count <= MAX_LEAF_SIZE && splitCost >= count)
+            return -1;
+        _splitAxis = bestAxis;
+        return partition(start, end, bestAxis, midMin[bestAxis], midMax[bestAxis] - midMin[bestAxis], bestBin);
+    }
+
+    /**
+     * counts the intersectables of a range in each bin on an axis and the bounds of each bin.
+     *
+     * @param start  first index in the range
+     * @param end    index after the last index in the range
+     * @param axis   the axis (0 - x, 1 - y, 2 - z)
+     * @param min    min value of the mid points on the axis
+     * @param extent distance between min and max value of the mid points on the axis
+     */
+    private void fillBins(int start, int end, int axis, double min, double extent) {
+        for (int b = 0; b < BINS; b++) {
+            _binCount[b] = 0;
+            reset(_binBounds, 6 * b);
+        }
+        for (int i = start; i < end; i++) {
+            int index = _indexes[i];
+            int b = bin(_mids[3 * index + axis], min, extent);
+            _binCount[b]++;
+            grow(_binBounds, 6 * b, _bounds, 6 * index);
+        }
+    }
+
+    /**
+     * reorders a range of the indexes so all intersectables in bins before a given bin are first.
+     *
+     * @param start  first index in the range
+     * @param end    index after the last index in the range
+     * @param axis   the axis of the split
+     * @param min    min value of the mid points on the axis
+     * @param extent distance between min and max value of the mid points on the axis
+     * @param split  the first bin on the right side
+     * @return the index of the first intersectable on the right side
+     */
+    private int partition(int start, int end, int axis, double min, double extent, int split) {
+        int i = start;
+        int j = end - 1;
+        while (i <= j) {
+            if (bin(_mids[3 * _indexes[i] + axis], min, extent) < split)
+                i++;
+            else {
+                int temp = _indexes[i];
+                _indexes[i] = _indexes[j];
+                _indexes[j--] = temp;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * creates a leaf from a range of intersectables.
+     *
+     * @param start first index in the range
+     * @param end   index after the last index in the range
+     * @return Geometries holding the intersectables of the range
+     */
+    private Intersectable leaf(int start, int end) {
+        Intersectable[] intersectables = new Intersectable[end - start];
+        for (int i = start; i < end; i++)
+            intersectables[i - start] = _intersectables[_indexes[i]];
+        return new Geometries(intersectables);
+    }
+
+    /**
+     * calculates the bin of a mid point value.
+     *
+     * @param value  the value of the mid point on the axis
+     * @param min    min value of the mid points on the axis
+     * @param extent distance between min and max value of the mid points on the axis
+     * @return index of the bin
+     */
+    private static int bin(double value, double min, double extent) {
+        int b = (int) (BINS * (value - min) / extent);
+        return b < BINS ? b : BINS - 1;
+    }
+
+    /**
+     * creates bounds that grow to any bounds added to them.
+     *
+     * @return array of min x,y,z and max x,y,z
+     */
+    private static double[] emptyBounds() {
+        double[] bounds = new double[6];
+        reset(bounds, 0);
+        return bounds;
+    }
+
+    /**
+     * resets bounds so they grow to any bounds added to them.
+     *
+     * @param bounds array of the bounds
+     * @param offset offset of the bounds in the array
+     */
+    private static void reset(double[] bounds, int offset) {
+        for (int k = 0; k < 3; k++) {
+            bounds[offset + k] = Double.MAX_VALUE;
+            bounds[offset + 3 + k] = -Double.MAX_VALUE;
+        }
+    }
+
+    /**
+     * grows bounds to include other bounds.
+     *
+     * @param bounds      array of the bounds to grow
+     * @param offset      offset of the bounds in the array
+     * @param other       array of the bounds to include
+     * @param otherOffset offset of the bounds to include in the array
+     */
+    private static void grow(double[] bounds, int offset, double[] other, int otherOffset) {
+        for (int k = 0; k < 3; k++) {
+            if (other[otherOffset + k] < bounds[offset + k])
+                bounds[offset + k] = other[otherOffset + k];
+            if (other[otherOffset + 3 + k] > bounds[offset + 3 + k])
+                bounds[offset + 3 + k] = other[otherOffset + 3 + k];
+        }
+    }
+
+    /**
+     * calculates half of the surface area of bounds.
+     *
+     * @param bounds array of the bounds
+     * @param offset offset of the bounds in the array
+     * @return half of the surface area, 0 for empty bounds
+     */
+    static double area(double[] bounds, int offset) {
+        double dx = bounds[offset + 3] - bounds[offset];
+        double dy = bounds[offset + 4] - bounds[offset + 1];
+        double dz = bounds[offset + 5] - bounds[offset + 2];
+        if (dx < 0 || dy < 0 || dz < 0)
+            return 0;
+        return dx * dy + dy * dz + dz * dx;
+    }
+}
@@ -84,22 +84,21 @@ public class Sphere extends RadialGeometry {
 
     @Override
     public List<GeoPoint> findIntersections(Ray ray, double maxDistance) {
-        if (!boundaryBox.intersectBox(ray)) // if no intersection with the box return null
+        // if no intersection with the box until the max distance return null
+        if (boundaryBox.enterBox(ray, maxDistance) == Double.POSITIVE_INFINITY)
+            return null;
+        // u = center - p0, calculated on the values so no vectors are created
+        double ux = alignZero(_center.get_x().get() - ray.get_x0());
+        double uy = alignZero(_center.get_y().get() - ray.get_y0());
+        double uz = alignZero(_center.get_z().get() - ray.get_z0());
+        if (ux == 0 && uy == 0 && uz == 0) { // Ray starts at the center of the sphere
+            double t = this._radius;
+            if (alignZero(t - maxDistance) <= 0) // if the point is further then max distance
+                return List.of(new GeoPoint(this, ray.getPoint(t))); // the point on the Ray and the sphere
             return null;
-        Vector u;
-        try {
-            u = this._center.subtract(ray.get_p0());
-        } catch (IllegalArgumentException e) {  // Ray starts at the center of the sphere
-            {
-                double t = this._radius;
-                if (alignZero(t - maxDistance) <= 0) // if the point is further then max distance
-                    return List.of(new GeoPoint(this, ray.getPoint(t))); // the point on the Ray and the sphere
-                return null;
-            }
-
         }
-        double tm = alignZero(ray.get_direction().dotProduct(u));
-        double d = Math.sqrt(alignZero(u.lengthSquared() - tm * tm));
+        double tm = alignZero(ray.get_dx() * ux + ray.get_dy() * uy + ray.get_dz() * uz);
+        double d = Math.sqrt(alignZero(ux * ux + uy * uy + uz * uz - tm * tm));
         if (alignZero(d - this._radius) >= 0) // if(d>r) the ray does not intersect with the sphere
             return null;
         double th = alignZero(Math.sqrt(this._radius * this._radius - d * d));
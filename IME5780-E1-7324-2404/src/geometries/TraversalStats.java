@@ -0,0 +1,131 @@
+package geometries;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * class TraversalStats counting the work of the rays of a thread in the geometries - the nodes of the bvh trees
+ * whose boxes were checked and the tests of the rays with the geometries, by the class of the geometry.
+ * the renderer binds the counters of a thread to it while it renders a tile, and the geometries add to the counters
+ * bound to their thread, so the counters are not shared between threads and are not locked.
+ * while no counters are bound to any thread, finding the counters of a ray costs a single read of a field.
+ */
+public class TraversalStats {
+    /**
+     * the counters bound to every thread
+     */
+    private static final ThreadLocal<TraversalStats> CURRENT = new ThreadLocal<>();
+    /**
+     * amount of threads with counters bound to them
+     */
+    private static final AtomicInteger BOUND = new AtomicInteger();
+
+    /**
+     * amount of nodes visited
+     */
+    private long _nodes;
+    /**
+     * amount of tests of the rays with every class of geometries
+     */
+    private final Map<Class<?>, long[]> _tests = new HashMap<>();
+    /**
+     * the class of the last geometry tested, since the geometries of a leaf are mostly of the same class
+     */
+    private Class<?> _lastClass;
+    /**
+     * the counter of the class of the last geometry tested
+     */
+    private long[] _lastTests;
+
+    //------------------ getters ------------------
+
+    /**
+     * getter for the amount of nodes of the bvh trees visited.
+     *
+     * @return amount of nodes
+     */
+    public long getNodesVisited() {
+        return _nodes;
+    }
+
+    /**
+     * gets the amount of tests of the rays with every class of geometries.
+     *
+     * @return the amount of tests by the class of the geometry
+     */
+    public Map<Class<?>, Long> getTests() {
+        Map<Class<?>, Long> tests = new HashMap<>();
+        for (Map.Entry<Class<?>, long[]> entry : _tests.entrySet())
+            tests.put(entry.getKey(), entry.getValue()[0]);
+        return tests;
+    }
+
+    //------------------ functions ------------------
+
+    /**
+     * binds counters to the current thread, so the rays of the thread add to them.
+     *
+     * @param stats the counters, null to stop counting in the current thread
+     */
+    public static void bind(TraversalStats stats) {
+        TraversalStats old = CURRENT.get();
+        if (old == null && stats != null)
+            BOUND.incrementAndGet();
+        else if (old != null && stats == null)
+            BOUND.decrementAndGet();
+        if (stats == null)
+            CURRENT.remove();
+        else
+            CURRENT.set(stats);
+    }
+
+    /**
+     * gets the counters of the current thread.
+     *
+     * @return the counters, null if the thread is not counting
+     */
+    static TraversalStats current() {
+        return BOUND.get() == 0 ? null : CURRENT.get();
+    }
+
+    /**
+     * adds visited nodes.
+     *
+     * @param nodes amount of nodes
+     */
+    void visit(int nodes) {
+        _nodes += nodes;
+    }
+
+    /**
+     * adds tests of rays with a geometry. the geometries that hold other geometries count their own work,
+     * so their tests are not counted here.
+     *
+     * @param intersectable the geometry
+     * @param tests         amount of rays tested with it
+     */
+    void test(Intersectable intersectable, int tests) {
+        Class<?> type = intersectable.getClass();
+        if (type != _lastClass) {
+            _lastClass = type;
+            _lastTests = intersectable instanceof Geometries || intersectable instanceof FlatBvh
+                    || intersectable instanceof Grid
+                    || intersectable instanceof TriangleMesh
+                    || intersectable instanceof Instance
+                    ? null : _tests.computeIfAbsent(type, t -> new long[1]);
+        }
+        if (_lastTests != null)
+            _lastTests[0] += tests;
+    }
+
+    /**
+     * adds tests of rays with the triangles of a mesh, which are counted as tests of {@link TriangleMesh.Face}.
+     *
+     * @param tests amount of rays tested with triangles
+     */
+    void testTriangles(int tests) {
+        if (tests > 0)
+            _tests.computeIfAbsent(TriangleMesh.Face.class, t -> new long[1])[0] += tests;
+    }
+}
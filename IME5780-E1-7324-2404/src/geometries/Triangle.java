@@ -69,27 +69,30 @@ public class Triangle extends Polygon {
 
     @Override
     public List<GeoPoint> findIntersections(Ray ray, double maxDistance) {
-        if(!boundaryBox.intersectBox(ray)) // if no intersection with the box return null
+        // if no intersection with the box until the max distance return null
+        if (boundaryBox.enterBox(ray, maxDistance) == Double.POSITIVE_INFINITY)
             return null;
-        // check if intersects with the plane its in
-        List<GeoPoint> planeResult = _plane.findIntersections(ray, maxDistance);
-        if (planeResult == null)
-            return null;
-        // create vectors from start of rey through all vertices
-        Vector v1 = _vertices.get(0).subtract(ray.get_p0()).normalize();
-        Vector v2 = _vertices.get(1).subtract(ray.get_p0()).normalize();
-        Vector v3 = _vertices.get(2).subtract(ray.get_p0()).normalize();
-        // cross Product between them in order
-        Vector n1 = v1.crossProduct(v2).normalize();
-        Vector n2 = v2.crossProduct(v3).normalize();
-        Vector n3 = v3.crossProduct(v1).normalize();
-        // dot Product with ray direction
-        double t1 = alignZero(ray.get_direction().dotProduct(n1));
-        double t2 = alignZero(ray.get_direction().dotProduct(n2));
-        double t3 = alignZero(ray.get_direction().dotProduct(n3));
+        double x0 = ray.get_x0();
+        double y0 = ray.get_y0();
+        double z0 = ray.get_z0();
+        // vectors from start of ray through all vertices, calculated on the values so no vectors are created
+        Point3D p1 = _vertices.get(0);
+        Point3D p2 = _vertices.get(1);
+        Point3D p3 = _vertices.get(2);
+        double v1x = p1.get_x().get() - x0, v1y = p1.get_y().get() - y0, v1z = p1.get_z().get() - z0;
+        double v2x = p2.get_x().get() - x0, v2y = p2.get_y().get() - y0, v2z = p2.get_z().get() - z0;
+        double v3x = p3.get_x().get() - x0, v3y = p3.get_y().get() - y0, v3z = p3.get_z().get() - z0;
+        // dot Product of ray direction with the normalized cross Product between them in order
+        double t1 = alignZero(edgeSign(ray, v1x, v1y, v1z, v2x, v2y, v2z));
+        double t2 = alignZero(edgeSign(ray, v2x, v2y, v2z, v3x, v3y, v3z));
+        double t3 = alignZero(edgeSign(ray, v3x, v3y, v3z, v1x, v1y, v1z));
 
         // if all have the same sign
         if (Math.signum(t1) == Math.signum(t2) && Math.signum(t2) == Math.signum(t3)) {
+            // check if intersects with the plane its in
+            List<GeoPoint> planeResult = _plane.findIntersections(ray, maxDistance);
+            if (planeResult == null)
+                return null;
             planeResult.get(0).geometry = this;
             return planeResult;
         }
@@ -0,0 +1,686 @@
+package geometries;
+
+import primitives.*;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import static primitives.Util.*;
+
+/**
+ * class TriangleMesh representing many triangles that share their vertices, material and emission.
+ * the vertices and triangles are kept in arrays of primitives instead of an object for every triangle,
+ * and the mesh holds its own flat bvh tree over its triangles, so in Geometries and in the bvh tree of the scene
+ * the whole mesh is one intersectable.
+ * the triangles are intersected by the Moller-Trumbore algorithm on the values of the arrays.
+ * the vertices can be moved for animating the mesh, and then the boxes of the tree are fixed without building it again.
+ */
+public class TriangleMesh extends Geometry {
+    /**
+     * the vertices - x,y,z for each vertex
+     */
+    double[] _positions;
+    /**
+     * the triangles - indexes of 3 vertices for each triangle, ordered so each leaf of the tree holds a range of them
+     */
+    final int[] _indices;
+    /**
+     * normals of the vertices - x,y,z for each vertex, or null to use the normals of the triangles
+     */
+    double[] _normals;
+    /**
+     * boxes of the nodes of the tree, in the format of {@link FlatBvh}
+     */
+    final double[] _bounds;
+    /**
+     * children or triangles of the nodes of the tree, in the format of {@link FlatBvh}
+     */
+    final int[] _nodes;
+    /**
+     * the depth of the tree, decides the size of the traversal stack
+     */
+    final int _depth;
+
+    //*********************************** constructor ***************
+
+    /**
+     * TriangleMesh constructor receiving the vertices and the triangles.
+     * calls {@link geometries.TriangleMesh#TriangleMesh(Material, Color, double[], int[], double[])}.
+     *
+     * @param positions the vertices - x,y,z for each vertex
+     * @param indices   the triangles - indexes of 3 vertices for each triangle
+     */
+    public TriangleMesh(double[] positions, int[] indices) {
+        this(new Material(0, 0, 0), Color.BLACK, positions, indices, null);
+    }
+
+    /**
+     * TriangleMesh constructor receiving the vertices, the triangles, emission light and material.
+     * calls {@link geometries.TriangleMesh#TriangleMesh(Material, Color, double[], int[], double[])}.
+     *
+     * @param material  the material of all the triangles
+     * @param emission  the emission light of all the triangles
+     * @param positions the vertices - x,y,z for each vertex
+     * @param indices   the triangles - indexes of 3 vertices for each triangle
+     */
+    public TriangleMesh(Material material, Color emission, double[] positions, int[] indices) {
+        this(material, emission, positions, indices, null);
+    }
+
+    /**
+     * TriangleMesh constructor receiving the vertices, their normals, the triangles, emission light and material,
+     * and building the tree of the triangles.
+     * the arrays of the vertices and normals are kept and not copied, since meshes can be very big,
+     * so they should not be changed after the mesh is created.
+     *
+     * @param material  the material of all the triangles
+     * @param emission  the emission light of all the triangles
+     * @param positions the vertices - x,y,z for each vertex
+     * @param indices   the triangles - indexes of 3 vertices for each triangle
+     * @param normals   normals of the vertices - x,y,z for each vertex, or null to use the normals of the triangles
+     * @throws NullPointerException     In case the vertices or triangles are null
+     * @throws IllegalArgumentException In case the arrays do not hold whole vertices and triangles,
+     *                                  there are no triangles, an index is not of a vertex
+     *                                  or there is not a normal for every vertex
+     */
+    public TriangleMesh(Material material, Color emission, double[] positions, int[] indices, double[] normals) {
+        super(material, emission);
+        if (positions == null || indices == null)
+            throw new NullPointerException("ERROR arguments is NULL");
+        if (positions.length % 3 != 0 || indices.length % 3 != 0)
+            throw new IllegalArgumentException("positions and indices must have 3 values for each vertex and triangle");
+        if (indices.length == 0)
+            throw new IllegalArgumentException("a mesh must have at least one triangle");
+        if (normals != null && normals.length != positions.length)
+            throw new IllegalArgumentException("there must be a normal for every vertex");
+        int vertices = positions.length / 3;
+        for (int index : indices)
+            if (index < 0 || index >= vertices)
+                throw new IllegalArgumentException("index " + index + " is not of a vertex");
+        _positions = positions;
+        _normals = normals;
+
+        // build the tree over the boxes of the triangles and order the triangles by its leaves
+        int triangles = indices.length / 3;
+        double[] triangleBounds = new double[6 * triangles];
+        for (int i = 0; i < triangles; i++)
+            for (int axis = 0; axis < 3; axis++) {
+                double a = positions[3 * indices[3 * i] + axis];
+                double b = positions[3 * indices[3 * i + 1] + axis];
+                double c = positions[3 * indices[3 * i + 2] + axis];
+                triangleBounds[6 * i + axis] = Math.min(a, Math.min(b, c));
+                triangleBounds[6 * i + 3 + axis] = Math.max(a, Math.max(b, c));
+            }
+        SahBvhBuilder builder = new SahBvhBuilder(triangleBounds);
+        builder.flattenTree();
+        int[] order = builder.getIndexes();
+        _indices = new int[indices.length];
+        for (int i = 0; i < triangles; i++)
+            System.arraycopy(indices, 3 * order[i], _indices, 3 * i, 3);
+        _bounds = builder.getFlatBounds();
+        _nodes = builder.getFlatNodes();
+        _depth = builder.getFlatDepth();
+        setBox();
+    }
+
+    /**
+     * TriangleMesh constructor receiving all its arrays with the tree already built,
+     * for reading a mesh that was saved with its tree by {@link IntersectableCodec}.
+     * the arrays are kept and not checked.
+     *
+     * @param material  the material of all the triangles
+     * @param emission  the emission light of all the triangles
+     * @param positions the vertices - x,y,z for each vertex
+     * @param indices   the triangles, ordered by the leaves of the tree
+     * @param normals   normals of the vertices, or null to use the normals of the triangles
+     * @param bounds    boxes of the nodes of the tree
+     * @param nodes     children or triangles of the nodes of the tree
+     * @param depth     the depth of the tree
+     */
+    TriangleMesh(Material material, Color emission, double[] positions, int[] indices, double[] normals,
+                 double[] bounds, int[] nodes, int depth) {
+        super(material, emission);
+        _positions = positions;
+        _indices = indices;
+        _normals = normals;
+        _bounds = bounds;
+        _nodes = nodes;
+        _depth = depth;
+        setBox();
+    }
+
+    //*********************************** Getters ***************
+
+    /**
+     * getter for the amount of triangles in the mesh.
+     *
+     * @return amount of triangles
+     */
+    public int getTrianglesCount() {
+        return _indices.length / 3;
+    }
+
+    /**
+     * getter for the amount of vertices in the mesh.
+     *
+     * @return amount of vertices
+     */
+    public int getVerticesCount() {
+        return _positions.length / 3;
+    }
+
+    /**
+     * calculates the normal at a point of the mesh by going over the triangles until one of them holds the point.
+     * when the triangle of the point is known {@link geometries.TriangleMesh.Face#getNormal(Point3D)} is much faster.
+     *
+     * @param point a point on the mesh
+     * @return orthogonal unit vector
+     * @throws IllegalArgumentException In case the point is not on the mesh
+     */
+    @Override
+    public Vector getNormal(Point3D point) {
+        for (int triangle = 0; triangle < getTrianglesCount(); triangle++)
+            if (contains(triangle, point))
+                return getNormal(triangle, point);
+        throw new IllegalArgumentException("the point is not on the mesh");
+    }
+
+    //*********************************** functions ***************
+
+    @Override
+    public List<GeoPoint> findIntersections(Ray ray, double maxDistance) {
+        List<GeoPoint> intersections = new LinkedList<>();
+        countIntersections(ray, maxDistance, Integer.MAX_VALUE, intersections);
+        return intersections.isEmpty() ? null : intersections;
+    }
+
+    @Override
+    public GeoPoint findClosestIntersection(Ray ray, double maxDistance) {
+        int closest = -1;
+        int[] stack = new int[_depth + 2];
+        int top = 0;
+        int nodes = 0, tests = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            nodes++;
+            if (FlatBvh.enterBox(_bounds, node, ray, maxDistance) == Double.POSITIVE_INFINITY)
+                continue;
+            int count = _nodes[3 * node + 1];
+            if (count == 0) { // inner node - push the far child first so the near child is checked first
+                int right = _nodes[3 * node];
+                if ((ray.get_signs() >> _nodes[3 * node + 2] & 1) != 0) {
+                    stack[top++] = node + 1;
+                    stack[top++] = right;
+                } else {
+                    stack[top++] = right;
+                    stack[top++] = node + 1;
+                }
+                continue;
+            }
+            int offset = _nodes[3 * node];
+            tests += count;
+            for (int triangle = offset; triangle < offset + count; triangle++) {
+                double t = intersect(ray, triangle, maxDistance);
+                if (t != Double.POSITIVE_INFINITY && (closest < 0 || t < maxDistance)) { // no need to look further
+                    closest = triangle;
+                    maxDistance = t;
+                }
+            }
+        }
+        count(nodes, tests);
+        return closest < 0 ? null : new GeoPoint(new Face(this, closest), ray.getPoint(maxDistance));
+    }
+
+    /**
+     * finds the closest intersections of the rays of a packet by going over the tree of the mesh once for all the rays,
+     * and intersecting each triangle with all the rays that enter its leaf by
+     * {@link geometries.TriangleMesh#intersect(RayPacket, int, int, int[])}.
+     *
+     * @param packet the rays and their closest intersections so far
+     * @param lanes  mask of the lanes of the rays to intersect
+     */
+    @Override
+    protected void findClosestIntersections(RayPacket packet, int lanes) {
+        // the distances of the packet are the distances of the closest triangles while going over the tree,
+        // and the points are offered to the packet at the end like the point of a single ray
+        double[] maxDistance = packet._maxDistance.clone();
+        int[] closest = new int[RayPacket.SIZE];
+        Arrays.fill(closest, -1);
+        int[] stack = new int[6 * (_depth + 2)]; // node and lanes, up to 3 more pairs for every level
+        int top = 0;
+        int nodes = 0, tests = 0;
+        stack[top++] = 0;
+        stack[top++] = lanes;
+        while (top > 0) {
+            int active = stack[--top];
+            int node = stack[--top];
+            nodes++;
+            int count = _nodes[3 * node + 1];
+            active = count == 0 ? packet.enterFirst(_bounds, node, active) : packet.enterEach(_bounds, node, active);
+            if (active == 0)
+                continue;
+            if (count == 0) { // inner node - the rays are split by the near child, pushed after the far one
+                int right = _nodes[3 * node];
+                int negative = packet.negativeLanes(_nodes[3 * node + 2], active);
+                int positive = active & ~negative;
+                if (positive != 0) {
+                    stack[top++] = right;
+                    stack[top++] = positive;
+                    stack[top++] = node + 1;
+                    stack[top++] = positive;
+                }
+                if (negative != 0) {
+                    stack[top++] = node + 1;
+                    stack[top++] = negative;
+                    stack[top++] = right;
+                    stack[top++] = negative;
+                }
+                continue;
+            }
+            int offset = _nodes[3 * node];
+            tests += count * Integer.bitCount(active);
+            for (int triangle = offset; triangle < offset + count; triangle++)
+                intersect(packet, triangle, active, closest);
+        }
+        count(nodes, tests);
+        for (int lane = 0; lane < packet.size(); lane++)
+            if (closest[lane] >= 0) {
+                double distance = packet._maxDistance[lane];
+                packet._maxDistance[lane] = maxDistance[lane];
+                packet.offer(lane, new GeoPoint(new Face(this, closest[lane]), packet._rays[lane].getPoint(distance)));
+            }
+    }
+
+    @Override
+    public boolean isOccluded(Ray ray, double maxDistance) {
+        return _material.get_kT() == 0 && countIntersections(ray, maxDistance, 1, null) > 0;
+    }
+
+    @Override
+    public double transmittance(Ray ray, double maxDistance, double minK) {
+        double kT = _material.get_kT();
+        if (kT == 0)
+            return countIntersections(ray, maxDistance, 1, null) > 0 ? 0 : 1;
+        // after this amount of intersections the light left is insignificant
+        int maxIntersections = kT < 1 ? (int) Math.ceil(Math.log(minK) / Math.log(kT)) : Integer.MAX_VALUE;
+        return Math.pow(kT, countIntersections(ray, maxDistance, Math.max(maxIntersections, 1), null));
+    }
+
+    /**
+     * counts the intersections of a ray with the triangles until a given amount.
+     *
+     * @param ray              the Ray to find intersections with
+     * @param maxDistance      the max distance value between the head of the ray and intersection point
+     * @param maxIntersections amount of intersections after which there is no need to look any further
+     * @param intersections    list to add the intersections to, or null if only counting
+     * @return amount of intersections found
+     */
+    private int countIntersections(Ray ray, double maxDistance, int maxIntersections, List<GeoPoint> intersections) {
+        int found = 0;
+        int[] stack = new int[_depth + 2];
+        int top = 0;
+        int nodes = 0, tests = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            nodes++;
+            if (FlatBvh.enterBox(_bounds, node, ray, maxDistance) == Double.POSITIVE_INFINITY)
+                continue;
+            int count = _nodes[3 * node + 1];
+            if (count == 0) { // inner node
+                stack[top++] = _nodes[3 * node];
+                stack[top++] = node + 1;
+                continue;
+            }
+            int offset = _nodes[3 * node];
+            for (int triangle = offset; triangle < offset + count; triangle++) {
+                tests++;
+                double t = intersect(ray, triangle, maxDistance);
+                if (t == Double.POSITIVE_INFINITY)
+                    continue;
+                if (intersections != null)
+                    intersections.add(new GeoPoint(new Face(this, triangle), ray.getPoint(t)));
+                if (++found >= maxIntersections) {
+                    count(nodes, tests);
+                    return found;
+                }
+            }
+        }
+        count(nodes, tests);
+        return found;
+    }
+
+    /**
+     * adds the nodes visited and the triangles tested by a ray or a packet to the counters of the thread,
+     * if it is counting.
+     *
+     * @param nodes amount of nodes visited
+     * @param tests amount of tests of rays with triangles
+     */
+    private static void count(int nodes, int tests) {
+        TraversalStats stats = TraversalStats.current();
+        if (stats != null) {
+            stats.visit(nodes);
+            stats.testTriangles(tests);
+        }
+    }
+
+    /**
+     * intersects a ray with a triangle of the mesh by the Moller-Trumbore algorithm,
+     * which finds the distance and the barycentric coordinates of the point together
+     * without the plane of the triangle and without normalizing any vector.
+     *
+     * @param ray         the Ray to find intersection with
+     * @param triangle    index of the triangle
+     * @param maxDistance the max distance value between the head of the ray and intersection point
+     * @return the distance of the intersection from the head of the ray,
+     * or positive infinity if there is no intersection until max distance
+     */
+    private double intersect(Ray ray, int triangle, double maxDistance) {
+        int i0 = 3 * _indices[3 * triangle];
+        int i1 = 3 * _indices[3 * triangle + 1];
+        int i2 = 3 * _indices[3 * triangle + 2];
+        double x0 = _positions[i0], y0 = _positions[i0 + 1], z0 = _positions[i0 + 2];
+        // edges from the first vertex
+        double e1x = _positions[i1] - x0, e1y = _positions[i1 + 1] - y0, e1z = _positions[i1 + 2] - z0;
+        double e2x = _positions[i2] - x0, e2y = _positions[i2 + 1] - y0, e2z = _positions[i2 + 2] - z0;
+        double dx = ray.get_dx(), dy = ray.get_dy(), dz = ray.get_dz();
+        // p = direction x e2
+        double px = dy * e2z - dz * e2y;
+        double py = dz * e2x - dx * e2z;
+        double pz = dx * e2y - dy * e2x;
+        double det = e1x * px + e1y * py + e1z * pz;
+        if (isZero(det)) // the ray is parallel to the triangle
+            return Double.POSITIVE_INFINITY;
+        double inverse = 1d / det;
+        // s = head of the ray - first vertex
+        double sx = ray.get_x0() - x0, sy = ray.get_y0() - y0, sz = ray.get_z0() - z0;
+        double u = (sx * px + sy * py + sz * pz) * inverse;
+        if (u < 0 || u > 1)
+            return Double.POSITIVE_INFINITY;
+        // q = s x e1
+        double qx = sy * e1z - sz * e1y;
+        double qy = sz * e1x - sx * e1z;
+        double qz = sx * e1y - sy * e1x;
+        double v = (dx * qx + dy * qy + dz * qz) * inverse;
+        if (v < 0 || u + v > 1)
+            return Double.POSITIVE_INFINITY;
+        double t = alignZero((e2x * qx + e2y * qy + e2z * qz) * inverse);
+        if (t <= 0 // the triangle is behind the head of the ray
+                || alignZero(t - maxDistance) > 0) // the distance to the point is more then the max distance
+            return Double.POSITIVE_INFINITY;
+        return t;
+    }
+
+    /**
+     * intersects some of the rays of a packet with a triangle of the mesh by the Moller-Trumbore algorithm,
+     * as {@link geometries.TriangleMesh#intersect(Ray, int, double)} does for one ray,
+     * with the edges of the triangle calculated once for all the rays.
+     * the distance of each ray that hits the triangle before its closest triangle so far is kept in the packet.
+     *
+     * @param packet   the rays, with the distances of their closest triangles
+     * @param triangle index of the triangle
+     * @param lanes    mask of the lanes of the rays to intersect
+     * @param closest  the closest triangle of each lane so far, or -1
+     */
+    private void intersect(RayPacket packet, int triangle, int lanes, int[] closest) {
+        int i0 = 3 * _indices[3 * triangle];
+        int i1 = 3 * _indices[3 * triangle + 1];
+        int i2 = 3 * _indices[3 * triangle + 2];
+        double x0 = _positions[i0], y0 = _positions[i0 + 1], z0 = _positions[i0 + 2];
+        // edges from the first vertex
+        double e1x = _positions[i1] - x0, e1y = _positions[i1 + 1] - y0, e1z = _positions[i1 + 2] - z0;
+        double e2x = _positions[i2] - x0, e2y = _positions[i2 + 1] - y0, e2z = _positions[i2 + 2] - z0;
+        double[] ox = packet._origin[0], oy = packet._origin[1], oz = packet._origin[2];
+        double[] dxs = packet._direction[0], dys = packet._direction[1], dzs = packet._direction[2];
+        for (int lane = 0; lane < packet.size(); lane++) {
+            if ((lanes & (1 << lane)) == 0)
+                continue;
+            double dx = dxs[lane], dy = dys[lane], dz = dzs[lane];
+            // p = direction x e2
+            double px = dy * e2z - dz * e2y;
+            double py = dz * e2x - dx * e2z;
+            double pz = dx * e2y - dy * e2x;
+            double det = e1x * px + e1y * py + e1z * pz;
+            if (isZero(det)) // the ray is parallel to the triangle
+                continue;
+            double inverse = 1d / det;
+            // s = head of the ray - first vertex
+            double sx = ox[lane] - x0, sy = oy[lane] - y0, sz = oz[lane] - z0;
+            double u = (sx * px + sy * py + sz * pz) * inverse;
+            if (u < 0 || u > 1)
+                continue;
+            // q = s x e1
+            double qx = sy * e1z - sz * e1y;
+            double qy = sz * e1x - sx * e1z;
+            double qz = sx * e1y - sy * e1x;
+            double v = (dx * qx + dy * qy + dz * qz) * inverse;
+            if (v < 0 || u + v > 1)
+                continue;
+            double t = alignZero((e2x * qx + e2y * qy + e2z * qz) * inverse);
+            double maxDistance = packet._maxDistance[lane];
+            if (t <= 0 // the triangle is behind the head of the ray
+                    || alignZero(t - maxDistance) > 0) // the distance to the point is more then the max distance
+                continue;
+            if (closest[lane] < 0 || t < maxDistance) {
+                closest[lane] = triangle;
+                packet._maxDistance[lane] = t;
+            }
+        }
+    }
+
+    /**
+     * calculates the normal of a triangle at a point, interpolated from the normals of its vertices if there are any.
+     *
+     * @param triangle index of the triangle
+     * @param point    a point on the triangle
+     * @return orthogonal unit vector
+     */
+    private Vector getNormal(int triangle, Point3D point) {
+        int i0 = 3 * _indices[3 * triangle];
+        int i1 = 3 * _indices[3 * triangle + 1];
+        int i2 = 3 * _indices[3 * triangle + 2];
+        double e1x = _positions[i1] - _positions[i0];
+        double e1y = _positions[i1 + 1] - _positions[i0 + 1];
+        double e1z = _positions[i1 + 2] - _positions[i0 + 2];
+        double e2x = _positions[i2] - _positions[i0];
+        double e2y = _positions[i2 + 1] - _positions[i0 + 1];
+        double e2z = _positions[i2 + 2] - _positions[i0 + 2];
+        if (_normals != null) {
+            double[] weights = barycentric(triangle, point);
+            double nx = weights[0] * _normals[i0] + weights[1] * _normals[i1] + weights[2] * _normals[i2];
+            double ny = weights[0] * _normals[i0 + 1] + weights[1] * _normals[i1 + 1] + weights[2] * _normals[i2 + 1];
+            double nz = weights[0] * _normals[i0 + 2] + weights[1] * _normals[i1 + 2] + weights[2] * _normals[i2 + 2];
+            if (!isZero(nx) || !isZero(ny) || !isZero(nz)) // opposite normals cancel out - use the normal of the triangle
+                return new Vector(nx, ny, nz).normalize();
+        }
+        return new Vector(e1y * e2z - e1z * e2y, e1z * e2x - e1x * e2z, e1x * e2y - e1y * e2x).normalize();
+    }
+
+    /**
+     * calculates the barycentric coordinates of a point in the plane of a triangle.
+     *
+     * @param triangle index of the triangle
+     * @param point    the point
+     * @return weights of the 3 vertices of the triangle, their sum is 1
+     */
+    private double[] barycentric(int triangle, Point3D point) {
+        int i0 = 3 * _indices[3 * triangle];
+        int i1 = 3 * _indices[3 * triangle + 1];
+        int i2 = 3 * _indices[3 * triangle + 2];
+        double e1x = _positions[i1] - _positions[i0];
+        double e1y = _positions[i1 + 1] - _positions[i0 + 1];
+        double e1z = _positions[i1 + 2] - _positions[i0 + 2];
+        double e2x = _positions[i2] - _positions[i0];
+        double e2y = _positions[i2 + 1] - _positions[i0 + 1];
+        double e2z = _positions[i2 + 2] - _positions[i0 + 2];
+        double px = point.get_x().get() - _positions[i0];
+        double py = point.get_y().get() - _positions[i0 + 1];
+        double pz = point.get_z().get() - _positions[i0 + 2];
+        double d11 = e1x * e1x + e1y * e1y + e1z * e1z;
+        double d12 = e1x * e2x + e1y * e2y + e1z * e2z;
+        double d22 = e2x * e2x + e2y * e2y + e2z * e2z;
+        double dp1 = px * e1x + py * e1y + pz * e1z;
+        double dp2 = px * e2x + py * e2y + pz * e2z;
+        double denominator = d11 * d22 - d12 * d12;
+        double w1 = (d22 * dp1 - d12 * dp2) / denominator;
+        double w2 = (d11 * dp2 - d12 * dp1) / denominator;
+        return new double[]{1 - w1 - w2, w1, w2};
+    }
+
+    /**
+     * checks whether a point is on a triangle.
+     *
+     * @param triangle index of the triangle
+     * @param point    the point
+     * @return true if the point is on the triangle
+     */
+    private boolean contains(int triangle, Point3D point) {
+        int i0 = 3 * _indices[3 * triangle];
+        int i1 = 3 * _indices[3 * triangle + 1];
+        int i2 = 3 * _indices[3 * triangle + 2];
+        double e1x = _positions[i1] - _positions[i0];
+        double e1y = _positions[i1 + 1] - _positions[i0 + 1];
+        double e1z = _positions[i1 + 2] - _positions[i0 + 2];
+        double e2x = _positions[i2] - _positions[i0];
+        double e2y = _positions[i2 + 1] - _positions[i0 + 1];
+        double e2z = _positions[i2 + 2] - _positions[i0 + 2];
+        double nx = e1y * e2z - e1z * e2y, ny = e1z * e2x - e1x * e2z, nz = e1x * e2y - e1y * e2x;
+        double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+        if (isZero(length)) // degenerate triangle
+            return false;
+        double distance = (nx * (point.get_x().get() - _positions[i0])
+                + ny * (point.get_y().get() - _positions[i0 + 1])
+                + nz * (point.get_z().get() - _positions[i0 + 2])) / length;
+        if (!isZero(distance)) // the point is not in the plane of the triangle
+            return false;
+        double[] weights = barycentric(triangle, point);
+        return alignZero(weights[0]) >= 0 && alignZero(weights[1]) >= 0 && alignZero(weights[2]) >= 0;
+    }
+
+    /**
+     * moves the vertices of the mesh, keeping its triangles, and recomputes the boxes of its tree bottom-up.
+     * the tree is not built again, so it gets slower if the triangles move far from each other.
+     * the boxes of the trees holding the mesh are fixed by {@link geometries.Geometries#refit()}.
+     *
+     * @param positions the new vertices - x,y,z for each vertex
+     * @param normals   the new normals of the vertices, or null if the mesh uses the normals of the triangles
+     * @throws NullPointerException     In case the vertices are null
+     * @throws IllegalArgumentException In case the amount of vertices changed,
+     *                                  or there is not a normal for every vertex of a mesh with normals
+     */
+    public void setVertices(double[] positions, double[] normals) {
+        if (positions == null)
+            throw new NullPointerException("ERROR arguments is NULL");
+        if (positions.length != _positions.length)
+            throw new IllegalArgumentException("the amount of vertices can not change");
+        if ((normals == null) != (_normals == null) || normals != null && normals.length != positions.length)
+            throw new IllegalArgumentException("there must be a normal for every vertex of a mesh with normals");
+        _positions = positions;
+        _normals = normals;
+        for (int node = _nodes.length / 3 - 1; node >= 0; node--) {
+            int count = _nodes[3 * node + 1];
+            if (count == 0) {
+                FlatBvh.unionChildren(_bounds, _nodes, node);
+                continue;
+            }
+            FlatBvh.resetBox(_bounds, node);
+            for (int i = 3 * _nodes[3 * node]; i < 3 * (_nodes[3 * node] + count); i++)
+                for (int axis = 0; axis < 3; axis++) {
+                    double value = positions[3 * _indices[i] + axis];
+                    if (value < _bounds[6 * node + axis])
+                        _bounds[6 * node + axis] = value;
+                    if (value > _bounds[6 * node + 3 + axis])
+                        _bounds[6 * node + 3 + axis] = value;
+                }
+        }
+        setBox();
+    }
+
+    @Override
+    public void setBox() {
+        boundaryBox = new Box(
+                new Point3D(_bounds[0], _bounds[1], _bounds[2]),
+                new Point3D(_bounds[3], _bounds[4], _bounds[5]));
+    }
+
+    /**
+     * class Face representing one triangle of a mesh, created for the intersections with the mesh
+     * so the normal at the point is calculated from its triangle only.
+     * the box of a face is set only when asked for since a face is created for every intersection.
+     */
+    public static class Face extends Geometry {
+        /**
+         * the mesh the triangle is part of
+         */
+        private final TriangleMesh _mesh;
+        /**
+         * index of the triangle in the mesh
+         */
+        private final int _triangle;
+
+        /**
+         * constructor for a face of a mesh, with the material and emission of the mesh.
+         *
+         * @param mesh     the mesh
+         * @param triangle index of the triangle in the mesh
+         */
+        Face(TriangleMesh mesh, int triangle) {
+            super(mesh._material, mesh._emission);
+            _mesh = mesh;
+            _triangle = triangle;
+        }
+
+        /**
+         * getter for the mesh the triangle is part of.
+         *
+         * @return the mesh
+         */
+        public TriangleMesh get_mesh() {
+            return _mesh;
+        }
+
+        @Override
+        public Vector getNormal(Point3D point) {
+            return _mesh.getNormal(_triangle, point);
+        }
+
+        @Override
+        public List<GeoPoint> findIntersections(Ray ray, double maxDistance) {
+            double t = _mesh.intersect(ray, _triangle, maxDistance);
+            if (t == Double.POSITIVE_INFINITY)
+                return null;
+            return List.of(new GeoPoint(this, ray.getPoint(t)));
+        }
+
+        @Override
+        public void setBox() {
+            double[] min = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
+            double[] max = {-Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+            for (int vertex = 0; vertex < 3; vertex++)
+                for (int axis = 0; axis < 3; axis++) {
+                    double value = _mesh._positions[3 * _mesh._indices[3 * _triangle + vertex] + axis];
+                    min[axis] = Math.min(min[axis], value);
+                    max[axis] = Math.max(max[axis], value);
+                }
+            boundaryBox = new Box(new Point3D(min[0], min[1], min[2]), new Point3D(max[0], max[1], max[2]));
+        }
+
+        //******************** Admin ****************
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Face)) return false;
+            Face face = (Face) o;
+            return _mesh == face._mesh && _triangle == face._triangle;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(_mesh) + _triangle;
+        }
+    }
+}
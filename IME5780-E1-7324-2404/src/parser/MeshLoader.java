@@ -0,0 +1,1011 @@
+package parser;
+
+import geometries.TriangleMesh;
+import primitives.Color;
+import primitives.Material;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * MeshLoader class loads triangle meshes from Wavefront OBJ, binary PLY and binary STL files
+ * into a {@link TriangleMesh}.
+ * the files are memory mapped and split into chunks that are parsed in parallel,
+ * every chunk writes its vertices and triangles straight into the arrays of the mesh at its own offset,
+ * so no object is created for a vertex or a face and the heap used is about the size of the arrays of the mesh.
+ */
+public final class MeshLoader {
+    /**
+     * size in bytes of the parts of a file that are mapped and parsed by one thread
+     */
+    private static final int CHUNK_SIZE = 1 << 24;
+    /**
+     * size of the header of a binary STL file - 80 bytes of text and the amount of triangles
+     */
+    private static final int STL_HEADER = 84;
+    /**
+     * size of a triangle in a binary STL file - normal, 3 vertices and 2 bytes of attributes
+     */
+    private static final int STL_TRIANGLE = 50;
+    /**
+     * max size of the header of a PLY file
+     */
+    private static final int PLY_MAX_HEADER = 1 << 16;
+    /**
+     * names of the types of PLY properties, by their codes, with their old and new names
+     */
+    private static final String[][] PLY_TYPES = {{"char", "int8"}, {"uchar", "uint8"}, {"short", "int16"},
+            {"ushort", "uint16"}, {"int", "int32"}, {"uint", "uint32"}, {"float", "float32"}, {"double", "float64"}};
+    /**
+     * sizes of the types of PLY properties, by their codes
+     */
+    private static final int[] PLY_SIZES = {1, 1, 2, 2, 4, 4, 4, 8};
+    /**
+     * exact powers of 10 that a double can hold
+     */
+    private static final double[] POWERS_OF_10 = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    /**
+     * the class has only static functions, so it is not created
+     */
+    private MeshLoader() {
+    }
+
+    // ------------ loaders ------------
+
+    /**
+     * loads a mesh with a default material and no emission light, the format is chosen by the extension of the file.
+     * calls {@link parser.MeshLoader#load(Path, Material, Color)}.
+     *
+     * @param file OBJ, PLY or STL file
+     * @return the mesh
+     * @throws IOException In case reading the file failed
+     */
+    public static TriangleMesh load(Path file) throws IOException {
+        return load(file, new Material(0, 0, 0), Color.BLACK);
+    }
+
+    /**
+     * loads a mesh, the format is chosen by the extension of the file.
+     *
+     * @param file     OBJ, PLY or STL file
+     * @param material the material of all the triangles
+     * @param emission the emission light of all the triangles
+     * @return the mesh
+     * @throws IOException              In case reading the file failed
+     * @throws IllegalArgumentException In case the extension is not of a known format or the file is not valid
+     */
+    public static TriangleMesh load(Path file, Material material, Color emission) throws IOException {
+        String name = file.getFileName().toString().toLowerCase();
+        if (name.endsWith(".obj"))
+            return loadObj(file, material, emission);
+        if (name.endsWith(".ply"))
+            return loadPly(file, material, emission);
+        if (name.endsWith(".stl"))
+            return loadStl(file, material, emission);
+        throw new IllegalArgumentException("unknown format of mesh file: " + file);
+    }
+
+    /**
+     * loads a mesh from a Wavefront OBJ file.
+     * only the vertices ("v") and faces ("f") are read, faces with more than 3 vertices are split into a fan of
+     * triangles and negative (relative) indexes are supported.
+     * the file is read twice - first every chunk counts its vertices and triangles, so the offsets of the chunks
+     * in the arrays are known, then every chunk parses its lines into its part of the arrays.
+     *
+     * @param file     OBJ file
+     * @param material the material of all the triangles
+     * @param emission the emission light of all the triangles
+     * @return the mesh
+     * @throws IOException              In case reading the file failed
+     * @throws IllegalArgumentException In case the file is not valid
+     */
+    public static TriangleMesh loadObj(Path file, Material material, Color emission) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] starts = lineChunks(channel);
+            int chunks = starts.length - 1;
+            int[][] counts = new int[chunks][];
+            forEachChunk(chunks, chunk ->
+                    counts[chunk] = new ObjChunk(map(channel, starts[chunk], starts[chunk + 1] - starts[chunk]))
+                            .parse(null, null, 0, 0));
+            int[] vertexOffsets = new int[chunks + 1];
+            int[] triangleOffsets = new int[chunks + 1];
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                vertexOffsets[chunk + 1] = Math.addExact(vertexOffsets[chunk], counts[chunk][0]);
+                triangleOffsets[chunk + 1] = Math.addExact(triangleOffsets[chunk], counts[chunk][1]);
+            }
+            double[] positions = new double[Math.multiplyExact(3, vertexOffsets[chunks])];
+            int[] indices = new int[Math.multiplyExact(3, triangleOffsets[chunks])];
+            forEachChunk(chunks, chunk ->
+                    new ObjChunk(map(channel, starts[chunk], starts[chunk + 1] - starts[chunk]))
+                            .parse(positions, indices, vertexOffsets[chunk], triangleOffsets[chunk]));
+            return new TriangleMesh(material, emission, positions, indices);
+        }
+    }
+
+    /**
+     * loads a mesh from a binary (little or big endian) PLY file.
+     * the x,y,z properties and the normals (nx,ny,nz) of the "vertex" element are read,
+     * and the first list property of the "face" element, faces with more than 3 vertices are split into a fan of
+     * triangles. other elements and properties are skipped.
+     * the vertices are parsed in parallel, and so are the faces when all of them are triangles,
+     * other faces are parsed one after the other since each of them has a different size.
+     *
+     * @param file     PLY file
+     * @param material the material of all the triangles
+     * @param emission the emission light of all the triangles
+     * @return the mesh
+     * @throws IOException              In case reading the file failed
+     * @throws IllegalArgumentException In case the file is not a valid binary PLY file
+     */
+    public static TriangleMesh loadPly(Path file, Material material, Color emission) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer headerBuffer = map(channel, 0, Math.min(channel.size(), PLY_MAX_HEADER));
+            PlyHeader header = new PlyHeader(headerBuffer);
+            long position = header._size;
+            double[] positions = null;
+            double[] normals = null;
+            int[] indices = null;
+            for (PlyElement element : header._elements) {
+                if (element._name.equals("vertex") && element.isFixed()) {
+                    int vertices = element.checkedCount(3);
+                    positions = new double[3 * vertices];
+                    if (element.find("nx") >= 0 && element.find("ny") >= 0 && element.find("nz") >= 0)
+                        normals = new double[3 * vertices];
+                    readVertices(channel, position, header._order, element, positions, normals);
+                    position += element._count * element.recordSize();
+                } else if (element._name.equals("face") && element._list >= 0) {
+                    indices = readTriangles(channel, position, header._order, element);
+                    if (indices != null)
+                        position += element._count * element.recordSize(3);
+                    else { // not all the faces are triangles
+                        PlyReader reader = new PlyReader(channel, position, header._order);
+                        indices = reader.readFaces(element);
+                        position = reader.position();
+                    }
+                } else if (element.isFixed())
+                    position += element._count * element.recordSize();
+                else {
+                    PlyReader reader = new PlyReader(channel, position, header._order);
+                    reader.skip(element);
+                    position = reader.position();
+                }
+            }
+            if (positions == null || indices == null)
+                throw new IllegalArgumentException("PLY file without vertices or faces: " + file);
+            return new TriangleMesh(material, emission, positions, indices, normals);
+        }
+    }
+
+    /**
+     * loads a mesh from a binary STL file.
+     * STL does not share vertices between triangles, so every triangle gets its own 3 vertices,
+     * and the normals in the file are not used.
+     *
+     * @param file     STL file
+     * @param material the material of all the triangles
+     * @param emission the emission light of all the triangles
+     * @return the mesh
+     * @throws IOException              In case reading the file failed
+     * @throws IllegalArgumentException In case the file is not a valid binary STL file
+     */
+    public static TriangleMesh loadStl(Path file, Material material, Color emission) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < STL_HEADER)
+                throw new IllegalArgumentException("not a binary STL file: " + file);
+            long count = map(channel, 0, STL_HEADER).order(ByteOrder.LITTLE_ENDIAN).getInt(STL_HEADER - 4)
+                    & 0xFFFFFFFFL;
+            if (STL_HEADER + count * STL_TRIANGLE != channel.size()) // ascii files start with the same header
+                throw new IllegalArgumentException("not a binary STL file: " + file);
+            if (count > Integer.MAX_VALUE / 9)
+                throw new IllegalArgumentException("too many triangles in STL file: " + file);
+            int triangles = (int) count;
+            int perChunk = CHUNK_SIZE / STL_TRIANGLE;
+            double[] positions = new double[9 * triangles];
+            forEachChunk(chunks(triangles, perChunk), chunk -> {
+                int first = chunk * perChunk;
+                int amount = Math.min(perChunk, triangles - first);
+                ByteBuffer buffer = map(channel, STL_HEADER + (long) first * STL_TRIANGLE,
+                        (long) amount * STL_TRIANGLE).order(ByteOrder.LITTLE_ENDIAN);
+                for (int i = 0; i < amount; i++)
+                    for (int k = 0; k < 9; k++) // skip the normal of the triangle
+                        positions[9 * (first + i) + k] = buffer.getFloat(i * STL_TRIANGLE + 12 + 4 * k);
+            });
+            int[] indices = new int[3 * triangles];
+            for (int i = 0; i < indices.length; i++)
+                indices[i] = i;
+            return new TriangleMesh(material, emission, positions, indices);
+        }
+    }
+
+    // ------------ tools for reading files ------------
+
+    /**
+     * a part of a file parsed by one thread.
+     */
+    private interface ChunkParser {
+        /**
+         * parses a part of a file.
+         *
+         * @param chunk index of the part
+         * @throws IOException In case reading the file failed
+         */
+        void parse(int chunk) throws IOException;
+    }
+
+    /**
+     * parses all the chunks of a file in parallel and waits for them to finish.
+     *
+     * @param chunks amount of chunks
+     * @param parser parses a chunk
+     * @throws IOException In case reading the file failed
+     */
+    private static void forEachChunk(int chunks, ChunkParser parser) throws IOException {
+        try {
+            IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                try {
+                    parser.parse(chunk);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * calculates the amount of chunks needed for records, with at least one chunk.
+     *
+     * @param records   amount of records
+     * @param perChunk amount of records in a chunk
+     * @return amount of chunks
+     */
+    private static int chunks(long records, long perChunk) {
+        return (int) Math.max(1, (records + perChunk - 1) / perChunk);
+    }
+
+    /**
+     * maps a part of a file into the memory for reading.
+     *
+     * @param channel  the file
+     * @param position start of the part
+     * @param size     size of the part
+     * @return the mapped part
+     * @throws IOException In case mapping the file failed
+     */
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    }
+
+    /**
+     * splits a text file into chunks of about {@value #CHUNK_SIZE} bytes, each of them starting at a start of a line.
+     *
+     * @param channel the file
+     * @return the starts of the chunks, and the size of the file at the end
+     * @throws IOException In case reading the file failed
+     */
+    private static long[] lineChunks(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int chunks = chunks(size, CHUNK_SIZE);
+        long[] starts = new long[chunks + 1];
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        for (int chunk = 1; chunk < chunks; chunk++) {
+            long position = Math.max((long) chunk * CHUNK_SIZE, starts[chunk - 1]); // a line may be longer than a chunk
+            boolean found = false;
+            while (!found && position < size) { // move to the byte after the next end of line
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                for (int i = 0; i < read && !found; i++, position++)
+                    found = buffer.get(i) == '\n';
+            }
+            starts[chunk] = position;
+        }
+        starts[chunks] = size;
+        return starts;
+    }
+
+    /**
+     * calculates 10 to the power of an exponent, exactly for small exponents.
+     *
+     * @param exponent the exponent, not negative
+     * @return 10 to the power of the exponent
+     */
+    private static double powerOf10(int exponent) {
+        return exponent < POWERS_OF_10.length ? POWERS_OF_10[exponent] : Math.pow(10, exponent);
+    }
+
+    // ------------ OBJ ------------
+
+    /**
+     * a part of an OBJ file, starting at a start of a line and ending at an end of a line,
+     * parsed byte after byte without creating strings.
+     */
+    private static class ObjChunk {
+        /**
+         * the mapped part of the file
+         */
+        private final ByteBuffer _buffer;
+        /**
+         * the position of the next byte to read
+         */
+        private int _position = 0;
+
+        /**
+         * constructor for the part of the file.
+         *
+         * @param buffer the mapped part of the file
+         */
+        ObjChunk(ByteBuffer buffer) {
+            _buffer = buffer;
+        }
+
+        /**
+         * parses the vertices and faces of the chunk into the arrays of the mesh,
+         * or only counts them when the arrays are null.
+         *
+         * @param positions      the vertices of the mesh, or null to count
+         * @param indices        the triangles of the mesh, or null to count
+         * @param vertexOffset   amount of vertices in the chunks before this chunk
+         * @param triangleOffset amount of triangles in the chunks before this chunk
+         * @return amount of vertices and amount of triangles in the chunk
+         * @throws IllegalArgumentException In case a vertex or a face is not valid
+         */
+        int[] parse(double[] positions, int[] indices, int vertexOffset, int triangleOffset) {
+            int vertices = 0;
+            int triangles = 0;
+            int limit = _buffer.limit();
+            while (_position < limit) {
+                skipSpaces();
+                if (_position + 1 < limit && isSpace(_buffer.get(_position + 1))) {
+                    byte type = _buffer.get(_position);
+                    if (type == 'v') {
+                        _position++;
+                        if (positions != null)
+                            for (int axis = 0; axis < 3; axis++)
+                                positions[3 * (vertexOffset + vertices) + axis] = nextDouble();
+                        vertices++;
+                    } else if (type == 'f') {
+                        _position++;
+                        triangles += positions == null ? Math.max(0, countTokens() - 2)
+                                : face(indices, 3 * (triangleOffset + triangles), vertexOffset + vertices);
+                    }
+                }
+                skipLine();
+            }
+            return new int[]{vertices, triangles};
+        }
+
+        /**
+         * parses a face of the line and splits it into a fan of triangles.
+         *
+         * @param indices  the triangles of the mesh
+         * @param offset   position in the triangles for the first triangle of the face
+         * @param vertices amount of vertices before the line, for relative indexes
+         * @return amount of triangles of the face
+         * @throws IllegalArgumentException In case an index is 0 or not a number
+         */
+        private int face(int[] indices, int offset, int vertices) {
+            int first = -1;
+            int last = -1;
+            int triangles = 0;
+            for (int corner = 0; hasToken(); corner++) {
+                long index = nextLong();
+                if (index == 0)
+                    throw new IllegalArgumentException("index 0 in face of OBJ file");
+                int vertex = (int) (index > 0 ? index - 1 : vertices + index);
+                while (_position < _buffer.limit() && !isSpace(_buffer.get(_position))) // texture and normal indexes
+                    _position++;
+                if (corner == 0)
+                    first = vertex;
+                else if (corner >= 2) {
+                    indices[offset + 3 * triangles] = first;
+                    indices[offset + 3 * triangles + 1] = last;
+                    indices[offset + 3 * triangles + 2] = vertex;
+                    triangles++;
+                }
+                last = vertex;
+            }
+            return triangles;
+        }
+
+        /**
+         * counts the tokens left in the line.
+         *
+         * @return amount of tokens
+         */
+        private int countTokens() {
+            int tokens = 0;
+            for (; hasToken(); tokens++)
+                while (_position < _buffer.limit() && !isSpace(_buffer.get(_position)))
+                    _position++;
+            return tokens;
+        }
+
+        /**
+         * skips the spaces and checks whether there is another token in the line.
+         *
+         * @return true if there is another token
+         */
+        private boolean hasToken() {
+            skipSpaces();
+            if (_position >= _buffer.limit())
+                return false;
+            byte b = _buffer.get(_position);
+            return b != '\n' && b != '\r' && b != '#';
+        }
+
+        /**
+         * parses a number with a decimal fraction and an exponent.
+         *
+         * @return the number
+         * @throws IllegalArgumentException In case there is no number
+         */
+        private double nextDouble() {
+            skipSpaces();
+            int limit = _buffer.limit();
+            boolean negative = _position < limit && _buffer.get(_position) == '-';
+            if (_position < limit && (negative || _buffer.get(_position) == '+'))
+                _position++;
+            long mantissa = 0;
+            int exponent = 0;
+            int digits = 0;
+            boolean fraction = false;
+            for (; _position < limit; _position++) {
+                byte b = _buffer.get(_position);
+                if (b == '.' && !fraction)
+                    fraction = true;
+                else if (b >= '0' && b <= '9') {
+                    digits++;
+                    if (mantissa < 100_000_000_000_000_000L) { // more digits do not change the double
+                        mantissa = mantissa * 10 + (b - '0');
+                        if (fraction)
+                            exponent--;
+                    } else if (!fraction)
+                        exponent++;
+                } else
+                    break;
+            }
+            if (digits == 0)
+                throw new IllegalArgumentException("vertex of OBJ file without a number");
+            if (_position < limit && (_buffer.get(_position) == 'e' || _buffer.get(_position) == 'E')) {
+                _position++;
+                exponent += (int) nextLong();
+            }
+            double value = exponent < 0 ? mantissa / powerOf10(-exponent) : mantissa * powerOf10(exponent);
+            return negative ? -value : value;
+        }
+
+        /**
+         * parses an integer.
+         *
+         * @return the integer
+         * @throws IllegalArgumentException In case there is no integer
+         */
+        private long nextLong() {
+            int limit = _buffer.limit();
+            boolean negative = _position < limit && _buffer.get(_position) == '-';
+            if (_position < limit && (negative || _buffer.get(_position) == '+'))
+                _position++;
+            long value = 0;
+            int start = _position;
+            for (; _position < limit && _buffer.get(_position) >= '0' && _buffer.get(_position) <= '9'; _position++)
+                value = value * 10 + (_buffer.get(_position) - '0');
+            if (_position == start)
+                throw new IllegalArgumentException("OBJ file with a bad integer");
+            return negative ? -value : value;
+        }
+
+        /**
+         * skips spaces and tabs.
+         */
+        private void skipSpaces() {
+            while (_position < _buffer.limit() && (_buffer.get(_position) == ' ' || _buffer.get(_position) == '\t'))
+                _position++;
+        }
+
+        /**
+         * skips the rest of the line and its end.
+         */
+        private void skipLine() {
+            while (_position < _buffer.limit() && _buffer.get(_position++) != '\n') ;
+        }
+
+        /**
+         * checks whether a byte separates tokens.
+         *
+         * @param b the byte
+         * @return true if it is a space, a tab or an end of line
+         */
+        private static boolean isSpace(byte b) {
+            return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+        }
+    }
+
+    // ------------ PLY ------------
+
+    /**
+     * reads the vertices of a PLY file in parallel, every chunk of vertices from its own mapped part of the file.
+     *
+     * @param channel   the file
+     * @param position  position of the first vertex in the file
+     * @param order     order of the bytes of the values
+     * @param element   the vertex element
+     * @param positions array for the x,y,z of the vertices
+     * @param normals   array for the normals of the vertices, or null if they are not read
+     * @throws IOException In case reading the file failed
+     */
+    private static void readVertices(FileChannel channel, long position, ByteOrder order, PlyElement element,
+                                     double[] positions, double[] normals) throws IOException {
+        int size = element.recordSize();
+        String[] names = {"x", "y", "z", "nx", "ny", "nz"};
+        int[] offsets = new int[names.length];
+        int[] types = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            int property = element.find(names[i]);
+            if (property < 0 && i < 3)
+                throw new IllegalArgumentException("vertex of PLY file without " + names[i]);
+            if (property >= 0) {
+                offsets[i] = element.offset(property);
+                types[i] = element._types.get(property);
+            }
+        }
+        int vertices = positions.length / 3;
+        int perChunk = Math.max(1, CHUNK_SIZE / size);
+        forEachChunk(chunks(vertices, perChunk), chunk -> {
+            int first = chunk * perChunk;
+            int amount = Math.min(perChunk, vertices - first);
+            ByteBuffer buffer = map(channel, position + (long) first * size, (long) amount * size).order(order);
+            for (int i = 0; i < amount; i++)
+                for (int axis = 0; axis < 3; axis++) {
+                    positions[3 * (first + i) + axis] = value(buffer, i * size + offsets[axis], types[axis]);
+                    if (normals != null)
+                        normals[3 * (first + i) + axis] = value(buffer, i * size + offsets[3 + axis], types[3 + axis]);
+                }
+        });
+    }
+
+    /**
+     * reads the faces of a PLY file in parallel as if all of them are triangles, so they all have the same size.
+     *
+     * @param channel  the file
+     * @param position position of the first face in the file
+     * @param order    order of the bytes of the values
+     * @param element  the face element
+     * @return the triangles, or null if not all the faces are triangles
+     * @throws IOException In case reading the file failed
+     */
+    private static int[] readTriangles(FileChannel channel, long position, ByteOrder order, PlyElement element)
+            throws IOException {
+        if (!element.isFixedExceptList())
+            return null;
+        int triangles = element.checkedCount(3);
+        int size = element.recordSize(3);
+        int countOffset = element.offset(element._list);
+        int countType = element._listCounts.get(element._list);
+        int indexType = element._types.get(element._list);
+        int indexSize = PLY_SIZES[indexType];
+        if (position + (long) triangles * size > channel.size())
+            return null;
+        int[] indices = new int[3 * triangles];
+        boolean[] triangular = {true};
+        int perChunk = Math.max(1, CHUNK_SIZE / size);
+        forEachChunk(chunks(triangles, perChunk), chunk -> {
+            int first = chunk * perChunk;
+            int amount = Math.min(perChunk, triangles - first);
+            ByteBuffer buffer = map(channel, position + (long) first * size, (long) amount * size).order(order);
+            for (int i = 0; i < amount && triangular[0]; i++) {
+                int record = i * size + countOffset;
+                if (value(buffer, record, countType) != 3)
+                    triangular[0] = false; // the other chunks stop too
+                for (int k = 0; k < 3; k++)
+                    indices[3 * (first + i) + k] = (int) value(buffer, record + PLY_SIZES[countType] + k * indexSize,
+                            indexType);
+            }
+        });
+        return triangular[0] ? indices : null;
+    }
+
+    /**
+     * reads a value of a PLY property.
+     *
+     * @param buffer   the mapped part of the file
+     * @param position position of the value in the buffer
+     * @param type     code of the type of the value
+     * @return the value
+     */
+    private static double value(ByteBuffer buffer, int position, int type) {
+        switch (type) {
+            case 0:
+                return buffer.get(position);
+            case 1:
+                return buffer.get(position) & 0xFF;
+            case 2:
+                return buffer.getShort(position);
+            case 3:
+                return buffer.getShort(position) & 0xFFFF;
+            case 4:
+                return buffer.getInt(position);
+            case 5:
+                return buffer.getInt(position) & 0xFFFFFFFFL;
+            case 6:
+                return buffer.getFloat(position);
+            default:
+                return buffer.getDouble(position);
+        }
+    }
+
+    /**
+     * the header of a PLY file - the order of the bytes and the elements.
+     */
+    private static class PlyHeader {
+        /**
+         * size of the header in bytes
+         */
+        private final int _size;
+        /**
+         * order of the bytes of the values
+         */
+        private final ByteOrder _order;
+        /**
+         * the elements of the file in their order in the file
+         */
+        private final List<PlyElement> _elements = new ArrayList<>();
+
+        /**
+         * constructor parsing the header from the start of the file.
+         *
+         * @param buffer the start of the file
+         * @throws IllegalArgumentException In case the header is not of a binary PLY file
+         */
+        PlyHeader(ByteBuffer buffer) {
+            byte[] bytes = new byte[buffer.limit()];
+            buffer.get(0, bytes);
+            String text = new String(bytes, java.nio.charset.StandardCharsets.US_ASCII);
+            int end = text.indexOf("end_header");
+            int lineEnd = end < 0 ? -1 : text.indexOf('\n', end);
+            if (!text.startsWith("ply") || lineEnd < 0)
+                throw new IllegalArgumentException("not a PLY file or its header is too long");
+            _size = lineEnd + 1;
+            ByteOrder order = null;
+            PlyElement element = null;
+            for (String line : text.substring(0, end).split("\r?\n")) {
+                String[] words = line.trim().split("\\s+");
+                switch (words[0]) {
+                    case "format":
+                        checkWords(words, 2, line);
+                        if (words[1].equals("binary_little_endian"))
+                            order = ByteOrder.LITTLE_ENDIAN;
+                        else if (words[1].equals("binary_big_endian"))
+                            order = ByteOrder.BIG_ENDIAN;
+                        else
+                            throw new IllegalArgumentException("only binary PLY files are supported");
+                        break;
+                    case "element":
+                        checkWords(words, 3, line);
+                        element = new PlyElement(words[1], Long.parseLong(words[2]));
+                        _elements.add(element);
+                        break;
+                    case "property":
+                        if (element == null)
+                            throw new IllegalArgumentException("PLY property out of an element");
+                        checkWords(words, 3, line);
+                        if (words[1].equals("list")) {
+                            checkWords(words, 5, line);
+                            element.add(words[4], type(words[3]), type(words[2]));
+                        } else
+                            element.add(words[2], type(words[1]), -1);
+                        break;
+                    default: // comments and other lines
+                }
+            }
+            if (order == null)
+                throw new IllegalArgumentException("PLY file without format");
+            _order = order;
+        }
+
+        /**
+         * checks that a line of the header has enough words for its keyword.
+         *
+         * @param words the words of the line
+         * @param count the least amount of words, with the keyword
+         * @param line  the line
+         * @throws IllegalArgumentException In case the line has less words
+         */
+        private static void checkWords(String[] words, int count, String line) {
+            if (words.length < count)
+                throw new IllegalArgumentException("bad line in PLY header: " + line.trim());
+        }
+
+        /**
+         * finds the code of a type of PLY property by its name.
+         *
+         * @param name the name of the type
+         * @return the code of the type
+         * @throws IllegalArgumentException In case the type is not known
+         */
+        private static int type(String name) {
+            for (int type = 0; type < PLY_TYPES.length; type++)
+                if (PLY_TYPES[type][0].equals(name) || PLY_TYPES[type][1].equals(name))
+                    return type;
+            throw new IllegalArgumentException("unknown type of PLY property: " + name);
+        }
+    }
+
+    /**
+     * an element of a PLY file - the amount of its records and their properties.
+     */
+    private static class PlyElement {
+        /**
+         * name of the element
+         */
+        private final String _name;
+        /**
+         * amount of records of the element
+         */
+        private final long _count;
+        /**
+         * names of the properties
+         */
+        private final List<String> _names = new ArrayList<>();
+        /**
+         * types of the properties, for lists the type of their values
+         */
+        private final List<Integer> _types = new ArrayList<>();
+        /**
+         * types of the amount of values of list properties, -1 for other properties
+         */
+        private final List<Integer> _listCounts = new ArrayList<>();
+        /**
+         * index of the first list property, -1 if there is none
+         */
+        private int _list = -1;
+
+        /**
+         * constructor for element without properties.
+         *
+         * @param name  name of the element
+         * @param count amount of records of the element
+         */
+        PlyElement(String name, long count) {
+            _name = name;
+            _count = count;
+        }
+
+        /**
+         * adds a property to the element.
+         *
+         * @param name      name of the property
+         * @param type      type of the property, for lists the type of their values
+         * @param listCount type of the amount of values of a list, -1 if it is not a list
+         */
+        void add(String name, int type, int listCount) {
+            if (listCount >= 0 && _list < 0)
+                _list = _names.size();
+            _names.add(name);
+            _types.add(type);
+            _listCounts.add(listCount);
+        }
+
+        /**
+         * finds a property by its name.
+         *
+         * @param name name of the property
+         * @return index of the property, -1 if there is none
+         */
+        int find(String name) {
+            return _names.indexOf(name);
+        }
+
+        /**
+         * checks whether all the records of the element have the same size.
+         *
+         * @return true if the element has no list properties
+         */
+        boolean isFixed() {
+            return _list < 0;
+        }
+
+        /**
+         * checks whether all the records have the same size when all the lists have the same amount of values.
+         *
+         * @return true if the element has one list property
+         */
+        boolean isFixedExceptList() {
+            return _listCounts.stream().filter(type -> type >= 0).count() == 1;
+        }
+
+        /**
+         * calculates the size of a record, when the list has a given amount of values.
+         *
+         * @param listSize amount of values of the list
+         * @return the size of a record in bytes
+         */
+        int recordSize(int listSize) {
+            return offset(_names.size(), listSize);
+        }
+
+        /**
+         * calculates the size of a record without lists.
+         *
+         * @return the size of a record in bytes
+         */
+        int recordSize() {
+            return recordSize(0);
+        }
+
+        /**
+         * calculates the offset of a property in a record without lists, or before the first list.
+         *
+         * @param property index of the property
+         * @return offset of the property in bytes
+         */
+        int offset(int property) {
+            return offset(property, 0);
+        }
+
+        /**
+         * calculates the offset of a property in a record, when the list has a given amount of values.
+         *
+         * @param property index of the property
+         * @param listSize amount of values of the list
+         * @return offset of the property in bytes
+         */
+        private int offset(int property, int listSize) {
+            int offset = 0;
+            for (int i = 0; i < property; i++)
+                offset += _listCounts.get(i) < 0 ? PLY_SIZES[_types.get(i)]
+                        : PLY_SIZES[_listCounts.get(i)] + listSize * PLY_SIZES[_types.get(i)];
+            return offset;
+        }
+
+        /**
+         * gets the amount of records, when each of them takes some values in an array.
+         *
+         * @param values amount of values of a record in the array
+         * @return amount of records
+         * @throws IllegalArgumentException In case the array can not be that big
+         */
+        int checkedCount(int values) {
+            if (_count > Integer.MAX_VALUE / values)
+                throw new IllegalArgumentException("too many records of PLY element " + _name);
+            return (int) _count;
+        }
+    }
+
+    /**
+     * reads the records of a PLY element one after the other, for elements whose records have different sizes.
+     * the file is mapped in parts of {@value #CHUNK_SIZE} bytes.
+     */
+    private static class PlyReader {
+        /**
+         * the file
+         */
+        private final FileChannel _channel;
+        /**
+         * order of the bytes of the values
+         */
+        private final ByteOrder _order;
+        /**
+         * the mapped part of the file
+         */
+        private ByteBuffer _buffer;
+        /**
+         * position of the mapped part in the file
+         */
+        private long _start;
+
+        /**
+         * constructor for reader from a position in the file.
+         *
+         * @param channel  the file
+         * @param position the position to start reading from
+         * @param order    order of the bytes of the values
+         */
+        PlyReader(FileChannel channel, long position, ByteOrder order) {
+            _channel = channel;
+            _order = order;
+            _start = position;
+            _buffer = ByteBuffer.allocate(0);
+        }
+
+        /**
+         * gets the position of the next byte to read in the file.
+         *
+         * @return the position
+         */
+        long position() {
+            return _start + _buffer.position();
+        }
+
+        /**
+         * reads the faces and splits them into fans of triangles.
+         *
+         * @param element the face element
+         * @return the triangles
+         * @throws IOException              In case reading the file failed
+         * @throws IllegalArgumentException In case the file ends before the last face
+         */
+        int[] readFaces(PlyElement element) throws IOException {
+            int[] indices = new int[3 * element.checkedCount(3)];
+            int size = 0;
+            for (long face = 0; face < element._count; face++)
+                for (int property = 0; property < element._names.size(); property++) {
+                    int type = element._types.get(property);
+                    int listCount = element._listCounts.get(property);
+                    if (listCount < 0) {
+                        next(type);
+                        continue;
+                    }
+                    int corners = (int) next(listCount);
+                    int first = 0;
+                    int last = 0;
+                    for (int corner = 0; corner < corners; corner++) {
+                        int vertex = (int) next(type);
+                        if (property != element._list)
+                            continue;
+                        if (corner == 0)
+                            first = vertex;
+                        else if (corner >= 2) {
+                            if (size + 3 > indices.length)
+                                indices = Arrays.copyOf(indices, Math.max(size + 3, 2 * indices.length));
+                            indices[size++] = first;
+                            indices[size++] = last;
+                            indices[size++] = vertex;
+                        }
+                        last = vertex;
+                    }
+                }
+            return size == indices.length ? indices : Arrays.copyOf(indices, size);
+        }
+
+        /**
+         * skips the records of an element.
+         *
+         * @param element the element
+         * @throws IOException              In case reading the file failed
+         * @throws IllegalArgumentException In case the file ends before the last record
+         */
+        void skip(PlyElement element) throws IOException {
+            for (long record = 0; record < element._count; record++)
+                for (int property = 0; property < element._names.size(); property++) {
+                    int type = element._types.get(property);
+                    int listCount = element._listCounts.get(property);
+                    long values = listCount < 0 ? 1 : (long) next(listCount);
+                    for (long value = 0; value < values; value++)
+                        next(type);
+                }
+        }
+
+        /**
+         * reads the next value, and maps the next part of the file if the value is not in the mapped part.
+         *
+         * @param type code of the type of the value
+         * @return the value
+         * @throws IOException              In case reading the file failed
+         * @throws IllegalArgumentException In case the file ends before the value
+         */
+        private double next(int type) throws IOException {
+            int size = PLY_SIZES[type];
+            if (_buffer.remaining() < size) {
+                _start += _buffer.position();
+                _buffer = map(_channel, _start, Math.min(CHUNK_SIZE, _channel.size() - _start)).order(_order);
+                if (_buffer.remaining() < size)
+                    throw new IllegalArgumentException("PLY file ends in the middle of an element");
+            }
+            double value = value(_buffer, _buffer.position(), type);
+            _buffer.position(_buffer.position() + size);
+            return value;
+        }
+    }
+}
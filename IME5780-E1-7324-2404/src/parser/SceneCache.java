@@ -0,0 +1,445 @@
+package parser;
+
+import elements.*;
+import geometries.Geometries;
+import geometries.IntersectableCodec;
+import primitives.Color;
+import renderer.ImageWriter;
+import scene.Scene;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * a class for loading a scene from an XML file with its bvh tree already built,
+ * through a binary cache file next to the XML file (the name of the XML file with ".cache" added).
+ * <p>
+ * when the cache file was written for the same content of the XML file, the same type of tree
+ * and the same mesh files, the scene is read from it and neither the XML nor the meshes are parsed
+ * and the tree is not built.
+ * otherwise the scene is parsed by {@link SceneParser}, the tree is built and the cache file is written again.
+ * <p>
+ * the cache file starts with a header of a magic number, the version of the format, the SHA-256 hash
+ * of the XML file, the type of the tree and the path, size and time of change of every mesh file,
+ * followed by the scene, its image parameters, its lights and its tree written by {@link IntersectableCodec},
+ * so the tree read is refitted, changed and built again like the tree built after parsing.
+ */
+public class SceneCache {
+    /**
+     * the first bytes of a cache file - "SCNC"
+     */
+    private static final int MAGIC = 0x53434E43;
+    /**
+     * the version of the format, to be changed whenever the format is changed
+     */
+    private static final int VERSION = 2;
+
+    private static final byte DIRECTIONAL_LIGHT = 0;
+    private static final byte POINT_LIGHT = 1;
+    private static final byte SPOT_LIGHT = 2;
+    private static final byte IMPROVED_SPOT_LIGHT = 3;
+
+    /**
+     * the cache file
+     */
+    private final Path _cacheFile;
+    /**
+     * the scene
+     */
+    private Scene _scene;
+    /**
+     * width of the view plane in size units
+     */
+    private double _imageWidth;
+    /**
+     * height of the view plane in size units
+     */
+    private double _imageHeight;
+    /**
+     * amount of pixels by width
+     */
+    private int _nX;
+    /**
+     * amount of pixels by height
+     */
+    private int _nY;
+    /**
+     * whether the scene was read from the cache file
+     */
+    private final boolean _fromCache;
+    /**
+     * the error writing the cache file failed with, null if it was read or written
+     */
+    private Exception _writeError;
+
+    //----------------------- constructor -----------------------------
+
+    /**
+     * constructor loading the scene of an XML file with its bvh tree built,
+     * from the cache file when it is valid or by parsing the XML file and writing the cache file.
+     * failing to write the cache file does not fail the loading, the scene is only parsed again next time.
+     * that happens when writing to the directory fails, or when the scene holds an intersectable or a light
+     * that {@link IntersectableCodec} can not write (such as an {@link geometries.Instance}),
+     * the error is printed to the standard error stream and kept in {@link #get_writeError()}.
+     *
+     * @param file the XML file
+     * @param type the algorithm for building the tree
+     * @throws IOException              In case reading the XML file or its meshes failed
+     * @throws IllegalArgumentException In case the document is not a valid scene
+     */
+    public SceneCache(Path file, Geometries.BvhType type) throws IOException {
+        byte[] hash = hash(file);
+        _cacheFile = file.resolveSibling(file.getFileName() + ".cache");
+        _fromCache = read(hash, type);
+        if (_fromCache)
+            return;
+
+        // streamed from the file like any scene, if it changed since it was hashed the next load parses it again
+        SceneParser parser = new SceneParser(file);
+        _scene = parser.get_scene();
+        _imageWidth = parser.get_imageWidth();
+        _imageHeight = parser.get_imageHeight();
+        _nX = parser.get_nX();
+        _nY = parser.get_nY();
+        _scene.build_bvhTree(type);
+        write(hash, type, parser.get_meshFiles());
+    }
+
+    //----------------------- getters -----------------------------
+
+    /**
+     * getter for the scene, with its bvh tree built.
+     *
+     * @return the scene
+     */
+    public Scene get_scene() {
+        return _scene;
+    }
+
+    /**
+     * getter for the width of the view plane.
+     *
+     * @return width in size units
+     */
+    public double get_imageWidth() {
+        return _imageWidth;
+    }
+
+    /**
+     * getter for the height of the view plane.
+     *
+     * @return height in size units
+     */
+    public double get_imageHeight() {
+        return _imageHeight;
+    }
+
+    /**
+     * getter for the amount of pixels by width.
+     *
+     * @return amount of pixels
+     */
+    public int get_nX() {
+        return _nX;
+    }
+
+    /**
+     * getter for the amount of pixels by height.
+     *
+     * @return amount of pixels
+     */
+    public int get_nY() {
+        return _nY;
+    }
+
+    /**
+     * getter for the cache file.
+     *
+     * @return the path of the cache file
+     */
+    public Path get_cacheFile() {
+        return _cacheFile;
+    }
+
+    /**
+     * getter for the error writing the cache file failed with.
+     *
+     * @return the error, null if the scene was read from the cache file or the cache file was written
+     */
+    public Exception get_writeError() {
+        return _writeError;
+    }
+
+    /**
+     * checks whether the scene was read from the cache file or parsed from the XML file.
+     *
+     * @return true if the scene was read from the cache file
+     */
+    public boolean isFromCache() {
+        return _fromCache;
+    }
+
+    /**
+     * creates an image writer with the parameters of the image in the scene.
+     *
+     * @param imageName the name of the image file
+     * @return the image writer
+     */
+    public ImageWriter createImageWriter(String imageName) {
+        return new ImageWriter(imageName, _imageWidth, _imageHeight, _nX, _nY);
+    }
+
+    //----------------------- reading -----------------------------
+
+    /**
+     * reads the scene from the cache file if it exists and it was written for the XML file.
+     * a cache file that is not valid is treated like a missing one.
+     *
+     * @param hash the hash of the XML file
+     * @param type the algorithm for building the tree
+     * @return true if the scene was read
+     * @throws IOException In case reading the cache file failed
+     */
+    private boolean read(byte[] hash, Geometries.BvhType type) throws IOException {
+        if (!Files.isRegularFile(_cacheFile))
+            return false;
+        MappedByteBuffer in;
+        try (FileChannel channel = FileChannel.open(_cacheFile)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                return false;
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (in.getInt() != MAGIC || in.getInt() != VERSION)
+                return false;
+            byte[] cachedHash = new byte[hash.length];
+            in.get(cachedHash);
+            if (!Arrays.equals(cachedHash, hash) || in.get() != type.ordinal())
+                return false;
+            for (int i = in.getInt(); i > 0; i--) {
+                Path mesh = Path.of(readString(in));
+                long size = in.getLong();
+                long modified = in.getLong();
+                if (!Files.isRegularFile(mesh) || Files.size(mesh) != size
+                        || Files.getLastModifiedTime(mesh).toMillis() != modified)
+                    return false;
+            }
+
+            Scene scene = new Scene(readString(in));
+            scene.set_background(IntersectableCodec.readColor(in));
+            scene.set_distance(in.getDouble());
+            if (in.get() != 0)
+                scene.set_ambientLight(new AmbientLight(IntersectableCodec.readColor(in), 1));
+            if (in.get() != 0)
+                scene.set_camera(new Camera(IntersectableCodec.readPoint(in), IntersectableCodec.readVector(in),
+                        IntersectableCodec.readVector(in)));
+            double imageWidth = in.getDouble();
+            double imageHeight = in.getDouble();
+            int nX = in.getInt();
+            int nY = in.getInt();
+            for (int i = in.getInt(); i > 0; i--)
+                scene.addLights(readLight(in));
+            scene.set_bvhStatistics(IntersectableCodec.readTree(in, scene.get_geometries(), type));
+
+            _scene = scene;
+            _imageWidth = imageWidth;
+            _imageHeight = imageHeight;
+            _nX = nX;
+            _nY = nY;
+            return true;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            return false; // the file was cut or is not of this format
+        }
+    }
+
+    /**
+     * reads a light source.
+     *
+     * @param in the buffer
+     * @return the light source
+     * @throws IllegalArgumentException In case the light is of an unknown kind
+     */
+    private static LightSource readLight(ByteBuffer in) {
+        byte kind = in.get();
+        Color intensity = IntersectableCodec.readColor(in);
+        if (kind == DIRECTIONAL_LIGHT)
+            return new DirectionalLight(intensity, IntersectableCodec.readVector(in));
+        double kC = in.getDouble();
+        double kL = in.getDouble();
+        double kQ = in.getDouble();
+        double radius = in.getDouble();
+        switch (kind) {
+            case POINT_LIGHT:
+                return new PointLight(intensity, IntersectableCodec.readPoint(in), kC, kL, kQ, radius);
+            case SPOT_LIGHT:
+                return new SpotLight(intensity, IntersectableCodec.readPoint(in), IntersectableCodec.readVector(in),
+                        kC, kL, kQ, radius);
+            case IMPROVED_SPOT_LIGHT:
+                return new ImprovedSpotLight(intensity, IntersectableCodec.readPoint(in),
+                        IntersectableCodec.readVector(in), kC, kL, kQ, in.getInt());
+            default:
+                throw new IllegalArgumentException("unknown kind of light " + kind);
+        }
+    }
+
+    /**
+     * reads a string of its length and its UTF-8 bytes.
+     *
+     * @param in the buffer
+     * @return the string
+     */
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0 || length > in.remaining())
+            throw new IllegalArgumentException("bad length of string " + length);
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    //----------------------- writing -----------------------------
+
+    /**
+     * writes the scene to the cache file.
+     * the file is written under another name and then renamed, so a cache file is never left half written.
+     *
+     * @param hash      the hash of the XML file
+     * @param type      the algorithm for building the tree
+     * @param meshFiles the mesh files of the scene
+     */
+    private void write(byte[] hash, Geometries.BvhType type, List<Path> meshFiles) {
+        Path temp = _cacheFile.resolveSibling(_cacheFile.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.write(hash);
+                out.writeByte(type.ordinal());
+                out.writeInt(meshFiles.size());
+                for (Path mesh : meshFiles) {
+                    writeString(out, mesh.toAbsolutePath().toString());
+                    out.writeLong(Files.size(mesh));
+                    out.writeLong(Files.getLastModifiedTime(mesh).toMillis());
+                }
+
+                writeString(out, _scene.get_name());
+                IntersectableCodec.writeColor(out, _scene.get_background());
+                out.writeDouble(_scene.get_distance());
+                AmbientLight ambientLight = _scene.get_ambientLight();
+                out.writeBoolean(ambientLight != null);
+                if (ambientLight != null)
+                    IntersectableCodec.writeColor(out, ambientLight.get_intensity());
+                Camera camera = _scene.get_camera();
+                out.writeBoolean(camera != null);
+                if (camera != null) {
+                    IntersectableCodec.writePoint(out, camera.get_p0());
+                    IntersectableCodec.writeVector(out, camera.get_Vto());
+                    IntersectableCodec.writeVector(out, camera.get_Vup());
+                }
+                out.writeDouble(_imageWidth);
+                out.writeDouble(_imageHeight);
+                out.writeInt(_nX);
+                out.writeInt(_nY);
+                out.writeInt(_scene.get_lights().size());
+                for (LightSource light : _scene.get_lights())
+                    writeLight(out, light);
+                IntersectableCodec.writeTree(out, _scene.get_geometries(), _scene.get_bvhStatistics());
+            }
+            Files.move(temp, _cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | IllegalArgumentException e) {
+            // the scene is already loaded, without a cache file it is only parsed again next time
+            _writeError = e;
+            System.err.println("the cache file " + _cacheFile + " was not written: " + e);
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * writes a light source, subclasses are checked before the classes they extend.
+     *
+     * @param out   the stream
+     * @param light the light source
+     * @throws IOException              In case writing to the stream failed
+     * @throws IllegalArgumentException In case the light is of an unknown kind
+     */
+    private static void writeLight(DataOutputStream out, LightSource light) throws IOException {
+        if (light instanceof DirectionalLight) {
+            DirectionalLight directional = (DirectionalLight) light;
+            out.writeByte(DIRECTIONAL_LIGHT);
+            IntersectableCodec.writeColor(out, directional.get_intensity());
+            IntersectableCodec.writeVector(out, directional.get_direction());
+            return;
+        }
+        if (!(light instanceof PointLight))
+            throw new IllegalArgumentException("can not write " + light.getClass().getName());
+        PointLight point = (PointLight) light;
+        byte kind = light instanceof ImprovedSpotLight ? IMPROVED_SPOT_LIGHT
+                : light instanceof SpotLight ? SPOT_LIGHT : POINT_LIGHT;
+        out.writeByte(kind);
+        IntersectableCodec.writeColor(out, point.get_intensity());
+        out.writeDouble(point.get_kC());
+        out.writeDouble(point.get_kL());
+        out.writeDouble(point.get_kQ());
+        out.writeDouble(point.get_radius());
+        IntersectableCodec.writePoint(out, point.get_position());
+        if (kind != POINT_LIGHT)
+            IntersectableCodec.writeVector(out, ((SpotLight) light).get_direction());
+        if (kind == IMPROVED_SPOT_LIGHT)
+            out.writeInt(((ImprovedSpotLight) light).get_concentration());
+    }
+
+    /**
+     * writes a string as its length and its UTF-8 bytes.
+     *
+     * @param out the stream
+     * @param str the string
+     * @throws IOException In case writing to the stream failed
+     */
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * calculates the SHA-256 hash of the content of a file, reading it a block at a time
+     * so a large file is never held in memory.
+     *
+     * @param file the file
+     * @return the hash
+     * @throws IOException In case reading the file failed
+     */
+    private static byte[] hash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e); // every java platform must support it
+        }
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            byte[] block = new byte[1 << 16];
+            while (in.read(block) != -1)
+                ; // the digest is updated by the stream
+        }
+        return digest.digest();
+    }
+}
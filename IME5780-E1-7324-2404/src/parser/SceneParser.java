@@ -0,0 +1,555 @@
+package parser;
+
+import elements.*;
+import geometries.*;
+import primitives.*;
+import renderer.ImageWriter;
+import scene.Scene;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * a class for parsing a scene and the parameters of its image from an XML document.
+ * the document is read as a stream of elements (StAX) and the Scene is built while reading it,
+ * so the document is never held in the memory and big generated scenes are parsed in one pass.
+ * <p>
+ * the root element is {@code <scene background-color="r g b" screen-distance="d">} holding the elements:
+ * <ul>
+ * <li>{@code <image screen-width screen-height Nx Ny/>} and {@code <camera P0 Vto Vup/>}</li>
+ * <li>{@code <ambient-light color ka/>}, where ka is 1 by default</li>
+ * <li>{@code <geometries>} with {@code <sphere center radius/>}, {@code <triangle p0 p1 p2/>},
+ * {@code <plane point normal/>} or {@code <plane p0 p1 p2/>}, {@code <polygon vertices/>},
+ * {@code <tube head direction radius/>}, {@code <cylinder head direction radius height/>} and
+ * {@code <mesh file/>} (loaded by {@link MeshLoader}).
+ * every geometry may have an emission color and the material values kD, kS, nShininess, kT and kR,
+ * which are 0 by default</li>
+ * <li>{@code <lights>} with {@code <directional-light intensity direction/>},
+ * {@code <point-light intensity position kC kL kQ radius/>},
+ * {@code <spot-light intensity position direction kC kL kQ radius/>} and
+ * {@code <improved-spot-light intensity position direction kC kL kQ concentration/>},
+ * where kC is 1, kL and kQ are 0 and the radius is 0 by default</li>
+ * </ul>
+ * points, vectors and colors are 3 numbers separated by spaces.
+ * errors in the document are reported with the line they are in.
+ */
+public class SceneParser {
+    /**
+     * exact powers of 10 that a double can hold
+     */
+    private static final double[] POWERS_OF_10 = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    /**
+     * the name of the document for the messages of errors
+     */
+    private final String _source;
+    /**
+     * directory of the document, for the files of meshes
+     */
+    private final Path _directory;
+    /**
+     * the reader of the document while it is parsed
+     */
+    private XMLStreamReader _reader;
+    /**
+     * the scene built from the document
+     */
+    private Scene _scene;
+    /**
+     * the geometries of the scene, added to the scene together at the end of the document
+     */
+    private final List<Intersectable> _geometries = new ArrayList<>();
+    /**
+     * the files of the meshes in the document
+     */
+    private final List<Path> _meshFiles = new ArrayList<>();
+    /**
+     * width of the view plane in size units
+     */
+    private double _imageWidth;
+    /**
+     * height of the view plane in size units
+     */
+    private double _imageHeight;
+    /**
+     * amount of pixels by width
+     */
+    private int _nX;
+    /**
+     * amount of pixels by height
+     */
+    private int _nY;
+
+    //----------------------- constructors -----------------------------
+
+    /**
+     * constructor parsing the scene from an XML file.
+     * calls {@link parser.SceneParser#SceneParser(InputStream, String, Path)}.
+     *
+     * @param file the XML file
+     * @throws IOException              In case reading the file failed
+     * @throws IllegalArgumentException In case the document is not a valid scene
+     */
+    public SceneParser(Path file) throws IOException {
+        this(Files.newInputStream(file), file.toString(), file.toAbsolutePath().getParent());
+    }
+
+    /**
+     * constructor parsing the scene from a stream of an XML document, the stream is closed at the end.
+     *
+     * @param in        the stream of the document
+     * @param source    the name of the document for the messages of errors
+     * @param directory directory for the files of meshes in the document
+     * @throws IOException              In case reading the stream failed
+     * @throws IllegalArgumentException In case the document is not a valid scene
+     */
+    public SceneParser(InputStream in, String source, Path directory) throws IOException {
+        _source = source;
+        _directory = directory;
+        try (InputStream stream = new BufferedInputStream(in, 1 << 16)) {
+            XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false); // no external entities
+            _reader = factory.createXMLStreamReader(stream);
+            try {
+                parse();
+            } finally {
+                _reader.close();
+                _reader = null;
+            }
+        } catch (XMLStreamException e) {
+            int line = e.getLocation() == null ? -1 : e.getLocation().getLineNumber();
+            throw new IllegalArgumentException(_source + ":" + line + ": " + e.getMessage(), e);
+        }
+    }
+
+    //----------------------- getters -----------------------------
+
+    /**
+     * getter for the scene of the document.
+     *
+     * @return the scene
+     */
+    public Scene get_scene() {
+        return _scene;
+    }
+
+    /**
+     * getter for the width of the view plane.
+     *
+     * @return width in size units
+     */
+    public double get_imageWidth() {
+        return _imageWidth;
+    }
+
+    /**
+     * getter for the height of the view plane.
+     *
+     * @return height in size units
+     */
+    public double get_imageHeight() {
+        return _imageHeight;
+    }
+
+    /**
+     * getter for the amount of pixels by width.
+     *
+     * @return amount of pixels
+     */
+    public int get_nX() {
+        return _nX;
+    }
+
+    /**
+     * getter for the amount of pixels by height.
+     *
+     * @return amount of pixels
+     */
+    public int get_nY() {
+        return _nY;
+    }
+
+    /**
+     * getter for the files of the meshes in the document, that the scene depends on.
+     *
+     * @return the files
+     */
+    public List<Path> get_meshFiles() {
+        return _meshFiles;
+    }
+
+    /**
+     * creates an image writer with the parameters of the image in the document.
+     *
+     * @param imageName the name of the image file
+     * @return the image writer
+     */
+    public ImageWriter createImageWriter(String imageName) {
+        return new ImageWriter(imageName, _imageWidth, _imageHeight, _nX, _nY);
+    }
+
+    //----------------------- parsing -----------------------------
+
+    /**
+     * reads the elements of the document one after the other and builds the scene.
+     *
+     * @throws XMLStreamException       In case the document is not valid XML
+     * @throws IOException              In case reading a mesh file failed
+     * @throws IllegalArgumentException In case the document is not a valid scene
+     */
+    private void parse() throws XMLStreamException, IOException {
+        while (_reader.hasNext()) {
+            if (_reader.next() != XMLStreamConstants.START_ELEMENT)
+                continue;
+            String name = _reader.getLocalName();
+            if (_scene == null && !name.equals("scene"))
+                throw error("the root element must be <scene> and not <" + name + ">");
+            switch (name) {
+                case "scene":
+                    if (_scene != null)
+                        throw error("<scene> inside a scene");
+                    _scene = new Scene(attribute("name", _source));
+                    _scene.set_background(color("background-color", Color.BLACK));
+                    _scene.set_distance(number("screen-distance"));
+                    break;
+                case "image":
+                    _imageWidth = number("screen-width");
+                    _imageHeight = number("screen-height");
+                    _nX = integer("Nx");
+                    _nY = integer("Ny");
+                    break;
+                case "camera":
+                    _scene.set_camera(new Camera(point("P0"), vector("Vto"), vector("Vup")));
+                    break;
+                case "ambient-light":
+                    _scene.set_ambientLight(new AmbientLight(color("color", null), number("ka", 1)));
+                    break;
+                case "geometries":
+                case "lights":
+                    break;
+                case "directional-light":
+                case "point-light":
+                case "spot-light":
+                case "improved-spot-light":
+                    _scene.addLights(light(name));
+                    break;
+                default:
+                    _geometries.add(geometry(name));
+            }
+        }
+        if (_scene == null)
+            throw new IllegalArgumentException(_source + ": document without a scene");
+        _scene.addGeometries(_geometries.toArray(new Intersectable[0]));
+    }
+
+    /**
+     * creates the geometry of the current element.
+     *
+     * @param name the name of the element
+     * @return the geometry
+     * @throws IOException              In case reading a mesh file failed
+     * @throws IllegalArgumentException In case the element is not a geometry or is not valid
+     */
+    private Intersectable geometry(String name) throws IOException {
+        Material material = new Material(number("kD", 0), number("kS", 0), integer("nShininess", 0),
+                number("kT", 0), number("kR", 0));
+        Color emission = color("emission", Color.BLACK);
+        try {
+            switch (name) {
+                case "sphere":
+                    return new Sphere(material, emission, number("radius"), point("center"));
+                case "triangle":
+                    return new Triangle(material, emission, point("p0"), point("p1"), point("p2"));
+                case "plane":
+                    if (attribute("normal", null) != null)
+                        return new Plane(material, emission, point("point"), vector("normal"));
+                    return new Plane(material, emission, point("p0"), point("p1"), point("p2"));
+                case "polygon":
+                    double[] values = numbers("vertices", 0);
+                    Point3D[] vertices = new Point3D[values.length / 3];
+                    for (int i = 0; i < vertices.length; i++)
+                        vertices[i] = new Point3D(values[3 * i], values[3 * i + 1], values[3 * i + 2]);
+                    return new Polygon(material, emission, vertices);
+                case "tube":
+                    return new Tube(material, emission, number("radius"), new Ray(point("head"), vector("direction")));
+                case "cylinder":
+                    return new Cylinder(material, emission, number("radius"),
+                            new Ray(point("head"), vector("direction")), number("height"));
+                case "mesh":
+                    Path file = _directory == null ? Path.of(attribute("file")) : _directory.resolve(attribute("file"));
+                    _meshFiles.add(file);
+                    return MeshLoader.load(file, material, emission);
+                default:
+                    throw error("unknown element <" + name + ">");
+            }
+        } catch (IllegalArgumentException | IOException e) {
+            if (e.getMessage() != null && e.getMessage().startsWith(_source + ":"))
+                throw e; // already has the line
+            throw error("bad <" + name + ">: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * creates the light source of the current element.
+     *
+     * @param name the name of the element
+     * @return the light source
+     * @throws IllegalArgumentException In case the element is not valid
+     */
+    private LightSource light(String name) {
+        Color intensity = color("intensity", null);
+        try {
+            if (name.equals("directional-light"))
+                return new DirectionalLight(intensity, vector("direction"));
+            double kC = number("kC", 1);
+            double kL = number("kL", 0);
+            double kQ = number("kQ", 0);
+            switch (name) {
+                case "point-light":
+                    return new PointLight(intensity, point("position"), kC, kL, kQ, number("radius", 0));
+                case "spot-light":
+                    return new SpotLight(intensity, point("position"), vector("direction"), kC, kL, kQ,
+                            number("radius", 0));
+                default:
+                    return new ImprovedSpotLight(intensity, point("position"), vector("direction"), kC, kL, kQ,
+                            integer("concentration"));
+            }
+        } catch (IllegalArgumentException e) {
+            if (e.getMessage() != null && e.getMessage().startsWith(_source + ":"))
+                throw e;
+            throw error("bad <" + name + ">: " + e.getMessage(), e);
+        }
+    }
+
+    //------------- tools for parsing attributes -------------
+
+    /**
+     * creates an exception for an error in the current element, with its line.
+     *
+     * @param message the error
+     * @return the exception
+     */
+    private IllegalArgumentException error(String message) {
+        return error(message, null);
+    }
+
+    /**
+     * creates an exception for an error in the current element, with its line and the exception that caused it.
+     *
+     * @param message the error
+     * @param cause   the exception that caused the error, null if there is none
+     * @return the exception
+     */
+    private IllegalArgumentException error(String message, Throwable cause) {
+        return new IllegalArgumentException(_source + ":" + _reader.getLocation().getLineNumber() + ": " + message,
+                cause);
+    }
+
+    /**
+     * gets an attribute of the current element.
+     *
+     * @param name the name of the attribute
+     * @return the value of the attribute
+     * @throws IllegalArgumentException In case the element does not have the attribute
+     */
+    private String attribute(String name) {
+        String value = _reader.getAttributeValue(null, name);
+        if (value == null)
+            throw error("<" + _reader.getLocalName() + "> without attribute " + name);
+        return value;
+    }
+
+    /**
+     * gets an attribute of the current element, or a default value if it does not have it.
+     *
+     * @param name         the name of the attribute
+     * @param defaultValue the value when the element does not have the attribute
+     * @return the value of the attribute
+     */
+    private String attribute(String name, String defaultValue) {
+        String value = _reader.getAttributeValue(null, name);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * parses numbers separated by spaces from an attribute of the current element.
+     *
+     * @param name  the name of the attribute
+     * @param count amount of numbers, or 0 for any multiple of 3
+     * @return the numbers
+     * @throws IllegalArgumentException In case the element does not have the attribute,
+     *                                  or it is not the right amount of numbers
+     */
+    private double[] numbers(String name, int count) {
+        String value = attribute(name);
+        double[] numbers = new double[count > 0 ? count : 12];
+        int found = 0;
+        int length = value.length();
+        try {
+            for (int i = 0; i < length; ) {
+                if (Character.isWhitespace(value.charAt(i))) {
+                    i++;
+                    continue;
+                }
+                int start = i;
+                while (i < length && !Character.isWhitespace(value.charAt(i)))
+                    i++;
+                if (found == numbers.length)
+                    numbers = Arrays.copyOf(numbers, 2 * found + 1); // more numbers than needed fail below
+                numbers[found++] = parseNumber(value, start, i);
+            }
+        } catch (NumberFormatException e) {
+            throw error("attribute " + name + " of <" + _reader.getLocalName() + "> is not a number", e);
+        }
+        if (count > 0 ? found != count : found % 3 != 0 || found == 0)
+            throw error("attribute " + name + " of <" + _reader.getLocalName() + "> must have "
+                    + (count > 0 ? count + "" : "a multiple of 3") + " numbers");
+        return found == numbers.length ? numbers : Arrays.copyOf(numbers, found);
+    }
+
+    /**
+     * parses a number from a part of a string.
+     * a decimal number of up to 15 digits is calculated exactly from its digits,
+     * and other numbers by {@link Double#parseDouble(String)}.
+     *
+     * @param str   the string
+     * @param start index of the first char of the number
+     * @param end   index after the last char of the number
+     * @return the number
+     * @throws NumberFormatException In case it is not a number
+     */
+    private static double parseNumber(String str, int start, int end) {
+        int i = start;
+        boolean negative = i < end && str.charAt(i) == '-';
+        if (i < end && (negative || str.charAt(i) == '+'))
+            i++;
+        long mantissa = 0;
+        int digits = 0; // significant digits, without the zeros at the start
+        int exponent = 0;
+        boolean point = false;
+        boolean number = false;
+        for (; i < end; i++) {
+            char c = str.charAt(i);
+            if (c >= '0' && c <= '9') {
+                number = true;
+                if (mantissa > 0 || c != '0')
+                    digits++;
+                mantissa = mantissa * 10 + (c - '0');
+                if (point)
+                    exponent--;
+            } else if (c == '.' && !point)
+                point = true;
+            else
+                break;
+        }
+        // both the digits and the power of 10 are exact doubles, so dividing them is rounded correctly
+        if (i < end || !number || digits > 15 || exponent < -22)
+            return Double.parseDouble(str.substring(start, end));
+        double value = mantissa / POWERS_OF_10[-exponent];
+        return negative ? -value : value;
+    }
+
+    /**
+     * parses a number from an attribute of the current element.
+     *
+     * @param name the name of the attribute
+     * @return the number
+     * @throws IllegalArgumentException In case the element does not have the attribute or it is not a number
+     */
+    private double number(String name) {
+        return numbers(name, 1)[0];
+    }
+
+    /**
+     * parses a number from an attribute of the current element, or gets a default value if it does not have it.
+     *
+     * @param name         the name of the attribute
+     * @param defaultValue the value when the element does not have the attribute
+     * @return the number
+     * @throws IllegalArgumentException In case the attribute is not a number
+     */
+    private double number(String name, double defaultValue) {
+        return attribute(name, null) == null ? defaultValue : number(name);
+    }
+
+    /**
+     * parses an integer from an attribute of the current element.
+     *
+     * @param name the name of the attribute
+     * @return the integer
+     * @throws IllegalArgumentException In case the element does not have the attribute or it is not an integer
+     */
+    private int integer(String name) {
+        double number = number(name);
+        if (number != (int) number)
+            throw error("attribute " + name + " of <" + _reader.getLocalName() + "> is not an integer");
+        return (int) number;
+    }
+
+    /**
+     * parses an integer from an attribute of the current element, or gets a default value if it does not have it.
+     *
+     * @param name         the name of the attribute
+     * @param defaultValue the value when the element does not have the attribute
+     * @return the integer
+     * @throws IllegalArgumentException In case the attribute is not an integer
+     */
+    private int integer(String name, int defaultValue) {
+        return attribute(name, null) == null ? defaultValue : integer(name);
+    }
+
+    /**
+     * parses a point from an attribute of the current element.
+     *
+     * @param name the name of the attribute
+     * @return the point
+     * @throws IllegalArgumentException In case the element does not have the attribute or it is not 3 numbers
+     */
+    private Point3D point(String name) {
+        double[] values = numbers(name, 3);
+        return new Point3D(values[0], values[1], values[2]);
+    }
+
+    /**
+     * parses a vector from an attribute of the current element.
+     *
+     * @param name the name of the attribute
+     * @return the vector
+     * @throws IllegalArgumentException In case the element does not have the attribute, it is not 3 numbers
+     *                                  or it is the zero vector
+     */
+    private Vector vector(String name) {
+        double[] values = numbers(name, 3);
+        try {
+            return new Vector(values[0], values[1], values[2]);
+        } catch (IllegalArgumentException e) {
+            throw error("attribute " + name + " of <" + _reader.getLocalName() + "> is the zero vector", e);
+        }
+    }
+
+    /**
+     * parses a color from an attribute of the current element, or gets a default color if it does not have it.
+     *
+     * @param name         the name of the attribute
+     * @param defaultValue the color when the element does not have the attribute, or null if it must have it
+     * @return the color
+     * @throws IllegalArgumentException In case the attribute is missing and there is no default color,
+     *                                  or it is not 3 numbers
+     */
+    private Color color(String name, Color defaultValue) {
+        if (defaultValue != null && attribute(name, null) == null)
+            return defaultValue;
+        double[] values = numbers(name, 3);
+        return new Color(values[0], values[1], values[2]);
+    }
+}
@@ -0,0 +1,89 @@
+package primitives;
+
+/**
+ * sampler using a precomputed blue noise set - points that are spread evenly with no two points close to each other,
+ * so the error is high frequency noise the eye hardly notices instead of clumps.
+ * the set is built once with Mitchell's best candidate algorithm, which makes every prefix of it blue noise as well,
+ * and every seed shifts it by a random offset (wrapping around the square).
+ */
+public class BlueNoiseSampler implements Sampler {
+    /**
+     * amount of points in the precomputed set
+     */
+    private static final int SET_SIZE = 256;
+    /**
+     * candidates tried for every point of the set, multiplied by the amount of points already chosen
+     */
+    private static final int CANDIDATES = 4;
+    /**
+     * the precomputed set - u of point k at 2k and v of point k at 2k+1
+     */
+    private static final double[] POINTS = bestCandidateSet(SET_SIZE, 0x5EED);
+
+    @Override
+    public double[] getSamples(long seed, int numOfSamples) {
+        double[] samples = new double[2 * numOfSamples];
+        for (int i = 0; i < numOfSamples; i++) {
+            int block = i / SET_SIZE; // every repetition of the set gets its own offset
+            int point = i % SET_SIZE;
+            samples[2 * i] = HaltonSampler.rotate(POINTS[2 * point], Sampler.random(seed, 2 * block));
+            samples[2 * i + 1] = HaltonSampler.rotate(POINTS[2 * point + 1], Sampler.random(seed, 2 * block + 1));
+        }
+        return samples;
+    }
+
+    @Override
+    public double[] getSample(long seed, int index) {
+        int block = index / SET_SIZE;
+        int point = index % SET_SIZE;
+        return new double[]{HaltonSampler.rotate(POINTS[2 * point], Sampler.random(seed, 2 * block)),
+                HaltonSampler.rotate(POINTS[2 * point + 1], Sampler.random(seed, 2 * block + 1))};
+    }
+
+    /**
+     * builds a blue noise set by adding every time the candidate that is farthest from the points already chosen.
+     *
+     * @param size amount of points
+     * @param seed seed of the candidates
+     * @return the set - u of point k at 2k and v of point k at 2k+1
+     */
+    static double[] bestCandidateSet(int size, long seed) {
+        double[] points = new double[2 * size];
+        long index = 0;
+        points[0] = Sampler.random(seed, index++);
+        points[1] = Sampler.random(seed, index++);
+        for (int i = 1; i < size; i++) {
+            double bestDistance = -1;
+            for (int c = 0; c < i * CANDIDATES; c++) {
+                double u = Sampler.random(seed, index++);
+                double v = Sampler.random(seed, index++);
+                double distance = Double.POSITIVE_INFINITY; // distance to the closest chosen point
+                for (int j = 0; j < i && distance > bestDistance; j++)
+                    distance = Math.min(distance, torusDistanceSquared(u, v, points[2 * j], points[2 * j + 1]));
+                if (distance > bestDistance) {
+                    bestDistance = distance;
+                    points[2 * i] = u;
+                    points[2 * i + 1] = v;
+                }
+            }
+        }
+        return points;
+    }
+
+    /**
+     * calculates the squared distance between two points of the unit square when its edges wrap around.
+     *
+     * @param u1 u of the first point
+     * @param v1 v of the first point
+     * @param u2 u of the second point
+     * @param v2 v of the second point
+     * @return the squared distance
+     */
+    private static double torusDistanceSquared(double u1, double v1, double u2, double v2) {
+        double du = Math.abs(u1 - u2);
+        double dv = Math.abs(v1 - v2);
+        du = Math.min(du, 1 - du);
+        dv = Math.min(dv, 1 - dv);
+        return du * du + dv * dv;
+    }
+}
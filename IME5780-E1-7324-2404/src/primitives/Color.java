@@ -127,6 +127,33 @@ public class Color {
         return new java.awt.Color(r > 255 ? 255 : r, g > 255 ? 255 : g, b > 255 ? 255 : b);
     }
 
+    /**
+     * Red component getter, without the limit of 255
+     *
+     * @return the red component
+     */
+    public double get_r() {
+        return _r;
+    }
+
+    /**
+     * Green component getter, without the limit of 255
+     *
+     * @return the green component
+     */
+    public double get_g() {
+        return _g;
+    }
+
+    /**
+     * Blue component getter, without the limit of 255
+     *
+     * @return the blue component
+     */
+    public double get_b() {
+        return _b;
+    }
+
     /**
      * Operation of adding this and one or more other colors (by component)
      *
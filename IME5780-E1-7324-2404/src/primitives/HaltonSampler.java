@@ -0,0 +1,55 @@
+package primitives;
+
+/**
+ * sampler using the Halton sequence in bases 2 and 3, a low discrepancy sequence where every prefix
+ * of the samples covers the square evenly.
+ * every seed shifts the sequence by a random offset (Cranley-Patterson rotation),
+ * so neighbouring pixels do not share the same pattern.
+ */
+public class HaltonSampler implements Sampler {
+
+    @Override
+    public double[] getSamples(long seed, int numOfSamples) {
+        double[] samples = new double[2 * numOfSamples];
+        double offsetU = Sampler.random(seed, 0);
+        double offsetV = Sampler.random(seed, 1);
+        for (int i = 0; i < numOfSamples; i++) {
+            samples[2 * i] = rotate(radicalInverse(2, i + 1), offsetU);
+            samples[2 * i + 1] = rotate(radicalInverse(3, i + 1), offsetV);
+        }
+        return samples;
+    }
+
+    @Override
+    public double[] getSample(long seed, int index) {
+        return new double[]{rotate(radicalInverse(2, index + 1), Sampler.random(seed, 0)),
+                rotate(radicalInverse(3, index + 1), Sampler.random(seed, 1))};
+    }
+
+    /**
+     * mirrors the digits of a number in a base around the decimal point.
+     *
+     * @param base  the base
+     * @param index the number
+     * @return the radical inverse of the number, in [0,1)
+     */
+    static double radicalInverse(int base, int index) {
+        double inverse = 0;
+        double digitValue = 1d / base;
+        for (int i = index; i > 0; i /= base, digitValue /= base)
+            inverse += (i % base) * digitValue;
+        return inverse;
+    }
+
+    /**
+     * shifts a coordinate and wraps it back into [0,1).
+     *
+     * @param value  the coordinate
+     * @param offset the shift
+     * @return the shifted coordinate
+     */
+    static double rotate(double value, double offset) {
+        value += offset;
+        return value >= 1 ? value - 1 : value;
+    }
+}
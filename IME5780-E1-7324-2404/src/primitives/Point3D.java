@@ -39,9 +39,9 @@ public class Point3D {
         if (x == null || y == null || z == null) {
             throw new NullPointerException("ERROR One or more of the arguments is NULL");
         }
-        this._x = new Coordinate(x);
-        this._y = new Coordinate(y);
-        this._z = new Coordinate(z);
+        this._x = x; // Coordinate is immutable so it can be shared
+        this._y = y;
+        this._z = z;
     }
 
     /**
@@ -67,9 +67,9 @@ public class Point3D {
         if (point == null) {
             throw new NullPointerException("ERROR arguments is NULL");
         }
-        this._x = new Coordinate(point._x);
-        this._y = new Coordinate(point._y);
-        this._z = new Coordinate(point._z);
+        this._x = point._x;
+        this._y = point._y;
+        this._z = point._z;
     }
 
     //*********************************** getters ***************
@@ -80,7 +80,7 @@ public class Point3D {
      * @return x coordinate
      */
     public Coordinate get_x() {
-        return new Coordinate(_x);
+        return _x; // Coordinate is immutable so there is no need to copy it
     }
 
     /**
@@ -89,7 +89,7 @@ public class Point3D {
      * @return y coordinate
      */
     public Coordinate get_y() {
-        return new Coordinate(_y);
+        return _y; // Coordinate is immutable so there is no need to copy it
     }
 
     /**
@@ -98,7 +98,7 @@ public class Point3D {
      * @return z coordinate
      */
     public Coordinate get_z() {
-        return new Coordinate(_z);
+        return _z; // Coordinate is immutable so there is no need to copy it
     }
 
     //************** functions ******************
@@ -115,9 +115,9 @@ public class Point3D {
         if (other == null)
             throw new NullPointerException("ERROR arguments is NULL");
         return new Vector(
-                this._x.get() - other._x.get(),
-                this._y.get() - other._y.get(),
-                this._z.get() - other._z.get());
+                this._x._coord - other._x._coord,
+                this._y._coord - other._y._coord,
+                this._z._coord - other._z._coord);
 
     }
 
@@ -132,9 +132,9 @@ public class Point3D {
         if (vec == null)
             throw new NullPointerException("ERROR arguments is NULL");
         return new Point3D(
-                this.get_x().get() + vec._head.get_x().get(),
-                this.get_y().get() + vec._head.get_y().get(),
-                this.get_z().get() + vec._head.get_z().get());
+                this._x._coord + vec._head._x._coord,
+                this._y._coord + vec._head._y._coord,
+                this._z._coord + vec._head._z._coord);
     }
 
     /**
@@ -147,9 +147,10 @@ public class Point3D {
     public double distanceSquared(Point3D other) throws NullPointerException {
         if (other == null)
             throw new NullPointerException("ERROR arguments is NULL");
-        return (this.get_x().get() - other.get_x().get()) * (this.get_x().get() - other.get_x().get())
-                + (this.get_y().get() - other.get_y().get()) * (this.get_y().get() - other.get_y().get())
-                + (this.get_z().get() - other.get_z().get()) * (this.get_z().get() - other.get_z().get());
+        double dx = this._x._coord - other._x._coord;
+        double dy = this._y._coord - other._y._coord;
+        double dz = this._z._coord - other._z._coord;
+        return dx * dx + dy * dy + dz * dz;
     }
 
     /**
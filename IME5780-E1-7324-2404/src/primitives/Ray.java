@@ -2,6 +2,8 @@ package primitives;
 
 import java.util.Objects;
 
+import static primitives.Util.alignZero;
+
 /**
  * class Ray representing a ray from a point in a specific direction.
  */
@@ -20,6 +22,24 @@ public class Ray {
      * the direction vector of the ray
      */
     private final Vector _direction;
+    /**
+     * x,y,z values of the start point kept as primitives,
+     * so calculations in hot loops do not need to go through the coordinates
+     */
+    private final double _x0, _y0, _z0;
+    /**
+     * x,y,z values of the direction kept as primitives
+     */
+    private final double _dx, _dy, _dz;
+    /**
+     * x,y,z values of the inverse of the direction, computed once for the slab tests of all the boxes the ray checks
+     */
+    private final double _inverseDx, _inverseDy, _inverseDz;
+    /**
+     * sign bits of the direction - bit i is set if the ray goes in the negative direction of axis i (x,y,z).
+     * taken from the inverse, so a direction of negative zero on an axis is negative like its inverse
+     */
+    private final int _signs;
 
 
     // ***************** Constructors ********************** //
@@ -34,8 +54,18 @@ public class Ray {
     public Ray(Point3D p0, Vector dir) throws NullPointerException {
         if (p0 == null || dir == null)
             throw new NullPointerException("ERROR One or more of the arguments is NULL");
-        this._p0 = new Point3D(p0);
+        this._p0 = p0; // Point3D is immutable so it can be shared
         this._direction = new Vector(dir).normalize();
+        _x0 = _p0._x._coord;
+        _y0 = _p0._y._coord;
+        _z0 = _p0._z._coord;
+        _dx = _direction._head._x._coord;
+        _dy = _direction._head._y._coord;
+        _dz = _direction._head._z._coord;
+        _inverseDx = 1d / _dx;
+        _inverseDy = 1d / _dy;
+        _inverseDz = 1d / _dz;
+        _signs = signs(_inverseDx, _inverseDy, _inverseDz);
     }
 
     /**
@@ -47,8 +77,18 @@ public class Ray {
     public Ray(Ray ray) throws NullPointerException {
         if (ray == null)
             throw new NullPointerException("ERROR arguments is NULL");
-        this._p0 = new Point3D(ray.get_p0());
-        this._direction = new Vector(ray.get_direction());
+        this._p0 = ray._p0;
+        this._direction = new Vector(ray._direction);
+        _x0 = ray._x0;
+        _y0 = ray._y0;
+        _z0 = ray._z0;
+        _dx = ray._dx;
+        _dy = ray._dy;
+        _dz = ray._dz;
+        _inverseDx = ray._inverseDx;
+        _inverseDy = ray._inverseDy;
+        _inverseDz = ray._inverseDz;
+        _signs = ray._signs;
     }
 
     /**
@@ -61,9 +101,23 @@ public class Ray {
     public Ray(Point3D point, Vector direction, Vector normal) {
         //_p0 = _p0 + normal.scale(±DELTA)
         double nv = normal.dotProduct(direction);
-        Vector normalDelta = normal.scale((nv > 0 ? DELTA : -DELTA));
-        _p0 = point.add(normalDelta);
-        _direction = new Vector(direction).normalized();
+        double delta = nv > 0 ? DELTA : -DELTA;
+        Point3D n = normal._head;
+        _p0 = new Point3D(
+                point._x._coord + alignZero(n._x._coord * delta),
+                point._y._coord + alignZero(n._y._coord * delta),
+                point._z._coord + alignZero(n._z._coord * delta));
+        _direction = new Vector(direction).normalize();
+        _x0 = _p0._x._coord;
+        _y0 = _p0._y._coord;
+        _z0 = _p0._z._coord;
+        _dx = _direction._head._x._coord;
+        _dy = _direction._head._y._coord;
+        _dz = _direction._head._z._coord;
+        _inverseDx = 1d / _dx;
+        _inverseDy = 1d / _dy;
+        _inverseDz = 1d / _dz;
+        _signs = signs(_inverseDx, _inverseDy, _inverseDz);
     }
 
     // ***************** Getters ********************** //
@@ -83,7 +137,100 @@ public class Ray {
      * @return the start point
      */
     public Point3D get_p0() {
-        return new Point3D(_p0);
+        return _p0; // Point3D is immutable so there is no need to copy it
+    }
+
+    /**
+     * x value of start point getter.
+     *
+     * @return x value of the start point
+     */
+    public double get_x0() {
+        return _x0;
+    }
+
+    /**
+     * y value of start point getter.
+     *
+     * @return y value of the start point
+     */
+    public double get_y0() {
+        return _y0;
+    }
+
+    /**
+     * z value of start point getter.
+     *
+     * @return z value of the start point
+     */
+    public double get_z0() {
+        return _z0;
+    }
+
+    /**
+     * x value of direction getter.
+     *
+     * @return x value of the direction
+     */
+    public double get_dx() {
+        return _dx;
+    }
+
+    /**
+     * y value of direction getter.
+     *
+     * @return y value of the direction
+     */
+    public double get_dy() {
+        return _dy;
+    }
+
+    /**
+     * z value of direction getter.
+     *
+     * @return z value of the direction
+     */
+    public double get_dz() {
+        return _dz;
+    }
+
+    /**
+     * x value of the inverse of the direction getter,
+     * infinite with the sign of the direction if the ray is parallel to the x axis.
+     *
+     * @return x value of the inverse of the direction
+     */
+    public double get_inverseDx() {
+        return _inverseDx;
+    }
+
+    /**
+     * y value of the inverse of the direction getter,
+     * infinite with the sign of the direction if the ray is parallel to the y axis.
+     *
+     * @return y value of the inverse of the direction
+     */
+    public double get_inverseDy() {
+        return _inverseDy;
+    }
+
+    /**
+     * z value of the inverse of the direction getter,
+     * infinite with the sign of the direction if the ray is parallel to the z axis.
+     *
+     * @return z value of the inverse of the direction
+     */
+    public double get_inverseDz() {
+        return _inverseDz;
+    }
+
+    /**
+     * sign bits of the direction getter.
+     *
+     * @return bit i (0 to 2 for x,y,z) is set if the ray goes in the negative direction of axis i
+     */
+    public int get_signs() {
+        return _signs;
     }
 
     /**
@@ -93,8 +240,23 @@ public class Ray {
      * @return the point calculated
      */
     public Point3D getPoint(double t){
-        return this.get_p0().add(this.get_direction().scale(t));
+        return new Point3D(
+                _x0 + alignZero(_dx * t),
+                _y0 + alignZero(_dy * t),
+                _z0 + alignZero(_dz * t));
+    }
+    /**
+     * calculates the sign bits of a direction from its inverse.
+     *
+     * @param x x value of the inverse of the direction
+     * @param y y value of the inverse of the direction
+     * @param z z value of the inverse of the direction
+     * @return bit i is set if value i is negative
+     */
+    private static int signs(double x, double y, double z) {
+        return (x < 0 ? 1 : 0) | (y < 0 ? 2 : 0) | (z < 0 ? 4 : 0);
     }
+
     //******************** Admin ****************
 
     @Override
@@ -103,8 +265,8 @@ public class Ray {
         if (o == null) return false;
         if (!(o instanceof Ray)) return false;
         Ray ray = (Ray) o;
-        return this._p0.equals(ray.get_p0())
-                && this._direction.equals(ray.get_direction());
+        return this._p0.equals(ray._p0)
+                && this._direction.equals(ray._direction);
     }
 
     @Override
@@ -0,0 +1,77 @@
+package primitives;
+
+/**
+ * interface for generators of sample points in the unit square, used for the rays of super sampling and soft shadows.
+ * the samples depend only on the seed, so the same pixel or lighted point always gets the same samples
+ * no matter which thread renders it, and the generators keep no state that the threads share.
+ */
+public interface Sampler {
+    /**
+     * the golden ratio as a 64 bit fraction, used to step between the random numbers of a seed
+     */
+    long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * creates sample points in the unit square [0,1)x[0,1).
+     *
+     * @param seed         the seed of the samples, the same seed gives the same samples
+     * @param numOfSamples the amount of samples to create
+     * @return array of 2*numOfSamples coordinates - u of sample k at 2k and v of sample k at 2k+1
+     */
+    double[] getSamples(long seed, int numOfSamples);
+
+    /**
+     * creates one sample point of the endless sequence of a seed, so the samples of a pixel can be added
+     * a few at a time and still be spread as evenly as the samples of a single call.
+     *
+     * @param seed  the seed of the sequence, the same seed gives the same samples
+     * @param index index of the sample in the sequence
+     * @return array of the u and v of the sample
+     */
+    double[] getSample(long seed, int index);
+
+    /**
+     * creates a seed from two numbers, for example the column and row of a pixel.
+     *
+     * @param a first number
+     * @param b second number
+     * @return the seed
+     */
+    static long seed(long a, long b) {
+        return mix(mix(a) + b);
+    }
+
+    /**
+     * creates a seed from a point, so a point always gets the same samples.
+     *
+     * @param point the point
+     * @return the seed
+     */
+    static long seed(Point3D point) {
+        return seed(seed(Double.doubleToLongBits(point._x._coord), Double.doubleToLongBits(point._y._coord)),
+                Double.doubleToLongBits(point._z._coord));
+    }
+
+    /**
+     * gets a random number of a seed without creating a generator.
+     *
+     * @param seed  the seed
+     * @param index index of the number
+     * @return random number in [0,1)
+     */
+    static double random(long seed, long index) {
+        return (mix(seed + (index + 1) * GOLDEN_GAMMA) >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * mixes the bits of a number so close numbers give unrelated results (the finalizer of SplitMix64).
+     *
+     * @param z the number
+     * @return the mixed number
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,62 @@
+package primitives;
+
+/**
+ * sampler using the first two dimensions of the Sobol sequence, a (0,2) sequence: every block of 2^k samples
+ * has exactly one sample in every rectangle of area 2^-k with sides that are powers of 2.
+ * every seed scrambles the bits of the sequence (random digit scrambling), which keeps that property,
+ * so neighbouring pixels do not share the same pattern.
+ */
+public class SobolSampler implements Sampler {
+
+    @Override
+    public double[] getSamples(long seed, int numOfSamples) {
+        double[] samples = new double[2 * numOfSamples];
+        int scrambleU = (int) Sampler.mix(seed);
+        int scrambleV = (int) Sampler.mix(seed + GOLDEN_GAMMA);
+        for (int i = 0; i < numOfSamples; i++) {
+            samples[2 * i] = toUnit(vanDerCorput(i) ^ scrambleU);
+            samples[2 * i + 1] = toUnit(sobol(i) ^ scrambleV);
+        }
+        return samples;
+    }
+
+    @Override
+    public double[] getSample(long seed, int index) {
+        return new double[]{toUnit(vanDerCorput(index) ^ (int) Sampler.mix(seed)),
+                toUnit(sobol(index) ^ (int) Sampler.mix(seed + GOLDEN_GAMMA))};
+    }
+
+    /**
+     * first dimension of the Sobol sequence - the bits of the index mirrored around the decimal point.
+     *
+     * @param index index of the sample
+     * @return the coordinate as a 32 bit fraction
+     */
+    static int vanDerCorput(int index) {
+        return Integer.reverse(index);
+    }
+
+    /**
+     * second dimension of the Sobol sequence, with the direction numbers of the polynomial x+1.
+     *
+     * @param index index of the sample
+     * @return the coordinate as a 32 bit fraction
+     */
+    static int sobol(int index) {
+        int result = 0;
+        for (int v = 1 << 31; index != 0; index >>>= 1, v ^= v >>> 1)
+            if ((index & 1) != 0)
+                result ^= v;
+        return result;
+    }
+
+    /**
+     * converts a 32 bit fraction to a double in [0,1).
+     *
+     * @param fraction the bits of the fraction
+     * @return the fraction
+     */
+    private static double toUnit(int fraction) {
+        return (fraction & 0xFFFFFFFFL) * 0x1.0p-32;
+    }
+}
@@ -0,0 +1,42 @@
+package primitives;
+
+/**
+ * sampler dividing the unit square into a grid of equal cells with one random (jittered) sample in every cell,
+ * so the samples do not clump like uniform random samples.
+ * when the amount of samples is not a square, the rest of the samples are uniform random.
+ * the samples of an endless sequence are stratified in blocks of a grid of {@value #BLOCK_SIZE} x {@value #BLOCK_SIZE}
+ * cells, visited in the order of the Sobol sequence so every prefix of a block is spread over the square as well.
+ */
+public class StratifiedSampler implements Sampler {
+    /**
+     * amount of cells in each row and column of the grid of a block of an endless sequence
+     */
+    private static final int BLOCK_SIZE = 4;
+
+    @Override
+    public double[] getSamples(long seed, int numOfSamples) {
+        double[] samples = new double[2 * numOfSamples];
+        int size = (int) Math.sqrt(numOfSamples); // cells in each row and column of the grid
+        int index = 0;
+        for (int row = 0; row < size; row++)
+            for (int col = 0; col < size; col++, index++) {
+                samples[2 * index] = (col + Sampler.random(seed, 2 * index)) / size;
+                samples[2 * index + 1] = (row + Sampler.random(seed, 2 * index + 1)) / size;
+            }
+        for (; index < numOfSamples; index++) {
+            samples[2 * index] = Sampler.random(seed, 2 * index);
+            samples[2 * index + 1] = Sampler.random(seed, 2 * index + 1);
+        }
+        return samples;
+    }
+
+    @Override
+    public double[] getSample(long seed, int index) {
+        int cell = index % (BLOCK_SIZE * BLOCK_SIZE);
+        // the top bits of the first 16 Sobol points are one point in every cell of the 4 x 4 grid
+        int col = SobolSampler.vanDerCorput(cell) >>> 30;
+        int row = SobolSampler.sobol(cell) >>> 30;
+        return new double[]{(col + Sampler.random(seed, 2 * index)) / BLOCK_SIZE,
+                (row + Sampler.random(seed, 2 * index + 1)) / BLOCK_SIZE};
+    }
+}
@@ -56,7 +56,7 @@ public class Vector {
             throw new NullPointerException("ERROR arguments is NULL");
         if (point.equals(Point3D.ZERO))
             throw new IllegalArgumentException("ERROR zero vector is Illegal");
-        this._head = new Point3D(point);
+        this._head = point; // Point3D is immutable so it can be shared
     }
 
     /**
@@ -69,7 +69,7 @@ public class Vector {
         if (vec == null) {
             throw new NullPointerException("ERROR arguments is NULL");
         }
-        this._head = new Point3D(vec._head);
+        this._head = vec._head; // normalize replaces the head so sharing it is safe
     }
 
     //*********************************** getter ***************
@@ -80,7 +80,7 @@ public class Vector {
      * @return point
      */
     public Point3D get_head() {
-        return new Point3D(_head);
+        return _head;
     }
 
 //************** functions ******************
@@ -98,9 +98,9 @@ public class Vector {
             throw new NullPointerException("ERROR arguments is NULL");
         }
         return new Vector(
-                this._head.get_x().get() + vec._head.get_x().get(),
-                this._head.get_y().get() + vec._head.get_y().get(),
-                this._head.get_z().get() + vec._head.get_z().get());
+                this._head._x._coord + vec._head._x._coord,
+                this._head._y._coord + vec._head._y._coord,
+                this._head._z._coord + vec._head._z._coord);
     }
 
     /**
@@ -116,9 +116,9 @@ public class Vector {
             throw new NullPointerException("ERROR arguments is NULL");
         }
         return new Vector(
-                this._head.get_x().get() - vec._head.get_x().get(),
-                this._head.get_y().get() - vec._head.get_y().get(),
-                this._head.get_z().get() - vec._head.get_z().get());
+                this._head._x._coord - vec._head._x._coord,
+                this._head._y._coord - vec._head._y._coord,
+                this._head._z._coord - vec._head._z._coord);
     }
 
     /**
@@ -130,9 +130,9 @@ public class Vector {
      */
     public Vector scale(double scale) throws IllegalArgumentException {
         return new Vector(
-                this._head.get_x().get() * scale,
-                this._head.get_y().get() * scale,
-                this._head.get_z().get() * scale);
+                this._head._x._coord * scale,
+                this._head._y._coord * scale,
+                this._head._z._coord * scale);
     }
 
     /**
@@ -146,9 +146,9 @@ public class Vector {
         if (vec == null) {
             throw new NullPointerException("ERROR arguments is NULL");
         }
-        return this._head.get_x().get() * vec._head.get_x().get()
-                + this._head.get_y().get() * vec._head.get_y().get()
-                + this._head.get_z().get() * vec._head.get_z().get();
+        return this._head._x._coord * vec._head._x._coord
+                + this._head._y._coord * vec._head._y._coord
+                + this._head._z._coord * vec._head._z._coord;
     }
 
     /**
@@ -166,9 +166,9 @@ public class Vector {
         Point3D u = this._head;
         Point3D v = vec._head;
         return new Vector(
-                u.get_y().get() * v.get_z().get() - u.get_z().get() * v.get_y().get(),
-                u.get_z().get() * v.get_x().get() - u.get_x().get() * v.get_z().get(),
-                u.get_x().get() * v.get_y().get() - u.get_y().get() * v.get_x().get());
+                u._y._coord * v._z._coord - u._z._coord * v._y._coord,
+                u._z._coord * v._x._coord - u._x._coord * v._z._coord,
+                u._x._coord * v._y._coord - u._y._coord * v._x._coord);
     }
 
     /**
@@ -195,7 +195,11 @@ public class Vector {
      * @return Same vector after normalization
      */
     public Vector normalize() {
-        this._head = new Vector(this.scale(1 / this.length()))._head;
+        double scale = 1 / this.length();
+        this._head = new Point3D(
+                this._head._x._coord * scale,
+                this._head._y._coord * scale,
+                this._head._z._coord * scale);
         return this;
     }
 
@@ -222,7 +226,7 @@ public class Vector {
         if (o == null) return false;
         if (!(o instanceof Vector)) return false;
         Vector vector = (Vector) o;
-        return get_head().equals(vector.get_head());
+        return _head.equals(vector._head);
     }
 
 }
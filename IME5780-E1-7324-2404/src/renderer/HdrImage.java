@@ -0,0 +1,360 @@
+package renderer;
+
+import primitives.Color;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * class HdrImage for a high dynamic range image - the linear colors of the pixels in floats, without the limit of 255.
+ * every pixel keeps the sum of its samples and their amount, so images of the same frame rendered in parts,
+ * by passes or by other computers, are merged into the average of all their samples.
+ * the image is brought to the screen only when it is written, by a tone mapper, an exposure and a gamma,
+ * so they can be changed without rendering the frame again.
+ * the linear colors are written to PFM and uncompressed OpenEXR files, where 1 is the brightest color without
+ * tone mapping (255).
+ * every pixel is written only by the thread rendering its tile, so the image is not locked.
+ */
+public class HdrImage {
+    /**
+     * the value of a color in the files for the brightest part of a color without tone mapping
+     */
+    private static final double WHITE = 255;
+    /**
+     * magic number at the start of an OpenEXR file
+     */
+    private static final int EXR_MAGIC = 20000630;
+    /**
+     * type of the 32 bit float channels of an OpenEXR file
+     */
+    private static final int EXR_FLOAT = 2;
+
+    /**
+     * number of pixels on x axis
+     */
+    private final int _nX;
+    /**
+     * number of pixels on y axis
+     */
+    private final int _nY;
+    /**
+     * sums of the red, green and blue of the samples of every pixel, by row
+     */
+    private final float[] _sums;
+    /**
+     * amount of samples of every pixel
+     */
+    private final int[] _samples;
+
+    //------------------ constructor ------------------
+
+    /**
+     * constructor for a black image without samples.
+     *
+     * @param nX amount of pixels by width
+     * @param nY amount of pixels by height
+     * @throws IllegalArgumentException In case the size is not positive
+     */
+    public HdrImage(int nX, int nY) {
+        if (nX < 1 || nY < 1)
+            throw new IllegalArgumentException("Image must have at least one pixel");
+        _nX = nX;
+        _nY = nY;
+        _sums = new float[3 * nX * nY];
+        _samples = new int[nX * nY];
+    }
+
+    //------------------ getters ------------------
+
+    /**
+     * number of pixels on x axis getter.
+     *
+     * @return amount of pixels by width
+     */
+    public int getNx() {
+        return _nX;
+    }
+
+    /**
+     * number of pixels on y axis getter.
+     *
+     * @return amount of pixels by height
+     */
+    public int getNy() {
+        return _nY;
+    }
+
+    /**
+     * gets the average color of the samples of a pixel.
+     *
+     * @param col column of the pixel
+     * @param row row of the pixel
+     * @return the color, black if the pixel has no samples
+     */
+    public Color getColor(int col, int row) {
+        int pixel = row * _nX + col;
+        int samples = _samples[pixel];
+        if (samples == 0)
+            return Color.BLACK;
+        return new Color((double) _sums[3 * pixel] / samples, (double) _sums[3 * pixel + 1] / samples,
+                (double) _sums[3 * pixel + 2] / samples);
+    }
+
+    /**
+     * gets the amount of samples of a pixel.
+     *
+     * @param col column of the pixel
+     * @param row row of the pixel
+     * @return amount of samples
+     */
+    public int getSamples(int col, int row) {
+        return _samples[row * _nX + col];
+    }
+
+    //------------------ functions ------------------
+
+    /**
+     * adds a sample to a pixel.
+     *
+     * @param col   column of the pixel
+     * @param row   row of the pixel
+     * @param color the color of the sample
+     */
+    public void addSample(int col, int row, Color color) {
+        int pixel = row * _nX + col;
+        _sums[3 * pixel] += color.get_r();
+        _sums[3 * pixel + 1] += color.get_g();
+        _sums[3 * pixel + 2] += color.get_b();
+        _samples[pixel]++;
+    }
+
+    /**
+     * replaces the samples of a pixel by the sum of other samples.
+     *
+     * @param col     column of the pixel
+     * @param row     row of the pixel
+     * @param sum     the sum of the colors of the samples
+     * @param samples amount of samples
+     */
+    public void setPixel(int col, int row, Color sum, int samples) {
+        int pixel = row * _nX + col;
+        _sums[3 * pixel] = (float) sum.get_r();
+        _sums[3 * pixel + 1] = (float) sum.get_g();
+        _sums[3 * pixel + 2] = (float) sum.get_b();
+        _samples[pixel] = samples;
+    }
+
+    /**
+     * replaces the pixels of a tile by one sample of every pixel.
+     *
+     * @param tile   the tile
+     * @param colors the colors of the pixels of the tile row after row
+     */
+    public void setTile(Tile tile, Color[] colors) {
+        int i = 0;
+        for (int row = tile.get_y(); row < tile.get_y() + tile.get_height(); row++)
+            for (int col = tile.get_x(); col < tile.get_x() + tile.get_width(); col++)
+                setPixel(col, row, colors[i++], 1);
+    }
+
+    /**
+     * adds the samples of another image of the same frame to the samples of this image.
+     *
+     * @param other the other image
+     * @throws IllegalArgumentException In case the images are not of the same size
+     */
+    public void merge(HdrImage other) {
+        if (other._nX != _nX || other._nY != _nY)
+            throw new IllegalArgumentException("Images must be of the same size");
+        for (int i = 0; i < _sums.length; i++)
+            _sums[i] += other._sums[i];
+        for (int i = 0; i < _samples.length; i++)
+            _samples[i] += other._samples[i];
+    }
+
+    /**
+     * brings the image to the screen and writes it to an image writer.
+     * every part of the color of a pixel is multiplied by the exposure, mapped by the tone mapper
+     * and raised to the power of 1 / gamma, and then rounded to 0 to 255.
+     *
+     * @param imageWriter the image writer, of the same amount of pixels as the image
+     * @param toneMapper  the tone mapper
+     * @param exposure    the multiplier of the linear colors, 1 for the colors as they were rendered
+     * @param gamma       the gamma of the screen, 1 for the colors as they were rendered
+     * @throws IllegalArgumentException In case the image writer is of another size, the exposure is negative
+     *                                  or the gamma is not positive
+     */
+    public void writeTo(ImageWriter imageWriter, ToneMapper toneMapper, double exposure, double gamma) {
+        if (imageWriter.getNx() != _nX || imageWriter.getNy() != _nY)
+            throw new IllegalArgumentException("Image writer must be of the same size as the image");
+        if (exposure < 0)
+            throw new IllegalArgumentException("Exposure must be 0 or higher");
+        if (gamma <= 0)
+            throw new IllegalArgumentException("Gamma must be positive");
+        double scale = exposure / WHITE;
+        double power = 1 / gamma;
+        int[] rgb = new int[_nX * _nY];
+        Arrays.fill(rgb, 0xFF000000); // black for pixels without samples
+        for (int pixel = 0; pixel < rgb.length; pixel++) {
+            int samples = _samples[pixel];
+            if (samples == 0)
+                continue;
+            double pixelScale = scale / samples;
+            rgb[pixel] = 0xFF000000 // opaque, as java.awt.Color#getRGB() gives it
+                    | toScreen(_sums[3 * pixel] * pixelScale, toneMapper, power) << 16
+                    | toScreen(_sums[3 * pixel + 1] * pixelScale, toneMapper, power) << 8
+                    | toScreen(_sums[3 * pixel + 2] * pixelScale, toneMapper, power);
+        }
+        imageWriter.writeTile(new Tile(0, 0, _nX, _nY), rgb);
+    }
+
+    /**
+     * writes the linear colors of the image to a PFM file - a header and the red, green and blue of the pixels
+     * in little endian floats, from the bottom row to the top one.
+     *
+     * @param file the file
+     * @throws IOException In case writing the file failed
+     */
+    public void writePfm(Path file) throws IOException {
+        byte[] header = ("PF\n" + _nX + " " + _nY + "\n-1.0\n").getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer row = ByteBuffer.allocate(3 * 4 * _nX).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = open(file)) {
+            write(channel, ByteBuffer.wrap(header));
+            for (int y = _nY - 1; y >= 0; y--) {
+                row.clear();
+                for (int x = 0; x < _nX; x++)
+                    for (int part = 0; part < 3; part++)
+                        row.putFloat(linear(y * _nX + x, part));
+                write(channel, row.flip());
+            }
+        }
+    }
+
+    /**
+     * writes the linear colors of the image to an uncompressed scan line OpenEXR file, with 32 bit float
+     * channels of blue, green and red (in the order of their names, as the format wants).
+     * the header has the attributes every OpenEXR file must have, then the table of the positions of the rows,
+     * and every row is its index, the size of its data and the blue, green and red of its pixels.
+     *
+     * @param file the file
+     * @throws IOException In case writing the file failed
+     */
+    public void writeExr(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(512).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(EXR_MAGIC).putInt(2); // version 2, single part scan lines
+        ByteBuffer channels = ByteBuffer.allocate(3 * 18 + 1).order(ByteOrder.LITTLE_ENDIAN);
+        for (String name : new String[]{"B", "G", "R"})
+            putString(channels, name).putInt(EXR_FLOAT).putInt(0).putInt(1).putInt(1); // linear flag and reserved, sampling
+        channels.put((byte) 0);
+        putAttribute(header, "channels", "chlist", channels.array());
+        putAttribute(header, "compression", "compression", new byte[]{0});
+        byte[] window = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(0).putInt(0).putInt(_nX - 1).putInt(_nY - 1).array();
+        putAttribute(header, "dataWindow", "box2i", window);
+        putAttribute(header, "displayWindow", "box2i", window);
+        putAttribute(header, "lineOrder", "lineOrder", new byte[]{0}); // increasing y
+        putAttribute(header, "pixelAspectRatio", "float",
+                ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putFloat(1).array());
+        putAttribute(header, "screenWindowCenter", "v2f", new byte[8]);
+        putAttribute(header, "screenWindowWidth", "float",
+                ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putFloat(1).array());
+        header.put((byte) 0); // end of the header
+
+        int dataSize = 3 * 4 * _nX;
+        long rowStart = header.position() + 8L * _nY;
+        ByteBuffer offsets = ByteBuffer.allocate(8 * _nY).order(ByteOrder.LITTLE_ENDIAN);
+        for (int y = 0; y < _nY; y++)
+            offsets.putLong(rowStart + (long) y * (8 + dataSize));
+        ByteBuffer row = ByteBuffer.allocate(8 + dataSize).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = open(file)) {
+            write(channel, header.flip());
+            write(channel, offsets.flip());
+            for (int y = 0; y < _nY; y++) {
+                row.clear();
+                row.putInt(y).putInt(dataSize);
+                for (int part = 2; part >= 0; part--) // blue, green and red
+                    for (int x = 0; x < _nX; x++)
+                        row.putFloat(linear(y * _nX + x, part));
+                write(channel, row.flip());
+            }
+        }
+    }
+
+    /**
+     * gets the linear value of a part of the average color of a pixel, as it is written to the files.
+     *
+     * @param pixel index of the pixel, by row
+     * @param part  0 for red, 1 for green and 2 for blue
+     * @return the value, 1 for the brightest part of a color without tone mapping
+     */
+    private float linear(int pixel, int part) {
+        int samples = _samples[pixel];
+        return samples == 0 ? 0 : (float) (_sums[3 * pixel + part] / samples / WHITE);
+    }
+
+    /**
+     * brings a part of a linear color to the screen.
+     *
+     * @param value      the value, 1 for the brightest part of a color without tone mapping
+     * @param toneMapper the tone mapper
+     * @param power      1 / gamma
+     * @return the value on the screen, 0 to 255
+     */
+    private static int toScreen(double value, ToneMapper toneMapper, double power) {
+        double mapped = Math.min(Math.max(toneMapper.map(Math.max(value, 0)), 0), 1);
+        return (int) Math.round(Math.pow(mapped, power) * 255);
+    }
+
+    /**
+     * puts an attribute of an OpenEXR header - its name, its type, the size of its value and the value.
+     *
+     * @param header the header
+     * @param name   the name of the attribute
+     * @param type   the type of the attribute
+     * @param value  the bytes of the value
+     */
+    private static void putAttribute(ByteBuffer header, String name, String type, byte[] value) {
+        putString(putString(header, name), type).putInt(value.length).put(value);
+    }
+
+    /**
+     * puts a string ending with a null byte in a buffer.
+     *
+     * @param buffer the buffer
+     * @param str    the string
+     * @return the buffer
+     */
+    private static ByteBuffer putString(ByteBuffer buffer, String str) {
+        return buffer.put(str.getBytes(StandardCharsets.US_ASCII)).put((byte) 0);
+    }
+
+    /**
+     * creates or replaces a file for writing.
+     *
+     * @param file the file
+     * @return the channel of the file
+     * @throws IOException In case the file could not be created
+     */
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * writes the remaining bytes of a buffer to the end of a file.
+     *
+     * @param channel the channel of the file
+     * @param buffer  the bytes
+     * @throws IOException In case writing to the file failed
+     */
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+}
@@ -55,13 +55,26 @@ public class ImageWriter {
 	 * @param nY amount of pixels by height
 	 */
 	public ImageWriter(String imageName, double width, double height, int nX, int nY) {
+		this(imageName, width, height, nX, nY, new BufferedImage(nX, nY, BufferedImage.TYPE_INT_RGB));
+	}
+
+	/**
+	 * Image Writer constructor for writers that keep the pixels somewhere else then the memory
+	 * @param imageName the name of the image file
+	 * @param width View Plane width in size units
+	 * @param height View Plane height in size units
+	 * @param nX amount of pixels by Width
+	 * @param nY amount of pixels by height
+	 * @param image the image holding the pixels, null if the writer does not keep them in the memory
+	 */
+	protected ImageWriter(String imageName, double width, double height, int nX, int nY, BufferedImage image) {
 		_imageName = imageName;
 		_imageWidth = width;
 		_imageHeight = height;
 		_nX = nX;
 		_nY = nY;
 
-		_image = new BufferedImage(_nX, _nY, BufferedImage.TYPE_INT_RGB);
+		_image = image;
 	}
 
 	// ***************** Getters/Setters ********************** //
@@ -87,6 +100,15 @@ public class ImageWriter {
      */
 	public int getNx() { return _nX; }
 
+	/**
+	 * gets the file of the image in the images directory of the project
+	 * @param extension the extension of the file
+	 * @return the file
+	 */
+	protected File getImageFile(String extension) {
+		return new File(PROJECT_PATH + "/images/" + _imageName + "." + extension);
+	}
+
 	// ***************** Operations ******************** //
 
 	/**
@@ -95,7 +117,7 @@ public class ImageWriter {
 	 * of the project
 	 */
 	public void writeToImage(){
-		File ouFile = new File(PROJECT_PATH + "/images/" + _imageName + ".jpg");
+		File ouFile = getImageFile("jpg");
 		try {
 			javax.imageio.ImageWriter jpgWriter = ImageIO.getImageWritersByFormatName("jpg").next();
 			ImageWriteParam jpgWriteParam = jpgWriter.getDefaultWriteParam();
@@ -119,4 +141,14 @@ public class ImageWriter {
 	public void writePixel(int xIndex, int yIndex, Color color){
 		_image.setRGB(xIndex, yIndex, color.getRGB());
 	}
+
+	/**
+	 * The function writeTile writes the colors of a tile of pixels
+	 * into pixel color matrix
+	 * @param tile the tile
+	 * @param rgb the colors of the pixels of the tile row after row, in the format of {@link Color#getRGB()}
+	 */
+	public void writeTile(Tile tile, int[] rgb) {
+		_image.setRGB(tile.get_x(), tile.get_y(), tile.get_width(), tile.get_height(), rgb, 0, tile.get_width());
+	}
 }
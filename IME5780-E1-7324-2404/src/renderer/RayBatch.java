@@ -0,0 +1,174 @@
+package renderer;
+
+import geometries.Intersectable;
+import geometries.RayPacket;
+import primitives.Color;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.Arrays;
+
+import static geometries.Intersectable.GeoPoint;
+
+/**
+ * class RayBatch holding the rays of a wave of pixels that are traced by the wavefront integrator of the renderer.
+ * every stage of the integrator goes over a range of the rays - the rays from the camera first,
+ * and then the reflected and refracted rays of each level after them.
+ * <p>
+ * the batch keeps an array for each value of the rays, but the rays, their intersections, normals and colors
+ * are arrays of objects and not of primitives: the geometries intersect {@link Ray} objects at the leaves of
+ * the trees and the shading works on points, vectors and colors, so each ray needs its objects anyway.
+ * the heads and directions of the rays are copied to arrays of primitives by {@link RayPacket}, which is where
+ * the slab tests of the boxes go over them.
+ * the rays of a stage are intersected with the geometries together as packets, and every ray keeps the point
+ * it hits, its own color there and the indexes of the reflected and refracted rays queued from that point,
+ * so the colors are put together from the last rays to the first after all the stages.
+ */
+class RayBatch {
+    /**
+     * the rays
+     */
+    Ray[] _rays;
+    /**
+     * the weight of the color of each ray in the color of the pixel, as in the recursion of the renderer
+     */
+    double[] _k;
+    /**
+     * the level of each ray, the level of the rays from the camera is the most levels and it goes down by 1 for every
+     * reflection or refraction
+     */
+    int[] _level;
+    /**
+     * the closest intersection of each ray, null if the ray does not hit any geometry
+     */
+    GeoPoint[] _hits;
+    /**
+     * the normal of the geometry at the intersection of each ray
+     */
+    Vector[] _normals;
+    /**
+     * the vector from the camera to the intersection of each ray
+     */
+    Vector[] _views;
+    /**
+     * the color of each ray - the color at its intersection and after all the stages together with the colors of
+     * its reflected and refracted rays
+     */
+    Color[] _colors;
+    /**
+     * index of the reflected ray of each ray, -1 if there is no reflected ray
+     */
+    int[] _reflected;
+    /**
+     * index of the refracted ray of each ray, -1 if there is no refracted ray
+     */
+    int[] _refracted;
+    /**
+     * amount of rays in the batch
+     */
+    private int _size;
+    /**
+     * packet for intersecting the rays of a stage together
+     */
+    private final RayPacket _packet = new RayPacket();
+
+    //------------------ constructor ------------------
+
+    /**
+     * constructor for an empty batch.
+     *
+     * @param capacity the amount of rays the batch has room for before it grows
+     */
+    RayBatch(int capacity) {
+        capacity = Math.max(capacity, RayPacket.SIZE);
+        _rays = new Ray[capacity];
+        _k = new double[capacity];
+        _level = new int[capacity];
+        _hits = new GeoPoint[capacity];
+        _normals = new Vector[capacity];
+        _views = new Vector[capacity];
+        _colors = new Color[capacity];
+        _reflected = new int[capacity];
+        _refracted = new int[capacity];
+    }
+
+    //------------------ functions ------------------
+
+    /**
+     * queues a ray at the end of the batch, without an intersection and without reflected and refracted rays.
+     *
+     * @param ray   the ray
+     * @param k     the weight of the color of the ray
+     * @param level the level of the ray
+     * @return the index of the ray
+     */
+    int add(Ray ray, double k, int level) {
+        if (_size == _rays.length)
+            grow();
+        int i = _size++;
+        _rays[i] = ray;
+        _k[i] = k;
+        _level[i] = level;
+        _hits[i] = null;
+        _reflected[i] = -1;
+        _refracted[i] = -1;
+        return i;
+    }
+
+    /**
+     * removes all the rays from the batch, and the objects of their intersections and colors.
+     */
+    void clear() {
+        Arrays.fill(_rays, 0, _size, null);
+        Arrays.fill(_hits, 0, _size, null);
+        Arrays.fill(_normals, 0, _size, null);
+        Arrays.fill(_views, 0, _size, null);
+        Arrays.fill(_colors, 0, _size, null);
+        _size = 0;
+    }
+
+    /**
+     * getter for the amount of rays in the batch.
+     *
+     * @return amount of rays
+     */
+    int size() {
+        return _size;
+    }
+
+    /**
+     * finds the closest intersections of a range of the rays, sent to the geometries as packets of following rays.
+     * calls {@link geometries.Intersectable#findClosestIntersections(RayPacket)} for every packet.
+     *
+     * @param geometries the geometries
+     * @param from       index of the first ray
+     * @param to         index after the last ray
+     */
+    void intersect(Intersectable geometries, int from, int to) {
+        for (int first = from; first < to; first += RayPacket.SIZE) {
+            int last = Math.min(first + RayPacket.SIZE, to);
+            _packet.clear();
+            for (int i = first; i < last; i++)
+                _packet.add(_rays[i]);
+            geometries.findClosestIntersections(_packet);
+            for (int i = first; i < last; i++)
+                _hits[i] = _packet.getClosest(i - first);
+        }
+    }
+
+    /**
+     * doubles the room for rays in the batch.
+     */
+    private void grow() {
+        int capacity = 2 * _rays.length;
+        _rays = Arrays.copyOf(_rays, capacity);
+        _k = Arrays.copyOf(_k, capacity);
+        _level = Arrays.copyOf(_level, capacity);
+        _hits = Arrays.copyOf(_hits, capacity);
+        _normals = Arrays.copyOf(_normals, capacity);
+        _views = Arrays.copyOf(_views, capacity);
+        _colors = Arrays.copyOf(_colors, capacity);
+        _reflected = Arrays.copyOf(_reflected, capacity);
+        _refracted = Arrays.copyOf(_refracted, capacity);
+    }
+}
@@ -3,16 +3,26 @@ package renderer;
 import elements.Camera;
 import elements.LightSource;
 import geometries.Intersectable;
+import geometries.RayPacket;
 import primitives.Point3D;
 import primitives.Ray;
+import primitives.Sampler;
+import primitives.StratifiedSampler;
 import primitives.Vector;
 import scene.Scene;
 import geometries.Intersectable.GeoPoint;
 import primitives.Color;
+import primitives.Material;
 
 import static primitives.Util.*;
 
+import geometries.TraversalStats;
+
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
 
 
 /**
@@ -27,6 +37,16 @@ public class Render {
      * color that has les weight then this gives very little effect of color and wil not be calculated
      */
     private static final double MIN_CALC_COLOR_K = 0.0001;
+    /**
+     * most rays from the camera traced together in a wave by the wavefront integrator,
+     * so the rays of a wave and their points stay in the cache between the stages
+     */
+    private static final int WAVE_CAMERA_RAYS = 256;
+    /**
+     * the shortest round of samples of rendering in time, in nanoseconds - a shorter round costs more
+     * in starting the threads and choosing the pixels then it adds to the image
+     */
+    private static final long MIN_ROUND = 2_000_000;
 
     /**
      * Object of image Writer for writing the image
@@ -60,9 +80,144 @@ public class Render {
     private final int SPARE_THREADS = 2;
 
     /**
-     * boolean flag whether to print percentage processed
+     * boolean flag whether to super sample adaptively - only where the colors in the pixel differ
+     */
+    private boolean _adaptiveSuperSampling = false;
+    /**
+     * difference of a color component (0-255) above which a square of a pixel is divided in adaptive super sampling
+     */
+    private double _adaptiveThreshold = 10;
+    /**
+     * max amount of times a pixel is divided in adaptive super sampling
+     */
+    private int _maxAdaptiveDepth = 2;
+    /**
+     * counters of all the threads that rendered the last image
+     */
+    private final Queue<RenderStats.Counters> _allCounters = new ConcurrentLinkedQueue<>();
+    /**
+     * counters of every thread rendering the image, replaced for every image
+     */
+    private ThreadLocal<RenderStats.Counters> _counters = newCounters();
+    /**
+     * flag for counting also the nodes of the bvh trees and the tests of the geometries in the statistics
+     */
+    private boolean _traversalStats = false;
+
+    /**
+     * amount of rays from a lighted point towards every light source for soft shadows
+     */
+    private int _numOfShadowRays = 50;
+    /**
+     * boolean flag whether to make soft shadows adaptively - only where the point is in the penumbra
+     */
+    private boolean _adaptiveSoftShadowing = false;
+    /**
+     * amount of rays from a lighted point towards the edge of a light source,
+     * checked before the rest of the soft shadow rays in adaptive soft shadowing
+     */
+    private int _numOfRingShadowRays = 8;
+    /**
+     * generator of the points in a pixel for super sampling and on a light source for soft shadows
+     */
+    private Sampler _sampler = new StratifiedSampler();
+
+    /**
+     * width and height of the tiles the image is split into for the threads
+     */
+    private int _tileSize = 16;
+    /**
+     * the order in which the tiles are rendered
+     */
+    private TileOrder _tileOrder = TileOrder.HILBERT;
+    /**
+     * listener told about the progress after every tile, null for no listener
+     */
+    private ProgressListener _progressListener;
+    /**
+     * flag for tracing the rays from the camera through blocks of pixels together as packets
+     */
+    private boolean _packetTracing = false;
+    /**
+     * flag for rendering the tiles in stages by the wavefront integrator instead of the recursion for every pixel
+     */
+    private boolean _wavefront = false;
+    /**
+     * most passes of progressive rendering
+     */
+    private int _maxPasses = 64;
+    /**
+     * time for progressive rendering in milliseconds, 0 for no limit
+     */
+    private long _timeBudget = 0;
+    /**
+     * the clock the time budget is measured by, in nanoseconds
+     */
+    private LongSupplier _clock = System::nanoTime;
+    /**
+     * noise of the image that progressive rendering stops at, 0 for no limit
+     */
+    private double _noiseThreshold = 0;
+    /**
+     * listener told about every pass of progressive rendering, null for no listener
+     */
+    private PassListener _passListener;
+    /**
+     * amount of passes of the last progressive rendering
+     */
+    private int _passes;
+    /**
+     * estimated noise of the image after the last progressive rendering
+     */
+    private double _noise = Double.POSITIVE_INFINITY;
+    /**
+     * average amount of samples of the pixels after the last progressive rendering
+     */
+    private double _samplesPerPixel;
+    /**
+     * high dynamic range image receiving the colors of the pixels without the limit of 255, null for no image
      */
-    private boolean _print = false;
+    private HdrImage _hdrImage;
+
+    /**
+     * orders of rendering the tiles of the image.
+     * tiles next to each other along the Morton and Hilbert curves are close in the image,
+     * so a thread keeps hitting the same geometries.
+     */
+    public enum TileOrder {ROWS, MORTON, HILBERT}
+
+    /**
+     * listener for the progress of rendering the image, told every time a tile is rendered.
+     * it is called from the rendering threads, so it should be thread safe and return quickly.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * called after a tile is rendered.
+         *
+         * @param tile      the tile that was rendered
+         * @param tilesDone amount of tiles rendered so far
+         * @param tiles     amount of tiles in the image
+         */
+        void tileRendered(Tile tile, int tilesDone, int tiles);
+    }
+
+    /**
+     * listener for the passes of progressive rendering, told every time all the pixels have another sample.
+     * the image writer has the image of all the samples so far when it is called,
+     * so it can save a snapshot of the image by {@link renderer.Render#writeToImage()}.
+     */
+    @FunctionalInterface
+    public interface PassListener {
+        /**
+         * called after a pass of progressive rendering.
+         *
+         * @param passes amount of passes so far, which is the amount of samples of every pixel
+         * @param noise  estimated noise of the image in levels of brightness (0 to 255),
+         *               positive infinity after the first pass
+         */
+        void passRendered(int passes, double noise);
+    }
 
     // ------------------- constructor -----------
 
@@ -79,6 +234,73 @@ public class Render {
         _softShadowing = false;
         _numOfRays = 50;
     }
+    // -------------- getters --------------------
+
+    /**
+     * gets the amount of passes of the last progressive rendering, which is the amount of samples of every pixel.
+     * after rendering in time it is the amount of passes and rounds of samples together.
+     *
+     * @return amount of passes
+     */
+    public int getPasses() {
+        return _passes;
+    }
+
+    /**
+     * gets the average amount of samples of the pixels after the last progressive rendering.
+     *
+     * @return amount of samples per pixel
+     */
+    public double getSamplesPerPixel() {
+        return _samplesPerPixel;
+    }
+
+    /**
+     * gets the estimated noise of the image after the last progressive rendering,
+     * the root mean square of the standard errors of the brightness of the pixels.
+     *
+     * @return the noise in levels of brightness (0 to 255), positive infinity after a single pass
+     */
+    public double getNoise() {
+        return _noise;
+    }
+
+    /**
+     * gets the amount of rays from the camera traced while rendering the last image,
+     * to compare the cost of the ways of super sampling.
+     *
+     * @return amount of rays from the camera
+     */
+    public long getPrimaryRays() {
+        long sum = 0;
+        for (RenderStats.Counters counters : _allCounters)
+            sum += counters._primaryRays;
+        return sum;
+    }
+
+    /**
+     * gets the amount of rays towards the light sources traced while rendering the last image,
+     * to compare the cost of the ways of soft shadowing.
+     *
+     * @return amount of shadow rays
+     */
+    public long getShadowRays() {
+        long sum = 0;
+        for (RenderStats.Counters counters : _allCounters)
+            sum += counters._shadowRays;
+        return sum;
+    }
+
+    /**
+     * gets the statistics of rendering the last image, adding together the counters of all its threads,
+     * with the statistics of the bvh tree of the scene.
+     *
+     * @return the statistics
+     */
+    public RenderStats getStats() {
+        return new RenderStats(_allCounters, _scene.get_bvhStatistics());
+    }
+
     // -------------- setters --------------------
 
     /**
@@ -92,6 +314,49 @@ public class Render {
         return this;
     }
 
+    /**
+     * sets whether we are super sampling adaptively or not.
+     * adaptive super sampling traces rays through the corners and center of a pixel,
+     * and divides it to 4 squares with the same test only where their colors differ.
+     * when it is set the uniform super sampling is not used.
+     *
+     * @param adaptiveSuperSampling whether to super sample adaptively
+     * @return the Render object itself
+     */
+    public Render setAdaptiveSuperSampling(boolean adaptiveSuperSampling) {
+        _adaptiveSuperSampling = adaptiveSuperSampling;
+        return this;
+    }
+
+    /**
+     * sets the difference of a color component (0-255) above which a square of a pixel is divided
+     * in adaptive super sampling.
+     *
+     * @param adaptiveThreshold the difference
+     * @return the Render object itself
+     * @throws IllegalArgumentException In case the threshold is negative
+     */
+    public Render setAdaptiveThreshold(double adaptiveThreshold) {
+        if (adaptiveThreshold < 0)
+            throw new IllegalArgumentException("Adaptive threshold must be 0 or higher");
+        _adaptiveThreshold = adaptiveThreshold;
+        return this;
+    }
+
+    /**
+     * sets the max amount of times a pixel is divided in adaptive super sampling.
+     *
+     * @param maxAdaptiveDepth max amount of divisions
+     * @return the Render object itself
+     * @throws IllegalArgumentException In case the depth is negative
+     */
+    public Render setMaxAdaptiveDepth(int maxAdaptiveDepth) {
+        if (maxAdaptiveDepth < 0)
+            throw new IllegalArgumentException("Max adaptive depth must be 0 or higher");
+        _maxAdaptiveDepth = maxAdaptiveDepth;
+        return this;
+    }
+
     /**
      * sets whether we are making soft Shadows or not.
      *
@@ -103,6 +368,62 @@ public class Render {
         return this;
     }
 
+    /**
+     * sets whether soft shadows are made adaptively.
+     * the rays towards the edge of the light are traced first, and the rest of the rays are traced
+     * only if they do not all agree with the ray towards the center of the light.
+     *
+     * @param adaptiveSoftShadowing whether to make soft shadows adaptively
+     * @return the Render object itself
+     */
+    public Render setAdaptiveSoftShadowing(boolean adaptiveSoftShadowing) {
+        _adaptiveSoftShadowing = adaptiveSoftShadowing;
+        return this;
+    }
+
+    /**
+     * sets the amount of rays towards every light source for soft shadows.
+     *
+     * @param numOfShadowRays amount of soft shadow rays
+     * @return the Render object itself
+     * @throws IllegalArgumentException In case the amount is negative
+     */
+    public Render setNumOfShadowRays(int numOfShadowRays) {
+        if (numOfShadowRays < 0)
+            throw new IllegalArgumentException("Amount of shadow rays must be 0 or higher");
+        _numOfShadowRays = numOfShadowRays;
+        return this;
+    }
+
+    /**
+     * sets the amount of rays towards the edge of every light source in adaptive soft shadowing.
+     *
+     * @param numOfRingShadowRays amount of rays towards the edge of the light
+     * @return the Render object itself
+     * @throws IllegalArgumentException In case the amount is lower than 3
+     */
+    public Render setNumOfRingShadowRays(int numOfRingShadowRays) {
+        if (numOfRingShadowRays < 3)
+            throw new IllegalArgumentException("Amount of ring shadow rays must be 3 or higher");
+        _numOfRingShadowRays = numOfRingShadowRays;
+        return this;
+    }
+
+    /**
+     * sets the generator of the points in a pixel for super sampling and on a light source for soft shadows.
+     * the points depend only on the pixel or the lighted point, so every render of a scene gives the same image.
+     *
+     * @param sampler the generator of the points
+     * @return the Render object itself
+     * @throws NullPointerException In case the sampler is null
+     */
+    public Render setSampler(Sampler sampler) {
+        if (sampler == null)
+            throw new NullPointerException("ERROR arguments is NULL");
+        _sampler = sampler;
+        return this;
+    }
+
     /**
      * sets the size of superSampling grid.
      *
@@ -118,12 +439,188 @@ public class Render {
     }
 
     /**
-     * Set debug printing on
+     * Set debug printing on - prints the percentage of tiles rendered, every time it goes up.
+     * calls {@link renderer.Render#setProgressListener(ProgressListener)}.
      *
      * @return the Render object itself
      */
     public Render setDebugPrint() {
-        _print = true;
+        final AtomicInteger printed = new AtomicInteger(); // the last percentage printed
+        return setProgressListener((tile, tilesDone, tiles) -> {
+            int percents = tilesDone * 100 / tiles;
+            if (tilesDone == 1) // the first tile of another image
+                printed.set(-1);
+            if (printed.getAndAccumulate(percents, Math::max) >= percents)
+                return;
+            if (percents == 100)
+                System.out.printf("\r100%%\n");
+            else
+                System.out.printf("\r %02d%%", percents);
+        });
+    }
+
+    /**
+     * sets the listener told about the progress after every tile.
+     *
+     * @param progressListener the listener, null for no listener
+     * @return the Render object itself
+     */
+    public Render setProgressListener(ProgressListener progressListener) {
+        _progressListener = progressListener;
+        return this;
+    }
+
+    /**
+     * sets the width and height of the tiles the image is split into for the threads.
+     *
+     * @param tileSize size of the tiles in pixels
+     * @return the Render object itself
+     * @throws IllegalArgumentException In case the size is not positive
+     */
+    public Render setTileSize(int tileSize) {
+        if (tileSize < 1)
+            throw new IllegalArgumentException("Tile size must be 1 or higher");
+        _tileSize = tileSize;
+        return this;
+    }
+
+    /**
+     * sets the order in which the tiles are rendered.
+     *
+     * @param tileOrder the order of the tiles
+     * @return the Render object itself
+     * @throws NullPointerException In case the order is null
+     */
+    public Render setTileOrder(TileOrder tileOrder) {
+        if (tileOrder == null)
+            throw new NullPointerException("ERROR arguments is NULL");
+        _tileOrder = tileOrder;
+        return this;
+    }
+
+    /**
+     * sets whether the rays from the camera are traced through blocks of 4x2 pixels together as packets,
+     * which go over the bvh tree once for all the rays of the block.
+     * used only without super sampling, where there is one ray through every pixel.
+     *
+     * @param packetTracing true for tracing packets of rays
+     * @return the Render object itself
+     */
+    public Render setPacketTracing(boolean packetTracing) {
+        _packetTracing = packetTracing;
+        return this;
+    }
+
+    /**
+     * sets whether the tiles are rendered by the wavefront integrator, which runs in stages over the rays of a wave
+     * of pixels of a tile: the rays from the camera are intersected together, then all the points are shaded and their reflected and
+     * refracted rays are queued for the next stage, until no rays are left, and at the end the colors are put together
+     * in the same order as the recursion, so the image is the same.
+     * not used with adaptive super sampling.
+     *
+     * @param wavefront true for the wavefront integrator
+     * @return the Render object itself
+     */
+    public Render setWavefront(boolean wavefront) {
+        _wavefront = wavefront;
+        return this;
+    }
+
+    /**
+     * sets the most passes of progressive rendering.
+     *
+     * @param maxPasses amount of passes, which is the most samples of every pixel
+     * @return the Render object itself
+     * @throws IllegalArgumentException In case the amount is not positive
+     */
+    public Render setMaxPasses(int maxPasses) {
+        if (maxPasses < 1)
+            throw new IllegalArgumentException("Amount of passes must be 1 or higher");
+        _maxPasses = maxPasses;
+        return this;
+    }
+
+    /**
+     * sets the time for progressive rendering, no pass is started that is expected to end after it.
+     * the first pass is always rendered. rendering in time by {@link renderer.Render#renderBudgeted()} needs it.
+     *
+     * @param timeBudget time in milliseconds, 0 for no limit
+     * @return the Render object itself
+     * @throws IllegalArgumentException In case the time is negative
+     */
+    public Render setTimeBudget(long timeBudget) {
+        if (timeBudget < 0)
+            throw new IllegalArgumentException("Time budget must be 0 or higher");
+        _timeBudget = timeBudget;
+        return this;
+    }
+
+    /**
+     * sets the clock the time budget of progressive rendering is measured by, and the time of the samples of the tiles
+     * in rendering in time. the clock of the system is used by default - another clock can measure the time
+     * by the work done, so rendering in time makes the same choices however busy the computer is.
+     *
+     * @param clock the clock, in nanoseconds
+     * @return the Render object itself
+     * @throws NullPointerException In case the clock is null
+     */
+    public Render setClock(LongSupplier clock) {
+        if (clock == null)
+            throw new NullPointerException("ERROR arguments is NULL");
+        _clock = clock;
+        return this;
+    }
+
+    /**
+     * sets the noise of the image that progressive rendering stops at.
+     *
+     * @param noiseThreshold noise in levels of brightness (0 to 255), 0 for no limit
+     * @return the Render object itself
+     * @throws IllegalArgumentException In case the noise is negative
+     */
+    public Render setNoiseThreshold(double noiseThreshold) {
+        if (noiseThreshold < 0)
+            throw new IllegalArgumentException("Noise threshold must be 0 or higher");
+        _noiseThreshold = noiseThreshold;
+        return this;
+    }
+
+    /**
+     * sets the listener told about every pass of progressive rendering.
+     *
+     * @param passListener the listener, null for no listener
+     * @return the Render object itself
+     */
+    public Render setPassListener(PassListener passListener) {
+        _passListener = passListener;
+        return this;
+    }
+
+    /**
+     * sets the high dynamic range image that receives the colors of the pixels as they are rendered,
+     * without the limit of 255, so the image can be tone mapped and exposed again without rendering it again.
+     * progressive rendering gives it the sums and the amounts of the samples of the pixels.
+     *
+     * @param hdrImage the image, null for no image
+     * @return the Render object itself
+     * @throws IllegalArgumentException In case the image is not of the size of the image writer
+     */
+    public Render setHdrImage(HdrImage hdrImage) {
+        if (hdrImage != null && (hdrImage.getNx() != _imageWriter.getNx() || hdrImage.getNy() != _imageWriter.getNy()))
+            throw new IllegalArgumentException("HDR image must be of the size of the image writer");
+        _hdrImage = hdrImage;
+        return this;
+    }
+
+    /**
+     * sets whether the statistics of the image count also the nodes of the bvh trees visited and the tests of the rays
+     * with every class of geometries. they are counted for every ray, so it makes the rendering a bit slower.
+     *
+     * @param traversalStats true for counting the nodes and the tests
+     * @return the Render object itself
+     */
+    public Render setTraversalStats(boolean traversalStats) {
+        _traversalStats = traversalStats;
         return this;
     }
 
@@ -166,11 +663,13 @@ public class Render {
         double height = _imageWriter.getHeight();
         double width = _imageWriter.getWidth();
         double distance = _scene.get_distance();
+        resetCounters();
 
         for (int i = 0; i < ny; i++) {                        // go over all of the pixels
             for (int j = 0; j < nx; j++) {
                 Ray mainRay = camera.constructRayThroughPixel(nx, ny, j, i, distance, width, height);   // construct a ray from tha camera through the pixel
-                List<Ray> rays = camera.constructBeamOfRaysThroughPixel(nx, ny, j, i, distance, width, height, _numOfRays);   // construct a beam of rays from tha camera through the pixel
+                List<Ray> rays = _superSampling ? // construct a beam of rays from tha camera through the pixel
+                        camera.constructBeamOfRaysThroughPixel(nx, ny, j, i, distance, width, height, _numOfRays, _sampler) : List.of();
                 _imageWriter.writePixel(j, i, calcColor(mainRay, rays).getColor());        // color the pixel
 
             }
@@ -179,82 +678,582 @@ public class Render {
 
     /**
      * This function renders image's pixel color map from the scene included with
-     * the Renderer object
+     * the Renderer object.
+     * the image is split into tiles that are rendered on a work stealing pool of threads,
+     * calls {@link renderer.Render#renderTile(Tile)} for every tile.
+     *
+     * @throws RuntimeException the first exception thrown while rendering, after the threads are stopped
      */
     public void renderImage() {
+        try (TileScheduler scheduler = new TileScheduler(_imageWriter.getNx(), _imageWriter.getNy(),
+                _tileSize, _tileOrder)) {
+            final int tiles = scheduler.getTiles().size();
+            final AtomicInteger tilesDone = new AtomicInteger();
+            resetCounters();
+            scheduler.run(_threads, tile -> {
+                countTile(tile, () -> renderTile(tile));
+                int done = tilesDone.incrementAndGet();
+                ProgressListener listener = _progressListener;
+                if (listener != null)
+                    listener.tileRendered(tile, done, tiles);
+            });
+        }
+    }
+
+    /**
+     * renders the image progressively: every pass adds one sample to every pixel of the image and writes the average
+     * of the samples of the pixels to the image writer, so a preview of the whole image is ready after the first pass
+     * and it gets less noisy with every pass.
+     * the first pass traces the ray through the center of every pixel, as rendering without super sampling does,
+     * and the other passes trace rays through points of the pixels from the sampler.
+     * stops after the most passes, when the next pass is expected to end after the time budget
+     * or when the noise of the image is below the threshold.
+     * calls {@link renderer.Render#renderTileSamples(Tile, int[], SampleBuffer)} for every tile in every pass.
+     *
+     * @throws RuntimeException the first exception thrown while rendering, after the threads are stopped
+     */
+    public void renderProgressive() {
+        long start = _clock.getAsLong();
+        SampleBuffer buffer = new SampleBuffer(_imageWriter.getNx(), _imageWriter.getNy());
+        resetCounters();
+        _passes = 0;
+        _noise = Double.POSITIVE_INFINITY;
+        try (TileScheduler scheduler = new TileScheduler(_imageWriter.getNx(), _imageWriter.getNy(),
+                _tileSize, _tileOrder)) {
+            while (true) {
+                long passStart = _clock.getAsLong();
+                scheduler.run(_threads, tile -> countTile(tile, () -> renderTileSamples(tile, null, buffer)));
+                _passes++;
+                _noise = buffer.getNoise();
+                _samplesPerPixel = _passes;
+                PassListener listener = _passListener;
+                if (listener != null)
+                    listener.passRendered(_passes, _noise);
+                long now = _clock.getAsLong();
+                if (_passes >= _maxPasses
+                        || _noiseThreshold > 0 && _noise <= _noiseThreshold
+                        || _timeBudget > 0 && (now - start) + (now - passStart) > _timeBudget * 1_000_000) // the next pass would end late
+                    return;
+            }
+        }
+    }
+
+    /**
+     * renders the image progressively within the time budget, so it ends on time however long the samples take.
+     * two passes over all the pixels estimate the noise of every pixel, if the second one fits in the time,
+     * and then every round of samples takes half of the time left - the samples of the round go to the pixels where
+     * they take off the most noise for their cost, as the time of the samples of every tile so far tells it,
+     * so a misjudged round still leaves time for the image to be written.
+     * the image writer has the image of all the samples after every round.
+     * stops when the time is spent, when every pixel has the most passes as samples
+     * or when the noise of the image is below the threshold, and then {@link renderer.Render#getSamplesPerPixel()}
+     * and {@link renderer.Render#getNoise()} tell the samples achieved and the noise left.
+     * calls {@link renderer.Render#renderTileSamples(Tile, int[], SampleBuffer)} for every tile in every round.
+     *
+     * @throws IllegalStateException In case the time budget is not set
+     * @throws RuntimeException      the first exception thrown while rendering, after the threads are stopped
+     */
+    public void renderBudgeted() {
+        if (_timeBudget == 0)
+            throw new IllegalStateException("Time budget is not set");
+        long start = _clock.getAsLong();
+        long deadline = start + _timeBudget * 1_000_000;
+        final int nX = _imageWriter.getNx();
+        final int nY = _imageWriter.getNy();
+        SampleBuffer buffer = new SampleBuffer(nX, nY);
+        resetCounters();
+        _passes = 0;
+        try (TileScheduler scheduler = new TileScheduler(nX, nY, _tileSize, _tileOrder)) {
+            SampleAllocator allocator = new SampleAllocator(scheduler.getTiles(), nX, nY);
+            renderRound(scheduler, null, buffer, allocator);
+            _passes++;
+            long now = _clock.getAsLong();
+            if (_maxPasses > 1 && now + (now - start) <= deadline) { // the second pass is expected to take as long
+                renderRound(scheduler, null, buffer, allocator);
+                _passes++;
+                int[] samples = new int[nX * nY];
+                while (_noiseThreshold == 0 || buffer.getNoise() > _noiseThreshold) {
+                    long round = (deadline - _clock.getAsLong()) / 2;
+                    if (round < MIN_ROUND
+                            || allocator.allocate(buffer, (double) round * _threads, _maxPasses, samples) == 0)
+                        break;
+                    renderRound(scheduler, samples, buffer, allocator);
+                    _passes++;
+                }
+            }
+        }
+        _noise = buffer.getNoise();
+        _samplesPerPixel = buffer.getSamplesPerPixel();
+    }
+
+    /**
+     * renders a round of samples of rendering in time in all the tiles, and adds the time of the samples of every
+     * tile to the allocator.
+     *
+     * @param scheduler the tiles of the image
+     * @param samples   amount of samples of every pixel by row, null for a sample of every pixel
+     * @param buffer    the samples of the pixels so far
+     * @param allocator the time of the samples of the tiles so far
+     */
+    private void renderRound(TileScheduler scheduler, int[] samples, SampleBuffer buffer, SampleAllocator allocator) {
+        scheduler.run(_threads, tile -> countTile(tile, () -> {
+            long tileStart = _clock.getAsLong();
+            int traced = renderTileSamples(tile, samples, buffer);
+            if (traced > 0)
+                allocator.addCost(tile, traced, _clock.getAsLong() - tileStart);
+        }));
+    }
+
+    /**
+     * renders a tile and adds it to the statistics of the thread, with the nodes and the tests of the geometries
+     * counted while it is rendered if they are asked for.
+     *
+     * @param tile   the tile
+     * @param render renders the tile
+     */
+    private void countTile(Tile tile, Runnable render) {
+        RenderStats.Counters counters = _counters.get();
+        long start = System.nanoTime();
+        if (_traversalStats)
+            TraversalStats.bind(counters._traversal);
+        try {
+            render.run();
+        } finally {
+            if (_traversalStats)
+                TraversalStats.bind(null);
+        }
+        counters.addTile(tile, System.nanoTime() - start);
+    }
+
+    /**
+     * starts the statistics of a new image - forgets the counters of the threads of the last image.
+     */
+    private void resetCounters() {
+        _allCounters.clear();
+        _counters = newCounters();
+    }
+
+    /**
+     * creates the counters of the threads of an image, every thread gets new counters the first time it asks for them.
+     *
+     * @return the counters of the threads
+     */
+    private ThreadLocal<RenderStats.Counters> newCounters() {
+        return ThreadLocal.withInitial(() -> {
+            RenderStats.Counters counters = new RenderStats.Counters();
+            _allCounters.add(counters);
+            return counters;
+        });
+    }
+
+    /**
+     * adds samples to the pixels of a tile and writes the averages of the pixels to the image writer.
+     * the first sample of a pixel is the ray through its center, as rendering without super sampling traces,
+     * and every other sample is the next point of the sequence of the pixel from the sampler, by the amount of samples
+     * it had before, so the samples of a pixel are the same however they are split to passes
+     * and are spread over the pixel as evenly as the sampler spreads them.
+     *
+     * @param tile    the tile
+     * @param samples amount of samples of every pixel of the image by row, null for a sample of every pixel
+     * @param buffer  the samples of the pixels so far
+     * @return amount of samples added, the tile is not written if it is 0
+     */
+    private int renderTileSamples(Tile tile, int[] samples, SampleBuffer buffer) {
+        final int nX = _imageWriter.getNx();
+        final int nY = _imageWriter.getNy();
+        final HdrImage hdrImage = _hdrImage;
+        int[] rgb = new int[tile.getPixels()];
+        int pixel = 0;
+        int traced = 0;
+        for (int row = tile.get_y(); row < tile.get_y() + tile.get_height(); row++)
+            for (int col = tile.get_x(); col < tile.get_x() + tile.get_width(); col++) {
+                int count = samples == null ? 1 : samples[row * nX + col];
+                for (int i = 0; i < count; i++) {
+                    int index = buffer.getSamples(col, row);
+                    Ray ray;
+                    if (index == 0)
+                        ray = _scene.get_camera().constructRayThroughPixel(nX, nY, col, row, _scene.get_distance(),
+                                _imageWriter.getWidth(), _imageWriter.getHeight());
+                    else {
+                        double[] sample = _sampler.getSample(Sampler.seed(col, row), index - 1);
+                        ray = _scene.get_camera().constructRayThroughPoint(nX, nY, col + sample[0], row + sample[1],
+                                _scene.get_distance(), _imageWriter.getWidth(), _imageWriter.getHeight());
+                    }
+                    buffer.add(col, row, calcColor(ray));
+                }
+                traced += count;
+                rgb[pixel++] = buffer.getColor(col, row).getColor().getRGB();
+                if (hdrImage != null && count > 0)
+                    hdrImage.setPixel(col, row, buffer.getSum(col, row), buffer.getSamples(col, row));
+            }
+        if (traced > 0)
+            _imageWriter.writeTile(tile, rgb);
+        return traced;
+    }
+
+    /**
+     * renders the pixels of a tile of the image and writes them to the image writer together.
+     *
+     * @param tile the tile
+     */
+    private void renderTile(Tile tile) {
+        if (_adaptiveSuperSampling) {
+            renderTileAdaptive(tile);
+            return;
+        }
+        if (_wavefront) {
+            renderTileWavefront(tile);
+            return;
+        }
+        if (_packetTracing && !_superSampling) {
+            renderTilePackets(tile);
+            return;
+        }
         final int nX = _imageWriter.getNx();
         final int nY = _imageWriter.getNy();
         final double dist = _scene.get_distance();
         final double width = _imageWriter.getWidth();
         final double height = _imageWriter.getHeight();
         final Camera camera = _scene.get_camera();
+        Color[] colors = new Color[tile.getPixels()];
+        int pixel = 0;
+        for (int row = tile.get_y(); row < tile.get_y() + tile.get_height(); row++)
+            for (int col = tile.get_x(); col < tile.get_x() + tile.get_width(); col++) {
+                Ray mainRay = camera.constructRayThroughPixel(nX, nY, col, row, dist, width, height);   // construct a ray from tha camera through the pixel
+                List<Ray> rays = _superSampling ?
+                        camera.constructBeamOfRaysThroughPixel(nX, nY, col, row, dist, width, height, _numOfRays, _sampler) : List.of();
+                colors[pixel++] = calcColor(mainRay, rays);
+            }
+        writeTile(tile, colors);
+    }
 
-        final Pixel thePixel = new Pixel(nY, nX);
-
-        // Generate threads
-        Thread[] threads = new Thread[_threads];
-        for (int i = _threads - 1; i >= 0; --i) {
-            threads[i] = new Thread(() -> {
-                Pixel pixel = new Pixel();
-                while (thePixel.nextPixel(pixel)) {
-                    Ray mainRay = camera.constructRayThroughPixel(nX, nY, pixel.col, pixel.row, dist, width, height);   // construct a ray from tha camera through the pixel
-                    List<Ray> rays = camera.constructBeamOfRaysThroughPixel(nX, nY, pixel.col, pixel.row, dist, width, height, _numOfRays);
-                    _imageWriter.writePixel(pixel.col, pixel.row, calcColor(mainRay, rays).getColor());
-                }
-            });
-        }
+    /**
+     * writes the colors of the pixels of a tile to the image writer, and to the high dynamic range image if there is one.
+     *
+     * @param tile   the tile
+     * @param colors the colors of the pixels of the tile row after row
+     */
+    private void writeTile(Tile tile, Color[] colors) {
+        int[] rgb = new int[colors.length];
+        for (int i = 0; i < colors.length; i++)
+            rgb[i] = colors[i].getColor().getRGB();
+        _imageWriter.writeTile(tile, rgb);
+        HdrImage hdrImage = _hdrImage;
+        if (hdrImage != null)
+            hdrImage.setTile(tile, colors);
+    }
 
-        // Start threads
-        for (Thread thread : threads) thread.start();
+    /**
+     * renders the pixels of a tile of the image with the rays from the camera traced as packets
+     * of the blocks of 4x2 pixels in the tile.
+     *
+     * @param tile the tile
+     */
+    private void renderTilePackets(Tile tile) {
+        final int nX = _imageWriter.getNx();
+        final int nY = _imageWriter.getNy();
+        final double dist = _scene.get_distance();
+        final double width = _imageWriter.getWidth();
+        final double height = _imageWriter.getHeight();
+        final Camera camera = _scene.get_camera();
+        final Intersectable geometries = _scene.get_geometries();
+        final Color background = _scene.get_background();
+        RayPacket packet = new RayPacket();
+        int[] pixels = new int[RayPacket.SIZE];
+        Color[] colors = new Color[tile.getPixels()];
+        for (int blockRow = 0; blockRow < tile.get_height(); blockRow += 2)
+            for (int blockCol = 0; blockCol < tile.get_width(); blockCol += 4) {
+                packet.clear();
+                for (int row = blockRow; row < Math.min(blockRow + 2, tile.get_height()); row++)
+                    for (int col = blockCol; col < Math.min(blockCol + 4, tile.get_width()); col++) {
+                        Ray ray = camera.constructRayThroughPixel(nX, nY, tile.get_x() + col, tile.get_y() + row,
+                                dist, width, height);
+                        pixels[packet.add(ray)] = row * tile.get_width() + col;
+                    }
+                geometries.findClosestIntersections(packet);
+                for (int lane = 0; lane < packet.size(); lane++) {
+                    GeoPoint closestIntersection = packet.getClosest(lane);
+                    colors[pixels[lane]] = closestIntersection == null ? background
+                            : calcColor(closestIntersection, packet.getRay(lane));
+                }
+                _counters.get()._primaryRays += packet.size();
+            }
+        writeTile(tile, colors);
+    }
 
-        // Wait for all threads to finish
-        for (Thread thread : threads)
-            try {
-                thread.join();
-            } catch (Exception e) {
+    /**
+     * renders the pixels of a tile of the image by the wavefront integrator.
+     * the rays from the camera through the pixels of the tile are put in a batch, up to
+     * {@link renderer.Render#WAVE_CAMERA_RAYS} rays for every wave of pixels,
+     * calls {@link renderer.Render#traceWave(RayBatch, int[], int, Color[])} for every wave.
+     *
+     * @param tile the tile
+     */
+    private void renderTileWavefront(Tile tile) {
+        final int nX = _imageWriter.getNx();
+        final int nY = _imageWriter.getNy();
+        final double dist = _scene.get_distance();
+        final double width = _imageWriter.getWidth();
+        final double height = _imageWriter.getHeight();
+        final Camera camera = _scene.get_camera();
+        RayBatch batch = new RayBatch(Math.min(4 * tile.getPixels(), 4 * WAVE_CAMERA_RAYS));
+        int[] counters = new int[tile.getPixels()]; // amount of rays from the camera through each pixel
+        Color[] colors = new Color[tile.getPixels()];
+        int pixel = 0, firstPixel = 0;
+        for (int row = tile.get_y(); row < tile.get_y() + tile.get_height(); row++)
+            for (int col = tile.get_x(); col < tile.get_x() + tile.get_width(); col++) {
+                batch.add(camera.constructRayThroughPixel(nX, nY, col, row, dist, width, height),
+                        1.0, MAX_CALC_COLOR_LEVEL);
+                counters[pixel] = 1;
+                if (_superSampling)
+                    for (Ray ray : camera.constructBeamOfRaysThroughPixel(nX, nY, col, row, dist, width, height,
+                            _numOfRays, _sampler)) {
+                        batch.add(ray, 1.0, MAX_CALC_COLOR_LEVEL);
+                        counters[pixel]++;
+                    }
+                pixel++;
+                if (batch.size() >= WAVE_CAMERA_RAYS || pixel == colors.length) {
+                    traceWave(batch, counters, firstPixel, colors);
+                    batch.clear();
+                    firstPixel = pixel;
+                }
             }
-        if (_print) System.out.printf("\r100%%\n");
+        writeTile(tile, colors);
     }
 
+    /**
+     * traces a wave of rays from the camera in stages and calculates the colors of their pixels.
+     * every stage takes the rays queued by the stage before it: intersects them, traces the shadow rays of all their
+     * points, shades the points and queues their reflected and refracted rays at the end of the batch.
+     * after the last stage the color of every ray is put together with the colors of its reflected and refracted rays,
+     * from the last ray to the first, as {@link renderer.Render#calcColor(GeoPoint, Ray, int, double)} does.
+     *
+     * @param batch      the batch with the rays from the camera through the pixels of the wave, in the order of the pixels
+     * @param counters   amount of rays from the camera through each pixel of the tile
+     * @param firstPixel index of the first pixel of the wave in the tile
+     * @param colors     the colors of the pixels of the tile
+     */
+    private void traceWave(RayBatch batch, int[] counters, int firstPixel, Color[] colors) {
+        final Intersectable geometries = _scene.get_geometries();
+        final int cameraRays = batch.size();
+        double[] transparencies = new double[0];
+        for (int from = 0, to = batch.size(); from < to; from = to, to = batch.size()) {
+            batch.intersect(geometries, from, to);
+            if (transparencies.length < (to - from) * _scene.get_lights().size())
+                transparencies = new double[(to - from) * _scene.get_lights().size()];
+            traceShadows(batch, from, to, transparencies);
+            shade(batch, from, to, transparencies);
+        }
+
+        // the reflected and refracted rays are after the ray they came from, so their colors are ready before it
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            GeoPoint geoPoint = batch._hits[i];
+            if (geoPoint == null)
+                continue;
+            Color color = batch._colors[i];
+            int reflected = batch._reflected[i];
+            if (reflected >= 0 && batch._hits[reflected] != null)
+                color = color.add(batch._colors[reflected].scale(geoPoint.geometry.get_material().get_kR()));
+            int refracted = batch._refracted[i];
+            if (refracted >= 0 && batch._hits[refracted] != null)
+                color = color.add(batch._colors[refracted].scale(geoPoint.geometry.get_material().get_kT()));
+            batch._colors[i] = color;
+        }
+
+        Color background = _scene.get_background();
+        Color ambient = _scene.get_ambientLight().get_intensity();
+        for (int pixel = firstPixel, ray = 0; ray < cameraRays; pixel++) {
+            Color color = new Color(0, 0, 0);
+            for (int i = 0; i < counters[pixel]; i++, ray++)
+                color = color.add(batch._hits[ray] == null ? background : batch._colors[ray].add(ambient));
+            colors[pixel] = color.reduce(counters[pixel]);
+        }
+        _counters.get()._primaryRays += cameraRays;
+    }
 
     /**
-     * finds the point from the list closest to the camera.
-     * calls {@link renderer.Render#getClosestPoint(List, Point3D)} with camera as p0
+     * stage of the wavefront integrator that traces the shadow rays from the points of a range of the rays
+     * towards all the light sources.
+     * calls {@link renderer.Render#transparency(Vector, Vector, GeoPoint, LightSource)} for every point and light.
      *
-     * @param points a list of intersection points on the ray
-     * @return the closest point to beginning of ray (the camera)
+     * @param batch          the batch of the rays
+     * @param from           index of the first ray of the stage
+     * @param to             index after the last ray of the stage
+     * @param transparencies the transparency coefficients of the lights at the points of the rays, by ray and then by light
      */
-    //public GeoPoint getClosestPoint(List<GeoPoint> points) {
-    private GeoPoint getClosestPoint(List<GeoPoint> points) {
-        return getClosestPoint(points, _scene.get_camera().get_p0());
+    private void traceShadows(RayBatch batch, int from, int to, double[] transparencies) {
+        final Point3D p0 = _scene.get_camera().get_p0();
+        final List<LightSource> lightSources = _scene.get_lights();
+        final int lights = lightSources.size();
+        for (int i = from; i < to; i++) {
+            GeoPoint geoPoint = batch._hits[i];
+            if (geoPoint == null)
+                continue;
+            Point3D point = geoPoint.point;
+            Vector n = geoPoint.geometry.getNormal(point);
+            Vector v = point.subtract(p0).normalize();
+            batch._normals[i] = n;
+            batch._views[i] = v;
+            for (int j = 0; j < lights; j++)
+                transparencies[(i - from) * lights + j] = transparency(v, n, geoPoint, lightSources.get(j));
+        }
     }
 
     /**
-     * finds the point from the list closest to beginning of the ray.
+     * stage of the wavefront integrator that calculates the colors at the points of a range of the rays
+     * and queues their reflected and refracted rays for the next stage.
      *
-     * @param points a list of intersection points on the ray
-     * @param p0     the head of the ray
-     * @return the closest point to beginning of ray (p0)
+     * @param batch          the batch of the rays
+     * @param from           index of the first ray of the stage
+     * @param to             index after the last ray of the stage
+     * @param transparencies the transparency coefficients of the lights at the points of the rays, by ray and then by light
      */
-    private GeoPoint getClosestPoint(List<GeoPoint> points, Point3D p0) {
-        if (points == null || points.size() == 0)
-            return null;
-        GeoPoint ClosestPoint = null;
-        double minimum = Double.MAX_VALUE;
-        for (GeoPoint p : points) {              //go over all points in list
-            double distance = p0.distance(p.point);   // calculate its distance from p0
-            if (distance < minimum) {           // save the one with shortest distance
-                minimum = distance;
-                ClosestPoint = p;
+    private void shade(RayBatch batch, int from, int to, double[] transparencies) {
+        final List<LightSource> lightSources = _scene.get_lights();
+        final int lights = lightSources.size();
+        final RenderStats.Counters counters = _counters.get();
+        for (int i = from; i < to; i++) {
+            GeoPoint geoPoint = batch._hits[i];
+            if (geoPoint == null)
+                continue;
+            counters.reachDepth(MAX_CALC_COLOR_LEVEL - batch._level[i] + 1);
+            Material material = geoPoint.geometry.get_material();
+            Color emission = geoPoint.geometry.get_emission();
+            Point3D point = geoPoint.point;
+            Vector n = batch._normals[i];
+            double k = batch._k[i];
+            Color color = emission;
+            for (int j = 0; j < lights; j++)
+                color = addLightColor(color, lightSources.get(j), point, batch._views[i], n, material.get_kD(),
+                        material.get_kS(), material.get_nShininess(), k, transparencies[(i - from) * lights + j]);
+            batch._colors[i] = emission.add(color);
+            if (batch._level[i] == 1) // the colors of the next level are black
+                continue;
+            // the indexes are kept after adding the rays, since adding may replace the arrays of the batch
+            int reflected = -1, refracted = -1;
+            double kkr = k * material.get_kR();
+            if (kkr > MIN_CALC_COLOR_K) {
+                Ray reflectionRay = constructReflectedRay(point, batch._rays[i], n);
+                if (reflectionRay != null) {
+                    reflected = batch.add(reflectionRay, kkr, batch._level[i] - 1);
+                    counters._reflectionRays++;
+                }
             }
+            double kkt = k * material.get_kT();
+            if (kkt > MIN_CALC_COLOR_K) {
+                refracted = batch.add(constructRefractedRay(point, batch._rays[i], n), kkt, batch._level[i] - 1);
+                counters._refractionRays++;
+            }
+            batch._reflected[i] = reflected;
+            batch._refracted[i] = refracted;
         }
-        return ClosestPoint;                // return the point
     }
 
+    /**
+     * renders the pixels of a tile of the image by adaptive super sampling.
+     * the colors at the corners of the pixels are calculated once for the tile since pixels next to each other
+     * share them, then every pixel is checked by
+     * {@link renderer.Render#adaptiveColor(double, double, double, Color, Color, Color, Color, int)}.
+     *
+     * @param tile the tile
+     */
+    private void renderTileAdaptive(Tile tile) {
+        int width = tile.get_width();
+        int height = tile.get_height();
+        Color[] corners = new Color[(width + 1) * (height + 1)];
+        for (int row = 0; row <= height; row++)
+            for (int col = 0; col <= width; col++)
+                corners[row * (width + 1) + col] = colorThroughPoint(tile.get_x() + col, tile.get_y() + row);
+        Color[] colors = new Color[tile.getPixels()];
+        for (int row = 0; row < height; row++)
+            for (int col = 0; col < width; col++) {
+                int corner = row * (width + 1) + col; // top left corner of the pixel
+                colors[row * width + col] = adaptiveColor(tile.get_x() + col, tile.get_y() + row, 1,
+                        corners[corner], corners[corner + 1],
+                        corners[corner + width + 1], corners[corner + width + 2], _maxAdaptiveDepth);
+            }
+        writeTile(tile, colors);
+    }
+
+    /**
+     * calculates the color of a square of the view plane by adaptive super sampling.
+     * traces a ray through the center of the square and if its color is close to the colors at the corners
+     * returns their average, else divides the square to 4 squares and returns the average of their colors.
+     *
+     * @param x           distance of the left edge of the square from the left edge of the view plane in pixels
+     * @param y           distance of the top edge of the square from the top edge of the view plane in pixels
+     * @param size        size of the square in pixels
+     * @param topLeft     color at the top left corner
+     * @param topRight    color at the top right corner
+     * @param bottomLeft  color at the bottom left corner
+     * @param bottomRight color at the bottom right corner
+     * @param depth       amount of times the square can still be divided
+     * @return the color of the square
+     */
+    private Color adaptiveColor(double x, double y, double size,
+                                Color topLeft, Color topRight, Color bottomLeft, Color bottomRight, int depth) {
+        double half = size / 2;
+        Color center = colorThroughPoint(x + half, y + half);
+        if (depth == 0 || (similar(center, topLeft) && similar(center, topRight)
+                && similar(center, bottomLeft) && similar(center, bottomRight)))
+            return center.add(topLeft, topRight, bottomLeft, bottomRight).reduce(5);
+        Color top = colorThroughPoint(x + half, y);
+        Color left = colorThroughPoint(x, y + half);
+        Color right = colorThroughPoint(x + size, y + half);
+        Color bottom = colorThroughPoint(x + half, y + size);
+        return adaptiveColor(x, y, half, topLeft, top, left, center, depth - 1)
+                .add(adaptiveColor(x + half, y, half, top, topRight, center, right, depth - 1),
+                        adaptiveColor(x, y + half, half, left, center, bottomLeft, bottom, depth - 1),
+                        adaptiveColor(x + half, y + half, half, center, right, bottom, bottomRight, depth - 1))
+                .reduce(4);
+    }
+
+    /**
+     * checks whether 2 colors are close enough for adaptive super sampling to not divide the square between them.
+     *
+     * @param a first color
+     * @param b second color
+     * @return true if the difference in every component of the colors is at most the threshold
+     */
+    private boolean similar(Color a, Color b) {
+        java.awt.Color c1 = a.getColor();
+        java.awt.Color c2 = b.getColor();
+        return Math.abs(c1.getRed() - c2.getRed()) <= _adaptiveThreshold
+                && Math.abs(c1.getGreen() - c2.getGreen()) <= _adaptiveThreshold
+                && Math.abs(c1.getBlue() - c2.getBlue()) <= _adaptiveThreshold;
+    }
+
+    /**
+     * calculates the color seen through a point on the view plane.
+     *
+     * @param x distance of the point from the left edge of the view plane in pixels
+     * @param y distance of the point from the top edge of the view plane in pixels
+     * @return the color seen through the point
+     */
+    private Color colorThroughPoint(double x, double y) {
+        return calcColor(_scene.get_camera().constructRayThroughPoint(_imageWriter.getNx(), _imageWriter.getNy(), x, y,
+                _scene.get_distance(), _imageWriter.getWidth(), _imageWriter.getHeight()));
+    }
+
+    /**
+     * calculates the color seen by a ray from the camera.
+     *
+     * @param ray the ray from the camera
+     * @return the color of the closest intersection of the ray, or the background if there is none
+     */
+    private Color calcColor(Ray ray) {
+        _counters.get()._primaryRays++;
+        GeoPoint closestIntersection = findClosestIntersection(ray);
+        if (closestIntersection == null)
+            return _scene.get_background();
+        return calcColor(closestIntersection, ray);
+    }
+
+
     /**
      * finds the closest intersection point between a ray and the geometries in the scene.
-     * calls {@link geometries.Geometries#findIntersections(Ray)} to get all intersection points
-     * and then calls {@link renderer.Render#getClosestPoint(List, Point3D)} to find the one closest to beginning of the ray
+     * calls {@link geometries.Intersectable#findClosestIntersection(Ray, double)} so only the closest
+     * point is kept while going over the geometries
      *
      * @param ray the given ray
      * @return closest intersection point or null if there are no intersection points
@@ -262,9 +1261,7 @@ public class Render {
     private GeoPoint findClosestIntersection(Ray ray) {
         if (ray == null)
             return null;
-        List<GeoPoint> intersections = _scene.get_geometries().findIntersections(ray); // find intersections between the ray and any geometries
-        GeoPoint ClosestPoint = getClosestPoint(intersections, ray.get_p0()); // find the closest intersection
-        return ClosestPoint;
+        return _scene.get_geometries().findClosestIntersection(ray, Double.POSITIVE_INFINITY);
     }
 
     /**
@@ -329,6 +1326,7 @@ public class Render {
                 }
             }
         }
+        _counters.get()._primaryRays += counter;
         return color.reduce(counter);
     }
 
@@ -362,6 +1360,8 @@ public class Render {
     private Color calcColor(GeoPoint geoPoint, Ray inRay, int level, double k) {
         if (level == 0)
             return Color.BLACK;
+        RenderStats.Counters counters = _counters.get();
+        counters.reachDepth(MAX_CALC_COLOR_LEVEL - level + 1);
         Color color = geoPoint.geometry.get_emission();
 
         Point3D point = geoPoint.point;
@@ -377,6 +1377,7 @@ public class Render {
         double kkr = k * kr;
         if (kkr > MIN_CALC_COLOR_K) { // check if the scale of reflection color is significant
             Ray reflectionRay = constructReflectedRay(point, inRay, n); // get reflected ray
+            counters._reflectionRays++;
             GeoPoint reflectionPoint = findClosestIntersection(reflectionRay); // find intersection on reflected ray
             if (reflectionPoint != null)
                 color = color.add(calcColor(reflectionPoint, reflectionRay, level - 1, kkr).scale(kr)); // recursion call to add reflection color
@@ -387,6 +1388,7 @@ public class Render {
         double kkt = k * kt;
         if (kkt > MIN_CALC_COLOR_K) { // check if the scale of transparency color is significant
             Ray refractionRay = constructRefractedRay(point, inRay, n); // get refracted ray
+            counters._refractionRays++;
             GeoPoint refractionPoint = findClosestIntersection(refractionRay);  // find intersection on refracted ray
             if (refractionPoint != null)
                 color = color.add(calcColor(refractionPoint, refractionRay, level - 1, kkt).scale(kt)); // recursion call to add transparency color
@@ -411,15 +1413,36 @@ public class Render {
         Point3D point = geoPoint.point;
         List<LightSource> lightSources = _scene.get_lights();
         for (LightSource light : lightSources) { // go over all light source
+            double ktr = transparency(v, n, geoPoint, light); // get scale of shadow transparency
+            color = addLightColor(color, light, point, v, n, kd, ks, nShininess, k, ktr);
+        }
+        return color;
+    }
+
+    /**
+     * adds the effect of a light source at a point, with the transparency of the objects between them.
+     *
+     * @param color      color at the point
+     * @param light      the light source
+     * @param point      the point
+     * @param v          vector from camera to the point
+     * @param n          normal vector at the point
+     * @param kd         diffuse coefficient of the material of geometry
+     * @param ks         specular coefficient of the material of geometry
+     * @param nShininess strength of Shininess of the material of geometry
+     * @param k          the weight of color calculated at the point
+     * @param ktr        the transparency coefficient between the point and the light source
+     * @return the color at the point with the light
+     */
+    private Color addLightColor(Color color, LightSource light, Point3D point, Vector v, Vector n,
+                                double kd, double ks, int nShininess, double k, double ktr) {
+        if (ktr * k > MIN_CALC_COLOR_K) { // check if the scale of shadow transparency color is significant
             Vector l = light.getL(point); // get vector from light source to the point
             double nl = alignZero(n.dotProduct(l));
-            double ktr = transparency(v, n, geoPoint, light); // get scale of shadow transparency
-            if (ktr * k > MIN_CALC_COLOR_K) { // check if the scale of shadow transparency color is significant
-                Color li = light.getIntensity(point).scale(ktr);
-                color = color.add(                          // add the color from the specific light source
-                        calcDiffusive(kd, nl, li),
-                        calcSpecular(ks, l, n, nl, v, nShininess, li));
-            }
+            Color li = light.getIntensity(point).scale(ktr);
+            color = color.add(                          // add the color from the specific light source
+                    calcDiffusive(kd, nl, li),
+                    calcSpecular(ks, l, n, nl, v, nShininess, li));
         }
         return color;
     }
@@ -468,61 +1491,74 @@ public class Render {
         Vector lightDirection = l.scale(-1); // get vector from point towards light source
         Point3D p = gp.point;
         Ray lightRay = new Ray(p, lightDirection, n); // create ray from the point towards the light source
-        // check if the ray intersects objects that are closer then the light source
-        List<GeoPoint> intersections = _scene.get_geometries().findIntersections(lightRay, lightSource.getDistance(p));
-        if (intersections != null) {
-            for (GeoPoint point : intersections)
-                if (point.geometry.get_material().get_kT() == 0)
-                    return false;
-        }
-        return true;
+        _counters.get()._shadowRays++;
+        // check if the ray intersects opaque objects that are closer then the light source
+        return !_scene.get_geometries().isOccluded(lightRay, lightSource.getDistance(p));
     }
 
     /**
-     * checks whether the light from a source hits a given point or that point is shaded by another object.
+     * calculates the average transparency coefficient of the objects between a point and a light source.
+     * with soft shadows the average is over rays towards points on the light source, and with adaptive soft shadows
+     * the rays towards the edge of the light are traced first and the rest only if the point is in the penumbra.
      *
      * @param v           vector from camera to the point
      * @param n           normal vector from the geometry at the given point
      * @param gp          the geo point we are checking if is unshaded
      * @param lightSource the light source we are checking if the light from gets to the point
-     * @return boolean value true wen the point is unshaded
+     * @return the average transparency coefficient, 1 when the point is unshaded
      */
     private double transparency(Vector v, Vector n, GeoPoint gp, LightSource lightSource) {
         double nv = alignZero(n.dotProduct(v));
         Point3D p = gp.point;
+        double distance = lightSource.getDistance(p);
         Vector lightDirection = lightSource.getL(p); // get main vector from light source towards point
         double ktr = 1.0;
-        if (nv * n.dotProduct(lightDirection) > 0) { // check if the camera and direction of ray from light are on the same side of the geometry
-            Ray lightRay = new Ray(p, lightDirection.scale(-1), n); // create ray from the point towards the light source
-            // check if the ray intersects objects that are closer then the light source
-            List<GeoPoint> intersections = _scene.get_geometries().findIntersections(lightRay, lightSource.getDistance(p));
-            if (intersections != null)
-                for (GeoPoint point : intersections) { // go over al intersections and double up the transparency coefficient
-                    ktr *= point.geometry.get_material().get_kT();
-                }
-        }
+        if (nv * n.dotProduct(lightDirection) > 0) // check if the camera and direction of ray from light are on the same side of the geometry
+            ktr = transmittance(p, n, lightDirection, distance);
+        if (!_softShadowing)
+            return ktr;
         double sum_ktr = ktr; // variable for sum of transparency coefficient
         int counter = 1; // count the amount of rays
-        if (_softShadowing) { //if softShadowing
-            List<Vector> vectors = lightSource.getListOfVectors(p, _numOfRays); // get list ov vectors from light source towards point
-            for (Vector vec : vectors) { // go over all of the vectors
-                if (nv * n.dotProduct(vec) > 0) { // check if the camera and direction of ray from light are on the same side of the geometry
-                    ktr = 1.0;
-                    Ray lightRay = new Ray(p, vec.scale(-1), n); // create ray from the point towards the light source
-                    // check if the ray intersects objects that are closer then the light source
-                    List<GeoPoint> intersections = _scene.get_geometries().findIntersections(lightRay, lightSource.getDistance(p));
-                    if (intersections != null)
-                        for (GeoPoint point : intersections) { // go over al intersections and double up the transparency
-                            ktr *= point.geometry.get_material().get_kT();
-                        }
-                    sum_ktr += ktr;
+        if (_adaptiveSoftShadowing) {
+            boolean penumbra = false;
+            for (Vector vec : lightSource.getBoundaryVectors(p, _numOfRingShadowRays)) {
+                if (nv * n.dotProduct(vec) > 0) {
+                    double ringKtr = transmittance(p, n, vec, distance);
+                    penumbra = penumbra || !isZero(ringKtr - ktr);
+                    sum_ktr += ringKtr;
                     counter++;
-                }
+                } else // part of the light is behind the geometry
+                    penumbra = true;
+            }
+            if (!penumbra) // the edge and the center agree - fully lit or fully shaded
+                return sum_ktr / counter;
+        }
+        List<Vector> vectors = lightSource.getListOfVectors(p, _numOfShadowRays, _sampler); // get list ov vectors from light source towards point
+        for (Vector vec : vectors) { // go over all of the vectors
+            if (nv * n.dotProduct(vec) > 0) { // check if the camera and direction of ray from light are on the same side of the geometry
+                sum_ktr += transmittance(p, n, vec, distance);
+                counter++;
             }
         }
         return sum_ktr / counter; // return average transparency coefficient
     }
 
+    /**
+     * traces a ray from a point towards a light source and multiplies the transparency coefficients
+     * of the objects that are closer then the light source.
+     *
+     * @param p        the lighted point
+     * @param n        normal vector from the geometry at the point
+     * @param l        vector from the light source towards the point
+     * @param distance distance between the point and the light source
+     * @return the transparency coefficient
+     */
+    private double transmittance(Point3D p, Vector n, Vector l, double distance) {
+        Ray lightRay = new Ray(p, l.scale(-1), n); // create ray from the point towards the light source
+        _counters.get()._shadowRays++;
+        return _scene.get_geometries().transmittance(lightRay, distance, MIN_CALC_COLOR_K);
+    }
+
     /**
      * calculates the specular part of the reflection of light.
      *
@@ -536,11 +1572,10 @@ public class Render {
      * @return specular reflection of light
      */
     private Color calcSpecular(double ks, Vector l, Vector n, double nl, Vector v, int nShininess, Color li) {
-        Vector r = new Vector(l);
         if (isZero(nl))
             return Color.BLACK;
-        r = r.subtract(n.scale(2 * nl));
-        double vr = v.scale(-1).dotProduct(r);
+        // r = l - 2*nl*n so -v*r = 2*nl*(v*n) - v*l, calculated without creating vectors
+        double vr = 2 * nl * v.dotProduct(n) - v.dotProduct(l);
         return li.scale(ks * Math.pow(Math.max(0, vr), nShininess));
     }
 
@@ -581,96 +1616,4 @@ public class Render {
         _imageWriter.writeToImage(); // pass on the job to the imageWriter
     }
 
-
-    /**
-     * Pixel is an internal helper class whose objects are associated with a Render object that
-     * they are generated in scope of. It is used for multithreading in the Renderer and for follow up
-     * its progress.<br/>
-     * There is a main follow up object and several secondary objects - one in each thread.
-     *
-     * @author Dan
-     */
-    private class Pixel {
-        private long _maxRows = 0;
-        private long _maxCols = 0;
-        private long _pixels = 0;
-        public volatile int row = 0;
-        public volatile int col = -1;
-        private long _counter = 0;
-        private int _percents = 0;
-        private long _nextCounter = 0;
-
-        /**
-         * The constructor for initializing the main follow up Pixel object
-         *
-         * @param maxRows the amount of pixel rows
-         * @param maxCols the amount of pixel columns
-         */
-        public Pixel(int maxRows, int maxCols) {
-            _maxRows = maxRows;
-            _maxCols = maxCols;
-            _pixels = maxRows * maxCols;
-            _nextCounter = _pixels / 100;
-            if (Render.this._print) System.out.printf("\r %02d%%", _percents);
-        }
-
-        /**
-         * Default constructor for secondary Pixel objects
-         */
-        public Pixel() {
-        }
-
-        /**
-         * Internal function for thread-safe manipulating of main follow up Pixel object - this function is
-         * critical section for all the threads, and main Pixel object data is the shared data of this critical
-         * section.<br/>
-         * The function provides next pixel number each call.
-         *
-         * @param target target secondary Pixel object to copy the row/column of the next pixel
-         * @return the progress percentage for follow up: if it is 0 - nothing to print, if it is -1 - the task is
-         * finished, any other value - the progress percentage (only when it changes)
-         */
-        private synchronized int nextP(Pixel target) {
-            ++col;
-            ++_counter;
-            if (col < _maxCols) {
-                target.row = this.row;
-                target.col = this.col;
-                if (_counter == _nextCounter) {
-                    ++_percents;
-                    _nextCounter = _pixels * (_percents + 1) / 100;
-                    return _percents;
-                }
-                return 0;
-            }
-            ++row;
-            if (row < _maxRows) {
-                col = 0;
-                if (_counter == _nextCounter) {
-                    ++_percents;
-                    _nextCounter = _pixels * (_percents + 1) / 100;
-                    return _percents;
-                }
-                return 0;
-            }
-            return -1;
-        }
-
-        /**
-         * Public function for getting next pixel number into secondary Pixel object.
-         * The function prints also progress percentage in the console window.
-         *
-         * @param target target secondary Pixel object to copy the row/column of the next pixel
-         * @return true if the work still in progress, -1 if it's done
-         */
-        public boolean nextPixel(Pixel target) {
-            int percents = nextP(target);
-            if (percents > 0)
-                if (Render.this._print) System.out.printf("\r %02d%%", percents);
-            if (percents >= 0)
-                return true;
-            if (Render.this._print) System.out.printf("\r %02d%%", 100);
-            return false;
-        }
-    }
 }
@@ -0,0 +1,349 @@
+package renderer;
+
+import geometries.BvhStatistics;
+import geometries.TraversalStats;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * class RenderStats holding the statistics of rendering an image, for finding where the time of a scene goes.
+ * every thread of the renderer counts its own rays, depth of recursion and tiles in {@link RenderStats.Counters}
+ * without locking, and the counters of all the threads are added together when the statistics are asked for.
+ * the nodes of the bvh trees and the tests of the geometries are counted only when the renderer is asked to,
+ * since they are counted for every ray. the statistics of building the bvh tree of the scene are kept with them,
+ * since the time of building the tree is part of the time of the image.
+ */
+public class RenderStats {
+    /**
+     * amount of rays from the camera
+     */
+    private long _primaryRays;
+    /**
+     * amount of rays towards the light sources
+     */
+    private long _shadowRays;
+    /**
+     * amount of reflected rays
+     */
+    private long _reflectionRays;
+    /**
+     * amount of refracted rays
+     */
+    private long _refractionRays;
+    /**
+     * amount of nodes of the bvh trees visited
+     */
+    private long _nodesVisited;
+    /**
+     * amount of tests of rays with every class of geometries, by the name of the class
+     */
+    private final Map<String, Long> _primitiveTests = new TreeMap<>();
+    /**
+     * the deepest level of reflection and refraction reached, 1 for the points the rays from the camera hit
+     */
+    private int _maxDepth;
+    /**
+     * amount of tiles rendered - every pass of progressive rendering renders all the tiles again
+     */
+    private int _tiles;
+    /**
+     * time of rendering all the tiles together, in nanoseconds
+     */
+    private long _tilesTime;
+    /**
+     * time of rendering the slowest tile, in nanoseconds
+     */
+    private long _maxTileTime;
+    /**
+     * the slowest tile, null if no tile was rendered
+     */
+    private Tile _slowestTile;
+    /**
+     * statistics of the bvh tree of the scene, null if no tree was built
+     */
+    private final BvhStatistics _bvhStatistics;
+
+    /**
+     * counters of a thread of the renderer, added to only by their own thread
+     */
+    static class Counters {
+        /**
+         * amount of rays from the camera
+         */
+        long _primaryRays;
+        /**
+         * amount of rays towards the light sources
+         */
+        long _shadowRays;
+        /**
+         * amount of reflected rays
+         */
+        long _reflectionRays;
+        /**
+         * amount of refracted rays
+         */
+        long _refractionRays;
+        /**
+         * the deepest level of reflection and refraction reached
+         */
+        int _maxDepth;
+        /**
+         * amount of tiles rendered
+         */
+        int _tiles;
+        /**
+         * time of rendering the tiles, in nanoseconds
+         */
+        long _tilesTime;
+        /**
+         * time of rendering the slowest tile, in nanoseconds
+         */
+        long _maxTileTime;
+        /**
+         * the slowest tile
+         */
+        Tile _slowestTile;
+        /**
+         * counters of the nodes and the tests of the geometries, bound to the thread while it renders a tile
+         */
+        final TraversalStats _traversal = new TraversalStats();
+
+        /**
+         * keeps a level of recursion if it is deeper then the levels reached so far.
+         *
+         * @param depth the level, 1 for the points the rays from the camera hit
+         */
+        void reachDepth(int depth) {
+            if (depth > _maxDepth)
+                _maxDepth = depth;
+        }
+
+        /**
+         * adds a rendered tile.
+         *
+         * @param tile the tile
+         * @param time time of rendering the tile, in nanoseconds
+         */
+        void addTile(Tile tile, long time) {
+            _tiles++;
+            _tilesTime += time;
+            if (_slowestTile == null || time > _maxTileTime) {
+                _maxTileTime = time;
+                _slowestTile = tile;
+            }
+        }
+    }
+
+    //------------------ constructor ------------------
+
+    /**
+     * constructor for the statistics of an image, adding together the counters of all the threads.
+     *
+     * @param counters      the counters of the threads
+     * @param bvhStatistics statistics of the bvh tree of the scene, null if no tree was built
+     */
+    RenderStats(Collection<Counters> counters, BvhStatistics bvhStatistics) {
+        _bvhStatistics = bvhStatistics;
+        for (Counters c : counters) {
+            _primaryRays += c._primaryRays;
+            _shadowRays += c._shadowRays;
+            _reflectionRays += c._reflectionRays;
+            _refractionRays += c._refractionRays;
+            _maxDepth = Math.max(_maxDepth, c._maxDepth);
+            _tiles += c._tiles;
+            _tilesTime += c._tilesTime;
+            if (c._slowestTile != null && (_slowestTile == null || c._maxTileTime > _maxTileTime)) {
+                _maxTileTime = c._maxTileTime;
+                _slowestTile = c._slowestTile;
+            }
+            _nodesVisited += c._traversal.getNodesVisited();
+            for (Map.Entry<Class<?>, Long> entry : c._traversal.getTests().entrySet())
+                _primitiveTests.merge(className(entry.getKey()), entry.getValue(), Long::sum);
+        }
+    }
+
+    //------------------ getters ------------------
+
+    /**
+     * getter for the amount of rays from the camera.
+     *
+     * @return amount of rays
+     */
+    public long getPrimaryRays() {
+        return _primaryRays;
+    }
+
+    /**
+     * getter for the amount of rays towards the light sources.
+     *
+     * @return amount of rays
+     */
+    public long getShadowRays() {
+        return _shadowRays;
+    }
+
+    /**
+     * getter for the amount of reflected rays.
+     *
+     * @return amount of rays
+     */
+    public long getReflectionRays() {
+        return _reflectionRays;
+    }
+
+    /**
+     * getter for the amount of refracted rays.
+     *
+     * @return amount of rays
+     */
+    public long getRefractionRays() {
+        return _refractionRays;
+    }
+
+    /**
+     * getter for the amount of nodes of the bvh trees visited, 0 if they were not counted.
+     *
+     * @return amount of nodes
+     */
+    public long getNodesVisited() {
+        return _nodesVisited;
+    }
+
+    /**
+     * getter for the amount of tests of rays with every class of geometries, empty if they were not counted.
+     * the triangles of meshes are counted as TriangleMesh.Face.
+     *
+     * @return the amount of tests by the name of the class, in the order of the names
+     */
+    public Map<String, Long> getPrimitiveTests() {
+        return Collections.unmodifiableMap(_primitiveTests);
+    }
+
+    /**
+     * getter for the deepest level of reflection and refraction reached.
+     *
+     * @return the level, 1 for the points the rays from the camera hit, 0 if no ray hit a geometry
+     */
+    public int getMaxDepth() {
+        return _maxDepth;
+    }
+
+    /**
+     * getter for the amount of tiles rendered.
+     *
+     * @return amount of tiles
+     */
+    public int getTiles() {
+        return _tiles;
+    }
+
+    /**
+     * getter for the time of rendering all the tiles together, which is more then the time of the image
+     * when the tiles are rendered by many threads.
+     *
+     * @return time in nanoseconds
+     */
+    public long getTilesTime() {
+        return _tilesTime;
+    }
+
+    /**
+     * getter for the time of rendering the slowest tile.
+     *
+     * @return time in nanoseconds
+     */
+    public long getMaxTileTime() {
+        return _maxTileTime;
+    }
+
+    /**
+     * getter for the slowest tile.
+     *
+     * @return the tile, null if no tile was rendered
+     */
+    public Tile getSlowestTile() {
+        return _slowestTile;
+    }
+
+    /**
+     * getter for the statistics of the bvh tree of the scene, with the time of building it.
+     *
+     * @return the statistics, null if no tree was built
+     */
+    public BvhStatistics getBvhStatistics() {
+        return _bvhStatistics;
+    }
+
+    //------------------ functions ------------------
+
+    /**
+     * writes the statistics as a JSON object.
+     *
+     * @return the JSON text
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"primaryRays\": ").append(_primaryRays).append(",\n");
+        json.append("  \"shadowRays\": ").append(_shadowRays).append(",\n");
+        json.append("  \"reflectionRays\": ").append(_reflectionRays).append(",\n");
+        json.append("  \"refractionRays\": ").append(_refractionRays).append(",\n");
+        json.append("  \"nodesVisited\": ").append(_nodesVisited).append(",\n");
+        json.append("  \"primitiveTests\": {");
+        String separator = "";
+        for (Map.Entry<String, Long> entry : _primitiveTests.entrySet()) {
+            json.append(separator).append('"').append(entry.getKey()).append("\": ").append(entry.getValue());
+            separator = ", ";
+        }
+        json.append("},\n");
+        json.append("  \"maxDepth\": ").append(_maxDepth).append(",\n");
+        json.append("  \"tiles\": ").append(_tiles).append(",\n");
+        json.append("  \"tilesTimeNanos\": ").append(_tilesTime).append(",\n");
+        json.append("  \"maxTileTimeNanos\": ").append(_maxTileTime).append(",\n");
+        json.append("  \"slowestTile\": ");
+        if (_slowestTile == null)
+            json.append("null");
+        else
+            json.append("{\"x\": ").append(_slowestTile.get_x()).append(", \"y\": ").append(_slowestTile.get_y())
+                    .append(", \"width\": ").append(_slowestTile.get_width())
+                    .append(", \"height\": ").append(_slowestTile.get_height()).append('}');
+        json.append(",\n  \"bvh\": ");
+        if (_bvhStatistics == null)
+            json.append("null");
+        else
+            json.append("{\"type\": \"").append(_bvhStatistics.get_type())
+                    .append("\", \"buildTimeNanos\": ").append(_bvhStatistics.get_buildTime())
+                    .append(", \"nodes\": ").append(_bvhStatistics.get_nodes())
+                    .append(", \"leaves\": ").append(_bvhStatistics.get_leaves())
+                    .append(", \"depth\": ").append(_bvhStatistics.get_depth())
+                    .append(", \"sahCost\": ").append(_bvhStatistics.get_sahCost()).append('}');
+        return json.append("\n}\n").toString();
+    }
+
+    /**
+     * writes the statistics as a JSON object to a file.
+     * calls {@link renderer.RenderStats#toJson()}.
+     *
+     * @param file the file
+     * @throws IOException In case writing the file failed
+     */
+    public void writeJson(Path file) throws IOException {
+        Files.writeString(file, toJson());
+    }
+
+    /**
+     * gets the name of a class of geometries without its package, with the class it is nested in.
+     *
+     * @param type the class
+     * @return the name
+     */
+    private static String className(Class<?> type) {
+        String name = type.getName();
+        return name.substring(name.lastIndexOf('.') + 1).replace('$', '.');
+    }
+}
@@ -0,0 +1,169 @@
+package renderer;
+
+import java.util.List;
+
+/**
+ * class SampleAllocator deciding which pixels get the samples of a round of rendering in time.
+ * it keeps the time that the samples of every tile took so far, so the cost of another sample of a pixel is
+ * the average time of a sample in its tile, and it gives the samples one at a time to the pixel where
+ * another sample takes off the most squared error of the image for its cost, until the time of the round is spent.
+ * the error of a pixel is its variance over its amount of samples, so another sample of a pixel with n samples
+ * takes off the variance over n(n+1).
+ */
+class SampleAllocator {
+    /**
+     * variance added to every pixel in squared levels of brightness, so pixels whose few samples happen to be the same
+     * still get samples after the noisy pixels are done
+     */
+    private static final double MIN_VARIANCE = 1;
+
+    /**
+     * amount of pixel columns
+     */
+    private final int _nX;
+    /**
+     * index of the tile of every pixel, by row
+     */
+    private final int[] _tileOfPixel;
+    /**
+     * time of the samples of every tile so far in nanoseconds
+     */
+    private final long[] _time;
+    /**
+     * amount of samples of every tile so far
+     */
+    private final long[] _samples;
+    /**
+     * what another sample of every pixel takes off the error for its cost
+     */
+    private final double[] _priority;
+    /**
+     * the pixels as a heap with the highest priority first
+     */
+    private final int[] _heap;
+
+    //------------------ constructor ------------------
+
+    /**
+     * constructor for an allocator without any measured samples.
+     *
+     * @param tiles the tiles of the image
+     * @param nX    amount of pixel columns
+     * @param nY    amount of pixel rows
+     */
+    SampleAllocator(List<Tile> tiles, int nX, int nY) {
+        _nX = nX;
+        _tileOfPixel = new int[nX * nY];
+        _time = new long[tiles.size()];
+        _samples = new long[tiles.size()];
+        _priority = new double[nX * nY];
+        _heap = new int[nX * nY];
+        int index = 0;
+        for (Tile tile : tiles) {
+            for (int row = tile.get_y(); row < tile.get_y() + tile.get_height(); row++)
+                for (int col = tile.get_x(); col < tile.get_x() + tile.get_width(); col++)
+                    _tileOfPixel[row * nX + col] = index;
+            index++;
+        }
+    }
+
+    //------------------ functions ------------------
+
+    /**
+     * adds the time of samples rendered in a tile.
+     * every tile is added only by the thread rendering it, so the allocator is not locked.
+     *
+     * @param tile    the tile
+     * @param samples amount of samples
+     * @param time    time of the samples in nanoseconds
+     */
+    void addCost(Tile tile, int samples, long time) {
+        int index = _tileOfPixel[tile.get_y() * _nX + tile.get_x()];
+        _time[index] += time;
+        _samples[index] += samples;
+    }
+
+    /**
+     * estimates the time of another sample of a pixel - the average time of a sample in its tile.
+     *
+     * @param pixel index of the pixel, by row
+     * @return time in nanoseconds, at least 1
+     */
+    double getCost(int pixel) {
+        int index = _tileOfPixel[pixel];
+        if (_samples[index] == 0)
+            return 1;
+        return Math.max((double) _time[index] / _samples[index], 1);
+    }
+
+    /**
+     * decides the samples of the pixels for a round, in the order of what they take off the error for their cost.
+     *
+     * @param buffer     the samples of the pixels so far, every pixel must have at least 2
+     * @param budget     time of all the samples of the round together in nanoseconds
+     * @param maxSamples most samples of a pixel
+     * @param samples    receives the amount of samples of every pixel in the round, by row
+     * @return amount of samples in the round, 0 if no sample fits in the time
+     */
+    long allocate(SampleBuffer buffer, double budget, int maxSamples, int[] samples) {
+        int pixels = _heap.length;
+        for (int pixel = 0; pixel < pixels; pixel++) {
+            samples[pixel] = 0;
+            _priority[pixel] = priority(buffer, pixel, maxSamples, 0);
+            _heap[pixel] = pixel;
+        }
+        for (int i = pixels / 2 - 1; i >= 0; i--)
+            siftDown(i);
+        long allocated = 0;
+        while (true) {
+            int pixel = _heap[0];
+            double cost = getCost(pixel);
+            if (_priority[pixel] <= 0 || cost > budget) // all the pixels are done or the time is spent
+                break;
+            budget -= cost;
+            samples[pixel]++;
+            allocated++;
+            _priority[pixel] = priority(buffer, pixel, maxSamples, samples[pixel]);
+            siftDown(0);
+        }
+        return allocated;
+    }
+
+    /**
+     * calculates what another sample of a pixel takes off its squared error for the cost of the sample.
+     *
+     * @param buffer     the samples of the pixels so far
+     * @param pixel      index of the pixel, by row
+     * @param maxSamples most samples of a pixel
+     * @param allocated  samples of the pixel in the round so far
+     * @return the priority of the pixel, 0 if it has the most samples
+     */
+    private double priority(SampleBuffer buffer, int pixel, int maxSamples, int allocated) {
+        int col = pixel % _nX, row = pixel / _nX;
+        double n = buffer.getSamples(col, row) + allocated;
+        if (n >= maxSamples)
+            return 0;
+        return (buffer.getVariance(col, row) + MIN_VARIANCE) / (n * (n + 1)) / getCost(pixel);
+    }
+
+    /**
+     * moves a pixel of the heap down until the pixels under it have lower priorities.
+     *
+     * @param i index in the heap
+     */
+    private void siftDown(int i) {
+        int pixel = _heap[i];
+        double priority = _priority[pixel];
+        int half = _heap.length / 2;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < _heap.length && _priority[_heap[child + 1]] > _priority[_heap[child]])
+                child++;
+            if (_priority[_heap[child]] <= priority)
+                break;
+            _heap[i] = _heap[child];
+            i = child;
+        }
+        _heap[i] = pixel;
+    }
+}
@@ -0,0 +1,182 @@
+package renderer;
+
+import primitives.Color;
+
+/**
+ * class SampleBuffer adding up the colors of the samples of every pixel of the image over the passes of
+ * progressive rendering, in doubles and without clamping them, so the average of a pixel does not depend on
+ * the order or the amount of its samples.
+ * it also adds up the squares of the brightness of the samples, for estimating the noise of each pixel.
+ * every pixel is added only by the thread rendering its tile, so the buffer is not locked.
+ */
+class SampleBuffer {
+    /**
+     * the most brightness of a color that is seen in the image, brighter samples are counted as this for the noise
+     */
+    private static final double MAX_BRIGHTNESS = 255;
+
+    /**
+     * amount of pixel columns
+     */
+    private final int _nX;
+    /**
+     * sums of the red, green and blue of the samples of every pixel, by row
+     */
+    private final double[] _sums;
+    /**
+     * sums of the squares of the brightness of the samples of every pixel
+     */
+    private final double[] _squares;
+    /**
+     * sums of the brightness of the samples of every pixel
+     */
+    private final double[] _brightness;
+    /**
+     * amount of samples of every pixel
+     */
+    private final int[] _samples;
+
+    //------------------ constructor ------------------
+
+    /**
+     * constructor for an empty buffer.
+     *
+     * @param nX amount of pixel columns
+     * @param nY amount of pixel rows
+     */
+    SampleBuffer(int nX, int nY) {
+        _nX = nX;
+        _sums = new double[3 * nX * nY];
+        _squares = new double[nX * nY];
+        _brightness = new double[nX * nY];
+        _samples = new int[nX * nY];
+    }
+
+    //------------------ functions ------------------
+
+    /**
+     * adds the color of a sample to a pixel.
+     *
+     * @param col   column of the pixel
+     * @param row   row of the pixel
+     * @param color the color of the sample
+     */
+    void add(int col, int row, Color color) {
+        int pixel = row * _nX + col;
+        _sums[3 * pixel] += color.get_r();
+        _sums[3 * pixel + 1] += color.get_g();
+        _sums[3 * pixel + 2] += color.get_b();
+        double brightness = brightness(color);
+        _brightness[pixel] += brightness;
+        _squares[pixel] += brightness * brightness;
+        _samples[pixel]++;
+    }
+
+    /**
+     * gets the average color of the samples of a pixel.
+     *
+     * @param col column of the pixel
+     * @param row row of the pixel
+     * @return the average color, black if the pixel has no samples
+     */
+    Color getColor(int col, int row) {
+        int pixel = row * _nX + col;
+        int samples = _samples[pixel];
+        if (samples == 0)
+            return Color.BLACK;
+        return new Color(_sums[3 * pixel] / samples, _sums[3 * pixel + 1] / samples, _sums[3 * pixel + 2] / samples);
+    }
+
+    /**
+     * gets the sum of the colors of the samples of a pixel.
+     *
+     * @param col column of the pixel
+     * @param row row of the pixel
+     * @return the sum of the colors
+     */
+    Color getSum(int col, int row) {
+        int pixel = row * _nX + col;
+        return new Color(_sums[3 * pixel], _sums[3 * pixel + 1], _sums[3 * pixel + 2]);
+    }
+
+    /**
+     * gets the amount of samples of a pixel.
+     *
+     * @param col column of the pixel
+     * @param row row of the pixel
+     * @return amount of samples
+     */
+    int getSamples(int col, int row) {
+        return _samples[row * _nX + col];
+    }
+
+    /**
+     * estimates the noise of a pixel - the standard error of the average brightness of its samples.
+     *
+     * @param col column of the pixel
+     * @param row row of the pixel
+     * @return the standard error in levels of brightness (0 to 255), positive infinity with less then 2 samples
+     */
+    double getNoise(int col, int row) {
+        int samples = _samples[row * _nX + col];
+        if (samples < 2)
+            return Double.POSITIVE_INFINITY;
+        return Math.sqrt(getVariance(col, row) / samples);
+    }
+
+    /**
+     * estimates the variance of the brightness of the samples of a pixel.
+     *
+     * @param col column of the pixel
+     * @param row row of the pixel
+     * @return the variance in squared levels of brightness, positive infinity with less then 2 samples
+     */
+    double getVariance(int col, int row) {
+        int pixel = row * _nX + col;
+        int samples = _samples[pixel];
+        if (samples < 2)
+            return Double.POSITIVE_INFINITY;
+        double sum = _brightness[pixel];
+        return Math.max((_squares[pixel] - sum * sum / samples) / (samples - 1), 0);
+    }
+
+    /**
+     * gets the average amount of samples of the pixels.
+     *
+     * @return amount of samples per pixel
+     */
+    double getSamplesPerPixel() {
+        long sum = 0;
+        for (int samples : _samples)
+            sum += samples;
+        return (double) sum / _samples.length;
+    }
+
+    /**
+     * estimates the noise of the image - the root mean square of the noise of the pixels.
+     *
+     * @return the noise in levels of brightness (0 to 255), positive infinity if a pixel has less then 2 samples
+     */
+    double getNoise() {
+        double sum = 0;
+        int nY = _samples.length / _nX;
+        for (int row = 0; row < nY; row++)
+            for (int col = 0; col < _nX; col++) {
+                double noise = getNoise(col, row);
+                sum += noise * noise;
+            }
+        return Math.sqrt(sum / _samples.length);
+    }
+
+    /**
+     * calculates the brightness of a color as it is seen in the image, with every part limited to 255.
+     *
+     * @param color the color
+     * @return the brightness, 0 to 255
+     */
+    private static double brightness(Color color) {
+        return 0.2126 * Math.min(color.get_r(), MAX_BRIGHTNESS)
+                + 0.7152 * Math.min(color.get_g(), MAX_BRIGHTNESS)
+                + 0.0722 * Math.min(color.get_b(), MAX_BRIGHTNESS);
+    }
+}
@@ -0,0 +1,142 @@
+package renderer;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Image writer that does not hold the image in the memory, but writes every pixel or tile to a binary PPM file
+ * as soon as it is rendered.
+ * every pixel has a fixed place in the file, so tiles can be written in any order by many threads,
+ * the memory used does not depend on the size of the image,
+ * and other programs can read the tiles that were reported as rendered while the rest is still rendering.
+ */
+public class StreamingImageWriter extends ImageWriter implements AutoCloseable {
+    /**
+     * amount of bytes of every pixel in the file - red, green and blue
+     */
+    private static final int PIXEL_BYTES = 3;
+    /**
+     * the file of the image
+     */
+    private final FileChannel _channel;
+    /**
+     * position of the first pixel in the file, after the header
+     */
+    private final long _dataStart;
+
+    // ***************** Constructors ********************** //
+
+    /**
+     * constructor for StreamingImageWriter, creates the file of the image in the images directory of the project
+     * with the full size of the image, black until the pixels are written.
+     * calls {@link renderer.ImageWriter#ImageWriter(String, double, double, int, int, java.awt.image.BufferedImage)}
+     * without an image.
+     *
+     * @param imageName the name of the ppm file
+     * @param width     View Plane width in size units
+     * @param height    View Plane height in size units
+     * @param nX        amount of pixels by Width
+     * @param nY        amount of pixels by height
+     * @throws IOException In case the file could not be created
+     */
+    public StreamingImageWriter(String imageName, double width, double height, int nX, int nY) throws IOException {
+        super(imageName, width, height, nX, nY, null);
+        _channel = FileChannel.open(getImageFile("ppm").toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        byte[] header = ("P6\n" + nX + " " + nY + "\n255\n").getBytes();
+        _dataStart = header.length;
+        write(ByteBuffer.wrap(header), 0);
+        long size = _dataStart + (long) nX * nY * PIXEL_BYTES;
+        if (size > _dataStart)
+            write(ByteBuffer.wrap(new byte[1]), size - 1); // give the file its full size
+    }
+
+    // ***************** Operations ******************** //
+
+    /**
+     * makes sure all the pixels are in the file and closes it.
+     * calls {@link renderer.StreamingImageWriter#close()}.
+     */
+    @Override
+    public void writeToImage() {
+        try {
+            close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void writePixel(int xIndex, int yIndex, Color color) {
+        ByteBuffer buffer = ByteBuffer.allocate(PIXEL_BYTES);
+        putColor(buffer, color.getRGB());
+        write(buffer.flip(), position(xIndex, yIndex));
+    }
+
+    @Override
+    public void writeTile(Tile tile, int[] rgb) {
+        int width = tile.get_width();
+        ByteBuffer buffer = ByteBuffer.allocate(width * tile.get_height() * PIXEL_BYTES);
+        for (int color : rgb)
+            putColor(buffer, color);
+        for (int row = 0; row < tile.get_height(); row++) { // every row of the tile is in another place in the file
+            buffer.limit((row + 1) * width * PIXEL_BYTES).position(row * width * PIXEL_BYTES);
+            write(buffer, position(tile.get_x(), tile.get_y() + row));
+        }
+    }
+
+    /**
+     * makes sure all the pixels are in the file and closes it.
+     *
+     * @throws IOException In case writing to the file failed
+     */
+    @Override
+    public void close() throws IOException {
+        if (_channel.isOpen()) {
+            _channel.force(false);
+            _channel.close();
+        }
+    }
+
+    /**
+     * calculates the position of a pixel in the file.
+     *
+     * @param xIndex X axis index of the pixel
+     * @param yIndex Y axis index of the pixel
+     * @return the position of the pixel
+     */
+    private long position(int xIndex, int yIndex) {
+        return _dataStart + ((long) yIndex * getNx() + xIndex) * PIXEL_BYTES;
+    }
+
+    /**
+     * puts the red, green and blue bytes of a color in a buffer.
+     *
+     * @param buffer the buffer
+     * @param rgb    the color in the format of {@link Color#getRGB()}
+     */
+    private static void putColor(ByteBuffer buffer, int rgb) {
+        buffer.put((byte) (rgb >> 16)).put((byte) (rgb >> 8)).put((byte) rgb);
+    }
+
+    /**
+     * writes the remaining bytes of a buffer to the file, without changing the position of the file,
+     * so many threads can write at the same time.
+     *
+     * @param buffer   the bytes
+     * @param position position in the file to write the bytes at
+     * @throws UncheckedIOException In case writing to the file failed
+     */
+    private void write(ByteBuffer buffer, long position) {
+        try {
+            while (buffer.hasRemaining())
+                position += _channel.write(buffer, position);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package renderer;
+
+/**
+ * class Tile representing a rectangle of pixels of the image that is rendered by one thread as one piece of work.
+ */
+public class Tile {
+    /**
+     * column of the top left pixel of the tile
+     */
+    private final int _x;
+    /**
+     * row of the top left pixel of the tile
+     */
+    private final int _y;
+    /**
+     * amount of pixel columns in the tile
+     */
+    private final int _width;
+    /**
+     * amount of pixel rows in the tile
+     */
+    private final int _height;
+
+    //------------------ constructor ------------------
+
+    /**
+     * constructor for Tile receiving its top left pixel and its size.
+     *
+     * @param x      column of the top left pixel
+     * @param y      row of the top left pixel
+     * @param width  amount of pixel columns
+     * @param height amount of pixel rows
+     */
+    public Tile(int x, int y, int width, int height) {
+        _x = x;
+        _y = y;
+        _width = width;
+        _height = height;
+    }
+
+    //------------------ getters ------------------
+
+    /**
+     * column of the top left pixel getter.
+     *
+     * @return the column of the top left pixel
+     */
+    public int get_x() {
+        return _x;
+    }
+
+    /**
+     * row of the top left pixel getter.
+     *
+     * @return the row of the top left pixel
+     */
+    public int get_y() {
+        return _y;
+    }
+
+    /**
+     * width getter.
+     *
+     * @return amount of pixel columns in the tile
+     */
+    public int get_width() {
+        return _width;
+    }
+
+    /**
+     * height getter.
+     *
+     * @return amount of pixel rows in the tile
+     */
+    public int get_height() {
+        return _height;
+    }
+
+    /**
+     * gets the amount of pixels in the tile.
+     *
+     * @return amount of pixels
+     */
+    public int getPixels() {
+        return _width * _height;
+    }
+
+    //******************** Admin ****************
+
+    @Override
+    public String toString() {
+        return "tile (" + _x + "," + _y + ") " + _width + "x" + _height;
+    }
+}
@@ -0,0 +1,240 @@
+package renderer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * class TileScheduler splitting the image into tiles and rendering them on a work stealing pool.
+ * the tiles are ordered along a curve so tiles that are next to each other in the list are close in the image,
+ * and every thread works on a range of the list so its rays keep hitting the same geometries.
+ * the pool is kept for all the passes of an image, so its threads keep their counters, and is stopped when the
+ * scheduler is closed.
+ */
+class TileScheduler implements AutoCloseable {
+    /**
+     * the tiles in the order they are rendered
+     */
+    private final List<Tile> _tiles;
+    /**
+     * the pool of threads, created by the first run
+     */
+    private ForkJoinPool _pool;
+    /**
+     * set when a tile failed, so the threads do not start other tiles
+     */
+    private volatile boolean _cancelled;
+
+    //------------------ constructor ------------------
+
+    /**
+     * constructor for the scheduler that splits the image into tiles and orders them.
+     *
+     * @param nX       amount of pixel columns in the image
+     * @param nY       amount of pixel rows in the image
+     * @param tileSize width and height of a tile, the tiles at the right and bottom edges may be smaller
+     * @param order    the order of the tiles
+     */
+    TileScheduler(int nX, int nY, int tileSize, Render.TileOrder order) {
+        int tilesX = (nX + tileSize - 1) / tileSize;
+        int tilesY = (nY + tileSize - 1) / tileSize;
+        // side of the curve - the smallest power of 2 that covers all the tiles
+        int side = Integer.highestOneBit(Math.max(Math.max(tilesX, tilesY) - 1, 1)) << 1;
+        List<long[]> keys = new ArrayList<>(tilesX * tilesY); // index on the curve and index of the tile
+        for (int ty = 0; ty < tilesY; ty++)
+            for (int tx = 0; tx < tilesX; tx++) {
+                long key;
+                switch (order) {
+                    case MORTON:
+                        key = mortonIndex(tx, ty);
+                        break;
+                    case HILBERT:
+                        key = hilbertIndex(side, tx, ty);
+                        break;
+                    default:
+                        key = ty * (long) tilesX + tx;
+                }
+                keys.add(new long[]{key, ty * (long) tilesX + tx});
+            }
+        keys.sort(Comparator.comparingLong(key -> key[0]));
+        _tiles = new ArrayList<>(keys.size());
+        for (long[] key : keys) {
+            int tx = (int) (key[1] % tilesX);
+            int ty = (int) (key[1] / tilesX);
+            int x = tx * tileSize;
+            int y = ty * tileSize;
+            _tiles.add(new Tile(x, y, Math.min(tileSize, nX - x), Math.min(tileSize, nY - y)));
+        }
+    }
+
+    //------------------ getters ------------------
+
+    /**
+     * getter for the tiles.
+     *
+     * @return the tiles in the order they are rendered
+     */
+    List<Tile> getTiles() {
+        return _tiles;
+    }
+
+    //------------------ functions ------------------
+
+    /**
+     * renders all the tiles on the pool of threads and waits for them to finish.
+     * the list of tiles is split in halves until a single tile is left, and idle threads steal halves
+     * from busy ones, so each thread works on tiles that are close to each other.
+     * if a tile fails the other threads finish the tiles they are rendering and start no other tiles,
+     * and the pool is stopped before the exception is thrown, so no thread writes to the image after it.
+     *
+     * @param threads amount of threads, used when the pool is created by the first run
+     * @param action  renders a tile
+     * @throws RuntimeException      the first exception thrown while rendering a tile
+     * @throws IllegalStateException In case the scheduler was closed
+     */
+    void run(int threads, Consumer<Tile> action) {
+        if (_cancelled)
+            throw new IllegalStateException("the scheduler was closed");
+        if (_tiles.isEmpty())
+            return;
+        if (_pool == null)
+            _pool = new ForkJoinPool(threads);
+        try {
+            _pool.invoke(new TileRange(action, 0, _tiles.size()));
+        } catch (RuntimeException | Error e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * stops the pool of threads and waits for the tiles they are rendering to finish.
+     */
+    @Override
+    public void close() {
+        _cancelled = true;
+        if (_pool == null)
+            return;
+        _pool.shutdown();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (_pool.awaitTermination(1, TimeUnit.SECONDS))
+                    break;
+            } catch (InterruptedException e) { // keep waiting, the threads may still write to the image
+                interrupted = true;
+            }
+        }
+        _pool = null;
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    /**
+     * calculates the index of a tile along the Morton (Z order) curve by interleaving the bits of its indexes.
+     *
+     * @param x column of the tile
+     * @param y row of the tile
+     * @return index on the curve
+     */
+    static long mortonIndex(int x, int y) {
+        return spreadBits(x) | (spreadBits(y) << 1);
+    }
+
+    /**
+     * calculates the index of a tile along the Hilbert curve,
+     * where each tile on the curve is next to the tile before it.
+     *
+     * @param side side of the square the curve covers, a power of 2
+     * @param x    column of the tile
+     * @param y    row of the tile
+     * @return index on the curve
+     */
+    static long hilbertIndex(int side, int x, int y) {
+        long index = 0;
+        for (int s = side / 2; s > 0; s /= 2) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            index += (long) s * s * ((3 * rx) ^ ry);
+            if (ry == 0) { // rotate the quadrant so the curve continues from the last one
+                if (rx == 1) {
+                    x = side - 1 - x;
+                    y = side - 1 - y;
+                }
+                int temp = x;
+                x = y;
+                y = temp;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * spreads the lower 32 bits of a number to the even bits of the result.
+     *
+     * @param value the number
+     * @return the spread bits
+     */
+    private static long spreadBits(int value) {
+        long bits = value & 0xFFFFFFFFL;
+        bits = (bits | (bits << 16)) & 0x0000FFFF0000FFFFL;
+        bits = (bits | (bits << 8)) & 0x00FF00FF00FF00FFL;
+        bits = (bits | (bits << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        bits = (bits | (bits << 2)) & 0x3333333333333333L;
+        bits = (bits | (bits << 1)) & 0x5555555555555555L;
+        return bits;
+    }
+
+    /**
+     * task rendering a range of the tiles, splitting it in halves so other threads can steal one of them.
+     */
+    @SuppressWarnings("serial")
+    private class TileRange extends RecursiveAction {
+        /**
+         * renders a tile
+         */
+        private final Consumer<Tile> _action;
+        /**
+         * index of the first tile of the range
+         */
+        private final int _start;
+        /**
+         * index after the last tile of the range
+         */
+        private final int _end;
+
+        /**
+         * constructor for the task of a range of tiles.
+         *
+         * @param action renders a tile
+         * @param start  index of the first tile
+         * @param end    index after the last tile
+         */
+        TileRange(Consumer<Tile> action, int start, int end) {
+            _action = action;
+            _start = start;
+            _end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (_cancelled) // another tile failed
+                return;
+            if (_end - _start == 1) {
+                try {
+                    _action.accept(_tiles.get(_start));
+                } catch (RuntimeException | Error e) {
+                    _cancelled = true;
+                    throw e;
+                }
+                return;
+            }
+            int middle = (_start + _end) >>> 1;
+            invokeAll(new TileRange(_action, _start, middle), new TileRange(_action, middle, _end));
+        }
+    }
+}
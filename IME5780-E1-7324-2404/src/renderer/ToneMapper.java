@@ -0,0 +1,31 @@
+package renderer;
+
+/**
+ * interface ToneMapper for the curves that bring the linear colors of a high dynamic range image to the range
+ * of the screen. a tone mapper works on every part of the color alone, as a value where 1 is the brightest
+ * part of a color that is seen without tone mapping (255), and the gamma of the image is applied after it.
+ */
+@FunctionalInterface
+public interface ToneMapper {
+    /**
+     * cuts the values above 1, as the colors of the image are written without tone mapping
+     */
+    ToneMapper CLAMP = value -> Math.min(value, 1);
+    /**
+     * Reinhard curve - value / (1 + value), brings every value below 1 and keeps the details of the bright parts
+     */
+    ToneMapper REINHARD = value -> value / (1 + value);
+    /**
+     * fitted curve of the ACES filmic tone mapping (Narkowicz), with more contrast in the dark parts
+     * and a soft roll off of the bright parts
+     */
+    ToneMapper ACES = value -> Math.min(value * (2.51 * value + 0.03) / (value * (2.43 * value + 0.59) + 0.14), 1);
+
+    /**
+     * maps a part of a linear color to the range of the screen.
+     *
+     * @param value the linear value, not negative, 1 for the brightest part of a color without tone mapping
+     * @return the mapped value, 0 to 1
+     */
+    double map(double value);
+}
@@ -3,6 +3,7 @@ package scene;
 import elements.AmbientLight;
 import elements.Camera;
 import elements.LightSource;
+import geometries.BvhStatistics;
 import geometries.Geometries;
 import geometries.Intersectable;
 import primitives.Color;
@@ -45,6 +46,10 @@ public class Scene {
      * the distance from camera to simulated screen
      */
     private double _distance;
+    /**
+     * statistics of the last bvh tree built, null if no tree was built
+     */
+    private BvhStatistics _bvhStatistics;
 
     //--------------- constructor ------------
 
@@ -126,6 +131,15 @@ public class Scene {
         return _distance;
     }
 
+    /**
+     * getter for the statistics of the last bvh tree built for the Scene.
+     *
+     * @return the statistics, null if no tree was built
+     */
+    public BvhStatistics get_bvhStatistics() {
+        return _bvhStatistics;
+    }
+
 //---------------- setters ------------------
 
     /**
@@ -163,6 +177,16 @@ public class Scene {
     public void set_distance(double _distance) {
         this._distance = _distance;
     }
+
+    /**
+     * setter for the statistics of the bvh tree of the Scene, for a tree that was not built by
+     * {@link #build_bvhTree(Geometries.BvhType)}, such as a tree read back from a cache file.
+     *
+     * @param _bvhStatistics the statistics of the tree
+     */
+    public void set_bvhStatistics(BvhStatistics _bvhStatistics) {
+        this._bvhStatistics = _bvhStatistics;
+    }
 // ----------- functions -----------
 
     /**
@@ -187,10 +211,23 @@ public class Scene {
 
     /**
      * builds the bvh tree by calling {@link Geometries#bvhTree()}.
+     *
+     * @return statistics of the tree built
+     */
+    public BvhStatistics build_bvhTree()
+    {
+        return _bvhStatistics = _geometries.bvhTree();
+    }
+
+    /**
+     * builds the bvh tree by calling {@link Geometries#bvhTree(Geometries.BvhType)}.
+     *
+     * @param type the algorithm for building the tree
+     * @return statistics of the tree built
      */
-    public void build_bvhTree()
+    public BvhStatistics build_bvhTree(Geometries.BvhType type)
     {
-        _geometries.bvhTree();
+        return _bvhStatistics = _geometries.bvhTree(type);
     }
 }
 
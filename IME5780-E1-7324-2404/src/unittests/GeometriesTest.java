@@ -2,6 +2,8 @@ package unittests;
 
 import geometries.*;
 import org.junit.Test;
+import primitives.Color;
+import primitives.Material;
 import primitives.Point3D;
 import primitives.Ray;
 import primitives.Vector;
@@ -128,4 +130,358 @@ public class GeometriesTest {
         assertEquals("Wrong Geometries findIntersections when Ray crosses all of the elements in the group", 5,
                 geometries.findIntersections(new Ray(new Point3D(7, 1.3, 2), new Vector(-7.5, -0.8, -2))).size());
     }
-}
\ No newline at end of file
+
+    /**
+     * creates the scene the trees are tested on - a row of 20 spheres on the x axis with a triangle next to each,
+     * and a plane beside the row.
+     *
+     * @return the geometries, without a tree
+     */
+    private static Geometries rowScene() {
+        Geometries geometries = new Geometries();
+        for (int i = 0; i < 20; i++)
+            geometries.add(new Sphere(1d, new Point3D(3 * i, 0, 0)),
+                    new Triangle(new Point3D(3 * i, 2, -1), new Point3D(3 * i + 1, 2, 1), new Point3D(3 * i - 1, 2, 1)));
+        geometries.add(new Plane(new Point3D(0, 5, 0), new Vector(0, 1, 0)));
+        return geometries;
+    }
+
+    /**
+     * checks that a tree over the scene of {@link #rowScene()} finds the same intersections as the list
+     * and holds all the geometries.
+     *
+     * @param geometries the scene with its tree built
+     * @param statistics the statistics of building the tree
+     */
+    private static void assertRowScene(Geometries geometries, BvhStatistics statistics) {
+        Geometries.BvhType type = statistics.get_type();
+        assertEquals("Wrong " + type + " intersections through one sphere, one triangle and the plane",
+                4, geometries.findIntersections(new Ray(new Point3D(30, -5, 0), new Vector(0, 1, 0))).size());
+        Ray ray = new Ray(new Point3D(-5, 0, 0), new Vector(1, 0, 0));
+        assertEquals("Wrong " + type + " intersections through all spheres", 40,
+                geometries.findIntersections(ray).size());
+        assertEquals("Wrong " + type + " closest intersection", new Point3D(-1, 0, 0),
+                geometries.findClosestIntersection(ray, Double.POSITIVE_INFINITY).point);
+        assertEquals("Wrong amount of leaves in " + type, 41, statistics.get_leaves());
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#bvhTree(Geometries.BvhType)}.
+     */
+    @Test
+    public void testBvhTreeSAH() {
+        Geometries geometries = rowScene();
+        Ray ray = new Ray(new Point3D(30, -5, 0), new Vector(0, 1, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the tree finds the same intersections as the list and holds all the geometries
+        BvhStatistics statistics = geometries.bvhTree(Geometries.BvhType.SAH);
+        assertRowScene(geometries, statistics);
+        // TC02: the tree saves visiting nodes
+        assertTrue("SAH tree does not save visiting nodes",
+                statistics.averageNodesVisited(List.of(ray)) < statistics.get_nodes());
+
+        // =============== Boundary Values Tests ================
+        // TC11: tree of only infinite geometries
+        Geometries planes = new Geometries();
+        planes.add(new Plane(new Point3D(0, 5, 0), new Vector(0, 1, 0)));
+        planes.bvhTree(Geometries.BvhType.SAH);
+        assertEquals("Wrong SAH tree intersections with only infinite geometries", 1, planes.findIntersections(ray).size());
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#bvhTree(Geometries.BvhType)} with the trees built in parallel
+     * by the Morton codes.
+     */
+    @Test
+    public void testBvhTreeLbvh() {
+        for (Geometries.BvhType type : new Geometries.BvhType[]{Geometries.BvhType.LBVH, Geometries.BvhType.LBVH_SAH}) {
+            // ============ Equivalence Partitions Tests ==============
+            // TC01: the tree finds the same intersections as the list and holds all the geometries
+            Geometries geometries = rowScene();
+            BvhStatistics statistics = geometries.bvhTree(type);
+            assertRowScene(geometries, statistics);
+            assertEquals("Wrong type in statistics", type, statistics.get_type());
+            // TC02: many geometries are split between the tasks and the tree finds the closest of them
+            geometries = new Geometries();
+            for (int i = 0; i < 10000; i++)
+                geometries.add(new Sphere(0.3, new Point3D(i % 100, i / 100, 0)));
+            geometries.bvhTree(type);
+            assertEquals("Wrong " + type + " tree closest intersection among many geometries", new Point3D(30, 39.7, 0),
+                    geometries.findClosestIntersection(new Ray(new Point3D(30, 39.5, 0), new Vector(0, 1, 0)),
+                            Double.POSITIVE_INFINITY).point);
+
+            // =============== Boundary Values Tests ================
+            // TC11: geometries with the same mid point are kept together
+            geometries = new Geometries();
+            for (int i = 0; i < 10; i++)
+                geometries.add(new Sphere(i + 1d, new Point3D(0, 0, 0)));
+            statistics = geometries.bvhTree(type);
+            assertEquals("Wrong amount of leaves with the same mid point", 10, statistics.get_leaves());
+            assertEquals("Wrong " + type + " tree intersections with the same mid point",
+                    20, geometries.findIntersections(new Ray(new Point3D(-20, 0, 0), new Vector(1, 0, 0))).size());
+            // TC12: tree of a single geometry
+            geometries = new Geometries();
+            geometries.add(new Sphere(1d, new Point3D(0, 0, 0)));
+            geometries.bvhTree(type);
+            assertEquals("Wrong " + type + " tree intersections with a single geometry",
+                    2, geometries.findIntersections(new Ray(new Point3D(-5, 0, 0), new Vector(1, 0, 0))).size());
+        }
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#bvhTree(Geometries.BvhType)} with the intersectables put
+     * in the cells of a grid.
+     */
+    @Test
+    public void testBvhTreeGrid() {
+        for (Geometries.BvhType type : new Geometries.BvhType[]{Geometries.BvhType.GRID,
+                Geometries.BvhType.TWO_LEVEL_GRID}) {
+            // ============ Equivalence Partitions Tests ==============
+            // TC01: the grid finds the same intersections as the list and holds all the geometries
+            Geometries geometries = rowScene();
+            BvhStatistics statistics = geometries.bvhTree(type);
+            assertRowScene(geometries, statistics);
+            // TC02: a ray from inside the grid finds the closest intersection in a farther cell
+            assertEquals("Wrong " + type + " closest intersection from inside", new Point3D(32, 0, 0),
+                    geometries.findClosestIntersection(new Ray(new Point3D(31.5, 0, 0), new Vector(1, 0, 0)),
+                            Double.POSITIVE_INFINITY).point);
+            // TC03: a dense cluster among spread geometries, where the two level grid divides the dense cells
+            geometries = new Geometries();
+            for (int i = 0; i < 1000; i++)
+                geometries.add(new Sphere(0.01, new Point3D(i % 10 * 0.1, i / 10 % 10 * 0.1, i / 100 * 0.1)));
+            for (int i = 0; i < 100; i++)
+                geometries.add(new Sphere(1d, new Point3D(50 * (i % 10), 50 * (i / 10), 100)));
+            statistics = geometries.bvhTree(type);
+            assertEquals("Wrong " + type + " closest intersection in the dense cluster", new Point3D(0.5, 0.5, -0.01),
+                    geometries.findClosestIntersection(new Ray(new Point3D(0.5, 0.5, -5), new Vector(0, 0, 1)),
+                            Double.POSITIVE_INFINITY).point);
+            assertEquals("Wrong " + type + " closest intersection behind the dense cluster", new Point3D(450, 450, 99),
+                    geometries.findClosestIntersection(new Ray(new Point3D(450, 450, -5), new Vector(0, 0, 1)),
+                            Double.POSITIVE_INFINITY).point);
+            assertEquals("Wrong depth of " + type, type == Geometries.BvhType.GRID ? 3 : 4, statistics.get_depth());
+
+            // =============== Boundary Values Tests ================
+            // TC11: a geometry in many cells is intersected once by a ray through all of them
+            geometries = new Geometries();
+            for (int i = 0; i < 20; i++)
+                geometries.add(new Sphere(0.5, new Point3D(3 * i, 10, 0)));
+            geometries.add(new Polygon(new Point3D(-1, -1, -1), new Point3D(60, -1, -1),
+                    new Point3D(60, 1, 1), new Point3D(-1, 1, 1)));
+            geometries.bvhTree(type);
+            assertEquals("Wrong " + type + " intersections with a geometry in many cells",
+                    1, geometries.findIntersections(new Ray(new Point3D(-5, 0.5, -0.5), new Vector(30, 0, 1))).size());
+            // TC12: the ray stops at its max distance before the geometries in farther cells
+            Ray ray3 = new Ray(new Point3D(-5, 10, 0), new Vector(1, 0, 0));
+            assertNull("Wrong " + type + " intersection after the max distance",
+                    geometries.findClosestIntersection(ray3, 4.4));
+            assertEquals("Wrong " + type + " closest intersection at the max distance", new Point3D(-0.5, 10, 0),
+                    geometries.findClosestIntersection(ray3, 4.5).point);
+            // TC13: grid of a single geometry
+            geometries = new Geometries();
+            geometries.add(new Sphere(1d, new Point3D(0, 0, 0)));
+            geometries.bvhTree(type);
+            assertEquals("Wrong " + type + " intersections with a single geometry",
+                    2, geometries.findIntersections(new Ray(new Point3D(-5, 0, 0), new Vector(1, 0, 0))).size());
+        }
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#insert(Intersectable)}
+     * and {@link geometries.Geometries#remove(Intersectable)}.
+     */
+    @Test
+    public void testInsertRemove() {
+        Ray ray1 = new Ray(new Point3D(-5, 0, 0), new Vector(1, 0, 0));
+        Ray ray2 = new Ray(new Point3D(300, 0, 0), new Vector(-1, 0, 0));
+        for (Geometries.BvhType type : new Geometries.BvhType[]{null, Geometries.BvhType.SAH,
+                Geometries.BvhType.FLAT_SAH, Geometries.BvhType.GRID}) {
+            Geometries geometries = new Geometries();
+            Sphere[] spheres = new Sphere[40];
+            for (int i = 0; i < spheres.length; i++) {
+                spheres[i] = new Sphere(1d, new Point3D(3 * i, 0, 0));
+                geometries.add(spheres[i]);
+            }
+            if (type != null)
+                geometries.bvhTree(type);
+
+            // ============ Equivalence Partitions Tests ==============
+            // TC01: inserted intersectable is found
+            Sphere far = new Sphere(1d, new Point3D(200, 0, 0));
+            geometries.insert(far);
+            assertEquals("Wrong closest intersection with inserted sphere in " + type, new Point3D(201, 0, 0),
+                    geometries.findClosestIntersection(ray2, Double.POSITIVE_INFINITY).point);
+            assertEquals("Wrong intersections with inserted sphere in " + type,
+                    82, geometries.findIntersections(ray1).size());
+            // TC02: removed intersectables are not found
+            assertTrue("Inserted sphere was not removed in " + type, geometries.remove(far));
+            assertTrue("Sphere was not removed in " + type, geometries.remove(spheres[0]));
+            assertEquals("Wrong closest intersection after removing in " + type, new Point3D(2, 0, 0),
+                    geometries.findClosestIntersection(ray1, Double.POSITIVE_INFINITY).point);
+            assertEquals("Wrong closest intersection after removing inserted sphere in " + type,
+                    new Point3D(118, 0, 0), geometries.findClosestIntersection(ray2, Double.POSITIVE_INFINITY).point);
+
+            // =============== Boundary Values Tests ================
+            // TC11: intersectable that is not in the tree is not removed
+            assertFalse("Removed sphere was removed again in " + type, geometries.remove(spheres[0]));
+            // TC12: infinite intersectable is inserted and removed next to the tree
+            Plane plane = new Plane(new Point3D(0, 5, 0), new Vector(0, 1, 0));
+            geometries.insert(plane);
+            Ray ray3 = new Ray(new Point3D(30, -5, 0), new Vector(0, 1, 0));
+            assertEquals("Wrong intersections with inserted plane in " + type,
+                    3, geometries.findIntersections(ray3).size());
+            assertTrue("Plane was not removed in " + type, geometries.remove(plane));
+            assertEquals("Wrong intersections after removing plane in " + type,
+                    2, geometries.findIntersections(ray3).size());
+            // TC13: removing all the intersectables leaves nothing to intersect
+            for (int i = 1; i < spheres.length; i++)
+                assertTrue("Sphere was not removed in " + type, geometries.remove(spheres[i]));
+            assertNull("Intersection after removing all in " + type,
+                    geometries.findClosestIntersection(ray1, Double.POSITIVE_INFINITY));
+        }
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#refit()}.
+     */
+    @Test
+    public void testRefit() {
+        TriangleMesh[] meshes = new TriangleMesh[30];
+        Geometries geometries = new Geometries();
+        for (int i = 0; i < meshes.length; i++) {
+            meshes[i] = new TriangleMesh(new double[]{i, 0, 0, i + 0.5, 0, 0, i, 0, 0.5}, new int[]{0, 1, 2});
+            geometries.add(meshes[i]);
+        }
+        geometries.bvhTree(Geometries.BvhType.FLAT_SAH);
+        Ray ray = new Ray(new Point3D(10.1, -5, 3.1), new Vector(0, 1, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: moved intersectable is found in its new place after the tree is refit
+        assertNull("Intersection before moving", geometries.findClosestIntersection(ray, Double.POSITIVE_INFINITY));
+        meshes[10].setVertices(new double[]{10, 0, 3, 10.5, 0, 3, 10, 0, 3.5}, null);
+        geometries.refit();
+        assertEquals("Wrong intersection after refit", new Point3D(10.1, 0, 3.1),
+                geometries.findClosestIntersection(ray, Double.POSITIVE_INFINITY).point);
+        // TC02: the tree is built again when the intersectables moved far from the others in their nodes
+        for (int i = 0; i < meshes.length; i += 2)
+            meshes[i].setVertices(new double[]{i, 100 * i, 0, i + 0.5, 100 * i, 0, i, 100 * i, 0.5}, null);
+        assertTrue("Tree was not built again", geometries.refit());
+
+        // =============== Boundary Values Tests ================
+        // TC11: the tree is not built again when nothing moved
+        assertFalse("Tree was built again without moving", geometries.refit());
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#findClosestIntersection(Ray, double)}
+     * with the tree flattened into arrays.
+     */
+    @Test
+    public void testFindClosestIntersection() {
+        Geometries geometries = new Geometries();
+        for (int i = 0; i < 20; i++)
+            geometries.add(new Sphere(1d, new Point3D(3 * i, 0, 0)));
+        geometries.add(new Plane(new Point3D(0, 5, 0), new Vector(0, 1, 0)));
+        Ray ray1 = new Ray(new Point3D(-5, 0, 0), new Vector(1, 0, 0));
+        Ray ray2 = new Ray(new Point3D(70, 0, 0), new Vector(-1, 0, 0));
+        Ray ray3 = new Ray(new Point3D(30, -5, 0), new Vector(0, 1, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: closest point without a tree
+        assertEquals("Wrong closest intersection without a tree",
+                new Point3D(-1, 0, 0), geometries.findClosestIntersection(ray1, Double.POSITIVE_INFINITY).point);
+
+        geometries.bvhTree(Geometries.BvhType.FLAT_SAH);
+        // TC02: closest point in the flat tree from both sides
+        assertEquals("Wrong closest intersection in flat tree",
+                new Point3D(-1, 0, 0), geometries.findClosestIntersection(ray1, Double.POSITIVE_INFINITY).point);
+        assertEquals("Wrong closest intersection in flat tree from the other side",
+                new Point3D(58, 0, 0), geometries.findClosestIntersection(ray2, Double.POSITIVE_INFINITY).point);
+        // TC03: flat tree finds all intersections
+        assertEquals("Wrong flat tree intersections", 40, geometries.findIntersections(ray1).size());
+
+        // =============== Boundary Values Tests ================
+        // TC11: closest point is further then max distance
+        assertNull("Wrong closest intersection beyond max distance", geometries.findClosestIntersection(ray1, 3));
+        // TC12: ray crosses the flat tree and the infinite geometry next to it
+        assertEquals("Wrong closest intersection when crossing the plane next to the flat tree",
+                new Point3D(30, -1, 0), geometries.findClosestIntersection(ray3, Double.POSITIVE_INFINITY).point);
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#isOccluded(Ray, double)}
+     * and {@link geometries.Geometries#transmittance(Ray, double, double)}.
+     */
+    @Test
+    public void testOcclusion() {
+        Sphere transparent1 = new Sphere(new Material(0, 0, 0, 0.5, 0), Color.BLACK, 1, new Point3D(0, 0, 0));
+        Sphere transparent2 = new Sphere(new Material(0, 0, 0, 0.5, 0), Color.BLACK, 1, new Point3D(3, 0, 0));
+        Sphere opaque = new Sphere(new Material(0, 0, 0, 0, 0), Color.BLACK, 1, new Point3D(6, 0, 0));
+        Geometries geometries = new Geometries(transparent1, transparent2, opaque);
+        Ray ray = new Ray(new Point3D(-5, 0, 0), new Vector(1, 0, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: ray crosses only transparent objects before max distance
+        assertFalse("Wrong occlusion by transparent objects", geometries.isOccluded(ray, 9.5));
+        assertEquals("Wrong transmittance through transparent objects",
+                0.0625, geometries.transmittance(ray, 9.5, 0.0001), 0.00001);
+        // TC02: ray crosses an opaque object
+        assertTrue("Wrong occlusion by opaque object", geometries.isOccluded(ray, 20));
+        assertEquals("Wrong transmittance through opaque object", 0, geometries.transmittance(ray, 20, 0.0001), 0.00001);
+        // TC03: same results in a flat tree
+        geometries = new Geometries();
+        geometries.add(transparent1, transparent2, opaque);
+        geometries.bvhTree(Geometries.BvhType.FLAT_SAH);
+        assertFalse("Wrong occlusion by transparent objects in flat tree", geometries.isOccluded(ray, 9.5));
+        assertTrue("Wrong occlusion by opaque object in flat tree", geometries.isOccluded(ray, 20));
+        assertEquals("Wrong transmittance through transparent objects in flat tree",
+                0.0625, geometries.transmittance(ray, 9.5, 0.0001), 0.00001);
+
+        // =============== Boundary Values Tests ================
+        // TC11: transmittance stops when the light left is insignificant
+        assertTrue("Wrong transmittance under the min value",
+                geometries.transmittance(ray, 9.5, 0.3) < 0.3);
+    }
+
+    /**
+     * Test method for {@link geometries.Intersectable.Box#enterBox(Ray, double)}.
+     */
+    @Test
+    public void testEnterBox() {
+        Intersectable.Box box = new Intersectable.Box(new Point3D(1, 1, 1), new Point3D(2, 2, 2));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: ray enters the box in front of its head
+        assertEquals("wrong distance into the box", 1,
+                box.enterBox(new Ray(new Point3D(0, 1.5, 1.5), new Vector(1, 0, 0)), Double.POSITIVE_INFINITY), 1e-10);
+        // TC02: the line of the ray crosses the box behind its head
+        assertEquals("box behind the ray was entered", Double.POSITIVE_INFINITY,
+                box.enterBox(new Ray(new Point3D(3, 1.5, 1.5), new Vector(1, 0, 0)), Double.POSITIVE_INFINITY), 0);
+        // TC03: the box is after the max distance
+        assertEquals("box after the max distance was entered", Double.POSITIVE_INFINITY,
+                box.enterBox(new Ray(new Point3D(0, 1.5, 1.5), new Vector(1, 0, 0)), 0.5), 0);
+        // TC04: ray misses the box
+        assertEquals("missed box was entered", Double.POSITIVE_INFINITY,
+                box.enterBox(new Ray(new Point3D(0, 0, 0), new Vector(1, -1, 0)), Double.POSITIVE_INFINITY), 0);
+
+        // =============== Boundary Values Tests ==================
+        // TC11: head of the ray inside the box
+        assertEquals("box around the head of the ray was not entered at once", 0,
+                box.enterBox(new Ray(new Point3D(1.5, 1.5, 1.5), new Vector(-1, 2, 3)), 0.1), 0);
+        // TC12: ray parallel to an axis outside the slab of the axis
+        assertEquals("box was entered by a parallel ray outside it", Double.POSITIVE_INFINITY,
+                box.enterBox(new Ray(new Point3D(0, 3, 1.5), new Vector(1, 0, 0)), Double.POSITIVE_INFINITY), 0);
+        // TC13: ray parallel to an axis on the side of the box
+        assertEquals("box was not entered by a ray along its side", 1,
+                box.enterBox(new Ray(new Point3D(0, 2, 1.5), new Vector(1, 0, 0)), Double.POSITIVE_INFINITY), 1e-10);
+        // TC14: direction of negative zero on an axis inside the slab
+        assertEquals("box was not entered by a ray of negative zero direction", 1,
+                box.enterBox(new Ray(new Point3D(1.5, 0, 1.5), new Vector(-0.0, 1, 0)), Double.POSITIVE_INFINITY),
+                1e-10);
+        // TC15: flat box of a polygon in a plane of an axis
+        Intersectable.Box flat = new Intersectable.Box(new Point3D(0, 0, 0), new Point3D(1, 0, 1));
+        assertEquals("flat box was not entered", 1,
+                flat.enterBox(new Ray(new Point3D(0.5, -1, 0.5), new Vector(0, 1, 0)), Double.POSITIVE_INFINITY),
+                1e-10);
+    }
+}
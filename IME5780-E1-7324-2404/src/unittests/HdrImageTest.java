@@ -0,0 +1,188 @@
+package unittests;
+
+import org.junit.Test;
+import primitives.Color;
+import renderer.HdrImage;
+import renderer.ImageWriter;
+import renderer.Tile;
+import renderer.ToneMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+/**
+ * test class for renderer.HdrImage.
+ */
+public class HdrImageTest {
+    /**
+     * creates an image writer of 4x2 pixels that keeps the colors of the pixels in an array instead of an image.
+     *
+     * @param pixels the colors of the pixels, by row
+     * @return the image writer
+     */
+    private ImageWriter pixelsWriter(int[] pixels) {
+        return new ImageWriter("hdr test", 4, 2, 4, 2) {
+            @Override
+            public void writeTile(Tile tile, int[] rgb) {
+                for (int row = 0; row < tile.get_height(); row++)
+                    System.arraycopy(rgb, row * tile.get_width(), pixels,
+                            (tile.get_y() + row) * 4 + tile.get_x(), tile.get_width());
+            }
+        };
+    }
+
+    /**
+     * creates a temporary file that is deleted when the tests end.
+     *
+     * @param extension the extension of the file
+     * @return the file
+     * @throws IOException In case the file could not be created
+     */
+    private Path tempFile(String extension) throws IOException {
+        Path file = Files.createTempFile("hdr", "." + extension);
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    /**
+     * Test method for {@link renderer.HdrImage#merge(HdrImage)}.
+     */
+    @Test
+    public void testMerge() {
+        HdrImage image = new HdrImage(4, 2);
+        HdrImage other = new HdrImage(4, 2);
+        image.addSample(1, 1, new Color(600, 30, 0));
+        other.addSample(1, 1, new Color(0, 60, 0));
+        other.addSample(1, 1, new Color(300, 0, 90));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the pixel is the average of the samples of both images, without the limit of 255
+        image.merge(other);
+        assertEquals("wrong amount of samples", 3, image.getSamples(1, 1));
+        Color color = image.getColor(1, 1);
+        assertEquals("wrong average red", 300, color.get_r(), 1e-4);
+        assertEquals("wrong average green", 30, color.get_g(), 1e-4);
+        assertEquals("wrong average blue", 30, color.get_b(), 1e-4);
+
+        // =============== Boundary Values Tests ==================
+        // TC11: pixel without samples is black
+        assertEquals("wrong amount of samples", 0, image.getSamples(0, 0));
+        assertEquals("pixel without samples is not black", 0, image.getColor(0, 0).get_r(), 0);
+        // TC12: images of other sizes are not merged
+        try {
+            image.merge(new HdrImage(2, 4));
+            fail("images of other sizes were merged");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    /**
+     * Test method for {@link renderer.HdrImage#writeTo(ImageWriter, ToneMapper, double, double)}.
+     */
+    @Test
+    public void testWriteTo() {
+        HdrImage image = new HdrImage(4, 2);
+        image.setTile(new Tile(0, 0, 2, 1), new Color[]{new Color(100, 50, 25), new Color(510, 255, 0)});
+        int[] pixels = new int[8];
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: clamp without exposure and gamma keeps the colors as they were rendered
+        image.writeTo(pixelsWriter(pixels), ToneMapper.CLAMP, 1, 1);
+        assertEquals("wrong color", new java.awt.Color(100, 50, 25).getRGB(), pixels[0]);
+        assertEquals("wrong color", new java.awt.Color(255, 255, 0).getRGB(), pixels[1]);
+        // TC02: exposure multiplies the linear colors before tone mapping
+        image.writeTo(pixelsWriter(pixels), ToneMapper.CLAMP, 2, 1);
+        assertEquals("wrong color with exposure", new java.awt.Color(200, 100, 50).getRGB(), pixels[0]);
+        // TC03: Reinhard brings the bright colors below white
+        image.writeTo(pixelsWriter(pixels), ToneMapper.REINHARD, 1, 1);
+        assertEquals("wrong color with Reinhard", new java.awt.Color(170, 128, 0).getRGB(), pixels[1]);
+        // TC04: gamma is applied after the tone mapping
+        image.writeTo(pixelsWriter(pixels), ToneMapper.REINHARD, 1, 2);
+        assertEquals("wrong color with gamma", new java.awt.Color(208, 180, 0).getRGB(), pixels[1]);
+        // TC05: ACES is dark for black, white for very bright colors and goes up between them
+        assertEquals("wrong ACES of black", 0, ToneMapper.ACES.map(0), 0.001);
+        assertEquals("wrong ACES of a bright color", 1, ToneMapper.ACES.map(100), 0.001);
+        assertTrue("ACES does not go up", ToneMapper.ACES.map(0.5) < ToneMapper.ACES.map(1));
+
+        // =============== Boundary Values Tests ==================
+        // TC11: pixel without samples is black
+        assertEquals("pixel without samples is not black", java.awt.Color.BLACK.getRGB(), pixels[7]);
+        // TC12: no gamma and negative exposure are not allowed
+        try {
+            image.writeTo(pixelsWriter(pixels), ToneMapper.CLAMP, 1, 0);
+            fail("gamma 0 was allowed");
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            image.writeTo(pixelsWriter(pixels), ToneMapper.CLAMP, -1, 1);
+            fail("negative exposure was allowed");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    /**
+     * Test method for {@link renderer.HdrImage#writePfm(Path)}.
+     *
+     * @throws IOException In case writing or reading the file failed
+     */
+    @Test
+    public void testWritePfm() throws IOException {
+        HdrImage image = new HdrImage(4, 2);
+        image.addSample(0, 0, new Color(510, 255, 0));
+        image.addSample(3, 1, new Color(0, 0, 51));
+        Path file = tempFile("pfm");
+        image.writePfm(file);
+        byte[] bytes = Files.readAllBytes(file);
+        String header = "PF\n4 2\n-1.0\n";
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: header and linear colors in little endian floats, bottom row first
+        assertEquals("wrong header", header, new String(bytes, 0, header.length()));
+        assertEquals("wrong size of file", header.length() + 4 * 2 * 3 * 4, bytes.length);
+        ByteBuffer data = ByteBuffer.wrap(bytes, header.length(), bytes.length - header.length())
+                .order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals("wrong blue of the bottom right pixel", 0.2, data.getFloat(header.length() + (3 * 3 + 2) * 4), 1e-6);
+        assertEquals("wrong red of the top left pixel", 2, data.getFloat(header.length() + 4 * 3 * 4), 1e-6);
+        assertEquals("wrong green of the top left pixel", 1, data.getFloat(header.length() + (4 * 3 + 1) * 4), 1e-6);
+    }
+
+    /**
+     * Test method for {@link renderer.HdrImage#writeExr(Path)}.
+     *
+     * @throws IOException In case writing or reading the file failed
+     */
+    @Test
+    public void testWriteExr() throws IOException {
+        HdrImage image = new HdrImage(4, 2);
+        image.addSample(0, 0, new Color(510, 255, 0));
+        image.addSample(3, 1, new Color(0, 0, 51));
+        Path file = tempFile("exr");
+        image.writeExr(file);
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: magic number, version, and the offsets of the rows at the end of the header
+        assertEquals("wrong magic number", 20000630, data.getInt(0));
+        assertEquals("wrong version", 2, data.getInt(4));
+        int rowSize = 8 + 4 * 3 * 4;
+        long firstRow = data.capacity() - 2 * rowSize;
+        assertEquals("wrong offset of the first row", firstRow, data.getLong((int) firstRow - 16));
+        assertEquals("wrong offset of the second row", firstRow + rowSize, data.getLong((int) firstRow - 8));
+        assertEquals("header does not end before the offsets", 0, data.get((int) firstRow - 17));
+        // TC02: every row is its index, its size and the blue, green and red channels of its pixels
+        int row = (int) firstRow;
+        assertEquals("wrong index of the first row", 0, data.getInt(row));
+        assertEquals("wrong size of the row", 4 * 3 * 4, data.getInt(row + 4));
+        assertEquals("wrong blue of the top left pixel", 0, data.getFloat(row + 8), 1e-6);
+        assertEquals("wrong green of the top left pixel", 1, data.getFloat(row + 8 + 4 * 4), 1e-6);
+        assertEquals("wrong red of the top left pixel", 2, data.getFloat(row + 8 + 8 * 4), 1e-6);
+        row += rowSize;
+        assertEquals("wrong index of the second row", 1, data.getInt(row));
+        assertEquals("wrong blue of the bottom right pixel", 0.2, data.getFloat(row + 8 + 3 * 4), 1e-6);
+    }
+}
@@ -0,0 +1,162 @@
+package unittests;
+
+import geometries.*;
+import org.junit.Test;
+import primitives.*;
+
+import java.util.List;
+
+import static geometries.Intersectable.GeoPoint;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for geometries.Instance class
+ */
+public class InstanceTests {
+
+    /**
+     * Test method for {@link geometries.Instance#Instance(Intersectable, double...)}.
+     */
+    @Test
+    public void testConstructor() {
+        Sphere sphere = new Sphere(1, new Point3D(0, 0, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the box of the instance holds the moved object
+        Instance instance = new Instance(sphere, 2, 0, 0, 10, 0, 1, 0, 0, 0, 0, 1, 0);
+        assertNotNull("moved sphere was not hit",
+                instance.findClosestIntersection(new Ray(new Point3D(11.5, 0, -5), new Vector(0, 0, 1)),
+                        Double.POSITIVE_INFINITY));
+
+        // =============== Boundary Values Tests ==================
+        // TC11: null object
+        try {
+            new Instance(null);
+            fail("instance of null was created");
+        } catch (NullPointerException e) {
+        }
+        // TC12: transform that is not of 3 rows of 4 values
+        try {
+            new Instance(sphere, 1, 0, 0, 0, 1, 0);
+            fail("instance with part of a transform was created");
+        } catch (IllegalArgumentException e) {
+        }
+        // TC13: transform that can not be inverted
+        try {
+            new Instance(sphere).scale(1, 0, 1);
+            fail("instance with a flat transform was created");
+        } catch (IllegalArgumentException e) {
+        }
+        // TC14: object without a box
+        try {
+            new Instance(new Geometries());
+            fail("instance of an empty group was created");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    /**
+     * Test method for {@link geometries.Instance#findIntersections(Ray, double)}.
+     */
+    @Test
+    public void testFindIntersections() {
+        Instance instance = new Instance(new Sphere(1, new Point3D(0, 0, 0)))
+                .scale(2, 2, 2).translate(new Vector(0, 0, 10));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: ray through the moved and scaled sphere
+        List<GeoPoint> result = instance.findIntersections(new Ray(new Point3D(0, 0, 0), new Vector(0, 0, 1)));
+        assertEquals("wrong amount of intersections", 2, result.size());
+        assertTrue("wrong intersection", result.get(0).point.equals(new Point3D(0, 0, 8))
+                || result.get(1).point.equals(new Point3D(0, 0, 8)));
+        // TC02: ray that misses the moved sphere but would hit the object in its own space
+        assertNull("ray hit the object where it is not placed",
+                instance.findIntersections(new Ray(new Point3D(0, 0, -5), new Vector(0, 0, -1))));
+        // TC03: distances are kept in the space of the scene although the object is scaled
+        assertEquals("wrong amount of intersections until the distance", 1,
+                instance.findIntersections(new Ray(new Point3D(0, 0, 0), new Vector(0, 0, 1)), 9).size());
+        assertNull("intersection found after the distance",
+                instance.findClosestIntersection(new Ray(new Point3D(0, 0, 0), new Vector(0, 0, 1)), 7.9));
+
+        // =============== Boundary Values Tests ==================
+        // TC11: instance of an instance
+        Instance outer = new Instance(instance).translate(new Vector(5, 0, 0));
+        GeoPoint point = outer.findClosestIntersection(new Ray(new Point3D(5, 0, 0), new Vector(0, 0, 1)),
+                Double.POSITIVE_INFINITY);
+        assertEquals("wrong intersection of an instance of an instance", new Point3D(5, 0, 8), point.point);
+    }
+
+    /**
+     * Test method for {@link geometries.Instance.Part#getNormal(Point3D)}.
+     */
+    @Test
+    public void testGetNormal() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the normal of a rotated triangle is rotated
+        Instance rotated = new Instance(new Triangle(
+                new Point3D(-1, -1, 0), new Point3D(1, -1, 0), new Point3D(0, 1, 0)))
+                .rotate(new Vector(1, 0, 0), Math.PI / 2);
+        GeoPoint point = rotated.findClosestIntersection(new Ray(new Point3D(0, -5, 0), new Vector(0, 1, 0)),
+                Double.POSITIVE_INFINITY);
+        assertEquals("wrong intersection of the rotated triangle", new Point3D(0, 0, 0), point.point);
+        assertEquals("wrong normal of the rotated triangle", 1,
+                Math.abs(point.geometry.getNormal(point.point).dotProduct(new Vector(0, 1, 0))), 1e-10);
+        // TC02: the normal of a sphere scaled on one axis stays orthogonal to the ellipsoid
+        Instance ellipsoid = new Instance(new Sphere(1, new Point3D(0, 0, 0))).scale(2, 1, 1);
+        Point3D p = new Point3D(Math.sqrt(2), Math.sqrt(0.5), 0);
+        point = ellipsoid.findClosestIntersection(new Ray(new Point3D(0, 0, 0), p.subtract(Point3D.ZERO)),
+                Double.POSITIVE_INFINITY);
+        assertEquals("wrong intersection of the ellipsoid", 0, point.point.distance(p), 1e-10);
+        // the gradient of x^2/4 + y^2 at the point
+        Vector expected = new Vector(Math.sqrt(2) / 2, 2 * Math.sqrt(0.5), 0).normalize();
+        assertEquals("wrong normal of the ellipsoid", 1,
+                point.geometry.getNormal(point.point).dotProduct(expected), 1e-10);
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#bvhTree(Geometries.BvhType)} with instances of a shared object.
+     */
+    @Test
+    public void testTwoLevelTree() {
+        Geometries object = new Geometries(
+                new Sphere(1, new Point3D(0, 0, 0)),
+                new Sphere(0.5, new Point3D(2, 0, 0)),
+                new Triangle(new Point3D(0, 2, 0), new Point3D(1, 2, 0), new Point3D(0, 3, 1)));
+        Geometries instances = new Geometries();
+        Geometries copies = new Geometries();
+        for (int x = 0; x < 20; x++)
+            for (int y = 0; y < 20; y++) {
+                Vector move = new Vector(5 * x + 0.5, 5 * y + 0.5, 0);
+                instances.add(new Instance(object).translate(move));
+                copies.add(new Sphere(1, new Point3D(0, 0, 0).add(move)),
+                        new Sphere(0.5, new Point3D(2, 0, 0).add(move)),
+                        new Triangle(new Point3D(0, 2, 0).add(move), new Point3D(1, 2, 0).add(move),
+                                new Point3D(0, 3, 1).add(move)));
+            }
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the tree is built over the instances and finds the same points as the copies of the object
+        BvhStatistics statistics = instances.bvhTree(Geometries.BvhType.FLAT_SAH);
+        assertEquals("the tree is not over the instances", 400, statistics.get_leaves());
+        copies.bvhTree(Geometries.BvhType.FLAT_SAH);
+        for (int i = 0; i < 200; i++) {
+            Ray ray = new Ray(new Point3D(i * 0.5, i * 0.49, -10), new Vector(0.01, 0.02, 1));
+            GeoPoint expected = copies.findClosestIntersection(ray, Double.POSITIVE_INFINITY);
+            GeoPoint result = instances.findClosestIntersection(ray, Double.POSITIVE_INFINITY);
+            assertEquals("instances and copies differ", expected == null, result == null);
+            if (expected != null)
+                assertEquals("wrong intersection", 0, expected.point.distance(result.point), 1e-9);
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC11: an instance moved after the tree was built is found where it was moved to
+        Instance moved = new Instance(object);
+        instances.insert(moved);
+        moved.translate(new Vector(-50, 0, 0));
+        instances.refit();
+        GeoPoint point = instances.findClosestIntersection(new Ray(new Point3D(-50, 0, -10), new Vector(0, 0, 1)),
+                Double.POSITIVE_INFINITY);
+        assertNotNull("moved instance was not found", point);
+        assertEquals("wrong intersection with the moved instance", new Point3D(-50, 0, -1), point.point);
+    }
+}
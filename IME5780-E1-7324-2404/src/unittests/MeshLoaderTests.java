@@ -0,0 +1,209 @@
+package unittests;
+
+import geometries.Intersectable.GeoPoint;
+import geometries.TriangleMesh;
+import org.junit.Test;
+import parser.MeshLoader;
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for parser.MeshLoader class
+ */
+public class MeshLoaderTests {
+    /**
+     * vertices of a square in the plane z=1, from (0,0) to (2,2)
+     */
+    private final float[] _square = {0, 0, 1, 2, 0, 1, 2, 2, 1, 0, 2, 1};
+
+    /**
+     * creates a temporary file that is deleted when the tests end.
+     *
+     * @param extension the extension of the file
+     * @param bytes     the content of the file
+     * @return the path of the file
+     * @throws IOException In case writing the file failed
+     */
+    private Path file(String extension, byte[] bytes) throws IOException {
+        Path file = Files.createTempFile("mesh", "." + extension);
+        file.toFile().deleteOnExit();
+        return Files.write(file, bytes);
+    }
+
+    /**
+     * checks that a ray through the square hits the mesh at the right point.
+     *
+     * @param mesh the mesh of the square
+     */
+    private void assertSquare(TriangleMesh mesh) {
+        GeoPoint point = mesh.findClosestIntersection(new Ray(new Point3D(0.5, 1.5, 0), new Vector(0, 0, 1)),
+                Double.POSITIVE_INFINITY);
+        assertNotNull("ray through the square missed the mesh", point);
+        assertEquals("wrong point", new Point3D(0.5, 1.5, 1), point.point);
+    }
+
+    /**
+     * Test method for {@link parser.MeshLoader#loadObj(Path, primitives.Material, primitives.Color)}.
+     *
+     * @throws IOException In case writing or reading the file failed
+     */
+    @Test
+    public void testLoadObj() throws IOException {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: square of one face with texture and normal indexes, between comments and other lines
+        String obj = "# square\r\nv 0 0 1\nv 2.0 0 1.0\nv\t2 2e0 +1\nv 0 0.2E1 10e-1 1\nvt 0 0\nvn 0 0 1\n"
+                + "o square\nf 1/1/1 2/1/1 3/1/1 4/1/1 # quad\n";
+        TriangleMesh mesh = MeshLoader.load(file("obj", obj.getBytes()));
+        assertEquals("wrong amount of vertices", 4, mesh.getVerticesCount());
+        assertEquals("wrong amount of triangles", 2, mesh.getTrianglesCount());
+        assertSquare(mesh);
+
+        // TC02: relative indexes
+        mesh = MeshLoader.load(file("obj", "v 0 0 1\nv 2 0 1\nv 2 2 1\nf -3 -2 -1\nv 0 2 1\nf 1//1 -2//1 -1//1\n"
+                .getBytes()));
+        assertEquals("wrong amount of triangles", 2, mesh.getTrianglesCount());
+        assertSquare(mesh);
+
+        // =============== Boundary Values Tests ==================
+        // TC11: index 0 is not a vertex
+        try {
+            MeshLoader.load(file("obj", "v 0 0 1\nv 2 0 1\nv 2 2 1\nf 0 1 2\n".getBytes()));
+            fail("OBJ file with index 0 was loaded");
+        } catch (IllegalArgumentException e) {
+        }
+        // TC12: vertex without all its values
+        try {
+            MeshLoader.load(file("obj", "v 0 0\nv 2 0 1\nv 2 2 1\nf 1 2 3\n".getBytes()));
+            fail("OBJ file with a bad vertex was loaded");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    /**
+     * Test method for {@link parser.MeshLoader#loadPly(Path, primitives.Material, primitives.Color)}.
+     *
+     * @throws IOException In case writing or reading the file failed
+     */
+    @Test
+    public void testLoadPly() throws IOException {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: little endian file of triangles with other properties and elements
+        String header = "ply\nformat binary_little_endian 1.0\ncomment square\nelement vertex 4\n"
+                + "property float x\nproperty float y\nproperty float z\nproperty uchar red\n"
+                + "element face 2\nproperty list uchar int vertex_indices\nproperty uchar flags\n"
+                + "element edge 1\nproperty list uchar int vertices\nend_header\n";
+        ByteBuffer buffer = ByteBuffer.allocate(1000).order(ByteOrder.LITTLE_ENDIAN).put(header.getBytes());
+        for (int i = 0; i < _square.length; i++) {
+            buffer.putFloat(_square[i]);
+            if (i % 3 == 2)
+                buffer.put((byte) 200);
+        }
+        buffer.put((byte) 3).putInt(0).putInt(1).putInt(2).put((byte) 0);
+        buffer.put((byte) 3).putInt(0).putInt(2).putInt(3).put((byte) 0);
+        buffer.put((byte) 2).putInt(0).putInt(1);
+        TriangleMesh mesh = MeshLoader.load(file("ply", bytes(buffer)));
+        assertEquals("wrong amount of vertices", 4, mesh.getVerticesCount());
+        assertEquals("wrong amount of triangles", 2, mesh.getTrianglesCount());
+        assertSquare(mesh);
+
+        // TC02: big endian file of a quad face with normals of double values
+        header = "ply\r\nformat binary_big_endian 1.0\r\nelement vertex 4\r\nproperty double x\r\nproperty double y\r\n"
+                + "property double z\r\nproperty float nx\r\nproperty float ny\r\nproperty float nz\r\n"
+                + "element face 1\r\nproperty list uint8 uint32 vertex_indices\r\nend_header\n";
+        buffer = ByteBuffer.allocate(1000).order(ByteOrder.BIG_ENDIAN).put(header.getBytes());
+        for (int i = 0; i < _square.length; i += 3)
+            buffer.putDouble(_square[i]).putDouble(_square[i + 1]).putDouble(_square[i + 2])
+                    .putFloat(0).putFloat(0).putFloat(1);
+        buffer.put((byte) 4).putInt(0).putInt(1).putInt(2).putInt(3);
+        mesh = MeshLoader.load(file("ply", bytes(buffer)));
+        assertEquals("wrong amount of triangles", 2, mesh.getTrianglesCount());
+        assertSquare(mesh);
+
+        // =============== Boundary Values Tests ==================
+        // TC11: ascii file
+        try {
+            MeshLoader.load(file("ply", "ply\nformat ascii 1.0\nelement vertex 0\nend_header\n".getBytes()));
+            fail("ascii PLY file was loaded");
+        } catch (IllegalArgumentException e) {
+        }
+        // TC12: the file ends before the last face
+        buffer.position(buffer.position() - 4);
+        try {
+            MeshLoader.load(file("ply", bytes(buffer)));
+            fail("PLY file without all its faces was loaded");
+        } catch (IllegalArgumentException e) {
+        }
+        // TC13: element without the amount of its records
+        try {
+            MeshLoader.load(file("ply", "ply\nformat binary_little_endian 1.0\nelement vertex\nend_header\n".getBytes()));
+            fail("PLY file with a bad element was loaded");
+        } catch (IllegalArgumentException e) {
+        }
+        // TC14: list property without its name
+        try {
+            MeshLoader.load(file("ply", ("ply\nformat binary_little_endian 1.0\nelement face 1\n"
+                    + "property list uchar int\nend_header\n").getBytes()));
+            fail("PLY file with a bad property was loaded");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    /**
+     * Test method for {@link parser.MeshLoader#loadStl(Path, primitives.Material, primitives.Color)}.
+     *
+     * @throws IOException In case writing or reading the file failed
+     */
+    @Test
+    public void testLoadStl() throws IOException {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: 2 triangles of a square
+        ByteBuffer buffer = ByteBuffer.allocate(84 + 2 * 50).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put("binary square".getBytes()).position(80);
+        buffer.putInt(2);
+        for (int[] triangle : new int[][]{{0, 1, 2}, {0, 2, 3}}) {
+            buffer.putFloat(0).putFloat(0).putFloat(1);
+            for (int vertex : triangle)
+                buffer.putFloat(_square[3 * vertex]).putFloat(_square[3 * vertex + 1]).putFloat(_square[3 * vertex + 2]);
+            buffer.putShort((short) 0);
+        }
+        TriangleMesh mesh = MeshLoader.load(file("STL", bytes(buffer)));
+        assertEquals("wrong amount of vertices", 6, mesh.getVerticesCount());
+        assertEquals("wrong amount of triangles", 2, mesh.getTrianglesCount());
+        assertSquare(mesh);
+
+        // =============== Boundary Values Tests ==================
+        // TC11: ascii file
+        try {
+            MeshLoader.load(file("stl", "solid square\nendsolid square\n".getBytes()));
+            fail("ascii STL file was loaded");
+        } catch (IllegalArgumentException e) {
+        }
+        // TC12: unknown format
+        try {
+            MeshLoader.load(file("3ds", new byte[100]));
+            fail("file of unknown format was loaded");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    /**
+     * gets the bytes written to a buffer.
+     *
+     * @param buffer the buffer
+     * @return the bytes from the start of the buffer to its position
+     */
+    private byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.position()];
+        buffer.get(0, bytes);
+        return bytes;
+    }
+}
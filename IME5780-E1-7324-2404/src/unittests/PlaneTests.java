@@ -98,6 +98,12 @@ public class PlaneTests {
         // TC17: Ray is neither orthogonal nor parallel to the plane and begins in the planes reference point (0 points)
         assertEquals("Wrong plane findIntersections when Ray is neither orthogonal nor parallel to the plane and begins in the planes reference point",null,
                 plane.findIntersections(new Ray(new Point3D(1,1,1), new Vector(2,1,1))));
+        // **** Group: plane orthogonal to an axis
+        // TC18: Ray from below a plane orthogonal to the y axis and away from its normal (1 point)
+        Plane floor = new Plane(new Point3D(0, 5, 0), new Vector(0, 1, 0));
+        assertEquals("Wrong plane findIntersections when the plane is orthogonal to an axis",
+                List.of(new GeoPoint(floor, new Point3D(0, 5, 0))),
+                floor.findIntersections(new Ray(new Point3D(0, 4, 0), new Vector(0, 1, 0))));
 
     }
 
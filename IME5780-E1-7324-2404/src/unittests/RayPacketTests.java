@@ -0,0 +1,155 @@
+package unittests;
+
+import geometries.*;
+import org.junit.Test;
+import primitives.*;
+
+import java.util.Random;
+
+import static geometries.Intersectable.GeoPoint;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for geometries.RayPacket class
+ */
+public class RayPacketTests {
+    /**
+     * creates geometries of spheres, triangles and a mesh, with boxes for the bvh trees.
+     *
+     * @return the geometries
+     */
+    private Geometries scene() {
+        Random random = new Random(3);
+        Geometries geometries = new Geometries();
+        for (int i = 0; i < 40; i++) {
+            Point3D center = new Point3D(random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50,
+                    random.nextDouble() * 100);
+            if (i % 2 == 0)
+                geometries.add(new Sphere(2 + random.nextDouble() * 5, center));
+            else
+                geometries.add(new Triangle(center, center.add(new Vector(8, 0, 1)), center.add(new Vector(0, 8, 2))));
+        }
+        double[] positions = new double[3 * 121];
+        for (int y = 0; y <= 10; y++)
+            for (int x = 0; x <= 10; x++) {
+                positions[3 * (y * 11 + x)] = 10 * x - 50;
+                positions[3 * (y * 11 + x) + 1] = 10 * y - 50;
+                positions[3 * (y * 11 + x) + 2] = 120 + random.nextDouble() * 10;
+            }
+        int[] indices = new int[6 * 100];
+        int i = 0;
+        for (int y = 0; y < 10; y++)
+            for (int x = 0; x < 10; x++) {
+                int corner = y * 11 + x;
+                indices[i++] = corner;
+                indices[i++] = corner + 1;
+                indices[i++] = corner + 12;
+                indices[i++] = corner;
+                indices[i++] = corner + 12;
+                indices[i++] = corner + 11;
+            }
+        geometries.add(new TriangleMesh(positions, indices));
+        return geometries;
+    }
+
+    /**
+     * checks that every ray of a packet has the closest intersection that it has when it is traced alone.
+     *
+     * @param geometries the geometries
+     * @param packet     the traced packet
+     */
+    private void assertSameAsSingle(Geometries geometries, RayPacket packet) {
+        for (int lane = 0; lane < packet.size(); lane++) {
+            Ray ray = packet.getRay(lane);
+            GeoPoint expected = geometries.findClosestIntersection(ray, Double.POSITIVE_INFINITY);
+            GeoPoint actual = packet.getClosest(lane);
+            assertEquals("lane " + lane + " hit a different geometry", expected == null, actual == null);
+            if (expected != null)
+                assertEquals("lane " + lane + " hit a different point", expected.point, actual.point);
+        }
+    }
+
+    /**
+     * Test method for {@link geometries.Intersectable#findClosestIntersections(RayPacket)}.
+     */
+    @Test
+    public void testFindClosestIntersections() {
+        Random random = new Random(5);
+        RayPacket packet = new RayPacket();
+        for (Geometries.BvhType type : new Geometries.BvhType[]{null, Geometries.BvhType.SAH,
+                Geometries.BvhType.FLAT_SAH}) {
+            Geometries geometries = scene();
+            if (type != null)
+                geometries.bvhTree(type);
+
+            // ============ Equivalence Partitions Tests ==============
+            // TC01: coherent rays from one head, as the rays of pixels next to each other
+            for (int i = 0; i < 200; i++) {
+                packet.clear();
+                double x = random.nextDouble() - 0.5, y = random.nextDouble() - 0.5;
+                while (!packet.isFull())
+                    packet.add(new Ray(new Point3D(0, 0, -100), new Vector(x + 0.002 * packet.size(),
+                            y + 0.003 * (packet.size() % 2), 1)));
+                geometries.findClosestIntersections(packet);
+                assertSameAsSingle(geometries, packet);
+            }
+            // TC02: rays in random directions from random heads
+            for (int i = 0; i < 200; i++) {
+                packet.clear();
+                while (!packet.isFull())
+                    packet.add(new Ray(new Point3D(random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50,
+                            random.nextDouble() * 100), new Vector(random.nextDouble() - 0.5,
+                            random.nextDouble() - 0.5, random.nextDouble() - 0.5)));
+                geometries.findClosestIntersections(packet);
+                assertSameAsSingle(geometries, packet);
+            }
+
+            // =============== Boundary Values Tests ==================
+            // TC11: packet that is not full, with rays parallel to the axes
+            packet.clear();
+            packet.add(new Ray(new Point3D(1, 2, -100), new Vector(0, 0, 1)));
+            packet.add(new Ray(new Point3D(1, 2, 200), new Vector(0, 0, -1)));
+            packet.add(new Ray(new Point3D(-100, 0, 125), new Vector(1, 0, 0)));
+            geometries.findClosestIntersections(packet);
+            assertEquals("wrong amount of rays", 3, packet.size());
+            assertSameAsSingle(geometries, packet);
+            // TC12: rays that miss all the geometries
+            packet.clear();
+            packet.add(new Ray(new Point3D(0, 0, -100), new Vector(0, 0, -1)));
+            packet.add(new Ray(new Point3D(0, 0, -100), new Vector(1, 0, 0)));
+            geometries.findClosestIntersections(packet);
+            assertNull("ray that misses has an intersection", packet.getClosest(0));
+            assertNull("ray that misses has an intersection", packet.getClosest(1));
+        }
+    }
+
+    /**
+     * Test method for {@link geometries.RayPacket#add(Ray)}.
+     */
+    @Test
+    public void testAdd() {
+        RayPacket packet = new RayPacket();
+        Ray ray = new Ray(new Point3D(0, 0, 0), new Vector(0, 0, 1));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: rays are added to the next lanes
+        assertEquals("wrong lane", 0, packet.add(ray));
+        assertEquals("wrong lane", 1, packet.add(ray));
+        assertEquals("wrong mask of lanes", 3, packet.getLanes());
+
+        // =============== Boundary Values Tests ==================
+        // TC11: full packet
+        while (!packet.isFull())
+            packet.add(ray);
+        assertEquals("wrong amount of rays", RayPacket.SIZE, packet.size());
+        try {
+            packet.add(ray);
+            fail("ray was added to a full packet");
+        } catch (IllegalStateException e) {
+        }
+        // TC12: packet after clear is empty
+        packet.clear();
+        assertEquals("packet is not empty", 0, packet.size());
+        assertEquals("wrong mask of lanes", 0, packet.getLanes());
+    }
+}
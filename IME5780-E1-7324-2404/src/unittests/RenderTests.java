@@ -4,17 +4,27 @@ import org.junit.Test;
 
 import elements.*;
 import geometries.*;
-import parser.XMLtoRenderParser;
+import parser.SceneParser;
 import primitives.*;
+import renderer.HdrImage;
 import renderer.ImageWriter;
 import renderer.Render;
+import renderer.RenderStats;
+import renderer.Tile;
+import renderer.ToneMapper;
 import scene.Scene;
 
+import java.nio.file.Path;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 import static geometries.Intersectable.GeoPoint;
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 /**
  * Test rendering a basic image
@@ -24,33 +34,20 @@ import static org.junit.Assert.assertEquals;
 public class RenderTests {
 
     /**
-     * function that creates a Render by getting its parameters from XMLtoRenderParser.
+     * function that creates a Render by getting its parameters from SceneParser.
      *
      * @param fileName the name of the XML document to be passed to the Parser
      * @return Render including the Scene and image writer fro the XML document
      */
     private Render renderFromXml(String fileName) {
-        XMLtoRenderParser parser;
+        SceneParser parser;
         try {
-            parser = new XMLtoRenderParser(fileName); // create instance of XML Parser
+            parser = new SceneParser(Path.of(System.getProperty("user.dir"), "images", fileName)); // parse the scene
         } catch (Exception e) { // if it fails return null
             return null;
         }
-        // create instance of Scene and get its parameters from the XML parser
-        Scene scene = new Scene("XML Test scene");
-        scene.set_camera(parser.cameraFromXML());
-        scene.set_distance(parser.distanceFromXml());
-        scene.set_background(parser.backgroundFromXML());
-        scene.set_ambientLight(parser.AmbientLightFromXML());
-
-        for (Intersectable i : parser.geometriesFromXml())
-            scene.addGeometries(i);
-
-        // create instance of imageWriter and get its parameters from the XML parser
-        ImageWriter imageWriter = new ImageWriter("XML base render test",
-                parser.imageWidthFromXML(), parser.imageHeightFromXML(), parser.nXFromXML(), parser.nyFromXML());
         // create and return instance of Render that includes the imageWriter and Scene from the XML parser
-        return new Render(imageWriter, scene);
+        return new Render(parser.createImageWriter("XML base render test"), parser.get_scene());
     }
 
     /**
@@ -116,6 +113,500 @@ public class RenderTests {
         render.writeToImage();
     }
 
+    /**
+     * creates a scene with a geometry for testing the tiles.
+     *
+     * @param geometry the geometry of the scene
+     * @return the scene
+     */
+    private Scene tilesScene(Intersectable geometry) {
+        Scene scene = new Scene("Test scene");
+        scene.set_camera(new Camera(Point3D.ZERO, new Vector(0, 0, 1), new Vector(0, -1, 0)));
+        scene.set_distance(100);
+        scene.set_background(Color.BLACK);
+        scene.set_ambientLight(new AmbientLight(new Color(java.awt.Color.WHITE), 0.2));
+        scene.addGeometries(geometry);
+        return scene;
+    }
+
+    /**
+     * Test method for {@link renderer.Render#renderImage()} with tiles.
+     */
+    @Test
+    public void renderTilesTest() throws InterruptedException {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: every tile of every order is rendered once and the progress listener is told about it
+        for (Render.TileOrder order : Render.TileOrder.values()) {
+            ImageWriter imageWriter = new ImageWriter("tiles test", 100, 100, 50, 37);
+            Set<String> tiles = ConcurrentHashMap.newKeySet();
+            AtomicInteger pixels = new AtomicInteger();
+            AtomicInteger lastDone = new AtomicInteger();
+            Render render = new Render(imageWriter, tilesScene(new Sphere(50, new Point3D(0, 0, 100))))
+                    .setMultithreading(4)
+                    .setTileSize(16)
+                    .setTileOrder(order)
+                    .setProgressListener((tile, tilesDone, tilesAmount) -> {
+                        assertTrue("tile rendered twice " + tile, tiles.add(tile.get_x() + "," + tile.get_y()));
+                        pixels.addAndGet(tile.getPixels());
+                        lastDone.accumulateAndGet(tilesDone, Math::max);
+                        assertEquals("wrong amount of tiles", 12, tilesAmount);
+                    });
+            render.renderImage();
+            assertEquals("not all the tiles were rendered in order " + order, 12, tiles.size());
+            assertEquals("not all the pixels were rendered in order " + order, 50 * 37, pixels.get());
+            assertEquals("wrong count of tiles done in order " + order, 12, lastDone.get());
+        }
+
+        // TC02: an exception while rendering reaches the caller
+        Sphere broken = new Sphere(50, new Point3D(0, 0, 100)) {
+            @Override
+            public List<GeoPoint> findIntersections(Ray ray, double maxDistance) {
+                throw new IllegalStateException("broken geometry");
+            }
+        };
+        Render render = new Render(new ImageWriter("tiles test", 100, 100, 20, 20), tilesScene(broken))
+                .setMultithreading(4);
+        try {
+            render.renderImage();
+            fail("exception while rendering was not thrown");
+        } catch (IllegalStateException e) {
+        }
+        // TC03: no tile is rendered after the exception reaches the caller
+        AtomicInteger rendered = new AtomicInteger();
+        Render failing = new Render(new ImageWriter("tiles test", 100, 100, 64, 64),
+                tilesScene(new Sphere(50, new Point3D(0, 0, 100))))
+                .setMultithreading(4)
+                .setTileSize(8)
+                .setProgressListener((tile, tilesDone, tilesAmount) -> {
+                    LockSupport.parkNanos(20_000_000); // the tiles take a while, so others are rendered meanwhile
+                    if (rendered.incrementAndGet() == 1)
+                        throw new IllegalStateException("broken listener");
+                });
+        try {
+            failing.renderImage();
+            fail("exception of the listener was not thrown");
+        } catch (IllegalStateException e) {
+        }
+        int renderedBefore = rendered.get();
+        Thread.sleep(200);
+        assertEquals("tiles were rendered after the exception", renderedBefore, rendered.get());
+        assertTrue("the tiles after the exception were not cancelled", renderedBefore < 64);
+
+        // =============== Boundary Values Tests ==================
+        // TC11: tile size 0 is not allowed
+        try {
+            render.setTileSize(0);
+            fail("tile size 0 was allowed");
+        } catch (IllegalArgumentException e) {
+        }
+        // TC12: tile larger then the image
+        ImageWriter imageWriter = new ImageWriter("tiles test", 100, 100, 10, 10);
+        AtomicInteger pixels = new AtomicInteger();
+        new Render(imageWriter, tilesScene(new Sphere(50, new Point3D(0, 0, 100))))
+                .setTileSize(64)
+                .setProgressListener((tile, tilesDone, tilesAmount) -> pixels.addAndGet(tile.getPixels()))
+                .renderImage();
+        assertEquals("not all the pixels were rendered", 100, pixels.get());
+    }
+
+    /**
+     * Test method for {@link renderer.Render#setAdaptiveSuperSampling(boolean)}.
+     */
+    @Test
+    public void adaptiveSuperSamplingTest() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a pixel of the background is not divided - one ray through its center and the shared corners
+        ImageWriter imageWriter = new ImageWriter("adaptive test", 100, 100, 32, 32);
+        Scene scene = tilesScene(new Sphere(10, new Point3D(0, 0, -100))); // behind the camera
+        Render render = new Render(imageWriter, scene)
+                .setTileSize(16)
+                .setAdaptiveSuperSampling(true);
+        render.renderImage();
+        assertEquals("wrong amount of rays for background", 4 * (17 * 17 + 16 * 16), render.getPrimaryRays());
+
+        // TC02: edges of the sphere are divided, but the rays are much less then uniform super sampling
+        scene = tilesScene(new Sphere(30, new Point3D(0, 0, 100)));
+        render = new Render(imageWriter, scene).setAdaptiveSuperSampling(true);
+        render.renderImage();
+        long adaptiveRays = render.getPrimaryRays();
+        render = new Render(imageWriter, scene).setSuperSampling(true);
+        render.renderImage();
+        assertTrue("adaptive super sampling did not divide the edges", adaptiveRays > 4 * (17 * 17 + 16 * 16));
+        assertTrue("adaptive super sampling traced too many rays", adaptiveRays * 5 < render.getPrimaryRays());
+
+        // =============== Boundary Values Tests ==================
+        // TC11: max depth 0 never divides
+        render = new Render(imageWriter, scene).setAdaptiveSuperSampling(true).setTileSize(16).setMaxAdaptiveDepth(0);
+        render.renderImage();
+        assertEquals("wrong amount of rays for depth 0", 4 * (17 * 17 + 16 * 16), render.getPrimaryRays());
+        // TC12: negative threshold and depth are not allowed
+        try {
+            render.setAdaptiveThreshold(-1);
+            fail("negative threshold was allowed");
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            render.setMaxAdaptiveDepth(-1);
+            fail("negative depth was allowed");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    /**
+     * creates a scene of a wall lighted by a point light with a radius, with an optional sphere between them.
+     *
+     * @param blocked whether to put a sphere between the light and the wall
+     * @return the scene
+     */
+    private Scene softShadowScene(boolean blocked) {
+        Scene scene = tilesScene(new Plane(new Point3D(0, 0, 200), new Vector(0, 0, -1)));
+        scene.addLights(new PointLight(new Color(500, 500, 500), new Point3D(0, 0, 50), 1, 0.0001, 0.00001, 10));
+        if (blocked)
+            scene.addGeometries(new Sphere(15, new Point3D(0, 0, 120)));
+        return scene;
+    }
+
+    /**
+     * Test method for {@link renderer.Render#setAdaptiveSoftShadowing(boolean)}.
+     */
+    @Test
+    public void adaptiveSoftShadowingTest() {
+        ImageWriter imageWriter = new ImageWriter("soft shadow test", 100, 100, 16, 16);
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a fully lighted point traces only the center and the ring of the light
+        Render render = new Render(imageWriter, softShadowScene(false))
+                .setSoftShadowing(true)
+                .setAdaptiveSoftShadowing(true);
+        render.renderImage();
+        assertEquals("wrong amount of shadow rays for lighted wall", 16 * 16 * (1 + 8), render.getShadowRays());
+
+        // TC02: the penumbra traces all the rays, but the rays are much less then soft shadowing everywhere
+        render = new Render(imageWriter, softShadowScene(true)).setSoftShadowing(true).setAdaptiveSoftShadowing(true);
+        render.renderImage();
+        long adaptiveRays = render.getShadowRays();
+        render = new Render(imageWriter, softShadowScene(true)).setSoftShadowing(true);
+        render.renderImage();
+        assertTrue("adaptive soft shadowing did not trace the penumbra", adaptiveRays > 16 * 16 * (1 + 8));
+        assertTrue("adaptive soft shadowing traced too many rays", adaptiveRays * 2 < render.getShadowRays());
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the amount of soft shadow rays is separate from the super sampling rays
+        render = new Render(imageWriter, softShadowScene(false)).setSoftShadowing(true).setNumOfShadowRays(0);
+        render.renderImage();
+        assertEquals("wrong amount of shadow rays without soft shadow rays", 16 * 16 * 2, render.getShadowRays());
+        // TC12: a ring of less then 3 rays and a negative amount of rays are not allowed
+        try {
+            render.setNumOfRingShadowRays(2);
+            fail("ring of 2 rays was allowed");
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            render.setNumOfShadowRays(-1);
+            fail("negative amount of shadow rays was allowed");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    /**
+     * creates a scene of reflecting and transparent spheres on a mirror, in a bvh tree, for comparing the integrators.
+     *
+     * @return the scene
+     */
+    private Scene wavefrontScene() {
+        Scene scene = tilesScene(new Plane(new Material(0.3, 0.2, 20, 0, 0.5), new Color(20, 20, 20),
+                new Point3D(0, 40, 0), new Vector(0, -1, 0)));
+        scene.addGeometries(
+                new Sphere(new Material(0.2, 0.4, 30, 0.6, 0.3), new Color(java.awt.Color.BLUE), 25, new Point3D(-20, 10, 120)),
+                new Sphere(new Material(0.5, 0.5, 60, 0, 0.8), new Color(60, 10, 10), 20, new Point3D(30, 15, 150)),
+                new Triangle(new Material(0.5, 0.5, 30, 0.4, 0), new Color(10, 60, 10),
+                        new Point3D(-60, 40, 200), new Point3D(60, 40, 200), new Point3D(0, -60, 220)));
+        scene.addLights(new PointLight(new Color(300, 300, 300), new Point3D(0, -80, 60), 1, 0.0001, 0.00001, 10),
+                new DirectionalLight(new Color(60, 60, 60), new Vector(1, 1, 1)));
+        scene.build_bvhTree(Geometries.BvhType.FLAT_SAH);
+        return scene;
+    }
+
+    /**
+     * creates an image writer of 32x32 pixels that keeps the colors of the pixels in an array instead of an image.
+     *
+     * @param pixels the colors of the pixels, by row
+     * @return the image writer
+     */
+    private ImageWriter pixelsWriter(int[] pixels) {
+        return new ImageWriter("wavefront test", 100, 100, 32, 32) {
+            @Override
+            public void writeTile(Tile tile, int[] rgb) {
+                for (int row = 0; row < tile.get_height(); row++)
+                    System.arraycopy(rgb, row * tile.get_width(), pixels,
+                            (tile.get_y() + row) * 32 + tile.get_x(), tile.get_width());
+            }
+        };
+    }
+
+    /**
+     * Test method for {@link renderer.Render#setWavefront(boolean)}.
+     */
+    @Test
+    public void wavefrontTest() {
+        Scene scene = wavefrontScene();
+        int[] recursive = new int[32 * 32];
+        int[] wavefront = new int[32 * 32];
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the same image and rays as the recursion
+        Render render = new Render(pixelsWriter(recursive), scene);
+        render.renderImage();
+        Render wavefrontRender = new Render(pixelsWriter(wavefront), scene).setWavefront(true);
+        wavefrontRender.renderImage();
+        assertArrayEquals("wavefront image is not the same", recursive, wavefront);
+        assertEquals("wrong amount of rays", render.getPrimaryRays(), wavefrontRender.getPrimaryRays());
+        assertEquals("wrong amount of shadow rays", render.getShadowRays(), wavefrontRender.getShadowRays());
+        // TC02: the same image with super sampling and soft shadows, on a few threads
+        new Render(pixelsWriter(recursive), scene).setSuperSampling(true).setNumOfRays(8)
+                .setSoftShadowing(true).setNumOfShadowRays(8).renderImage();
+        new Render(pixelsWriter(wavefront), scene).setSuperSampling(true).setNumOfRays(8)
+                .setSoftShadowing(true).setNumOfShadowRays(8).setWavefront(true).setMultithreading(3).renderImage();
+        assertArrayEquals("wavefront image with super sampling is not the same", recursive, wavefront);
+
+        // =============== Boundary Values Tests ==================
+        // TC11: tile of one pixel, and a tile with more rays from the camera then a wave
+        for (int tileSize : new int[]{1, 32}) {
+            new Render(pixelsWriter(recursive), scene).setTileSize(tileSize).setSuperSampling(true).renderImage();
+            new Render(pixelsWriter(wavefront), scene).setTileSize(tileSize).setSuperSampling(true)
+                    .setWavefront(true).renderImage();
+            assertArrayEquals("wavefront image of tiles of " + tileSize + " is not the same", recursive, wavefront);
+        }
+    }
+
+    /**
+     * Test method for {@link renderer.Render#renderProgressive()}.
+     */
+    @Test
+    public void progressiveTest() {
+        Scene scene = wavefrontScene();
+        int[] image = new int[32 * 32];
+        int[] preview = new int[32 * 32];
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the first pass is the image without super sampling
+        new Render(pixelsWriter(image), scene).renderImage();
+        Render render = new Render(pixelsWriter(preview), scene).setMaxPasses(1);
+        render.renderProgressive();
+        assertArrayEquals("first pass is not the image without super sampling", image, preview);
+        assertEquals("wrong amount of passes", 1, render.getPasses());
+        assertEquals("wrong noise after one pass", Double.POSITIVE_INFINITY, render.getNoise(), 0);
+
+        // TC02: the listener is told about every pass and the noise goes down
+        List<Double> noises = new LinkedList<>();
+        render = new Render(pixelsWriter(preview), scene).setMaxPasses(8).setMultithreading(3)
+                .setPassListener((passes, noise) -> {
+                    assertEquals("wrong pass", noises.size() + 1, passes);
+                    noises.add(noise);
+                });
+        render.renderProgressive();
+        assertEquals("wrong amount of passes", 8, noises.size());
+        assertEquals("wrong amount of rays", 8 * 32 * 32, render.getPrimaryRays());
+        assertTrue("noise did not go down", noises.get(7) < noises.get(1));
+        assertEquals("wrong noise", noises.get(7), render.getNoise(), 0);
+        assertFalse("samples did not change the image", java.util.Arrays.equals(image, preview));
+
+        // TC03: an image without edges has no noise, and stops at the noise threshold
+        render = new Render(pixelsWriter(preview), tilesScene(new Sphere(10, new Point3D(0, 0, -100))))
+                .setNoiseThreshold(0.5);
+        render.renderProgressive();
+        assertEquals("wrong amount of passes for an image without noise", 2, render.getPasses());
+        assertEquals("wrong noise", 0, render.getNoise(), 0);
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the first pass is rendered even when it takes more then the time budget
+        render = new Render(pixelsWriter(preview), scene).setTimeBudget(1);
+        render.renderProgressive();
+        assertEquals("wrong amount of passes for a short time budget", 1, render.getPasses());
+        // TC12: no passes, negative time budget and negative noise threshold are not allowed
+        try {
+            render.setMaxPasses(0);
+            fail("0 passes were allowed");
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            render.setTimeBudget(-1);
+            fail("negative time budget was allowed");
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            render.setNoiseThreshold(-1);
+            fail("negative noise threshold was allowed");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    /**
+     * Test method for {@link renderer.Render#setHdrImage(HdrImage)}.
+     */
+    @Test
+    public void hdrImageTest() {
+        Scene scene = wavefrontScene();
+        int[] image = new int[32 * 32];
+        int[] mapped = new int[32 * 32];
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the clamped colors of the high dynamic range image are the image, up to rounding
+        for (boolean wavefront : new boolean[]{false, true}) {
+            HdrImage hdrImage = new HdrImage(32, 32);
+            new Render(pixelsWriter(image), scene).setWavefront(wavefront).setHdrImage(hdrImage).renderImage();
+            hdrImage.writeTo(pixelsWriter(mapped), ToneMapper.CLAMP, 1, 1);
+            for (int i = 0; i < image.length; i++)
+                for (int shift = 0; shift < 24; shift += 8)
+                    assertEquals("wrong color of pixel " + i, image[i] >> shift & 0xFF, mapped[i] >> shift & 0xFF, 1);
+        }
+        // TC02: progressive rendering gives the image all the samples of the pixels
+        HdrImage hdrImage = new HdrImage(32, 32);
+        new Render(pixelsWriter(image), scene).setMaxPasses(3).setHdrImage(hdrImage).renderProgressive();
+        assertEquals("wrong amount of samples", 3, hdrImage.getSamples(5, 7));
+
+        // =============== Boundary Values Tests ==================
+        // TC11: image of another size is not allowed
+        try {
+            new Render(pixelsWriter(image), scene).setHdrImage(new HdrImage(16, 32));
+            fail("HDR image of another size was allowed");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    /**
+     * Test method for {@link renderer.Render#getStats()}.
+     */
+    @Test
+    public void statsTest() {
+        Scene scene = wavefrontScene();
+        int[] image = new int[32 * 32];
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the counters of all the threads are added together, with the nodes and the tests of the geometries
+        Render render = new Render(pixelsWriter(image), scene).setMultithreading(3).setTraversalStats(true);
+        render.renderImage();
+        RenderStats stats = render.getStats();
+        assertEquals("wrong amount of rays from the camera", 32 * 32, stats.getPrimaryRays());
+        assertEquals("wrong amount of shadow rays", render.getShadowRays(), stats.getShadowRays());
+        assertTrue("no reflected rays", stats.getReflectionRays() > 0);
+        assertTrue("no refracted rays", stats.getRefractionRays() > 0);
+        assertTrue("no reflection was reached", stats.getMaxDepth() > 1);
+        assertEquals("wrong amount of tiles", 4, stats.getTiles());
+        assertTrue("slowest tile is slower then all the tiles", stats.getMaxTileTime() <= stats.getTilesTime());
+        assertNotNull("no slowest tile", stats.getSlowestTile());
+        assertTrue("no nodes were visited", stats.getNodesVisited() > 0);
+        assertTrue("no spheres were tested", stats.getPrimitiveTests().get("Sphere") > 0);
+        assertTrue("no triangles were tested", stats.getPrimitiveTests().get("Triangle") > 0);
+        assertTrue("wrong JSON", stats.toJson().contains("\"primaryRays\": 1024,"));
+        assertEquals("wrong type of the bvh tree", Geometries.BvhType.FLAT_SAH, stats.getBvhStatistics().get_type());
+        assertTrue("no build time in JSON", stats.toJson().contains("\"buildTimeNanos\": "));
+
+        // TC02: the wavefront integrator counts the same rays from the camera and reaches the same depth
+        render = new Render(pixelsWriter(image), scene).setWavefront(true);
+        render.renderImage();
+        assertEquals("wrong amount of rays from the camera", 32 * 32, render.getStats().getPrimaryRays());
+        assertEquals("wrong depth", stats.getMaxDepth(), render.getStats().getMaxDepth());
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the nodes and the tests are not counted unless asked for
+        assertEquals("nodes were counted", 0, render.getStats().getNodesVisited());
+        assertTrue("tests were counted", render.getStats().getPrimitiveTests().isEmpty());
+        // TC12: statistics before rendering are empty
+        stats = new Render(pixelsWriter(image), scene).getStats();
+        assertEquals("rays before rendering", 0, stats.getPrimaryRays());
+        assertNull("slowest tile before rendering", stats.getSlowestTile());
+    }
+
+    /**
+     * adds to a scene an infinite geometry that no ray hits, and that moves a clock on every search for the closest
+     * intersection, so the clock measures the time of rendering by the rays traced instead of the time that passed.
+     *
+     * @param scene the scene
+     * @param clock the clock, moved by 20 microseconds for every search
+     * @return the scene
+     */
+    private Scene workClock(Scene scene, AtomicLong clock) {
+        scene.addGeometries(new Plane(new Point3D(0, 0, -1000), new Vector(0, 0, 1)) {
+            @Override
+            public GeoPoint findClosestIntersection(Ray ray, double maxDistance) {
+                clock.addAndGet(20_000);
+                return null;
+            }
+
+            @Override
+            public List<GeoPoint> findIntersections(Ray ray, double maxDistance) {
+                return null;
+            }
+
+            @Override
+            public boolean isOccluded(Ray ray, double maxDistance) {
+                return false;
+            }
+
+            @Override
+            public double transmittance(Ray ray, double maxDistance, double minK) {
+                return 1;
+            }
+        });
+        return scene;
+    }
+
+    /**
+     * Test method for {@link renderer.Render#renderBudgeted()}.
+     */
+    @Test
+    public void budgetedTest() {
+        Scene scene = wavefrontScene();
+        int[] image = new int[32 * 32];
+        int[] preview = new int[32 * 32];
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: ends on time with more samples and less noise then two passes
+        Render render = new Render(pixelsWriter(preview), scene).setMaxPasses(2);
+        render.renderProgressive();
+        double twoPassesNoise = render.getNoise();
+        // the time is measured by the work done, so the test does not depend on how busy the computer is
+        AtomicLong clock = new AtomicLong();
+        new Render(pixelsWriter(preview), workClock(wavefrontScene(), clock))
+                .setClock(clock::get).setMaxPasses(1).renderProgressive();
+        long firstPass = clock.get();
+        clock.set(0);
+        render = new Render(pixelsWriter(preview), workClock(wavefrontScene(), clock))
+                .setClock(clock::get).setTimeBudget(400);
+        render.renderBudgeted();
+        // a round is planned by the time of the samples so far, so it may end a little late
+        assertTrue("rendering took " + clock.get() / 1e6 + "ms of work for a budget of 400ms",
+                clock.get() <= 400_000_000 + firstPass / 4);
+        assertTrue("too few samples per pixel", render.getSamplesPerPixel() > 2);
+        assertEquals("wrong amount of rays", Math.round(render.getSamplesPerPixel() * 32 * 32),
+                render.getPrimaryRays());
+        assertTrue("noise did not go down", render.getNoise() < twoPassesNoise);
+
+        // TC02: stops at the noise threshold long before the time is spent
+        render = new Render(pixelsWriter(preview), tilesScene(new Sphere(10, new Point3D(0, 0, -100))))
+                .setTimeBudget(60_000).setNoiseThreshold(0.5);
+        render.renderBudgeted();
+        assertEquals("wrong amount of passes for an image without noise", 2, render.getPasses());
+        assertEquals("wrong samples per pixel", 2, render.getSamplesPerPixel(), 0);
+        assertEquals("wrong noise", 0, render.getNoise(), 0);
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the first pass is rendered even when it takes more then the time budget
+        new Render(pixelsWriter(image), scene).renderImage();
+        clock.set(0);
+        render = new Render(pixelsWriter(preview), workClock(wavefrontScene(), clock))
+                .setClock(clock::get).setTimeBudget(1);
+        render.renderBudgeted();
+        assertArrayEquals("first pass is not the image without super sampling", image, preview);
+        assertEquals("wrong samples per pixel", 1, render.getSamplesPerPixel(), 0);
+        assertEquals("wrong noise after one pass", Double.POSITIVE_INFINITY, render.getNoise(), 0);
+        // TC12: every pixel gets the most passes as samples when there is time for more
+        render = new Render(pixelsWriter(preview), scene).setTimeBudget(60_000).setMaxPasses(3);
+        render.renderBudgeted();
+        assertEquals("wrong samples per pixel", 3, render.getSamplesPerPixel(), 0);
+        // TC13: rendering in time without a time budget is not allowed
+        try {
+            new Render(pixelsWriter(preview), scene).renderBudgeted();
+            fail("rendering in time without a time budget was allowed");
+        } catch (IllegalStateException e) {
+        }
+    }
+
 //    /**
 //     * test method for{@link renderer.Render#getClosestPoint(List)}
 //     */
@@ -0,0 +1,155 @@
+package unittests;
+
+import org.junit.Test;
+import primitives.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the samplers - primitives.Sampler and its implementations
+ */
+public class SamplerTests {
+    /**
+     * all the samplers
+     */
+    private final Sampler[] _samplers = {new StratifiedSampler(), new HaltonSampler(), new SobolSampler(),
+            new BlueNoiseSampler()};
+
+    /**
+     * Test method for {@link primitives.Sampler#getSamples(long, int)}.
+     */
+    @Test
+    public void testGetSamples() {
+        // ============ Equivalence Partitions Tests ==============
+        for (Sampler sampler : _samplers) {
+            String name = sampler.getClass().getSimpleName();
+            double[] samples = sampler.getSamples(7, 300);
+            // TC01: the samples are in the unit square
+            assertEquals(name + " created wrong amount of samples", 600, samples.length);
+            for (double sample : samples)
+                assertTrue(name + " created a sample out of the unit square", sample >= 0 && sample < 1);
+            // TC02: the same seed gives the same samples and another seed gives other samples
+            assertArrayEquals(name + " is not deterministic", samples, sampler.getSamples(7, 300), 0);
+            assertTrue(name + " ignores the seed", samples[0] != sampler.getSamples(8, 300)[0]);
+            // TC03: the samples cover the square evenly - every quarter gets about a quarter of 64 samples
+            double[] sixtyFour = sampler.getSamples(7, 64);
+            int[] quarters = new int[4];
+            for (int i = 0; i < 64; i++)
+                quarters[(sixtyFour[2 * i] < 0.5 ? 0 : 1) + (sixtyFour[2 * i + 1] < 0.5 ? 0 : 2)]++;
+            for (int quarter : quarters)
+                assertTrue(name + " clumps the samples", quarter >= 10 && quarter <= 22);
+        }
+
+        // =============== Boundary Values Tests ==================
+        for (Sampler sampler : _samplers) {
+            String name = sampler.getClass().getSimpleName();
+            // TC11: no samples
+            assertEquals(name + " created samples for 0", 0, sampler.getSamples(7, 0).length);
+            // TC12: one sample
+            assertEquals(name + " created wrong amount of samples for 1", 2, sampler.getSamples(7, 1).length);
+        }
+    }
+
+    /**
+     * Test method for {@link primitives.Sampler#getSample(long, int)}.
+     */
+    @Test
+    public void testGetSample() {
+        // ============ Equivalence Partitions Tests ==============
+        for (Sampler sampler : _samplers) {
+            String name = sampler.getClass().getSimpleName();
+            // TC01: the samples are in the unit square and depend only on the seed and the index
+            for (int i = 0; i < 300; i++) {
+                double[] sample = sampler.getSample(7, i);
+                assertEquals(name + " created a sample of wrong size", 2, sample.length);
+                assertTrue(name + " created a sample out of the unit square",
+                        sample[0] >= 0 && sample[0] < 1 && sample[1] >= 0 && sample[1] < 1);
+                assertArrayEquals(name + " is not deterministic", sample, sampler.getSample(7, i), 0);
+            }
+            // TC02: the first 16 samples of a seed are one in every cell of a 4 x 4 grid for the stratified samplers
+            if (sampler instanceof StratifiedSampler || sampler instanceof SobolSampler) {
+                boolean[] cells = new boolean[16];
+                for (int i = 0; i < 16; i++) {
+                    double[] sample = sampler.getSample(7, i);
+                    cells[(int) (sample[0] * 4) + 4 * (int) (sample[1] * 4)] = true;
+                }
+                for (boolean cell : cells)
+                    assertTrue(name + " does not stratify the sequence of a seed", cell);
+            }
+        }
+        // TC03: the samplers of a fixed sequence give the same samples one at a time as all together
+        for (Sampler sampler : new Sampler[]{new HaltonSampler(), new SobolSampler(), new BlueNoiseSampler()}) {
+            double[] samples = sampler.getSamples(7, 300);
+            for (int i = 0; i < 300; i++)
+                assertArrayEquals(sampler.getClass().getSimpleName() + " gives another sequence one at a time",
+                        new double[]{samples[2 * i], samples[2 * i + 1]}, sampler.getSample(7, i), 0);
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the stratified sequence goes on past its first block
+        boolean[] cells = new boolean[16];
+        for (int i = 16; i < 32; i++) {
+            double[] sample = new StratifiedSampler().getSample(3, i);
+            cells[(int) (sample[0] * 4) + 4 * (int) (sample[1] * 4)] = true;
+        }
+        for (boolean cell : cells)
+            assertTrue("StratifiedSampler does not stratify the second block", cell);
+    }
+
+    /**
+     * Test method for {@link primitives.StratifiedSampler#getSamples(long, int)}.
+     */
+    @Test
+    public void testStratified() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: every cell of the grid gets exactly one sample
+        double[] samples = new StratifiedSampler().getSamples(3, 25);
+        boolean[] cells = new boolean[25];
+        for (int i = 0; i < 25; i++) {
+            int cell = (int) (samples[2 * i] * 5) + 5 * (int) (samples[2 * i + 1] * 5);
+            assertFalse("two samples in the same cell", cells[cell]);
+            cells[cell] = true;
+        }
+    }
+
+    /**
+     * Test method for {@link primitives.SobolSampler#getSamples(long, int)}.
+     */
+    @Test
+    public void testSobol() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: every block of 16 samples has one sample in every 4x4 cell, 16x1 column and 1x16 row
+        double[] samples = new SobolSampler().getSamples(5, 32);
+        for (int block = 0; block < 2; block++) {
+            boolean[] cells = new boolean[16], columns = new boolean[16], rows = new boolean[16];
+            for (int i = 16 * block; i < 16 * block + 16; i++) {
+                double u = samples[2 * i], v = samples[2 * i + 1];
+                int cell = (int) (u * 4) + 4 * (int) (v * 4);
+                assertFalse("two samples in the same cell", cells[cell]);
+                assertFalse("two samples in the same column", columns[(int) (u * 16)]);
+                assertFalse("two samples in the same row", rows[(int) (v * 16)]);
+                cells[cell] = columns[(int) (u * 16)] = rows[(int) (v * 16)] = true;
+            }
+        }
+    }
+
+    /**
+     * Test method for {@link primitives.BlueNoiseSampler#getSamples(long, int)}.
+     */
+    @Test
+    public void testBlueNoise() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: no two samples of the set are close to each other (uniform random samples would be much closer)
+        double[] samples = new BlueNoiseSampler().getSamples(11, 64);
+        double closest = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < 64; i++)
+            for (int j = i + 1; j < 64; j++) {
+                double du = Math.abs(samples[2 * i] - samples[2 * j]);
+                double dv = Math.abs(samples[2 * i + 1] - samples[2 * j + 1]);
+                du = Math.min(du, 1 - du);
+                dv = Math.min(dv, 1 - dv);
+                closest = Math.min(closest, Math.sqrt(du * du + dv * dv));
+            }
+        assertTrue("blue noise samples are too close " + closest, closest > 0.06);
+    }
+}
@@ -0,0 +1,200 @@
+package unittests;
+
+import elements.*;
+import geometries.BvhStatistics;
+import geometries.Geometries;
+import geometries.Intersectable.GeoPoint;
+import geometries.Sphere;
+import org.junit.Test;
+import parser.SceneCache;
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+import scene.Scene;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for parser.SceneCache class
+ */
+public class SceneCacheTests {
+    /**
+     * a scene with all the kinds of geometries and lights, and a mesh from the file square.obj
+     */
+    private static final String XML = "<scene name=\"cached\" background-color=\"75 127 190\" screen-distance=\"100\">\n"
+            + "  <image screen-width=\"500\" screen-height=\"400\" Nx=\"50\" Ny=\"40\"/>\n"
+            + "  <camera P0=\"0 0 -1000\" Vto=\"0 0 1\" Vup=\"0 -1 0\"/>\n"
+            + "  <ambient-light color=\"255 191 191\" ka=\"0.5\"/>\n"
+            + "  <geometries>\n"
+            + "    <sphere center=\"0 0 100\" radius=\"50\" emission=\"300 20 30\" kD=\"0.5\" kS=\"0.5\" nShininess=\"30\"/>\n"
+            + "    <triangle p0=\"100 0 100\" p1=\"0 100 100\" p2=\"100 100 100\" kT=\"0.5\"/>\n"
+            + "    <plane point=\"0 0 500\" normal=\"0 0 1\"/>\n"
+            + "    <polygon vertices=\"-100 -100 200  -90 -100 200  -90 -90 200  -100 -90 200\"/>\n"
+            + "    <tube head=\"-50 0 0\" direction=\"0 1 0\" radius=\"5\"/>\n"
+            + "    <cylinder head=\"50 -50 0\" direction=\"0 1 0\" radius=\"5\" height=\"20\" kR=\"1\"/>\n"
+            + "    <mesh file=\"square.obj\" kD=\"0.2\"/>\n"
+            + "  </geometries>\n"
+            + "  <lights>\n"
+            + "    <directional-light intensity=\"100 100 100\" direction=\"1 1 1\"/>\n"
+            + "    <point-light intensity=\"100 100 100\" position=\"0 0 0\" kL=\"0.001\" radius=\"5\"/>\n"
+            + "    <spot-light intensity=\"100 100 100\" position=\"0 0 0\" direction=\"0 0 1\" kC=\"2\"/>\n"
+            + "    <improved-spot-light intensity=\"100 100 100\" position=\"0 0 0\" direction=\"0 0 1\""
+            + " concentration=\"4\"/>\n"
+            + "  </lights>\n"
+            + "</scene>\n";
+
+    /**
+     * creates a directory with the scene and its mesh, that is deleted when the tests end.
+     *
+     * @return the path of the XML file
+     * @throws IOException In case writing the files failed
+     */
+    private Path sceneFile() throws IOException {
+        Path directory = Files.createTempDirectory("scene");
+        Path xml = directory.resolve("scene.xml");
+        Files.writeString(directory.resolve("square.obj"), "v 150 150 300\nv 250 150 300\nv 250 250 300\n"
+                + "v 150 250 300\nf 1 2 3 4\n");
+        Files.writeString(xml, XML);
+        for (String name : new String[]{"scene.xml", "square.obj", "scene.xml.cache"})
+            directory.resolve(name).toFile().deleteOnExit();
+        directory.toFile().deleteOnExit();
+        return xml;
+    }
+
+    /**
+     * checks that two scenes have the same values and that random rays hit their geometries at the same points.
+     *
+     * @param expected the scene parsed from the XML file
+     * @param actual   the scene read from the cache file
+     */
+    private void assertSameScene(Scene expected, Scene actual) {
+        assertEquals("wrong name", expected.get_name(), actual.get_name());
+        assertEquals("wrong background", expected.get_background().getColor(), actual.get_background().getColor());
+        assertEquals("wrong distance", expected.get_distance(), actual.get_distance(), 0);
+        assertEquals("wrong ambient light", expected.get_ambientLight().get_intensity().getColor(),
+                actual.get_ambientLight().get_intensity().getColor());
+        assertEquals("wrong camera", expected.get_camera().get_p0(), actual.get_camera().get_p0());
+        assertEquals("wrong camera", expected.get_camera().get_Vright(), actual.get_camera().get_Vright());
+        assertEquals("wrong amount of lights", expected.get_lights().size(), actual.get_lights().size());
+        for (int i = 0; i < expected.get_lights().size(); i++) {
+            LightSource light = expected.get_lights().get(i);
+            assertEquals("wrong light", light.getClass(), actual.get_lights().get(i).getClass());
+            Point3D point = new Point3D(10, 20, 30);
+            assertEquals("wrong light", light.getIntensity(point).getColor(),
+                    actual.get_lights().get(i).getIntensity(point).getColor());
+        }
+
+        Random random = new Random(7);
+        for (int i = 0; i < 1000; i++) {
+            Ray ray = new Ray(new Point3D(0, 0, -1000), new Vector(random.nextDouble() - 0.5,
+                    random.nextDouble() - 0.5, 1));
+            GeoPoint a = expected.get_geometries().findClosestIntersection(ray, Double.POSITIVE_INFINITY);
+            GeoPoint b = actual.get_geometries().findClosestIntersection(ray, Double.POSITIVE_INFINITY);
+            assertEquals("ray " + i + " hit a different geometry", a == null, b == null);
+            if (a == null)
+                continue;
+            assertEquals("ray " + i + " hit a different point", a.point, b.point);
+            assertEquals("ray " + i + " hit a different geometry", a.geometry.getClass(), b.geometry.getClass());
+            assertEquals("ray " + i + " hit a different geometry", a.geometry.get_material().get_kD(),
+                    b.geometry.get_material().get_kD(), 0);
+            assertEquals("ray " + i + " hit a different geometry", a.geometry.get_emission().getColor(),
+                    b.geometry.get_emission().getColor());
+        }
+    }
+
+    /**
+     * Test method for {@link parser.SceneCache#SceneCache(Path, Geometries.BvhType)}.
+     *
+     * @throws IOException In case writing or reading the files failed
+     */
+    @Test
+    public void testSceneCache() throws IOException {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: first load parses the scene and writes the cache, second load reads the same scene from the cache
+        Path xml = sceneFile();
+        SceneCache parsed = new SceneCache(xml, Geometries.BvhType.FLAT_SAH);
+        assertFalse("scene without a cache file was read from the cache", parsed.isFromCache());
+        assertTrue("cache file was not written", Files.isRegularFile(parsed.get_cacheFile()));
+        assertNull("written cache file has an error", parsed.get_writeError());
+        SceneCache cached = new SceneCache(xml, Geometries.BvhType.FLAT_SAH);
+        assertTrue("scene was not read from the cache", cached.isFromCache());
+        assertEquals("wrong Nx", 50, cached.get_nX());
+        assertEquals("wrong Ny", 40, cached.get_nY());
+        assertEquals("wrong image width", 500, cached.get_imageWidth(), 0);
+        assertEquals("wrong image height", 400, cached.get_imageHeight(), 0);
+        assertSameScene(parsed.get_scene(), cached.get_scene());
+
+        // TC02: tree of another type
+        parsed = new SceneCache(xml, Geometries.BvhType.SAH);
+        assertFalse("scene of another tree was read from the cache", parsed.isFromCache());
+        cached = new SceneCache(xml, Geometries.BvhType.SAH);
+        assertTrue("scene was not read from the cache", cached.isFromCache());
+        assertSameScene(parsed.get_scene(), cached.get_scene());
+
+        // TC03: changed XML file
+        Files.writeString(xml, XML.replace("radius=\"50\"", "radius=\"60\""));
+        parsed = new SceneCache(xml, Geometries.BvhType.SAH);
+        assertFalse("changed scene was read from the cache", parsed.isFromCache());
+        assertEquals("wrong closest point", new Point3D(0, 0, 40), parsed.get_scene().get_geometries()
+                .findClosestIntersection(new Ray(new Point3D(0, 0, -1000), new Vector(0, 0, 1)),
+                        Double.POSITIVE_INFINITY).point);
+
+        // TC04: changed mesh file
+        Files.writeString(xml.resolveSibling("square.obj"), "v 150 150 300\nv 250 150 300\nv 250 250 300\nf 1 2 3\n");
+        assertFalse("scene with a changed mesh was read from the cache",
+                new SceneCache(xml, Geometries.BvhType.SAH).isFromCache());
+
+        // TC05: tree read from the cache is changed and built again like the tree built after parsing
+        StringBuilder spheres = new StringBuilder("<geometries>\n");
+        for (int i = 0; i < 200; i++)
+            spheres.append("    <sphere center=\"").append(i % 20 * 20 - 200).append(' ').append(i / 20 * 20 - 100)
+                    .append(" 300\" radius=\"5\"/>\n");
+        xml = sceneFile();
+        Files.writeString(xml, XML.replace("<geometries>\n", spheres.toString()));
+        parsed = new SceneCache(xml, Geometries.BvhType.FLAT_SAH);
+        cached = new SceneCache(xml, Geometries.BvhType.FLAT_SAH);
+        assertTrue("scene was not read from the cache", cached.isFromCache());
+        BvhStatistics statistics = cached.get_scene().get_bvhStatistics();
+        assertNotNull("statistics of the tree were not read", statistics);
+        assertEquals("wrong type of tree", Geometries.BvhType.FLAT_SAH, statistics.get_type());
+        assertEquals("wrong amount of nodes", parsed.get_scene().get_bvhStatistics().get_nodes(),
+                statistics.get_nodes());
+        Ray ray = new Ray(new Point3D(0, 250, -1000), new Vector(0, 0, 1));
+        for (SceneCache loaded : new SceneCache[]{parsed, cached}) {
+            loaded.get_scene().get_geometries().insert(new Sphere(5, new Point3D(0, 250, 0)));
+            assertEquals("inserted sphere was not hit", new Point3D(0, 250, -5), loaded.get_scene().get_geometries()
+                    .findClosestIntersection(ray, Double.POSITIVE_INFINITY).point);
+        }
+        BvhStatistics rebuilt = cached.get_scene().build_bvhTree(Geometries.BvhType.FLAT_SAH);
+        assertEquals("tree read from the cache was not built again from its leaves", 208, rebuilt.get_leaves());
+        assertEquals("tree read from the cache was built differently",
+                parsed.get_scene().build_bvhTree(Geometries.BvhType.FLAT_SAH).get_nodes(), rebuilt.get_nodes());
+
+        // =============== Boundary Values Tests ==================
+        // TC11: cache file that was cut in the middle
+        byte[] cache = Files.readAllBytes(parsed.get_cacheFile());
+        Files.write(parsed.get_cacheFile(), java.util.Arrays.copyOf(cache, cache.length / 2));
+        parsed = new SceneCache(xml, Geometries.BvhType.SAH);
+        assertFalse("cut cache file was read", parsed.isFromCache());
+        assertEquals("wrong amount of lights", 4, parsed.get_scene().get_lights().size());
+        assertTrue("cut cache file was not written again", new SceneCache(xml, Geometries.BvhType.SAH).isFromCache());
+
+        // TC12: cache file that can not be written, the scene is still loaded and the error is kept
+        xml = sceneFile();
+        Path blocked = xml.resolveSibling("scene.xml.cache");
+        Files.createDirectory(blocked);
+        Files.writeString(blocked.resolve("file"), "");
+        blocked.resolve("file").toFile().deleteOnExit();
+        parsed = new SceneCache(xml, Geometries.BvhType.SAH);
+        assertFalse("scene was read from a directory", parsed.isFromCache());
+        assertNotNull("error writing the cache file was not kept", parsed.get_writeError());
+        assertEquals("wrong amount of lights", 4, parsed.get_scene().get_lights().size());
+        assertFalse("scene was read from a cache file that was not written",
+                new SceneCache(xml, Geometries.BvhType.SAH).isFromCache());
+    }
+}
@@ -0,0 +1,118 @@
+package unittests;
+
+import elements.*;
+import org.junit.Test;
+import parser.SceneParser;
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+import scene.Scene;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for parser.SceneParser class
+ */
+public class SceneParserTests {
+
+    /**
+     * parses a scene from the text of a document.
+     *
+     * @param xml the document
+     * @return the parser after parsing the document
+     * @throws IOException In case reading the document failed
+     */
+    private SceneParser parse(String xml) throws IOException {
+        return new SceneParser(new ByteArrayInputStream(xml.getBytes()), "test.xml", null);
+    }
+
+    /**
+     * checks that parsing a document fails with an error in a line.
+     *
+     * @param xml  the document
+     * @param line the line of the error
+     * @return the error
+     * @throws IOException In case reading the document failed
+     */
+    private IllegalArgumentException assertError(String xml, int line) throws IOException {
+        try {
+            parse(xml);
+            fail("bad document was parsed");
+            return null;
+        } catch (IllegalArgumentException e) {
+            assertTrue("wrong line in error: " + e.getMessage(), e.getMessage().startsWith("test.xml:" + line + ":"));
+            return e;
+        }
+    }
+
+    /**
+     * Test method for {@link parser.SceneParser#SceneParser(java.io.InputStream, String, java.nio.file.Path)}.
+     *
+     * @throws IOException In case reading the document failed
+     */
+    @Test
+    public void testSceneParser() throws IOException {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: scene with all the kinds of geometries and lights
+        SceneParser parser = parse("<?xml version=\"1.0\"?>\n"
+                + "<scene name=\"all\" background-color=\"75 127 190\" screen-distance=\"100\">\n"
+                + "  <image screen-width=\"500\" screen-height=\"400\" Nx=\"50\" Ny=\"40\"/>\n"
+                + "  <camera P0=\"0 0 0\" Vto=\"0 0 1\" Vup=\"0 -1 0\"/>\n"
+                + "  <ambient-light color=\"255 191 191\" ka=\"0.5\"/>\n"
+                + "  <geometries>\n"
+                + "    <sphere center=\"0 0 100\" radius=\"50\" emission=\"10 20 30\" kD=\"0.5\" kS=\"0.5\" nShininess=\"30\"/>\n"
+                + "    <triangle p0=\"100 0 100\" p1=\"0 100 100\" p2=\"100 100 100\" kT=\"0.5\"/>\n"
+                + "    <plane point=\"0 0 500\" normal=\"0 0 1\"/>\n"
+                + "    <plane p0=\"0 0 600\" p1=\"1 0 600\" p2=\"0 1 600\" kR=\"1\"/>\n"
+                + "    <polygon vertices=\"0 0 200  10 0 200  10 10 200  0 10 200\"/>\n"
+                + "    <tube head=\"0 0 0\" direction=\"0 1 0\" radius=\"5\"/>\n"
+                + "    <cylinder head=\"0 0 0\" direction=\"0 1 0\" radius=\"5\" height=\"20\"/>\n"
+                + "  </geometries>\n"
+                + "  <lights>\n"
+                + "    <directional-light intensity=\"100 100 100\" direction=\"1 1 1\"/>\n"
+                + "    <point-light intensity=\"100 100 100\" position=\"0 0 0\" kL=\"0.001\" radius=\"5\"/>\n"
+                + "    <spot-light intensity=\"100 100 100\" position=\"0 0 0\" direction=\"0 0 1\" kC=\"2\"/>\n"
+                + "    <improved-spot-light intensity=\"100 100 100\" position=\"0 0 0\" direction=\"0 0 1\""
+                + " concentration=\"4\"/>\n"
+                + "  </lights>\n"
+                + "</scene>\n");
+        Scene scene = parser.get_scene();
+        assertEquals("wrong name", "all", scene.get_name());
+        assertEquals("wrong background", new java.awt.Color(75, 127, 190), scene.get_background().getColor());
+        assertEquals("wrong distance", 100, scene.get_distance(), 0);
+        assertEquals("wrong ambient light", new java.awt.Color(127, 95, 95),
+                scene.get_ambientLight().get_intensity().getColor());
+        assertEquals("wrong image width", 500, parser.get_imageWidth(), 0);
+        assertEquals("wrong image height", 400, parser.get_imageHeight(), 0);
+        assertEquals("wrong Nx", 50, parser.get_nX());
+        assertEquals("wrong Ny", 40, parser.get_nY());
+        assertEquals("wrong amount of geometries", 7, scene.get_geometries().getListSize());
+        assertEquals("wrong amount of lights", 4, scene.get_lights().size());
+        assertEquals("wrong light", ImprovedSpotLight.class, scene.get_lights().get(3).getClass());
+        assertEquals("wrong closest geometry", new Point3D(0, 0, 50), scene.get_geometries()
+                .findClosestIntersection(new Ray(new Point3D(0, 0, 10), new Vector(0, 0, 1)), Double.POSITIVE_INFINITY)
+                .point);
+
+        // =============== Boundary Values Tests ==================
+        // TC11: unknown element
+        assertError("<scene screen-distance=\"100\">\n<geometries>\n<cube/>\n</geometries>\n</scene>", 3);
+        // TC12: missing attribute
+        assertError("<scene screen-distance=\"100\">\n<geometries>\n\n<sphere center=\"0 0 0\"/>\n</geometries>\n</scene>",
+                4);
+        // TC13: point without 3 numbers
+        assertError("<scene screen-distance=\"100\">\n<camera P0=\"0 0\" Vto=\"0 0 1\" Vup=\"0 -1 0\"/>\n</scene>", 2);
+        // TC14: geometry that can not be created
+        assertNotNull("cause of the error was lost", assertError(
+                "<scene screen-distance=\"100\">\n<sphere center=\"0 0 0\" radius=\"-1\"/>\n</scene>", 2).getCause());
+        // TC15: document that is not valid XML
+        assertError("<scene screen-distance=\"100\">\n<geometries>\n</scene>", 3);
+        // TC16: root element that is not a scene
+        assertError("<geometries/>", 1);
+        // TC17: mesh file that can not be read, the error keeps the exception of reading it
+        assertTrue("cause of the error was lost", assertError("<scene screen-distance=\"100\">\n<geometries>\n"
+                + "<mesh file=\"no such mesh.obj\"/>\n</geometries>\n</scene>", 3).getCause() instanceof IOException);
+    }
+}
@@ -0,0 +1,65 @@
+package unittests;
+
+import org.junit.Test;
+import renderer.StreamingImageWriter;
+import renderer.Tile;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+/**
+ * test class for renderer.StreamingImageWriter.
+ */
+public class StreamingImageWriterTest {
+    /**
+     * header of the ppm file of a 20x10 image
+     */
+    private static final String HEADER = "P6\n20 10\n255\n";
+
+    /**
+     * Test method for {@link renderer.StreamingImageWriter#writeTile(Tile, int[])}.
+     *
+     * @throws IOException In case writing or reading the file failed
+     */
+    @Test
+    public void testWriteTile() throws IOException {
+        StreamingImageWriter imageWriter = new StreamingImageWriter("streaming test", 200, 100, 20, 10);
+        Path file = Path.of(System.getProperty("user.dir"), "images", "streaming test.ppm");
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the file has the full size before the pixels are written
+        assertEquals("wrong size of file", HEADER.length() + 20 * 10 * 3, Files.size(file));
+
+        // TC02: the pixels of a tile are in their places and the rest is black
+        int[] rgb = new int[4 * 3];
+        for (int i = 0; i < rgb.length; i++)
+            rgb[i] = i % 2 == 0 ? Color.GREEN.getRGB() : Color.MAGENTA.getRGB();
+        imageWriter.writeTile(new Tile(16, 7, 4, 3), rgb);
+        imageWriter.writePixel(0, 0, Color.BLUE);
+        imageWriter.writeToImage();
+        byte[] bytes = Files.readAllBytes(file);
+        assertEquals("wrong header", HEADER, new String(bytes, 0, HEADER.length()));
+        assertEquals("wrong pixel of the tile", Color.GREEN, pixel(bytes, 16, 7));
+        assertEquals("wrong pixel of the tile", Color.MAGENTA, pixel(bytes, 17, 8));
+        assertEquals("wrong pixel of the tile", Color.MAGENTA, pixel(bytes, 19, 9));
+        assertEquals("wrong pixel", Color.BLUE, pixel(bytes, 0, 0));
+        assertEquals("pixel outside the tile was written", Color.BLACK, pixel(bytes, 15, 7));
+        assertEquals("pixel outside the tile was written", Color.BLACK, pixel(bytes, 16, 6));
+    }
+
+    /**
+     * reads a pixel from the bytes of the ppm file of a 20x10 image.
+     *
+     * @param bytes the bytes of the file
+     * @param x     X axis index of the pixel
+     * @param y     Y axis index of the pixel
+     * @return the color of the pixel
+     */
+    private Color pixel(byte[] bytes, int x, int y) {
+        int position = HEADER.length() + (y * 20 + x) * 3;
+        return new Color(bytes[position] & 0xFF, bytes[position + 1] & 0xFF, bytes[position + 2] & 0xFF);
+    }
+}
@@ -0,0 +1,232 @@
+package unittests;
+
+import geometries.*;
+import org.junit.Test;
+import primitives.*;
+
+import java.util.List;
+
+import static geometries.Intersectable.GeoPoint;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for geometries.TriangleMesh class
+ */
+public class TriangleMeshTests {
+    /**
+     * vertices of a square of 2 triangles in the plane z=1, from (0,0) to (2,2)
+     */
+    private final double[] _square = {0, 0, 1, 2, 0, 1, 2, 2, 1, 0, 2, 1};
+    /**
+     * the 2 triangles of the square, sharing the diagonal from (0,0) to (2,2)
+     */
+    private final int[] _squareIndices = {0, 1, 2, 0, 2, 3};
+
+    /**
+     * creates a mesh of a grid of squares in the plane z=0, each made of 2 triangles.
+     *
+     * @param size amount of squares in each row and column
+     * @return the mesh
+     */
+    private TriangleMesh grid(int size) {
+        double[] positions = new double[3 * (size + 1) * (size + 1)];
+        for (int y = 0; y <= size; y++)
+            for (int x = 0; x <= size; x++) {
+                positions[3 * (y * (size + 1) + x)] = x;
+                positions[3 * (y * (size + 1) + x) + 1] = y;
+            }
+        int[] indices = new int[6 * size * size];
+        int i = 0;
+        for (int y = 0; y < size; y++)
+            for (int x = 0; x < size; x++) {
+                int corner = y * (size + 1) + x;
+                indices[i++] = corner;
+                indices[i++] = corner + 1;
+                indices[i++] = corner + size + 2;
+                indices[i++] = corner;
+                indices[i++] = corner + size + 2;
+                indices[i++] = corner + size + 1;
+            }
+        return new TriangleMesh(new Material(0, 0, 0, 0.5, 0), Color.BLACK, positions, indices);
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#TriangleMesh(Material, Color, double[], int[], double[])}.
+     */
+    @Test
+    public void testConstructor() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the mesh keeps all the vertices and triangles and its box holds them
+        TriangleMesh mesh = grid(10);
+        assertEquals("wrong amount of triangles", 200, mesh.getTrianglesCount());
+        assertEquals("wrong amount of vertices", 121, mesh.getVerticesCount());
+
+        // =============== Boundary Values Tests ==================
+        // TC11: index that is not of a vertex
+        try {
+            new TriangleMesh(_square, new int[]{0, 1, 4});
+            fail("mesh with index out of the vertices was created");
+        } catch (IllegalArgumentException e) {
+        }
+        // TC12: no triangles
+        try {
+            new TriangleMesh(_square, new int[0]);
+            fail("mesh without triangles was created");
+        } catch (IllegalArgumentException e) {
+        }
+        // TC13: part of a triangle
+        try {
+            new TriangleMesh(_square, new int[]{0, 1});
+            fail("mesh with part of a triangle was created");
+        } catch (IllegalArgumentException e) {
+        }
+        // TC14: not a normal for every vertex
+        try {
+            new TriangleMesh(new Material(0, 0, 0), Color.BLACK, _square, _squareIndices, new double[]{0, 0, 1});
+            fail("mesh with missing normals was created");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#getNormal(Point3D)}.
+     */
+    @Test
+    public void testGetNormal() {
+        TriangleMesh mesh = new TriangleMesh(_square, _squareIndices);
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: normal of the triangles
+        assertEquals("wrong normal of the mesh", new Vector(0, 0, 1), mesh.getNormal(new Point3D(1.5, 0.5, 1)));
+        // TC02: normals of the vertices are interpolated
+        double[] normals = {0, 0, 1, 1, 0, 0, 1, 0, 0, 0, 0, 1};
+        mesh = new TriangleMesh(new Material(0, 0, 0), Color.BLACK, _square, _squareIndices, normals);
+        Ray ray = new Ray(new Point3D(1, 0.5, 0), new Vector(0, 0, 1));
+        GeoPoint point = mesh.findClosestIntersection(ray, Double.POSITIVE_INFINITY);
+        assertEquals("wrong interpolated normal", new Vector(1, 0, 1).normalize(), point.geometry.getNormal(point.point));
+
+        // =============== Boundary Values Tests ==================
+        // TC11: point that is not on the mesh
+        try {
+            mesh.getNormal(new Point3D(3, 3, 1));
+            fail("normal of a point out of the mesh was calculated");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#findIntersections(Ray, double)}.
+     */
+    @Test
+    public void testFindIntersections() {
+        TriangleMesh mesh = new TriangleMesh(_square, _squareIndices);
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: ray through a triangle (1 point)
+        List<GeoPoint> result = mesh.findIntersections(new Ray(new Point3D(1.5, 0.5, 0), new Vector(0, 0, 1)));
+        assertEquals("wrong amount of points", 1, result.size());
+        assertEquals("wrong point", new Point3D(1.5, 0.5, 1), result.get(0).point);
+        // TC02: ray outside of the mesh (0 points)
+        assertNull("ray outside the mesh intersected it",
+                mesh.findIntersections(new Ray(new Point3D(3, 0.5, 0), new Vector(0, 0, 1))));
+        // TC03: the mesh is behind the head of the ray (0 points)
+        assertNull("mesh behind the ray intersected it",
+                mesh.findIntersections(new Ray(new Point3D(1.5, 0.5, 2), new Vector(0, 0, 1))));
+        // TC04: the mesh is further then the max distance (0 points)
+        assertNull("mesh further then max distance intersected it",
+                mesh.findIntersections(new Ray(new Point3D(1.5, 0.5, 0), new Vector(0, 0, 1)), 0.5));
+
+        // =============== Boundary Values Tests ==================
+        // TC11: ray parallel to the mesh (0 points)
+        assertNull("parallel ray intersected the mesh",
+                mesh.findIntersections(new Ray(new Point3D(-1, 1, 1), new Vector(1, 0, 0))));
+        // TC12: ray through the edge shared by the triangles hits at the same point
+        result = mesh.findIntersections(new Ray(new Point3D(1, 1, 0), new Vector(0, 0, 1)));
+        assertNotNull("ray through the shared edge missed the mesh", result);
+        for (GeoPoint p : result)
+            assertEquals("wrong point on the shared edge", new Point3D(1, 1, 1), p.point);
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#findClosestIntersection(Ray, double)}.
+     */
+    @Test
+    public void testFindClosestIntersection() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the closest of 2 meshes in Geometries, built into a bvh tree, is the one in front
+        TriangleMesh back = grid(20);
+        TriangleMesh front = new TriangleMesh(new double[]{-1, -1, -1, 30, -1, -1, -1, 30, -1}, new int[]{0, 1, 2});
+        Geometries geometries = new Geometries();
+        geometries.add(back, front);
+        geometries.bvhTree(Geometries.BvhType.FLAT_SAH);
+        Ray ray = new Ray(new Point3D(3.3, 4.6, -5), new Vector(0, 0, 1));
+        GeoPoint closest = geometries.findClosestIntersection(ray, Double.POSITIVE_INFINITY);
+        assertEquals("wrong closest point", new Point3D(3.3, 4.6, -1), closest.point);
+        assertSame("wrong mesh of the closest point", front, ((TriangleMesh.Face) closest.geometry).get_mesh());
+        // TC02: the closest point of a grid is on the face holding it
+        closest = back.findClosestIntersection(ray, Double.POSITIVE_INFINITY);
+        assertEquals("wrong closest point of the grid", new Point3D(3.3, 4.6, 0), closest.point);
+        assertEquals("wrong normal of the face", new Vector(0, 0, 1), closest.geometry.getNormal(closest.point));
+        // TC03: a face is the same face as itself but not as another face
+        assertEquals("same face is not equal", closest,
+                back.findClosestIntersection(new Ray(new Point3D(3.3, 4.6, -1), new Vector(0, 0, 1)),
+                        Double.POSITIVE_INFINITY));
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#setVertices(double[], double[])}.
+     */
+    @Test
+    public void testSetVertices() {
+        TriangleMesh mesh = grid(10);
+        double[] positions = new double[3 * 11 * 11];
+        for (int i = 0; i < positions.length; i += 3) {
+            positions[i] = i / 3 % 11;
+            positions[i + 1] = i / 3 / 11;
+            positions[i + 2] = 5 + positions[i];
+        }
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the triangles and the box of the mesh move with the vertices
+        mesh.setVertices(positions, null);
+        GeoPoint point = mesh.findClosestIntersection(new Ray(new Point3D(8.5, 2.5, -1), new Vector(0, 0, 1)),
+                Double.POSITIVE_INFINITY);
+        assertEquals("wrong point after moving the vertices", new Point3D(8.5, 2.5, 13.5), point.point);
+        assertNull("mesh is found in its old place", mesh.findClosestIntersection(
+                new Ray(new Point3D(8.5, 2.5, -1), new Vector(0, 0, 1)), 10));
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the amount of vertices can not change
+        try {
+            mesh.setVertices(new double[]{0, 0, 0}, null);
+            fail("amount of vertices was changed");
+        } catch (IllegalArgumentException e) {
+        }
+        // TC12: normals can not be given to a mesh that uses the normals of the triangles
+        try {
+            mesh.setVertices(positions, positions);
+            fail("normals were given to a mesh without normals");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#transmittance(Ray, double, double)}.
+     */
+    @Test
+    public void testTransmittance() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the light passes through one transparent triangle of the grid
+        TriangleMesh mesh = grid(4);
+        Ray ray = new Ray(new Point3D(1.2, 2.7, -1), new Vector(0, 0, 1));
+        assertEquals("wrong transmittance", 0.5, mesh.transmittance(ray, Double.POSITIVE_INFINITY, 0.0001), 0.0000001);
+        assertFalse("transparent mesh occludes", mesh.isOccluded(ray, Double.POSITIVE_INFINITY));
+        // TC02: opaque mesh occludes
+        TriangleMesh opaque = new TriangleMesh(_square, _squareIndices);
+        assertTrue("opaque mesh does not occlude",
+                opaque.isOccluded(new Ray(new Point3D(0.5, 1.5, 0), new Vector(0, 0, 1)), Double.POSITIVE_INFINITY));
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the mesh is further then the max distance
+        assertEquals("mesh further then max distance blocks light", 1,
+                mesh.transmittance(ray, 0.5, 0.0001), 0.0000001);
+    }
+}